@@ -0,0 +1,39 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * Brightness multiplier for geometry with baked vertex lighting
+ * Lives in the Environment; lightning flashes push it above 1 for a moment
+ */
+public class BakedLightAttribute extends Attribute {
+    
+    public static final String Alias = "bakedLight";
+    public static final long Type = register(Alias);
+    
+    public float intensity;
+    
+    public BakedLightAttribute(float intensity) {
+        super(Type);
+        this.intensity = intensity;
+    }
+    
+    @Override
+    public Attribute copy() {
+        return new BakedLightAttribute(intensity);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 953 * super.hashCode() + NumberUtils.floatToRawIntBits(intensity);
+    }
+    
+    @Override
+    public int compareTo(Attribute o) {
+        if (type != o.type) return (int)(type - o.type);
+        float other = ((BakedLightAttribute) o).intensity;
+        if (intensity != other) return intensity < other ? -1 : 1;
+        return 0;
+    }
+}
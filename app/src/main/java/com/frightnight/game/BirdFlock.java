@@ -0,0 +1,595 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.RenderableProvider;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.Pool;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A murder of crows: boids flocking (separation, alignment, cohesion) with terrain, ceiling and
+ * world-edge avoidance, drifting with the wind
+ * State is kept as parallel float arrays and double-buffered, so the steering pass only reads last
+ * frame's state and can be split across worker threads. Neighbours come from a spatial hash rebuilt
+ * every frame with a counting sort. Wingbeats are a per-bird phase animated in the vertex shader
+ * (LiteShader BIRD); on GLES 3.0 the whole flock is one instanced draw, on GLES 2.0 a small flock
+ * is drawn one bird at a time. Distant and off-screen birds are stepped less often (SimulationLod)
+ * and drawn extrapolated along their velocity in between.
+ */
+public class BirdFlock implements RenderableProvider, Disposable {
+    
+    public static final String FLAP_ATTRIBUTE = "a_flap";
+    public static final String FLAP_INSTANCE_ATTRIBUTE = "i_flap";
+    
+    private static final int MAX_UNINSTANCED = 32;       // GLES 2.0 draws one call per bird
+    private static final float NEIGHBOUR_RADIUS = 4f;    // Alignment and cohesion range (also the hash cell size)
+    private static final float SEPARATION_RADIUS = 1.4f; // Birds closer than this push apart
+    private static final int MAX_NEIGHBOURS = 12;        // Stop looking after this many, bounds the cost in dense spots
+    private static final float SEPARATION = 8f;
+    private static final float ALIGNMENT = 1.5f;
+    private static final float COHESION = 0.5f;
+    private static final float GOAL = 2f;                // Pull towards the roaming flock goal
+    private static final float AVOID = 25f;              // Steering away from the ground, ceiling and world edge
+    private static final float MAX_STEER = 18f;          // Acceleration limit
+    private static final float MIN_SPEED = 6f;
+    private static final float MAX_SPEED = 11f;
+    private static final float MAX_CLIMB = 0.5f;         // Vertical speed limit as a fraction of speed
+    private static final float MIN_CLEARANCE = 18f;      // Height above the terrain birds pull up at
+    private static final float LOOK_AHEAD = 1.5f;        // Seconds of flight checked for rising ground
+    private static final float CEILING = 60f;
+    private static final float WORLD_EXTENT = 110f;      // Birds turn back beyond this
+    private static final float GOAL_RANGE = 60f;         // The goal roams within this of the centre
+    private static final float GOAL_HEIGHT = 38f;
+    private static final float WIND_DRIFT = 0.3f;        // Fraction of the wind speed the flock is carried along
+    private static final float FLAP_RATE = 2.5f * MathUtils.PI2; // Wingbeat phase speed (radians per second)
+    private static final float BIRD_RADIUS = 2.5f;       // Bounding sphere, wings spread
+    private static final float MAX_BIRD_STEP = 0.15f;    // Longest integration substep, so a catch-up can't fling birds through the ground
+    private static final int PARALLEL_MIN_BIRDS = 256;   // Smaller flocks aren't worth the hand-off
+    private static final int FLOATS_PER_INSTANCE = 17;   // World matrix and wingbeat phase
+    
+    private static final VertexAttributes ATTRIBUTES = new VertexAttributes(
+            new VertexAttribute(VertexAttributes.Usage.Position, 3, "a_position"),
+            new VertexAttribute(VertexAttributes.Usage.Normal, 3, "a_normal"),
+            new VertexAttribute(VertexAttributes.Usage.Generic, 1, FLAP_ATTRIBUTE));
+    
+    private final TerrainSystem terrain;
+    private final int capacity;
+    private final boolean instanced;
+    
+    // Struct of arrays, double-buffered: steering reads cur* and writes next*
+    private float[] curX, curY, curZ, curVX, curVY, curVZ;
+    private float[] nextX, nextY, nextZ, nextVX, nextVY, nextVZ;
+    private final float[] phase;    // Wingbeat phase
+    private final float[] flapRate; // Per-bird wingbeat speed multiplier
+    private final float[] scale;
+    private final float[] pending;   // Time since the bird was last stepped (SimulationLod)
+    private final float[] birdDelta; // This frame's step per bird, 0 when it skips the frame
+    
+    // Spatial hash: birds sorted by cell, cellStart[h]..cellStart[h + 1] are the birds in bucket h
+    private final int hashMask;
+    private final int[] cellStart;
+    private final int[] cellBirds;
+    private final int[] birdCell;
+    
+    private final float[] instanceData; // Per-bird world matrix (column-major) and phase
+    private final float[][] wingbeats;  // GLES 2.0: per-bird phase handed to the shader via userData
+    private final Mesh mesh;
+    private final Material material;
+    private final BoundingBox bounds = new BoundingBox();
+    
+    private final ExecutorService workers;
+    private final List<Callable<Void>> slices = new ArrayList<>();
+    
+    private WindSystem wind;
+    private Camera camera;
+    private int activeCount;
+    private float stepDelta;
+    private float time = 0f;
+    private float goalX, goalY, goalZ;
+    private float updateMs = 0f;
+    private int drawnBirds = 0;
+    
+    /**
+     * Create the flock around a start point; all birds exist from the start, quality tiers only
+     * change how many are simulated and drawn
+     * @param count Birds at the highest quality tier
+     */
+    public BirdFlock(TerrainSystem terrain, int count, long seed, float startX, float startZ) {
+        this.terrain = terrain;
+        instanced = Gdx.gl30 != null;
+        capacity = instanced ? count : Math.min(count, MAX_UNINSTANCED);
+        activeCount = capacity;
+        
+        curX = new float[capacity];
+        curY = new float[capacity];
+        curZ = new float[capacity];
+        curVX = new float[capacity];
+        curVY = new float[capacity];
+        curVZ = new float[capacity];
+        nextX = new float[capacity];
+        nextY = new float[capacity];
+        nextZ = new float[capacity];
+        nextVX = new float[capacity];
+        nextVY = new float[capacity];
+        nextVZ = new float[capacity];
+        phase = new float[capacity];
+        flapRate = new float[capacity];
+        scale = new float[capacity];
+        pending = new float[capacity];
+        birdDelta = new float[capacity];
+        
+        int tableSize = MathUtils.nextPowerOfTwo(Math.max(16, capacity * 2));
+        hashMask = tableSize - 1;
+        cellStart = new int[tableSize + 1];
+        cellBirds = new int[capacity];
+        birdCell = new int[capacity];
+        
+        // Start in a loose cloud, all heading roughly the same way
+        Random random = new Random(seed);
+        float heading = random.nextFloat() * MathUtils.PI2;
+        for (int i = 0; i < capacity; i++) {
+            float angle = random.nextFloat() * MathUtils.PI2;
+            float distance = (float) Math.sqrt(random.nextFloat()) * 30f;
+            curX[i] = startX + MathUtils.cos(angle) * distance;
+            curZ[i] = startZ + MathUtils.sin(angle) * distance;
+            curY[i] = Math.max(GOAL_HEIGHT - 8f + random.nextFloat() * 16f,
+                    terrain.getHeightAt(curX[i], curZ[i]) + MIN_CLEARANCE);
+            float speed = MIN_SPEED + random.nextFloat() * (MAX_SPEED - MIN_SPEED);
+            float h = heading + (random.nextFloat() - 0.5f) * 0.8f;
+            curVX[i] = MathUtils.cos(h) * speed;
+            curVZ[i] = MathUtils.sin(h) * speed;
+            phase[i] = random.nextFloat() * MathUtils.PI2;
+            flapRate[i] = 0.85f + random.nextFloat() * 0.3f;
+            scale[i] = 0.8f + random.nextFloat() * 0.4f;
+        }
+        goalX = startX;
+        goalY = GOAL_HEIGHT;
+        goalZ = startZ;
+        
+        instanceData = new float[capacity * FLOATS_PER_INSTANCE];
+        wingbeats = instanced ? null : new float[capacity][1];
+        material = new Material(ColorAttribute.createDiffuse(0.1f, 0.1f, 0.12f, 1f)); // Dark crows
+        mesh = createMesh();
+        
+        // Workers for the steering pass; the GL thread waits for them, so leave it a core
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors() - 1);
+        if (threads > 1 && capacity >= PARALLEL_MIN_BIRDS) {
+            workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "BirdFlock");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            for (int t = 0; t < threads; t++) {
+                final int slice = t;
+                final int sliceCount = threads;
+                slices.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        steer(activeCount * slice / sliceCount, activeCount * (slice + 1) / sliceCount);
+                        return null;
+                    }
+                });
+            }
+        } else {
+            workers = null;
+        }
+        writeInstances();
+        Gdx.app.log("FrightNight", "Bird flock: " + capacity + " birds, "
+                + (instanced ? "instanced" : "one draw each") + ", " + Math.max(1, slices.size()) + " threads");
+    }
+    
+    /**
+     * One low-poly crow: body, tail and two wings; a_flap weights how far each vertex moves with the wingbeat
+     */
+    private Mesh createMesh() {
+        FloatArray v = new FloatArray();
+        // Body (octahedron, forward is -Z)
+        float[][] body = {
+            {0f, 0.02f, -0.5f}, {0f, 0f, 0.4f}, {0f, 0.14f, 0f}, {0f, -0.12f, 0f}, {-0.16f, 0f, 0f}, {0.16f, 0f, 0f}
+        };
+        int[][] faces = {{0, 2, 4}, {0, 5, 2}, {0, 4, 3}, {0, 3, 5}, {1, 4, 2}, {1, 2, 5}, {1, 3, 4}, {1, 5, 3}};
+        for (int[] f : faces) {
+            triangle(v, body[f[0]], body[f[1]], body[f[2]], true);
+        }
+        // Tail fan (two-sided)
+        float[] tailRoot = {0f, 0f, 0.3f};
+        float[] tailLeft = {-0.22f, 0f, 0.75f};
+        float[] tailRight = {0.22f, 0f, 0.75f};
+        triangle(v, tailRoot, tailLeft, tailRight, false);
+        triangle(v, tailRoot, tailRight, tailLeft, false);
+        // Wings (two-sided): root, elbow and tip
+        for (int side = -1; side <= 1; side += 2) {
+            float[] rootFront = {side * 0.12f, 0f, -0.18f};
+            float[] rootBack = {side * 0.12f, 0f, 0.18f};
+            float[] elbowFront = {side * 1.2f, 0.05f, -0.22f};
+            float[] elbowBack = {side * 1.2f, 0.05f, 0.22f};
+            float[] tip = {side * 2.4f, 0f, 0.1f};
+            float[][] wing = {rootFront, elbowFront, elbowBack, rootFront, elbowBack, rootBack, elbowFront, tip, elbowBack};
+            for (int i = 0; i < wing.length; i += 3) {
+                triangle(v, wing[i], wing[i + 1], wing[i + 2], false);
+                triangle(v, wing[i], wing[i + 2], wing[i + 1], false);
+            }
+        }
+        
+        int vertexCount = v.size / 7;
+        Mesh birdMesh = new Mesh(true, vertexCount, 0, ATTRIBUTES);
+        birdMesh.setVertices(v.toArray());
+        if (instanced) {
+            birdMesh.enableInstancedRendering(false, capacity,
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 4, "i_worldTrans0", 0),
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 4, "i_worldTrans1", 1),
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 4, "i_worldTrans2", 2),
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 4, "i_worldTrans3", 3),
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 1, FLAP_INSTANCE_ATTRIBUTE, 4));
+        }
+        return birdMesh;
+    }
+    
+    /**
+     * Flat-shaded triangle; outward ones are flipped to face away from the body centre
+     */
+    private static void triangle(FloatArray v, float[] a, float[] b, float[] c, boolean outward) {
+        float ux = b[0] - a[0], uy = b[1] - a[1], uz = b[2] - a[2];
+        float wx = c[0] - a[0], wy = c[1] - a[1], wz = c[2] - a[2];
+        float nx = uy * wz - uz * wy;
+        float ny = uz * wx - ux * wz;
+        float nz = ux * wy - uy * wx;
+        if (outward && nx * (a[0] + b[0] + c[0]) + ny * (a[1] + b[1] + c[1]) + nz * (a[2] + b[2] + c[2]) < 0f) {
+            float[] swap = b;
+            b = c;
+            c = swap;
+            nx = -nx;
+            ny = -ny;
+            nz = -nz;
+        }
+        float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        nx /= length;
+        ny /= length;
+        nz /= length;
+        for (float[] p : new float[][] {a, b, c}) {
+            float flap = Math.max(0f, Math.abs(p[0]) - 0.12f) / (2.4f - 0.12f); // 0 on the body, 1 at the tip
+            v.addAll(p[0], p[1], p[2], nx, ny, nz);
+            v.add(flap);
+        }
+    }
+    
+    /**
+     * Step the flock
+     * @param camera Used to cull at draw time
+     * @param lod Picks how often each bird is stepped; null steps every bird every frame
+     */
+    public void update(float delta, WindSystem wind, Camera camera, SimulationLod lod) {
+        long start = System.nanoTime();
+        this.wind = wind;
+        this.camera = camera;
+        if (activeCount == 0) return;
+        stepDelta = Math.min(delta, 0.1f); // Don't let a hitch fling birds through the ground
+        for (int i = 0; i < activeCount; i++) {
+            float step = lod != null
+                    ? lod.step(pending, i, lod.tierOf(curX[i], curY[i], curZ[i], BIRD_RADIUS))
+                    : stepDelta;
+            birdDelta[i] = step; // Substepped by MAX_BIRD_STEP in steer()
+        }
+        
+        // Roaming goal keeps the flock travelling across the sky
+        time += delta;
+        goalX = GOAL_RANGE * MathUtils.sin(time * 0.05f);
+        goalZ = GOAL_RANGE * MathUtils.sin(time * 0.037f + 1f);
+        
+        buildHash();
+        if (workers != null && activeCount >= PARALLEL_MIN_BIRDS) {
+            try {
+                workers.invokeAll(slices);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } else {
+            steer(0, activeCount);
+        }
+        swapBuffers();
+        writeInstances();
+        updateMs = (System.nanoTime() - start) / 1e6f;
+    }
+    
+    private int hash(int cx, int cy, int cz) {
+        return (cx * 73856093 ^ cy * 19349663 ^ cz * 83492791) & hashMask;
+    }
+    
+    private static int cellOf(float coordinate) {
+        return MathUtils.floor(coordinate / NEIGHBOUR_RADIUS);
+    }
+    
+    /**
+     * Counting sort of the birds into hash buckets
+     */
+    private void buildHash() {
+        int buckets = hashMask + 1;
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < activeCount; i++) {
+            int h = hash(cellOf(curX[i]), cellOf(curY[i]), cellOf(curZ[i]));
+            birdCell[i] = h;
+            cellStart[h]++;
+        }
+        int sum = 0;
+        for (int h = 0; h < buckets; h++) {
+            int count = cellStart[h];
+            cellStart[h] = sum;
+            sum += count;
+        }
+        cellStart[buckets] = sum;
+        for (int i = 0; i < activeCount; i++) {
+            cellBirds[cellStart[birdCell[i]]++] = i;
+        }
+        // Filling moved every start to the bucket's end; shift them back
+        for (int h = buckets - 1; h > 0; h--) {
+            cellStart[h] = cellStart[h - 1];
+        }
+        cellStart[0] = 0;
+    }
+    
+    /**
+     * Steering for birds [from, to): reads cur*, writes next* (safe to run in parallel slices)
+     */
+    private void steer(int from, int to) {
+        float neighbour2 = NEIGHBOUR_RADIUS * NEIGHBOUR_RADIUS;
+        float separation2 = SEPARATION_RADIUS * SEPARATION_RADIUS;
+        float windX = wind != null ? wind.getDirectionX() : 0f;
+        float windZ = wind != null ? wind.getDirectionZ() : 0f;
+        
+        for (int i = from; i < to; i++) {
+            float delta = birdDelta[i];
+            if (delta == 0f) {
+                // Not this bird's frame: carry its state over unchanged
+                nextX[i] = curX[i];
+                nextY[i] = curY[i];
+                nextZ[i] = curZ[i];
+                nextVX[i] = curVX[i];
+                nextVY[i] = curVY[i];
+                nextVZ[i] = curVZ[i];
+                continue;
+            }
+            float x = curX[i], y = curY[i], z = curZ[i];
+            float vx = curVX[i], vy = curVY[i], vz = curVZ[i];
+            int cx = cellOf(x), cy = cellOf(y), cz = cellOf(z);
+            
+            float sepX = 0f, sepY = 0f, sepZ = 0f;
+            float alignX = 0f, alignY = 0f, alignZ = 0f;
+            float centerX = 0f, centerY = 0f, centerZ = 0f;
+            int neighbours = 0;
+            search:
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int h = hash(cx + dx, cy + dy, cz + dz);
+                        for (int k = cellStart[h], end = cellStart[h + 1]; k < end; k++) {
+                            int j = cellBirds[k];
+                            if (j == i) continue;
+                            float ox = x - curX[j], oy = y - curY[j], oz = z - curZ[j];
+                            float d2 = ox * ox + oy * oy + oz * oz;
+                            if (d2 >= neighbour2) continue;
+                            alignX += curVX[j];
+                            alignY += curVY[j];
+                            alignZ += curVZ[j];
+                            centerX += curX[j];
+                            centerY += curY[j];
+                            centerZ += curZ[j];
+                            if (d2 < separation2 && d2 > 1e-6f) {
+                                sepX += ox / d2;
+                                sepY += oy / d2;
+                                sepZ += oz / d2;
+                            }
+                            if (++neighbours == MAX_NEIGHBOURS) break search;
+                        }
+                    }
+                }
+            }
+            
+            // Flocking from last frame's neighbours, held over every substep of this bird's delta
+            float flockX = 0f, flockY = 0f, flockZ = 0f;
+            if (neighbours > 0) {
+                float inv = 1f / neighbours;
+                flockX = (alignX * inv - vx) * ALIGNMENT + (centerX * inv - x) * COHESION + sepX * SEPARATION;
+                flockY = (alignY * inv - vy) * ALIGNMENT + (centerY * inv - y) * COHESION + sepY * SEPARATION;
+                flockZ = (alignZ * inv - vz) * ALIGNMENT + (centerZ * inv - z) * COHESION + sepZ * SEPARATION;
+            }
+            
+            // A catch-up delta from a slow LOD tier is split into short steps rather than cut short,
+            // so birds in every tier keep the same time
+            int substeps = (int) Math.ceil(delta / MAX_BIRD_STEP);
+            float h = delta / substeps;
+            for (int sub = 0; sub < substeps; sub++) {
+                float ax = flockX, ay = flockY, az = flockZ;
+                
+                // Roaming goal
+                float gx = goalX - x, gy = goalY - y, gz = goalZ - z;
+                float goalDistance = (float) Math.sqrt(gx * gx + gy * gy + gz * gz);
+                if (goalDistance > 1f) {
+                    ax += gx / goalDistance * GOAL;
+                    ay += gy / goalDistance * GOAL;
+                    az += gz / goalDistance * GOAL;
+                }
+                
+                // Terrain (here and where the bird is heading), ceiling and world edge
+                float ground = Math.max(terrain.getHeightAt(x, z),
+                        terrain.getHeightAt(x + vx * LOOK_AHEAD, z + vz * LOOK_AHEAD));
+                float clearance = y - ground;
+                if (clearance < MIN_CLEARANCE) ay += AVOID * (1f - clearance / MIN_CLEARANCE);
+                if (y > CEILING) ay -= AVOID * Math.min(1f, (y - CEILING) / 10f);
+                if (x > WORLD_EXTENT) ax -= AVOID;
+                else if (x < -WORLD_EXTENT) ax += AVOID;
+                if (z > WORLD_EXTENT) az -= AVOID;
+                else if (z < -WORLD_EXTENT) az += AVOID;
+                
+                float accel2 = ax * ax + ay * ay + az * az;
+                if (accel2 > MAX_STEER * MAX_STEER) {
+                    float s = MAX_STEER / (float) Math.sqrt(accel2);
+                    ax *= s;
+                    ay *= s;
+                    az *= s;
+                }
+                
+                vx += ax * h;
+                vy += ay * h;
+                vz += az * h;
+                float speed = (float) Math.sqrt(vx * vx + vy * vy + vz * vz);
+                float clamped = MathUtils.clamp(speed, MIN_SPEED, MAX_SPEED);
+                if (speed > 1e-4f && clamped != speed) {
+                    float s = clamped / speed;
+                    vx *= s;
+                    vy *= s;
+                    vz *= s;
+                }
+                vy = MathUtils.clamp(vy, -MAX_CLIMB * clamped, MAX_CLIMB * clamped); // Crows don't fly straight up
+                
+                float drift = wind != null ? wind.speedAt(x, z) * WIND_DRIFT : 0f;
+                x += (vx + windX * drift) * h;
+                y = Math.max(y + vy * h, ground + 1f);
+                z += (vz + windZ * drift) * h;
+            }
+            nextVX[i] = vx;
+            nextVY[i] = vy;
+            nextVZ[i] = vz;
+            nextX[i] = x;
+            nextY[i] = y;
+            nextZ[i] = z;
+        }
+    }
+    
+    private void swapBuffers() {
+        float[] t;
+        t = curX; curX = nextX; nextX = t;
+        t = curY; curY = nextY; nextY = t;
+        t = curZ; curZ = nextZ; nextZ = t;
+        t = curVX; curVX = nextVX; nextVX = t;
+        t = curVY; curVY = nextVY; nextVY = t;
+        t = curVZ; curVZ = nextVZ; nextVZ = t;
+    }
+    
+    /**
+     * Advance the wingbeats and write each bird's world matrix (basis from its velocity, no trig)
+     * Birds that skipped frames are drawn where their velocity has carried them since their last step.
+     */
+    private void writeInstances() {
+        bounds.inf();
+        for (int i = 0; i < activeCount; i++) {
+            float vx = curVX[i], vy = curVY[i], vz = curVZ[i];
+            // Flap harder climbing, glide when descending
+            float effort = MathUtils.clamp(1f + vy * 0.2f, 0.25f, 1.6f);
+            phase[i] += stepDelta * FLAP_RATE * flapRate[i] * effort;
+            if (phase[i] > MathUtils.PI2) phase[i] -= MathUtils.PI2;
+            
+            float speed = (float) Math.sqrt(vx * vx + vy * vy + vz * vz);
+            float fx = speed > 1e-4f ? vx / speed : 0f;
+            float fy = speed > 1e-4f ? vy / speed : 0f;
+            float fz = speed > 1e-4f ? vz / speed : -1f;
+            float flat = Math.max(1e-4f, (float) Math.sqrt(fx * fx + fz * fz));
+            float rx = -fz / flat, rz = fx / flat; // Right = forward x up
+            // Up = back x right
+            float ux = -fy * rz;
+            float uy = fx * rz - fz * rx;
+            float uz = fy * rx;
+            float s = scale[i];
+            float px = curX[i] + vx * pending[i];
+            float py = curY[i] + vy * pending[i];
+            float pz = curZ[i] + vz * pending[i];
+            
+            int o = i * FLOATS_PER_INSTANCE;
+            float[] m = instanceData;
+            m[o] = rx * s;      m[o + 1] = 0f;      m[o + 2] = rz * s;      m[o + 3] = 0f;
+            m[o + 4] = ux * s;  m[o + 5] = uy * s;  m[o + 6] = uz * s;  m[o + 7] = 0f;
+            m[o + 8] = -fx * s; m[o + 9] = -fy * s; m[o + 10] = -fz * s; m[o + 11] = 0f;
+            m[o + 12] = px;     m[o + 13] = py;     m[o + 14] = pz;      m[o + 15] = 1f;
+            m[o + 16] = phase[i];
+            bounds.ext(px, py, pz);
+        }
+        if (activeCount > 0) {
+            bounds.min.sub(BIRD_RADIUS);
+            bounds.max.add(BIRD_RADIUS);
+            bounds.update();
+        }
+    }
+    
+    @Override
+    public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool) {
+        drawnBirds = 0;
+        if (activeCount == 0 || camera == null || !camera.frustum.boundsInFrustum(bounds)) return;
+        
+        if (instanced) {
+            mesh.setInstanceData(instanceData, 0, activeCount * FLOATS_PER_INSTANCE);
+            Renderable renderable = pool.obtain();
+            renderable.worldTransform.idt(); // Transforms come from the instance buffer
+            renderable.material = material;
+            renderable.meshPart.set("birds", mesh, 0, mesh.getNumVertices(), GL20.GL_TRIANGLES);
+            renderable.bones = null;
+            renderable.userData = null;
+            renderables.add(renderable);
+            drawnBirds = activeCount;
+            return;
+        }
+        for (int i = 0; i < activeCount; i++) {
+            int o = i * FLOATS_PER_INSTANCE;
+            if (!camera.frustum.sphereInFrustum(instanceData[o + 12], instanceData[o + 13], instanceData[o + 14], BIRD_RADIUS)) continue;
+            Renderable renderable = pool.obtain();
+            System.arraycopy(instanceData, o, renderable.worldTransform.val, 0, 16);
+            wingbeats[i][0] = phase[i];
+            renderable.material = material;
+            renderable.meshPart.set("bird", mesh, 0, mesh.getNumVertices(), GL20.GL_TRIANGLES);
+            renderable.bones = null;
+            renderable.userData = wingbeats[i]; // LiteShader reads the wingbeat phase from here
+            renderables.add(renderable);
+            drawnBirds++;
+        }
+    }
+    
+    /**
+     * Number of birds simulated and drawn (set by the quality tier, at most the capacity)
+     */
+    public void setActiveCount(int count) {
+        activeCount = MathUtils.clamp(count, 0, capacity);
+    }
+    
+    public int getActiveCount() {
+        return activeCount;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("birds.active", activeCount);
+        metrics.set("birds.drawn", drawnBirds);
+        metrics.set("birds.ms", updateMs);
+    }
+    
+    @Override
+    public void dispose() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        mesh.dispose();
+    }
+}
@@ -0,0 +1,256 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Draws every cloud puff as a soft camera-facing billboard
+ * All puffs share one noise texture and one dynamic vertex buffer, are sorted
+ * back-to-front (insertion sort, the order barely changes between frames)
+ * and drawn in a single call
+ */
+public class CloudRenderer implements Disposable {
+    
+    private static final int FLOATS_PER_VERTEX = 6; // x, y, z, packed color, u, v
+    private static final int TEXTURE_SIZE = 64;
+    private static final float BILLBOARD_SCALE = 0.65f; // Half-width relative to puff size (soft edges)
+    private static final float FLATTEN = 0.8f;          // Clouds are wider than they are tall
+    
+    private static final String VERTEX_SHADER =
+            "attribute vec3 a_position;\n" +
+            "attribute vec4 a_color;\n" +
+            "attribute vec2 a_texCoord0;\n" +
+            "uniform mat4 u_projTrans;\n" +
+            "varying vec4 v_color;\n" +
+            "varying vec2 v_uv;\n" +
+            "void main() {\n" +
+            "    v_color = a_color;\n" +
+            "    v_uv = a_texCoord0;\n" +
+            "    gl_Position = u_projTrans * vec4(a_position, 1.0);\n" +
+            "}\n";
+    
+    private static final String FRAGMENT_SHADER =
+            "#ifdef GL_ES\nprecision mediump float;\n#endif\n" +
+            "uniform sampler2D u_texture;\n" +
+            "varying vec4 v_color;\n" +
+            "varying vec2 v_uv;\n" +
+            "void main() {\n" +
+            "    gl_FragColor = v_color * texture2D(u_texture, v_uv);\n" +
+            "}\n";
+    
+    private final Array<VolumetricCloud> clouds;
+    private final Mesh mesh;
+    private final ShaderProgram shader;
+    private final Texture puffTexture;
+    private final float[] vertices;
+    
+    // One entry per puff across all clouds
+    private final int[] puffCloud;
+    private final int[] puffIndex;
+    private final float[] puffDepth;
+    private final int[] order; // Back-to-front draw order, kept between frames
+    
+    private final Vector3 right = new Vector3();
+    private final Vector3 up = new Vector3();
+    private final Vector3 puffPos = new Vector3();
+    private int drawnPuffs = 0;
+    private int sortSwaps = 0;
+    
+    public CloudRenderer(Array<VolumetricCloud> clouds) {
+        this.clouds = clouds;
+        
+        int total = 0;
+        for (VolumetricCloud cloud : clouds) {
+            total += cloud.getPuffCount();
+        }
+        puffCloud = new int[total];
+        puffIndex = new int[total];
+        puffDepth = new float[total];
+        order = new int[total];
+        int k = 0;
+        for (int c = 0; c < clouds.size; c++) {
+            for (int p = 0; p < clouds.get(c).getPuffCount(); p++) {
+                puffCloud[k] = c;
+                puffIndex[k] = p;
+                order[k] = k;
+                k++;
+            }
+        }
+        
+        vertices = new float[total * 4 * FLOATS_PER_VERTEX];
+        mesh = new Mesh(false, total * 4, total * 6,
+                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.ColorPacked, 4, ShaderProgram.COLOR_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"));
+        short[] indices = new short[total * 6];
+        for (int i = 0, v = 0; i < indices.length; i += 6, v += 4) {
+            indices[i] = (short) v;
+            indices[i + 1] = (short) (v + 1);
+            indices[i + 2] = (short) (v + 2);
+            indices[i + 3] = (short) (v + 2);
+            indices[i + 4] = (short) (v + 3);
+            indices[i + 5] = (short) v;
+        }
+        mesh.setIndices(indices);
+        
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new IllegalStateException("Cloud shader failed: " + shader.getLog());
+        }
+        puffTexture = createPuffTexture();
+    }
+    
+    /**
+     * Soft round puff with some value noise so overlapping billboards read as cloud
+     */
+    private static Texture createPuffTexture() {
+        Pixmap pixmap = new Pixmap(TEXTURE_SIZE, TEXTURE_SIZE, Pixmap.Format.RGBA8888);
+        float[] lattice = new float[9 * 9];
+        for (int i = 0; i < lattice.length; i++) {
+            lattice[i] = MathUtils.random();
+        }
+        float half = TEXTURE_SIZE / 2f;
+        for (int y = 0; y < TEXTURE_SIZE; y++) {
+            for (int x = 0; x < TEXTURE_SIZE; x++) {
+                float dx = (x + 0.5f - half) / half;
+                float dy = (y + 0.5f - half) / half;
+                float r = (float) Math.sqrt(dx * dx + dy * dy);
+                float falloff = 1f - smoothstep(0.3f, 1f, r);
+                
+                // Bilinear value noise on an 8x8 lattice
+                float gx = x * 8f / TEXTURE_SIZE;
+                float gy = y * 8f / TEXTURE_SIZE;
+                int ix = (int) gx;
+                int iy = (int) gy;
+                float fx = gx - ix;
+                float fy = gy - iy;
+                float n0 = MathUtils.lerp(lattice[iy * 9 + ix], lattice[iy * 9 + ix + 1], fx);
+                float n1 = MathUtils.lerp(lattice[(iy + 1) * 9 + ix], lattice[(iy + 1) * 9 + ix + 1], fx);
+                float noise = MathUtils.lerp(n0, n1, fy);
+                
+                float alpha = falloff * (0.65f + 0.35f * noise);
+                pixmap.drawPixel(x, y, Color.rgba8888(1f, 1f, 1f, alpha));
+            }
+        }
+        Texture texture = new Texture(pixmap);
+        texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        pixmap.dispose();
+        return texture;
+    }
+    
+    private static float smoothstep(float edge0, float edge1, float x) {
+        float t = MathUtils.clamp((x - edge0) / (edge1 - edge0), 0f, 1f);
+        return t * t * (3f - 2f * t);
+    }
+    
+    /**
+     * Draw all active puffs (call inside the sky pass, after the opaque sky objects)
+     */
+    public void render(Camera camera) {
+        sortBackToFront(camera);
+        
+        right.set(camera.direction).crs(camera.up).nor();
+        up.set(right).crs(camera.direction).nor();
+        
+        int offset = 0;
+        drawnPuffs = 0;
+        for (int i = 0; i < order.length; i++) {
+            int k = order[i];
+            VolumetricCloud cloud = clouds.get(puffCloud[k]);
+            int p = puffIndex[k];
+            if (p >= cloud.getActivePuffs()) continue;
+            
+            cloud.getPuffPosition(p, puffPos);
+            float halfW = cloud.getPuffSize(p) * BILLBOARD_SCALE;
+            float halfH = halfW * FLATTEN;
+            // Puffs above the cloud center catch more moonlight
+            float shade = MathUtils.clamp(0.85f + cloud.getPuffOffsetY(p) * 0.06f, 0.7f, 1f);
+            float color = Color.toFloatBits(0.7f * shade, 0.6f * shade, 0.7f * shade, cloud.getPuffAlpha(p));
+            
+            offset = putVertex(offset, -halfW, -halfH, color, 0f, 1f);
+            offset = putVertex(offset, halfW, -halfH, color, 1f, 1f);
+            offset = putVertex(offset, halfW, halfH, color, 1f, 0f);
+            offset = putVertex(offset, -halfW, halfH, color, 0f, 0f);
+            drawnPuffs++;
+        }
+        if (drawnPuffs == 0) return;
+        mesh.setVertices(vertices, 0, offset);
+        
+        // Drawn after ModelBatch.end(), which leaves depth testing off: test against the scene (moon,
+        // mountains) without writing, so nearer geometry still hides the puffs
+        Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
+        Gdx.gl.glDepthFunc(GL20.GL_LEQUAL);
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        Gdx.gl.glDepthMask(false);
+        Gdx.gl.glColorMask(true, true, true, false); // Keep clouds out of the bloom mask
+        
+        puffTexture.bind(0);
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", camera.combined);
+        shader.setUniformi("u_texture", 0);
+        mesh.render(shader, GL20.GL_TRIANGLES, 0, drawnPuffs * 6);
+        
+        Gdx.gl.glColorMask(true, true, true, true);
+        Gdx.gl.glDepthMask(true);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+        Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
+    }
+    
+    private int putVertex(int offset, float x, float y, float color, float u, float v) {
+        vertices[offset++] = puffPos.x + right.x * x + up.x * y;
+        vertices[offset++] = puffPos.y + right.y * x + up.y * y;
+        vertices[offset++] = puffPos.z + right.z * x + up.z * y;
+        vertices[offset++] = color;
+        vertices[offset++] = u;
+        vertices[offset++] = v;
+        return offset;
+    }
+    
+    /**
+     * Insertion sort by view depth, farthest first
+     * Nearly linear because the previous frame's order is almost always still correct
+     */
+    private void sortBackToFront(Camera camera) {
+        for (int k = 0; k < puffDepth.length; k++) {
+            clouds.get(puffCloud[k]).getPuffPosition(puffIndex[k], puffPos);
+            puffDepth[k] = puffPos.sub(camera.position).dot(camera.direction);
+        }
+        sortSwaps = 0;
+        for (int i = 1; i < order.length; i++) {
+            int k = order[i];
+            float depth = puffDepth[k];
+            int j = i - 1;
+            while (j >= 0 && puffDepth[order[j]] < depth) {
+                order[j + 1] = order[j];
+                j--;
+                sortSwaps++;
+            }
+            order[j + 1] = k;
+        }
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("clouds.puffs", drawnPuffs);
+        metrics.set("clouds.sortSwaps", sortSwaps);
+    }
+    
+    @Override
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+        puffTexture.dispose();
+    }
+}
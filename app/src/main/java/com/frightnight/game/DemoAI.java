@@ -10,6 +10,9 @@ import com.badlogic.gdx.utils.Array;
 public class DemoAI {
     
     private TerrainSystem terrain;
+    private PathDistanceField path; // Optional: walk along the forest path when it leads towards the target
+    private final Vector3 alongPath = new Vector3();
+    private final Vector3 toPath = new Vector3();
     
     // Movement state
     private Vector3 currentTarget;
@@ -30,6 +33,9 @@ public class DemoAI {
     private static final float LOOK_INTERVAL = 2f; // Look around every 2 seconds
     private static final float DANGER_DISTANCE = 30f; // Run when enemy within 30 units
     private static final float SAFE_DISTANCE = 50f; // Stop running when 50 units away
+    private static final float PATH_FOLLOW_RANGE = 12f; // Join the path when this close to its edge
+    private static final float PATH_FOLLOW_MIN_DOT = 0.3f; // Only if it heads roughly towards the target
+    private static final float PATH_PULL_DISTANCE = 4f; // Steer fully back onto the path from this far off
     
     enum AIState {
         EXPLORING,  // Wandering around
@@ -37,8 +43,9 @@ public class DemoAI {
         OBSERVING   // Stopped and looking around
     }
     
-    public DemoAI(TerrainSystem terrain) {
+    public DemoAI(TerrainSystem terrain, PathDistanceField path) {
         this.terrain = terrain;
+        this.path = path;
         this.movementDirection = new Vector3(1, 0, 0);
         this.lookDirection = new Vector3();
         pickNewTarget();
@@ -149,12 +156,34 @@ public class DemoAI {
             } else {
                 // Move towards target
                 movementDirection.set(toTarget).nor();
+                followPath(playerPosition);
             }
         }
         
         return movementDirection;
     }
     
+    /**
+     * Bend the movement onto the path when it runs the same way
+     */
+    private void followPath(Vector3 position) {
+        if (path == null) return;
+        float distance = path.distance(position.x, position.z);
+        if (distance > PATH_FOLLOW_RANGE) return;
+        
+        path.directionAlongPath(position.x, position.z, alongPath);
+        float dot = alongPath.dot(movementDirection);
+        if (dot < 0) {
+            alongPath.scl(-1f);
+            dot = -dot;
+        }
+        if (dot < PATH_FOLLOW_MIN_DOT) return;
+        
+        path.directionToPath(position.x, position.z, toPath);
+        toPath.scl(Math.max(0f, Math.min(1f, distance / PATH_PULL_DISTANCE)));
+        movementDirection.set(alongPath).add(toPath).nor();
+    }
+    
     private void pickNewTarget() {
         // Pick a random point within world bounds
         float x = (float)(Math.random() * 120 - 60);
@@ -0,0 +1,485 @@
+package com.frightnight.game;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageInfo;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLSurface;
+import android.opengl.GLES20;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * First-launch device calibration
+ * Runs a short offscreen benchmark shaped like the 3D scene during the splash,
+ * picks a starting QualityTier and remembers it until the app or GPU driver changes
+ */
+public class DeviceCalibrator {
+    private static final String TAG = "DeviceCalibrator";
+    private static final String PREFS_NAME = "FrightNightPrefs";
+
+    public static final String PREF_QUALITY_TIER = "qualityTier";
+    private static final String PREF_CALIBRATED_VERSION = "calibratedVersionCode";
+    private static final String PREF_CALIBRATED_GPU = "calibratedGpu";
+    private static final String PREF_CALIBRATED_BUILD = "calibratedBuild";
+
+    private static final long TIME_BUDGET_MS = 2500; // Must fit inside the 3 second splash
+    private static final int SURFACE_WIDTH = 540;    // Half of a typical 1080x1920 phone
+    private static final int SURFACE_HEIGHT = 960;
+    private static final int WARMUP_FRAMES = 2;
+    private static final int MAX_GPU_FRAMES = 20;
+    private static final int CPU_ITERATIONS = 200;
+
+    // Representative scene slice (matches the HIGH tier contents)
+    private static final int TERRAIN_GRID = 50;
+    private static final int OPAQUE_DRAWS = 25 * 8 + WindGrassField.CHUNK_COUNT + 1; // Tree parts, grass chunks, bird flock
+    private static final int BLENDED_DRAWS = 12 * 11;             // Cloud puffs
+
+    public interface CalibrationListener {
+        /** Called on the calibration thread */
+        void onCalibrationComplete(QualityTier tier, boolean measured);
+    }
+
+    /**
+     * Start calibration on a background thread if this app version / GPU driver hasn't been measured yet
+     * The listener is always called, with the stored (or default) tier if nothing was measured
+     */
+    public static void calibrateIfNeeded(Context context, final CalibrationListener listener) {
+        final Context appContext = context.getApplicationContext();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new DeviceCalibrator().run(appContext, listener);
+                } catch (Exception e) {
+                    Log.e(TAG, "Calibration failed", e);
+                    notifyStored(appContext, listener);
+                }
+            }
+        }, "DeviceCalibrator").start();
+    }
+
+    /**
+     * Upper bound on a calibration run, for callers waiting on the listener
+     */
+    public static long getTimeBudgetMs() {
+        return TIME_BUDGET_MS;
+    }
+
+    private static volatile float blackhole;
+
+    private EGLDisplay display = EGL14.EGL_NO_DISPLAY;
+    private EGLContext eglContext = EGL14.EGL_NO_CONTEXT;
+    private EGLSurface surface = EGL14.EGL_NO_SURFACE;
+
+    private void run(Context context, CalibrationListener listener) {
+        long start = SystemClock.elapsedRealtime();
+        long deadline = start + TIME_BUDGET_MS;
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        long versionCode = getVersionCode(context);
+
+        // A system update is what usually brings a new GPU driver; checked before paying for an EGL context
+        String storedTier = prefs.getString(PREF_QUALITY_TIER, null);
+        if (storedTier != null
+                && prefs.getLong(PREF_CALIBRATED_VERSION, -1) == versionCode
+                && Build.FINGERPRINT.equals(prefs.getString(PREF_CALIBRATED_BUILD, null))) {
+            Log.d(TAG, "Already calibrated for this version and build: " + storedTier);
+            notifyStored(context, listener);
+            return;
+        }
+
+        if (!createContext()) {
+            Log.d(TAG, "No offscreen GL context, keeping stored quality tier");
+            notifyStored(context, listener);
+            return;
+        }
+
+        try {
+            String gpu = GLES20.glGetString(GLES20.GL_RENDERER) + " | " + GLES20.glGetString(GLES20.GL_VERSION);
+            if (storedTier != null
+                    && prefs.getLong(PREF_CALIBRATED_VERSION, -1) == versionCode
+                    && gpu.equals(prefs.getString(PREF_CALIBRATED_GPU, null))) {
+                // New system build, same driver: keep the tier and skip the check next launch
+                Log.d(TAG, "Already calibrated for this version and GPU: " + storedTier);
+                prefs.edit().putString(PREF_CALIBRATED_BUILD, Build.FINGERPRINT).apply();
+                notifyStored(context, listener);
+                return;
+            }
+
+            int cores = Runtime.getRuntime().availableProcessors();
+            float cpuMs = measureCpuUpdateMs(deadline);
+            float gpuMs = measureGpuFrameMs(deadline);
+            if (gpuMs == Float.MAX_VALUE) {
+                // Nothing was measured: don't pin the device to LOW until the next update
+                Log.w(TAG, "GPU measurement failed, keeping stored quality tier");
+                notifyStored(context, listener);
+                return;
+            }
+            QualityTier tier = pickTier(gpu, cores, cpuMs, gpuMs);
+
+            prefs.edit()
+                    .putString(PREF_QUALITY_TIER, tier.name())
+                    .putLong(PREF_CALIBRATED_VERSION, versionCode)
+                    .putString(PREF_CALIBRATED_GPU, gpu)
+                    .putString(PREF_CALIBRATED_BUILD, Build.FINGERPRINT)
+                    .apply();
+
+            Log.d(TAG, "Calibrated in " + (SystemClock.elapsedRealtime() - start) + "ms: gpu=" + gpu
+                    + " cores=" + cores + " cpu=" + cpuMs + "ms gpuFrame=" + gpuMs + "ms -> " + tier);
+            if (listener != null) {
+                listener.onCalibrationComplete(tier, true);
+            }
+        } finally {
+            destroyContext();
+        }
+    }
+
+    private static void notifyStored(Context context, CalibrationListener listener) {
+        if (listener == null) return;
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        listener.onCalibrationComplete(QualityTier.fromName(prefs.getString(PREF_QUALITY_TIER, null), QualityTier.HIGH), false);
+    }
+
+    /**
+     * Map the measurements to a starting tier (the runtime governor refines it later)
+     */
+    private static QualityTier pickTier(String gpu, int cores, float cpuMs, float gpuMs) {
+        QualityTier tier;
+        if (gpuMs <= 6f && cores >= 6) {
+            tier = QualityTier.HIGH;
+        } else if (gpuMs <= 12f && cores >= 4) {
+            tier = QualityTier.MEDIUM;
+        } else {
+            tier = QualityTier.LOW;
+        }
+
+        // A slow simulation step leaves less of the frame for rendering
+        if (cpuMs > 2f) {
+            tier = tier.lower();
+        }
+
+        // Old GPU families that measure fine offscreen but throttle quickly in game
+        if (gpu.contains("Mali-4") || gpu.contains("Adreno (TM) 3") || gpu.contains("SGX")) {
+            tier = QualityTier.LOW;
+        } else if ((gpu.contains("Mali-T") || gpu.contains("Adreno (TM) 4")) && tier == QualityTier.HIGH) {
+            tier = QualityTier.MEDIUM;
+        }
+        return tier;
+    }
+
+    /**
+     * Time a per-frame simulation step like the game's update(): cloud drift,
+     * bird transforms and enemies following the heightfield (grass sways on the GPU)
+     */
+    private static float measureCpuUpdateMs(long deadline) {
+        float[] heights = new float[(TERRAIN_GRID + 1) * (TERRAIN_GRID + 1)];
+        for (int x = 0; x <= TERRAIN_GRID; x++) {
+            for (int z = 0; z <= TERRAIN_GRID; z++) {
+                heights[x * (TERRAIN_GRID + 1) + z] = (float)(Math.sin(x * 0.1f) * Math.cos(z * 0.1f) * 4f);
+            }
+        }
+        float[] positions = new float[(BLENDED_DRAWS + 6 + 5) * 3];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (float)(Math.random() * 140 - 70);
+        }
+        float[] matrix = new float[16];
+        float[] samples = new float[CPU_ITERATIONS];
+        int iterations = 0;
+        float sink = 0f;
+        float phase = 0f;
+
+        for (; iterations < CPU_ITERATIONS && SystemClock.elapsedRealtime() < deadline - 1500; iterations++) {
+            long t0 = System.nanoTime();
+            phase += 0.016f;
+            for (int i = 0; i < positions.length; i += 3) {
+                float sway = (float)Math.sin(phase + i);
+                float yaw = (float)Math.atan2(positions[i], -positions[i + 2]);
+                float c = (float)Math.cos(yaw);
+                float s = (float)Math.sin(yaw);
+                matrix[0] = c; matrix[2] = -s; matrix[8] = s; matrix[10] = c;
+                matrix[12] = positions[i] + sway * 0.1f;
+                matrix[14] = positions[i + 2];
+                int gx = Math.max(0, Math.min(TERRAIN_GRID - 1, (int)(positions[i] / 4f + TERRAIN_GRID / 2f)));
+                int gz = Math.max(0, Math.min(TERRAIN_GRID - 1, (int)(positions[i + 2] / 4f + TERRAIN_GRID / 2f)));
+                matrix[13] = heights[gx * (TERRAIN_GRID + 1) + gz];
+                sink += matrix[0] + matrix[13];
+            }
+            samples[iterations] = (System.nanoTime() - t0) / 1e6f;
+        }
+        blackhole = sink; // Keep the loop from being optimized away
+        return median(samples, iterations);
+    }
+
+    /**
+     * Render a slice of the scene offscreen: the terrain grid, a few hundred small
+     * lit meshes (trees, grass, birds) and alpha-blended cloud puffs, one draw each
+     */
+    private float measureGpuFrameMs(long deadline) {
+        int program = buildProgram();
+        if (program == 0) return Float.MAX_VALUE;
+        int aPosition = GLES20.glGetAttribLocation(program, "a_position");
+        int aNormal = GLES20.glGetAttribLocation(program, "a_normal");
+        int uOffset = GLES20.glGetUniformLocation(program, "u_offset");
+        int uColor = GLES20.glGetUniformLocation(program, "u_color");
+
+        FloatBuffer terrain = buildTerrain();
+        int terrainVertices = terrain.capacity() / 6;
+        FloatBuffer sphere = buildSphere(10, 8);
+        ShortBuffer sphereIndices = buildSphereIndices(10, 8);
+
+        int[] buffers = new int[3];
+        GLES20.glGenBuffers(3, buffers, 0);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, buffers[0]);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, terrain.capacity() * 4, terrain, GLES20.GL_STATIC_DRAW);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, buffers[1]);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, sphere.capacity() * 4, sphere, GLES20.GL_STATIC_DRAW);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, buffers[2]);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, sphereIndices.capacity() * 2, sphereIndices, GLES20.GL_STATIC_DRAW);
+
+        GLES20.glViewport(0, 0, SURFACE_WIDTH, SURFACE_HEIGHT);
+        GLES20.glUseProgram(program);
+        GLES20.glEnableVertexAttribArray(aPosition);
+        GLES20.glEnableVertexAttribArray(aNormal);
+
+        float[] samples = new float[MAX_GPU_FRAMES];
+        int frames = 0;
+        for (int f = 0; f < WARMUP_FRAMES + MAX_GPU_FRAMES && SystemClock.elapsedRealtime() < deadline; f++) {
+            long t0 = System.nanoTime();
+
+            GLES20.glClearColor(0.02f, 0.05f, 0.15f, 1f);
+            GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
+            GLES20.glEnable(GLES20.GL_DEPTH_TEST);
+            GLES20.glDisable(GLES20.GL_BLEND);
+
+            // Terrain
+            bindVertices(buffers[0], aPosition, aNormal);
+            GLES20.glUniform4f(uOffset, 0f, 0f, 0f, 1f);
+            GLES20.glUniform4f(uColor, 0.3f, 0.5f, 0.2f, 1f);
+            GLES20.glDrawArrays(GLES20.GL_TRIANGLES, 0, terrainVertices);
+
+            // Opaque props, one draw each like ModelBatch does
+            bindVertices(buffers[1], aPosition, aNormal);
+            GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, buffers[2]);
+            for (int i = 0; i < OPAQUE_DRAWS; i++) {
+                float x = ((i * 37) % 100) / 50f - 1f;
+                float y = ((i * 53) % 100) / 50f - 1f;
+                GLES20.glUniform4f(uOffset, x, y, 0.5f, 0.08f);
+                GLES20.glUniform4f(uColor, 0.1f, 0.15f, 0.08f, 1f);
+                GLES20.glDrawElements(GLES20.GL_TRIANGLES, sphereIndices.capacity(), GLES20.GL_UNSIGNED_SHORT, 0);
+            }
+
+            // Blended cloud puffs (large, overlapping: the fill-rate heavy part)
+            GLES20.glEnable(GLES20.GL_BLEND);
+            GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+            GLES20.glDepthMask(false);
+            for (int i = 0; i < BLENDED_DRAWS; i++) {
+                float x = ((i * 29) % 100) / 50f - 1f;
+                GLES20.glUniform4f(uOffset, x, 0.6f, 0.2f, 0.35f);
+                GLES20.glUniform4f(uColor, 0.7f, 0.6f, 0.7f, 0.6f);
+                GLES20.glDrawElements(GLES20.GL_TRIANGLES, sphereIndices.capacity(), GLES20.GL_UNSIGNED_SHORT, 0);
+            }
+            GLES20.glDepthMask(true);
+
+            GLES20.glFinish(); // Wait for the GPU so the sample covers the whole frame
+            if (f >= WARMUP_FRAMES) {
+                samples[frames++] = (System.nanoTime() - t0) / 1e6f;
+            }
+        }
+
+        GLES20.glDeleteBuffers(3, buffers, 0);
+        GLES20.glDeleteProgram(program);
+        return frames > 0 ? median(samples, frames) : Float.MAX_VALUE;
+    }
+
+    private static void bindVertices(int buffer, int aPosition, int aNormal) {
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, buffer);
+        GLES20.glVertexAttribPointer(aPosition, 3, GLES20.GL_FLOAT, false, 24, 0);
+        GLES20.glVertexAttribPointer(aNormal, 3, GLES20.GL_FLOAT, false, 24, 12);
+    }
+
+    private static int buildProgram() {
+        String vertex =
+                "attribute vec3 a_position;\n" +
+                "attribute vec3 a_normal;\n" +
+                "uniform vec4 u_offset;\n" + // xyz = offset, w = scale
+                "varying float v_light;\n" +
+                "void main() {\n" +
+                "  vec3 n = normalize(a_normal);\n" +
+                "  v_light = 0.6 + 0.8 * max(dot(n, normalize(vec3(0.3, 1.0, 0.2))), 0.0)\n" +
+                "              + 0.5 * max(dot(n, normalize(vec3(-0.3, 0.5, -0.2))), 0.0);\n" +
+                "  gl_Position = vec4(a_position * u_offset.w + u_offset.xyz, 1.0);\n" +
+                "}\n";
+        String fragment =
+                "precision mediump float;\n" +
+                "uniform vec4 u_color;\n" +
+                "varying float v_light;\n" +
+                "void main() {\n" +
+                "  gl_FragColor = vec4(u_color.rgb * v_light, u_color.a);\n" +
+                "}\n";
+        int vs = compile(GLES20.GL_VERTEX_SHADER, vertex);
+        int fs = compile(GLES20.GL_FRAGMENT_SHADER, fragment);
+        if (vs == 0 || fs == 0) return 0;
+
+        int program = GLES20.glCreateProgram();
+        GLES20.glAttachShader(program, vs);
+        GLES20.glAttachShader(program, fs);
+        GLES20.glLinkProgram(program);
+        GLES20.glDeleteShader(vs);
+        GLES20.glDeleteShader(fs);
+        int[] status = new int[1];
+        GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, status, 0);
+        if (status[0] == 0) {
+            Log.e(TAG, "Calibration program link failed: " + GLES20.glGetProgramInfoLog(program));
+            GLES20.glDeleteProgram(program);
+            return 0;
+        }
+        return program;
+    }
+
+    private static int compile(int type, String source) {
+        int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+        int[] status = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, status, 0);
+        if (status[0] == 0) {
+            Log.e(TAG, "Calibration shader compile failed: " + GLES20.glGetShaderInfoLog(shader));
+            GLES20.glDeleteShader(shader);
+            return 0;
+        }
+        return shader;
+    }
+
+    /**
+     * Terrain grid with the same triangle count as TerrainSystem (flat-shaded triangles)
+     */
+    private static FloatBuffer buildTerrain() {
+        FloatBuffer buffer = allocateFloats(TERRAIN_GRID * TERRAIN_GRID * 6 * 6);
+        float step = 2f / TERRAIN_GRID;
+        for (int x = 0; x < TERRAIN_GRID; x++) {
+            for (int z = 0; z < TERRAIN_GRID; z++) {
+                float x0 = -1f + x * step, x1 = x0 + step;
+                float y0 = -1f + z * step, y1 = y0 + step;
+                float d = (float)Math.sin(x * 0.3f) * 0.2f;
+                putVertex(buffer, x0, y0, 0.9f, d);
+                putVertex(buffer, x1, y0, 0.9f, d);
+                putVertex(buffer, x0, y1, 0.9f, d);
+                putVertex(buffer, x1, y0, 0.9f, d);
+                putVertex(buffer, x1, y1, 0.9f, d);
+                putVertex(buffer, x0, y1, 0.9f, d);
+            }
+        }
+        buffer.position(0);
+        return buffer;
+    }
+
+    private static void putVertex(FloatBuffer buffer, float x, float y, float z, float tilt) {
+        buffer.put(x).put(y).put(z).put(tilt).put(1f).put(0f);
+    }
+
+    private static FloatBuffer buildSphere(int segments, int rings) {
+        FloatBuffer buffer = allocateFloats((segments + 1) * (rings + 1) * 6);
+        for (int r = 0; r <= rings; r++) {
+            double phi = Math.PI * r / rings;
+            for (int s = 0; s <= segments; s++) {
+                double theta = 2 * Math.PI * s / segments;
+                float nx = (float)(Math.sin(phi) * Math.cos(theta));
+                float ny = (float)Math.cos(phi);
+                float nz = (float)(Math.sin(phi) * Math.sin(theta));
+                buffer.put(nx).put(ny).put(nz).put(nx).put(ny).put(nz);
+            }
+        }
+        buffer.position(0);
+        return buffer;
+    }
+
+    private static ShortBuffer buildSphereIndices(int segments, int rings) {
+        ShortBuffer buffer = ByteBuffer.allocateDirect(segments * rings * 6 * 2)
+                .order(ByteOrder.nativeOrder()).asShortBuffer();
+        for (int r = 0; r < rings; r++) {
+            for (int s = 0; s < segments; s++) {
+                short a = (short)(r * (segments + 1) + s);
+                short b = (short)(a + segments + 1);
+                buffer.put(a).put(b).put((short)(a + 1));
+                buffer.put(b).put((short)(b + 1)).put((short)(a + 1));
+            }
+        }
+        buffer.position(0);
+        return buffer;
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    private static float median(float[] samples, int count) {
+        if (count == 0) return 0f;
+        float[] copy = Arrays.copyOf(samples, count);
+        Arrays.sort(copy);
+        return copy[count / 2];
+    }
+
+    private boolean createContext() {
+        display = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+        if (display == EGL14.EGL_NO_DISPLAY) return false;
+        int[] version = new int[2];
+        if (!EGL14.eglInitialize(display, version, 0, version, 1)) return false;
+
+        int[] configAttributes = {
+                EGL14.EGL_RENDERABLE_TYPE, EGL14.EGL_OPENGL_ES2_BIT,
+                EGL14.EGL_SURFACE_TYPE, EGL14.EGL_PBUFFER_BIT,
+                EGL14.EGL_RED_SIZE, 8,
+                EGL14.EGL_GREEN_SIZE, 8,
+                EGL14.EGL_BLUE_SIZE, 8,
+                EGL14.EGL_DEPTH_SIZE, 16,
+                EGL14.EGL_NONE
+        };
+        EGLConfig[] configs = new EGLConfig[1];
+        int[] numConfigs = new int[1];
+        if (!EGL14.eglChooseConfig(display, configAttributes, 0, configs, 0, 1, numConfigs, 0)
+                || numConfigs[0] == 0) {
+            return false;
+        }
+
+        int[] contextAttributes = { EGL14.EGL_CONTEXT_CLIENT_VERSION, 2, EGL14.EGL_NONE };
+        eglContext = EGL14.eglCreateContext(display, configs[0], EGL14.EGL_NO_CONTEXT, contextAttributes, 0);
+        if (eglContext == EGL14.EGL_NO_CONTEXT) return false;
+
+        int[] surfaceAttributes = { EGL14.EGL_WIDTH, SURFACE_WIDTH, EGL14.EGL_HEIGHT, SURFACE_HEIGHT, EGL14.EGL_NONE };
+        surface = EGL14.eglCreatePbufferSurface(display, configs[0], surfaceAttributes, 0);
+        if (surface == EGL14.EGL_NO_SURFACE) return false;
+
+        return EGL14.eglMakeCurrent(display, surface, surface, eglContext);
+    }
+
+    private void destroyContext() {
+        if (display == EGL14.EGL_NO_DISPLAY) return;
+        EGL14.eglMakeCurrent(display, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+        if (surface != EGL14.EGL_NO_SURFACE) EGL14.eglDestroySurface(display, surface);
+        if (eglContext != EGL14.EGL_NO_CONTEXT) EGL14.eglDestroyContext(display, eglContext);
+        // No eglTerminate: the display connection is shared with the UI renderer
+        EGL14.eglReleaseThread();
+        surface = EGL14.EGL_NO_SURFACE;
+        eglContext = EGL14.EGL_NO_CONTEXT;
+        display = EGL14.EGL_NO_DISPLAY;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long getVersionCode(Context context) {
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P ? info.getLongVersionCode() : info.versionCode;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
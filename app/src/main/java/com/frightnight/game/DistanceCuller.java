@@ -0,0 +1,89 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Skips instances before they reach the ModelBatch
+ * Anything past the draw distance is fully hidden by fog, and anything outside
+ * the view frustum is never seen, so neither needs to be submitted; with an
+ * OcclusionCuller, neither is anything hidden behind the hills
+ */
+public class DistanceCuller {
+
+    /** Local-space bounding sphere of a model */
+    private static class Bounds {
+        final Vector3 center = new Vector3();
+        float radius;
+    }
+
+    private final ObjectMap<Model, Bounds> modelBounds = new ObjectMap<>(); // Computed once per model
+    private final BoundingBox box = new BoundingBox();
+    private final Vector3 center = new Vector3();
+    private final Vector3 scale = new Vector3();
+
+    private OcclusionCuller occlusion;
+    
+    private int submitted = 0;
+    private int culled = 0;
+    private int occluded = 0;
+    
+    /**
+     * Also test what passes the frustum against the occlusion culler's depth buffer (null to stop)
+     */
+    public void setOcclusion(OcclusionCuller occlusion) {
+        this.occlusion = occlusion;
+    }
+
+    /**
+     * @param drawDistance Distance beyond which the instance is hidden by fog
+     * @return true if the instance should be rendered this frame
+     */
+    public boolean isVisible(ModelInstance instance, Camera camera, float drawDistance) {
+        Bounds bounds = getBounds(instance.model);
+        center.set(bounds.center).mul(instance.transform);
+        instance.transform.getScale(scale);
+        float radius = bounds.radius * Math.max(scale.x, Math.max(scale.y, scale.z));
+
+        float reach = drawDistance + radius;
+        if (center.dst2(camera.position) > reach * reach
+                || !camera.frustum.sphereInFrustum(center, radius)) {
+            culled++;
+            return false;
+        }
+        if (occlusion != null && !occlusion.isSphereVisible(camera, center, radius)) {
+            occluded++;
+            return false;
+        }
+        submitted++;
+        return true;
+    }
+
+    private Bounds getBounds(Model model) {
+        Bounds bounds = modelBounds.get(model);
+        if (bounds == null) {
+            bounds = new Bounds();
+            model.calculateBoundingBox(box);
+            box.getCenter(bounds.center);
+            bounds.radius = box.getDimensions(scale).len() * 0.5f;
+            modelBounds.put(model, bounds);
+        }
+        return bounds;
+    }
+
+    /**
+     * Publish this frame's counts and start counting the next frame
+     */
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("cull.submitted", submitted);
+        metrics.set("cull.culled", culled);
+        metrics.set("cull.occluded", occluded);
+        submitted = 0;
+        culled = 0;
+        occluded = 0;
+    }
+}
@@ -0,0 +1,220 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+
+/**
+ * Dynamic resolution scaling for the 3D pass
+ * Renders the world into an offscreen buffer at a variable scale and upscales it,
+ * so fill rate drops when the device can't keep up with the target frame time
+ */
+public class DynamicResolution {
+
+    private static final float MIN_SCALE = 0.5f;
+    private static final float MAX_SCALE = 1.0f;
+    private static final float STEP_DOWN = 0.1f;
+    private static final float STEP_UP = 0.05f;
+
+    private static final float TARGET_FRAME_MS = 1000f / 60f;
+    private static final float DOWNSCALE_THRESHOLD = 1.15f; // Smoothed frame time above target * this -> drop
+    private static final float UPSCALE_THRESHOLD = 1.03f;   // Smoothed frame time below target * this -> headroom
+    private static final float SMOOTHING = 0.1f;            // Exponential moving average factor
+    private static final float HITCH_MS = 250f;             // Ignore pauses / loading hitches
+    private static final float DECISION_COOLDOWN = 0.5f;    // Seconds between scale changes
+    private static final float MIN_UPSCALE_DELAY = 2f;      // Seconds of headroom before growing
+    private static final float MAX_UPSCALE_DELAY = 16f;
+    private static final float OSCILLATION_WINDOW = 3f;     // Drop this soon after a raise -> back off
+
+    private FrameBuffer frameBuffer;
+    private final TextureRegion region = new TextureRegion();
+    private int screenWidth;
+    private int screenHeight;
+    private int scaledWidth;
+    private int scaledHeight;
+
+    private float scale = MAX_SCALE;
+    private float smoothedFrameMs = TARGET_FRAME_MS;
+    private float cooldown = 0f;
+    private float headroomTime = 0f;
+    private float upscaleDelay = MIN_UPSCALE_DELAY;
+    private float timeSinceUpscale = Float.MAX_VALUE;
+
+    // Decision counters (exposed through metrics)
+    private int upscales = 0;
+    private int downscales = 0;
+    private int lastDecision = 0; // -1 down, 0 hold, 1 up
+
+    private boolean enabled = true;
+
+    public DynamicResolution(int width, int height) {
+        resize(width, height);
+    }
+
+    /**
+     * Feed the controller with the last frame time and pick the scale for this frame
+     */
+    public void update(float delta) {
+        float frameMs = delta * 1000f;
+        lastDecision = 0;
+        if (!enabled || frameMs > HITCH_MS) return;
+
+        smoothedFrameMs += (frameMs - smoothedFrameMs) * SMOOTHING;
+        cooldown -= delta;
+        timeSinceUpscale += delta;
+
+        if (smoothedFrameMs > TARGET_FRAME_MS * DOWNSCALE_THRESHOLD) {
+            headroomTime = 0f;
+            if (cooldown <= 0f && scale > MIN_SCALE) {
+                // Raising the scale didn't hold: wait longer before trying again
+                if (timeSinceUpscale < OSCILLATION_WINDOW) {
+                    upscaleDelay = Math.min(MAX_UPSCALE_DELAY, upscaleDelay * 2f);
+                }
+                setScale(scale - STEP_DOWN);
+                downscales++;
+                lastDecision = -1;
+                cooldown = DECISION_COOLDOWN;
+            }
+        } else if (smoothedFrameMs < TARGET_FRAME_MS * UPSCALE_THRESHOLD) {
+            headroomTime += delta;
+            if (cooldown <= 0f && scale < MAX_SCALE && headroomTime >= upscaleDelay) {
+                setScale(scale + STEP_UP);
+                upscales++;
+                lastDecision = 1;
+                cooldown = DECISION_COOLDOWN;
+                headroomTime = 0f;
+                timeSinceUpscale = 0f;
+            }
+        } else {
+            // Inside the hysteresis band: hold the current scale
+            headroomTime = 0f;
+        }
+
+        // Slowly forgive old oscillations
+        if (timeSinceUpscale > MAX_UPSCALE_DELAY * 2f && upscaleDelay > MIN_UPSCALE_DELAY) {
+            upscaleDelay = Math.max(MIN_UPSCALE_DELAY, upscaleDelay * 0.5f);
+            timeSinceUpscale = OSCILLATION_WINDOW;
+        }
+    }
+
+    /**
+     * Bind the offscreen buffer and set the scaled viewport for the 3D pass
+     */
+    public void begin() {
+        if (!enabled || frameBuffer == null) return;
+        frameBuffer.begin();
+        Gdx.gl.glViewport(0, 0, scaledWidth, scaledHeight);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+    }
+
+    /**
+     * Unbind the offscreen buffer and restore the native viewport
+     */
+    public void end() {
+        if (!enabled || frameBuffer == null) return;
+        frameBuffer.end();
+        Gdx.gl.glViewport(0, 0, screenWidth, screenHeight);
+    }
+
+    /**
+     * Upscale the rendered region to the full screen (used when post-processing is unavailable)
+     */
+    public void present(SpriteBatch batch) {
+        if (!enabled || frameBuffer == null) return;
+        region.setTexture(frameBuffer.getColorBufferTexture());
+        region.setRegion(0, 0, scaledWidth, scaledHeight);
+        region.flip(false, true); // FBO textures are upside down
+
+        batch.disableBlending();
+        batch.begin();
+        batch.draw(region, 0, 0, screenWidth, screenHeight);
+        batch.end();
+        batch.enableBlending();
+    }
+
+    /**
+     * Recreate the offscreen buffer for a new screen size
+     * The buffer is allocated at native size once; scaling only changes the viewport
+     */
+    public void resize(int width, int height) {
+        screenWidth = width;
+        screenHeight = height;
+        if (frameBuffer != null) {
+            frameBuffer.dispose();
+            frameBuffer = null;
+        }
+        if (width <= 0 || height <= 0) return;
+
+        try {
+            // RGBA: the scene shaders write the emissive (bloom) mask into alpha
+            frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, true);
+            frameBuffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        } catch (Exception e) {
+            Gdx.app.error("FrightNight", "Dynamic resolution unavailable: " + e.getMessage(), e);
+            frameBuffer = null;
+            enabled = false;
+        }
+        setScale(scale);
+    }
+
+    private void setScale(float newScale) {
+        scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, newScale));
+        scaledWidth = Math.max(1, Math.round(screenWidth * scale));
+        scaledHeight = Math.max(1, Math.round(screenHeight * scale));
+    }
+
+    /**
+     * Publish controller state to the frame metrics
+     */
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("res.scale", enabled ? scale : 1f);
+        metrics.set("res.smoothedMs", smoothedFrameMs);
+        metrics.set("res.upDelay", upscaleDelay);
+        metrics.set("res.ups", upscales);
+        metrics.set("res.downs", downscales);
+        if (lastDecision != 0) {
+            Gdx.app.log("FrightNight", "Dynamic resolution " + (lastDecision > 0 ? "up" : "down")
+                    + " -> " + Math.round(scale * 100) + "% (smoothed " + Math.round(smoothedFrameMs) + "ms)");
+        }
+    }
+
+    /**
+     * Scene color buffer; only the lower-left scaled region holds this frame
+     */
+    public Texture getColorTexture() {
+        return frameBuffer != null ? frameBuffer.getColorBufferTexture() : null;
+    }
+    
+    /**
+     * Fraction of the buffer width used by the scaled viewport
+     */
+    public float getUsedU() {
+        return screenWidth > 0 ? (float) scaledWidth / screenWidth : 1f;
+    }
+    
+    /**
+     * Fraction of the buffer height used by the scaled viewport
+     */
+    public float getUsedV() {
+        return screenHeight > 0 ? (float) scaledHeight / screenHeight : 1f;
+    }
+    
+    public float getScale() {
+        return scale;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void dispose() {
+        if (frameBuffer != null) {
+            frameBuffer.dispose();
+            frameBuffer = null;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Random;
+
+/**
+ * Spawns, despawns and recycles the night's enemies around the player
+ * Every enemy the night can hold is created at load from one shared set of models (on GLES 3.0 their
+ * instances are drawn through the InstancedRenderer), so spawning only resets a pooled enemy: no
+ * allocation and no GPU upload mid-game. How many hunt grows with the scary level and the time
+ * survived, up to a horde of hundreds at the top levels; enemies only appear and vanish out of view.
+ */
+public class EnemyDirector implements Disposable {
+    
+    private static final int MAX_UNINSTANCED = 24;     // GLES 2.0 draws four calls per enemy
+    private static final int HORDE_LEVEL = 7;          // Scary level from which the night turns into a horde
+    private static final int HORDE_PER_LEVEL = 75;     // Extra enemies per level from HORDE_LEVEL on
+    private static final float RAMP_SECONDS = 180f;    // Time to grow from the opening count to the full night
+    private static final float SPAWN_RATE = 8f;        // Spawns per second at most
+    private static final float SPAWN_MIN_DISTANCE = 35f;
+    private static final float SPAWN_MAX_DISTANCE = 60f;
+    private static final int SPAWN_ATTEMPTS = 4;       // Spots tried per spawn before waiting for the next frame
+    private static final float DESPAWN_DISTANCE = 90f; // Unseen enemies this far away go back to the pool
+    private static final float WORLD_LIMIT = 80f;      // Inside the fence
+    private static final float ENEMY_RADIUS = 1.5f;    // Bounding sphere for the view checks
+    
+    private final ScaryEnemy.Models models;
+    private final TerrainSystem terrain;
+    private final Array<ScaryEnemy> pool = new Array<>();   // Every enemy, indexed by slot
+    private final IntArray free = new IntArray();           // Pool slots not in the world
+    private final Array<ScaryEnemy> active = new Array<>();
+    private final Array<ModelInstance> allInstances = new Array<>();
+    private final float[] pending; // SimulationLod time per slot
+    private final Random random;
+    private final int openingCount;
+    private final int capacity;
+    private float elapsed = 0f;
+    private float spawnBudget = 0f;
+    private int spawnedTotal = 0;
+    
+    /**
+     * Build the pool for a scary level (nothing hunts at level 0)
+     */
+    public EnemyDirector(ModelBuilder modelBuilder, TerrainSystem terrain, int scaryLevel, long seed) {
+        openingCount = scaryLevel > 0 ? 2 + scaryLevel / 3 : 0;
+        int night = scaryLevel >= HORDE_LEVEL ? openingCount + HORDE_PER_LEVEL * (scaryLevel - HORDE_LEVEL + 1) : openingCount;
+        capacity = Gdx.gl30 != null ? night : Math.min(night, MAX_UNINSTANCED);
+        this.terrain = terrain;
+        random = new Random(seed);
+        pending = new float[capacity];
+        
+        models = new ScaryEnemy.Models(modelBuilder);
+        pool.ensureCapacity(capacity);
+        free.ensureCapacity(capacity);
+        active.ensureCapacity(capacity);
+        for (int i = 0; i < capacity; i++) {
+            ScaryEnemy enemy = new ScaryEnemy(models, terrain, i);
+            pool.add(enemy);
+            allInstances.addAll(enemy.getInstances());
+        }
+        for (int i = capacity - 1; i >= 0; i--) {
+            free.add(i);
+        }
+        Gdx.app.log("FrightNight", "Enemy director: " + openingCount + " at first, up to " + capacity);
+    }
+    
+    /**
+     * Let every pooled enemy spot the player by line of sight
+     */
+    public void setPerception(PerceptionSystem perception) {
+        for (int i = 0; i < pool.size; i++) {
+            pool.get(i).setPerception(perception);
+        }
+    }
+    
+    /**
+     * Enemies wanted right now: the opening count, growing to the full night over RAMP_SECONDS
+     */
+    private int targetCount() {
+        float ramp = Math.min(1f, elapsed / RAMP_SECONDS);
+        return openingCount + (int) ((capacity - openingCount) * ramp);
+    }
+    
+    /**
+     * Recycle, spawn and step the enemies
+     * @param lod Picks how often each enemy is stepped; null steps every enemy every frame
+     */
+    public void update(float delta, Vector3 playerPosition, Camera camera, SimulationLod lod) {
+        elapsed += delta;
+        int target = Math.min(capacity, targetCount());
+        
+        // Back to the pool: far away, or more than wanted, and never in view
+        for (int i = active.size - 1; i >= 0; i--) {
+            ScaryEnemy enemy = active.get(i);
+            Vector3 position = enemy.getPosition();
+            if (camera.frustum.sphereInFrustum(position, ENEMY_RADIUS)) continue;
+            float dx = position.x - playerPosition.x;
+            float dz = position.z - playerPosition.z;
+            if (dx * dx + dz * dz > DESPAWN_DISTANCE * DESPAWN_DISTANCE || active.size > target) {
+                enemy.despawn();
+                active.removeIndex(i);
+                free.add(enemy.getSlot());
+            }
+        }
+        
+        // Out of the pool, a few per second, somewhere around the player they can't see
+        spawnBudget = Math.min(spawnBudget + SPAWN_RATE * delta, SPAWN_RATE);
+        while (active.size < target && spawnBudget >= 1f && free.size > 0) {
+            spawnBudget -= 1f;
+            if (!spawnOne(playerPosition, camera)) break;
+        }
+        
+        for (int i = 0; i < pool.size; i++) {
+            ScaryEnemy enemy = pool.get(i);
+            if (!enemy.isActive()) continue;
+            float step = lod != null ? lod.step(pending, i, lod.tierOf(enemy.getPosition(), 1f)) : delta;
+            if (step > 0f) {
+                enemy.update(step, playerPosition);
+            }
+        }
+    }
+    
+    private boolean spawnOne(Vector3 playerPosition, Camera camera) {
+        for (int attempt = 0; attempt < SPAWN_ATTEMPTS; attempt++) {
+            float angle = random.nextFloat() * MathUtils.PI2;
+            float distance = SPAWN_MIN_DISTANCE + random.nextFloat() * (SPAWN_MAX_DISTANCE - SPAWN_MIN_DISTANCE);
+            float x = playerPosition.x + MathUtils.cos(angle) * distance;
+            float z = playerPosition.z + MathUtils.sin(angle) * distance;
+            if (Math.abs(x) > WORLD_LIMIT || Math.abs(z) > WORLD_LIMIT) continue;
+            // Tested where the body will stand (see ScaryEnemy.spawn), not at the player's height
+            if (camera.frustum.sphereInFrustum(x, terrain.getHeightAt(x, z) + 1.5f, z, ENEMY_RADIUS + 2f)) continue;
+            
+            int slot = free.pop();
+            ScaryEnemy enemy = pool.get(slot);
+            enemy.spawn(x, z);
+            active.add(enemy);
+            pending[slot] = 0f;
+            spawnedTotal++;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Whether any enemy has caught the player this frame
+     */
+    public boolean hasCaughtPlayer(Vector3 playerPosition) {
+        for (int i = 0; i < active.size; i++) {
+            if (active.get(i).hasReachedPlayer(playerPosition)) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Enemies in the world right now
+     */
+    public Array<ScaryEnemy> getActive() {
+        return active;
+    }
+    
+    /**
+     * Instances of every pooled enemy, for load-time work (material interning, shaders, instancing groups)
+     */
+    public Array<ModelInstance> getAllInstances() {
+        return allInstances;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("enemies.active", active.size);
+        metrics.set("enemies.pooled", free.size);
+        metrics.set("enemies.spawned", spawnedTotal);
+    }
+    
+    @Override
+    public void dispose() {
+        active.clear();
+        free.clear();
+        pool.clear();
+        allInstances.clear();
+        models.dispose();
+    }
+}
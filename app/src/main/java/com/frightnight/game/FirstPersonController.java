@@ -39,7 +39,7 @@ public class FirstPersonController {
         // Initialize camera - higher up to see terrain better
         camera.position.set(position.x, position.y + 3f, position.z); // 3 units higher
         camera.near = 0.1f;
-        camera.far = 300f;
+        camera.far = 300f; // Tightened to the quality tier draw distance by the game
         updateCameraDirection();
     }
     
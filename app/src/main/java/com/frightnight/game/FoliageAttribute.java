@@ -0,0 +1,27 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.Attribute;
+
+/**
+ * Marks a material as foliage (leaves, grass) so it gets the wrap-lit foliage shader
+ * On baked (unlit, vertex-coloured) vegetation it selects the shader that sways in the wind.
+ */
+public class FoliageAttribute extends Attribute {
+    
+    public static final String Alias = "foliage";
+    public static final long Type = register(Alias);
+    
+    public FoliageAttribute() {
+        super(Type);
+    }
+    
+    @Override
+    public Attribute copy() {
+        return new FoliageAttribute();
+    }
+    
+    @Override
+    public int compareTo(Attribute o) {
+        return (int)(type - o.type);
+    }
+}
@@ -1,6 +1,6 @@
 package com.frightnight.game;
 
-import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.VertexAttributes;
@@ -11,8 +11,12 @@ import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
 import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Random;
 
 /**
  * Winding path through the forest
@@ -24,24 +28,37 @@ public class ForestPath {
     private Array<ModelInstance> pathSegments;
     private float pathWidth = 2.5f;
     
+    // Spline tessellation
+    private static final float PATH_LIFT = 0.15f;                 // Height above the ground (against z-fighting in the 16-bit depth buffer)
+    private static final float SPLINE_SAMPLE_STEP = 0.5f;         // Dense curve sampling before simplification
+    private static final float SECTION_MAX_TURN = 0.08f;          // Radians of heading change per section
+    private static final float SECTION_MAX_HEIGHT_ERROR = 0.04f;  // Ground deviation from the strip between sections
+    private static final float SECTION_MAX_LENGTH = 4f;           // Longest step, even on straight flat ground
+    private final FloatArray centerLine = new FloatArray(); // Strip cross-section centres (x, z), what the mesh follows
+    private PathDistanceField distanceField;
+    
     /**
      * Create a winding path through the terrain
+     * @param random Route variation (seeded, so the same seed lays the same path)
      */
-    public ForestPath(ModelBuilder modelBuilder, TerrainSystem terrain, Texture pathTexture) {
+    public ForestPath(ModelBuilder modelBuilder, TerrainSystem terrain, Texture pathTexture, Random random) {
         pathPoints = new Array<>();
         pathSegments = new Array<>();
         
         // Generate winding path
-        generatePathPoints();
+        generatePathPoints(random);
         
         // Build path mesh segments with texture
         buildPath(modelBuilder, terrain, pathTexture);
+        
+        // Rasterise the same curve the strip follows, once, for proximity queries
+        distanceField = new PathDistanceField(centerLine, pathWidth, terrain);
     }
     
     /**
      * Generate path control points (winding through forest)
      */
-    private void generatePathPoints() {
+    private void generatePathPoints(Random random) {
         // Start near player spawn
         pathPoints.add(new Vector3(-20, 0, -20));
         
@@ -51,8 +68,8 @@ public class ForestPath {
         
         for (int i = 0; i < 15; i++) {
             // Add some curve to the path
-            float angle = (float)(Math.random() * 60 - 30); // -30 to +30 degrees
-            float distance = 8f + (float)(Math.random() * 8f); // 8-16 units
+            float angle = random.nextFloat() * 60 - 30; // -30 to +30 degrees
+            float distance = 8f + random.nextFloat() * 8f; // 8-16 units
             
             x += (float)Math.cos(Math.toRadians(angle)) * distance;
             z += (float)Math.sin(Math.toRadians(angle)) * distance;
@@ -66,65 +83,172 @@ public class ForestPath {
     }
     
     /**
-     * Build path mesh from control points with texture
+     * Build the path as one strip along a Catmull-Rom spline through the control points, draped on the terrain
+     * Cross-sections are placed where the curve turns or the ground under it bends, not at a fixed step.
      */
     private void buildPath(ModelBuilder modelBuilder, TerrainSystem terrain, Texture pathTexture) {
         Material pathMaterial = new Material(
             TextureAttribute.createDiffuse(pathTexture)
         );
         
-        // Create path segments between each pair of points
-        for (int i = 0; i < pathPoints.size - 1; i++) {
-            Vector3 p1 = pathPoints.get(i);
-            Vector3 p2 = pathPoints.get(i + 1);
-            
-            // Calculate path height from terrain - RAISED ABOVE GROUND
-            p1.y = terrain.getHeightAt(p1.x, p1.z) + 0.15f; // Higher above terrain
-            p2.y = terrain.getHeightAt(p2.x, p2.z) + 0.15f;
-            
-            // Calculate path direction
-            Vector3 direction = new Vector3(p2).sub(p1);
-            float length = direction.len();
-            direction.nor();
-            
-            // Calculate perpendicular for path width
-            Vector3 perpendicular = new Vector3(-direction.z, 0, direction.x).nor();
-            
-            // Create quad for path segment
-            modelBuilder.begin();
-            MeshPartBuilder meshBuilder = modelBuilder.part(
-                "path_" + i,
-                GL20.GL_TRIANGLES,
-                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
-                pathMaterial
-            );
-            
-            // Path vertices (slightly wider quad)
-            Vector3 v1 = new Vector3(p1).add(new Vector3(perpendicular).scl(pathWidth / 2));
-            Vector3 v2 = new Vector3(p1).add(new Vector3(perpendicular).scl(-pathWidth / 2));
-            Vector3 v3 = new Vector3(p2).add(new Vector3(perpendicular).scl(pathWidth / 2));
-            Vector3 v4 = new Vector3(p2).add(new Vector3(perpendicular).scl(-pathWidth / 2));
+        // Control points follow the ground (used for nearest-point queries)
+        for (Vector3 point : pathPoints) {
+            point.y = terrain.getHeightAt(point.x, point.z) + PATH_LIFT;
+        }
+        
+        FloatArray curve = sampleSpline();
+        IntArray sections = pickSections(curve, terrain);
+        
+        modelBuilder.begin();
+        MeshPartBuilder meshBuilder = modelBuilder.part(
+            "path",
+            GL20.GL_TRIANGLE_STRIP,
+            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.TextureCoordinates,
+            pathMaterial
+        );
+        meshBuilder.ensureVertices(sections.size * 2);
+        meshBuilder.ensureIndices(sections.size * 2);
+        
+        MeshPartBuilder.VertexInfo vertex = new MeshPartBuilder.VertexInfo();
+        Vector3 normal = new Vector3(0, 1, 0);
+        Vector2 side = new Vector2();
+        float travelled = 0f;
+        for (int s = 0; s < sections.size; s++) {
+            int i = sections.get(s);
+            float x = curve.get(i * 2);
+            float z = curve.get(i * 2 + 1);
+            centerLine.add(x, z);
+            if (s > 0) {
+                int previous = sections.get(s - 1);
+                travelled += Vector2.dst(x, z, curve.get(previous * 2), curve.get(previous * 2 + 1));
+            }
             
-            // Normal pointing up
-            Vector3 normal = new Vector3(0, 1, 0);
+            halfWidth(curve, i, side);
             
-            // Texture coordinates (repeat texture along path)
-            float uRepeat = length / 5f; // Repeat every 5 units
+            // Each edge follows the ground on its own, so the strip tilts with the slope across it
+            float v = travelled / 5f; // Repeat texture every 5 units, continuous along the whole path
+            float lx = x + side.x;
+            float lz = z + side.y;
+            float rx = x - side.x;
+            float rz = z - side.y;
+            float left = terrain.getHeightAt(lx, lz);
+            float right = terrain.getHeightAt(rx, rz);
+            // The strip is straight across, so lift both edges where the ground bulges up under the middle
+            float bulge = Math.max(0f, terrain.getHeightAt(x, z) - (left + right) / 2f);
+            // Right edge first so the strip's triangles face up
+            meshBuilder.index(meshBuilder.vertex(vertex.setPos(rx, right + bulge + PATH_LIFT, rz)
+                    .setNor(normal).setUV(1, v)));
+            meshBuilder.index(meshBuilder.vertex(vertex.setPos(lx, left + bulge + PATH_LIFT, lz)
+                    .setNor(normal).setUV(0, v)));
+        }
+        
+        Model pathModel = modelBuilder.end();
+        pathSegments.add(new ModelInstance(pathModel));
+        Gdx.app.log("FrightNight", "Path strip: " + sections.size + " sections from " + curve.size / 2 + " curve samples");
+    }
+    
+    /**
+     * Offset from a curve sample to the strip's left edge (half the path width, across the local tangent)
+     */
+    private void halfWidth(FloatArray curve, int i, Vector2 out) {
+        // Tangent from the neighbouring curve samples
+        int before = Math.max(0, i - 1);
+        int after = Math.min(curve.size / 2 - 1, i + 1);
+        float tx = curve.get(after * 2) - curve.get(before * 2);
+        float tz = curve.get(after * 2 + 1) - curve.get(before * 2 + 1);
+        float length = (float)Math.sqrt(tx * tx + tz * tz);
+        if (length > 0f) {
+            out.set(-tz / length * pathWidth / 2, tx / length * pathWidth / 2);
+        } else {
+            out.setZero();
+        }
+    }
+    
+    /**
+     * Dense samples (x, z) of a Catmull-Rom spline through the control points (end points repeated)
+     */
+    private FloatArray sampleSpline() {
+        FloatArray curve = new FloatArray();
+        int last = pathPoints.size - 1;
+        for (int span = 0; span < last; span++) {
+            Vector3 p0 = pathPoints.get(Math.max(0, span - 1));
+            Vector3 p1 = pathPoints.get(span);
+            Vector3 p2 = pathPoints.get(span + 1);
+            Vector3 p3 = pathPoints.get(Math.min(last, span + 2));
+            int steps = Math.max(1, (int)Math.ceil(p1.dst(p2) / SPLINE_SAMPLE_STEP));
+            for (int step = 0; step < steps || (span == last - 1 && step == steps); step++) {
+                float t = (float)step / steps;
+                curve.add(catmullRom(p0.x, p1.x, p2.x, p3.x, t), catmullRom(p0.z, p1.z, p2.z, p3.z, t));
+            }
+        }
+        if (curve.size == 0 && pathPoints.size > 0) {
+            curve.add(pathPoints.first().x, pathPoints.first().z);
+        }
+        return curve;
+    }
+    
+    private static float catmullRom(float p0, float p1, float p2, float p3, float t) {
+        float t2 = t * t;
+        float t3 = t2 * t;
+        return 0.5f * (2f * p1 + (p2 - p0) * t + (2f * p0 - 5f * p1 + 4f * p2 - p3) * t2
+                + (3f * p1 - p0 - 3f * p2 + p3) * t3);
+    }
+    
+    /**
+     * Pick the curve samples that become cross-sections: a new one once the heading has turned, the
+     * ground between the last one and here no longer lies on a straight line (along the centre or
+     * either edge), or the step gets long
+     */
+    private IntArray pickSections(FloatArray curve, TerrainSystem terrain) {
+        IntArray sections = new IntArray();
+        Vector2 anchorSide = new Vector2();
+        Vector2 nextSide = new Vector2();
+        Vector2 side = new Vector2();
+        int count = curve.size / 2;
+        sections.add(0);
+        int anchor = 0;
+        for (int i = 1; i < count - 1; i++) {
+            float ax = curve.get(anchor * 2);
+            float az = curve.get(anchor * 2 + 1);
+            float x = curve.get(i * 2);
+            float z = curve.get(i * 2 + 1);
+            float nx = curve.get((i + 1) * 2);
+            float nz = curve.get((i + 1) * 2 + 1);
             
-            // First triangle (v1, v2, v3)
-            MeshPartBuilder.VertexInfo vi1 = new MeshPartBuilder.VertexInfo().setPos(v1).setNor(normal).setUV(0, 0);
-            MeshPartBuilder.VertexInfo vi2 = new MeshPartBuilder.VertexInfo().setPos(v2).setNor(normal).setUV(1, 0);
-            MeshPartBuilder.VertexInfo vi3 = new MeshPartBuilder.VertexInfo().setPos(v3).setNor(normal).setUV(0, uRepeat);
-            meshBuilder.triangle(vi1, vi2, vi3);
+            // Heading from the anchor versus heading of the next step
+            float headingError = Math.abs(angleBetween(x - ax, z - az, nx - x, nz - z));
             
-            // Second triangle (v2, v4, v3)
-            MeshPartBuilder.VertexInfo vi4 = new MeshPartBuilder.VertexInfo().setPos(v4).setNor(normal).setUV(1, uRepeat);
-            meshBuilder.triangle(vi2, vi4, vi3);
+            // Ground under the next step compared with a straight line from the anchor, for the centre
+            // line and both edges (the strip's triangles span edge to edge)
+            halfWidth(curve, anchor, anchorSide);
+            halfWidth(curve, i + 1, nextSide);
+            float heightError = 0f;
+            for (int edge = -1; edge <= 1; edge++) {
+                float anchorHeight = terrain.getHeightAt(ax + anchorSide.x * edge, az + anchorSide.y * edge);
+                float nextHeight = terrain.getHeightAt(nx + nextSide.x * edge, nz + nextSide.y * edge);
+                for (int j = anchor + 1; j <= i; j++) {
+                    halfWidth(curve, j, side);
+                    float t = (float)(j - anchor) / (i + 1 - anchor);
+                    float line = anchorHeight + (nextHeight - anchorHeight) * t;
+                    float ground = terrain.getHeightAt(curve.get(j * 2) + side.x * edge, curve.get(j * 2 + 1) + side.y * edge);
+                    heightError = Math.max(heightError, Math.abs(ground - line));
+                }
+            }
             
-            Model segmentModel = modelBuilder.end();
-            ModelInstance segment = new ModelInstance(segmentModel);
-            pathSegments.add(segment);
+            if (headingError > SECTION_MAX_TURN || heightError > SECTION_MAX_HEIGHT_ERROR
+                    || Vector2.dst(ax, az, nx, nz) > SECTION_MAX_LENGTH) {
+                sections.add(i);
+                anchor = i;
+            }
+        }
+        if (count > 1) {
+            sections.add(count - 1);
         }
+        return sections;
+    }
+    
+    private static float angleBetween(float ax, float az, float bx, float bz) {
+        return (float)Math.atan2(ax * bz - az * bx, ax * bx + az * bz);
     }
     
     /**
@@ -149,38 +273,21 @@ public class ForestPath {
      * Check if position is on or near path
      */
     public boolean isOnPath(Vector3 position, float tolerance) {
-        for (int i = 0; i < pathPoints.size - 1; i++) {
-            Vector3 p1 = pathPoints.get(i);
-            Vector3 p2 = pathPoints.get(i + 1);
-            
-            // Distance from point to line segment
-            float dist = distanceToSegment(position, p1, p2);
-            if (dist <= pathWidth / 2 + tolerance) {
-                return true;
-            }
-        }
-        return false;
+        return distanceField.isOnPath(position.x, position.z, tolerance);
     }
     
     /**
-     * Calculate distance from point to line segment
+     * Check if a ground position is on or near path
      */
-    private float distanceToSegment(Vector3 point, Vector3 lineStart, Vector3 lineEnd) {
-        Vector3 line = new Vector3(lineEnd).sub(lineStart);
-        float lineLength = line.len();
-        line.nor();
-        
-        Vector3 toPoint = new Vector3(point).sub(lineStart);
-        float projection = toPoint.dot(line);
-        
-        if (projection <= 0) {
-            return toPoint.len();
-        } else if (projection >= lineLength) {
-            return new Vector3(point).sub(lineEnd).len();
-        } else {
-            Vector3 closest = new Vector3(lineStart).add(new Vector3(line).scl(projection));
-            return new Vector3(point).sub(closest).len();
-        }
+    public boolean isOnPath(float x, float z, float tolerance) {
+        return distanceField.isOnPath(x, z, tolerance);
+    }
+    
+    /**
+     * Precomputed distance grid (distance, direction to and along the path, terrain blend)
+     */
+    public PathDistanceField getDistanceField() {
+        return distanceField;
     }
     
     public Array<ModelInstance> getPathSegments() {
@@ -0,0 +1,93 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectFloatMap;
+
+/**
+ * Lightweight per-frame performance metrics
+ * Subsystems publish named values, a summary is logged every few seconds
+ */
+public class FrameMetrics {
+
+    private static final float LOG_INTERVAL = 5f; // Seconds between log summaries
+
+    private final ObjectFloatMap<String> values = new ObjectFloatMap<>();
+    private final Array<String> keys = new Array<>(); // Insertion order for stable log output
+    private final StringBuilder logBuilder = new StringBuilder(256);
+
+    private float frameTimeMs = 0f;
+    private float averageFrameTimeMs = 0f;
+    private float worstFrameTimeMs = 0f;
+    private int framesSinceLog = 0;
+    private float totalFrameMsSinceLog = 0f;
+    private float timeSinceLog = 0f;
+
+    /**
+     * Start a new frame
+     * @param delta Frame delta time in seconds
+     */
+    public void beginFrame(float delta) {
+        frameTimeMs = delta * 1000f;
+        framesSinceLog++;
+        totalFrameMsSinceLog += frameTimeMs;
+        worstFrameTimeMs = Math.max(worstFrameTimeMs, frameTimeMs);
+        timeSinceLog += delta;
+    }
+
+    /**
+     * Finish the frame and log a summary when the interval has elapsed
+     */
+    public void endFrame() {
+        if (timeSinceLog < LOG_INTERVAL || framesSinceLog == 0) return;
+
+        averageFrameTimeMs = totalFrameMsSinceLog / framesSinceLog;
+
+        logBuilder.setLength(0);
+        logBuilder.append("frame avg=").append(round(averageFrameTimeMs))
+                .append("ms worst=").append(round(worstFrameTimeMs)).append("ms");
+        for (int i = 0; i < keys.size; i++) {
+            String key = keys.get(i);
+            logBuilder.append(' ').append(key).append('=').append(round(values.get(key, 0f)));
+        }
+        Gdx.app.log("FrightNight", logBuilder.toString());
+
+        framesSinceLog = 0;
+        totalFrameMsSinceLog = 0f;
+        worstFrameTimeMs = 0f;
+        timeSinceLog = 0f;
+    }
+
+    /**
+     * Publish a named value (overwrites the previous value)
+     */
+    public void set(String key, float value) {
+        if (!values.containsKey(key)) {
+            keys.add(key);
+        }
+        values.put(key, value);
+    }
+
+    /**
+     * Add to a named counter
+     */
+    public void add(String key, float amount) {
+        set(key, values.get(key, 0f) + amount);
+    }
+
+    public float get(String key) {
+        return values.get(key, 0f);
+    }
+
+    public float getFrameTimeMs() {
+        return frameTimeMs;
+    }
+
+    public float getAverageFrameTimeMs() {
+        return averageFrameTimeMs;
+    }
+
+    private static float round(float value) {
+        return Math.round(value * 100f) / 100f;
+    }
+}
@@ -2,6 +2,7 @@ package com.frightnight.game;
 
 import com.badlogic.gdx.ApplicationListener;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.PerspectiveCamera;
@@ -17,15 +18,28 @@ import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import java.util.Random;
 
 public class FrightNightGame3D implements ApplicationListener {
     
     private PerspectiveCamera camera;
+    private PerspectiveCamera skyCamera; // Long far plane for the distant sky layer
     private ModelBatch modelBatch;
+    private MaterialRegistry materialRegistry; // Shared materials + sort keys
+    private SceneRenderableSorter renderableSorter;
+    private SceneShaderProvider shaderProvider; // Owned by the model batch
     private Environment environment;
+    private Environment skyEnvironment; // Same lights, thinner fog for the distant sky layer
+    private ColorAttribute skyAmbient;
+    private ColorAttribute skyFlashAmbient; // Horizon lit up by a lightning strike
+    private BakedLightAttribute bakedLight; // Brightens the baked terrain and trees during flashes
     private Array<ModelInstance> instances;
+    private Array<ModelInstance> skyInstances; // Moon and mountains (clouds are billboards)
     private ModelBuilder modelBuilder;
     
     // Cached models (reuse for multiple instances!)
@@ -37,15 +51,30 @@ public class FrightNightGame3D implements ApplicationListener {
     // New environmental systems
     private TerrainSystem terrain;
     private Array<RealisticTree> realisticTrees;
+    private TreeArchetypeLibrary treeLibrary; // Shared tree meshes the forest is placed from
     private ForestPath forestPath;
     private WindGrassField windGrass;
+    private WindSystem wind; // Shared by grass, trees, clouds and birds
     private PlayerShadow playerShadow;
-    private Array<ScaryEnemy> enemies;
+    private EnemyDirector enemyDirector; // Pooled enemies, spawned out of view as the night goes on
     
     // Atmospheric effects
     private Array<VolumetricCloud> volumetricClouds;
+    private CloudRenderer cloudRenderer;
+    private TreeLodSystem treeLod; // Merged meshes and impostors for distant trees
+    private InstancedRenderer instancedRenderer; // GLES 3.0 only; null on the GLES 2.0 path
+    private GLProfiler glProfiler; // GL call counts, to compare the two render paths (debug only)
+    private boolean glProfiling = false;
+    private SkyCubemap skyCubemap; // Baked distant layer (null = geometry path)
+    private SkyCubemap.Painter skyPainter;
+    private int lastStrikeCount = 0;
+    private boolean skyFlashLit = false;
     private LightningSystem lightningSystem;
-    private Array<FlyingBird> birds;
+    private BirdFlock birds; // Murder of crows, one instanced draw on GLES 3.0
+    private final SimulationLod simulationLod = new SimulationLod(); // Update rate by distance and visibility
+    private float[] cloudPending;
+    private PerceptionSystem perception; // Enemy line of sight, a few raycasts per frame
+    private WorldBvh worldBvh; // Raycasts against the static world (terrain, path, trees)
     
     // First-person controller
     public FirstPersonController fpsController;
@@ -58,8 +87,20 @@ public class FrightNightGame3D implements ApplicationListener {
     
     // Scary level (0-10)
     private int scaryLevel = 0;
+    private final long worldSeed = MathUtils.random.nextLong(); // Scatter seed; the same seed rebuilds the same layout
     private int score = 0;
     
+    private static final float SKY_FAR = 400f;
+    private static final float BAKED_FLASH_GAIN = 0.75f; // Extra brightness of baked surfaces at full flash
+    private static final boolean BAKED_SKY = true; // false = draw sky geometry every frame (for comparison)
+    private static final int SKY_CUBEMAP_SIZE = 256;
+    
+    // Height fog: thickest near the ground, thinning above FOG_BASE_HEIGHT
+    private static final float FOG_HEIGHT_FALLOFF = 0.08f;
+    private static final float FOG_BASE_HEIGHT = 2f;
+    private static final float FOG_MIN_HEIGHT_FACTOR = 0.75f;
+    private static final float SKY_FOG_DENSITY = 0.006f; // Distant mountains fade to silhouettes
+    
     // Demo mode (AI control)
     private boolean isDemoMode = false;
     private DemoAI demoAI;
@@ -75,9 +116,28 @@ public class FrightNightGame3D implements ApplicationListener {
     private BitmapFont font;
     private ShapeRenderer shapeRenderer;
     
+    // Performance: offscreen 3D pass with adaptive scale, plus frame metrics
+    private DynamicResolution dynamicResolution;
+    private FrameMetrics metrics;
+    private PostProcessor postProcessor; // Bloom, vignette and flash in one composite pass
+    private DistanceCuller culler;
+    private OcclusionCuller occlusionCuller; // Hills and trunks hide what's behind them
+    
+    // Adaptive scene quality
+    private QualityGovernor qualityGovernor;
+    private QualityApplier qualityApplier;
+    private QualityTier appliedTier;
+    private QualityTier initialTier; // Starting tier from the device calibration
+    private int thermalStatus = QualityGovernor.THERMAL_NONE;
+    
     public FrightNightGame3D(int scaryLevel, boolean isDemoMode) {
+        this(scaryLevel, isDemoMode, QualityTier.HIGH);
+    }
+    
+    public FrightNightGame3D(int scaryLevel, boolean isDemoMode, QualityTier initialTier) {
         this.scaryLevel = scaryLevel;
         this.isDemoMode = isDemoMode;
+        this.initialTier = initialTier;
     }
     
     @Override
@@ -92,11 +152,17 @@ public class FrightNightGame3D implements ApplicationListener {
             fpsController = new FirstPersonController(camera, startPosition);
             Gdx.app.log("FrightNight", "Camera starting at: " + startPosition);
             fpsController.setLookSensitivity(0.15f); // Adjust for mobile
+            skyCamera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            skyCamera.near = 1f;
+            skyCamera.far = SKY_FAR;
             Gdx.app.log("FrightNight", "Camera and FPS controller created successfully");
             
             // Model batch for 3D rendering
             Gdx.app.log("FrightNight", "Creating ModelBatch...");
-            modelBatch = new ModelBatch();
+            materialRegistry = new MaterialRegistry();
+            renderableSorter = new SceneRenderableSorter(materialRegistry);
+            shaderProvider = new SceneShaderProvider();
+            modelBatch = new ModelBatch(shaderProvider, renderableSorter);
             Gdx.app.log("FrightNight", "ModelBatch created successfully");
         
             // Environment with dusk lighting (warmer, brighter)
@@ -114,12 +180,29 @@ public class FrightNightGame3D implements ApplicationListener {
             DirectionalLight moonLight = new DirectionalLight();
             moonLight.set(0.5f, 0.5f, 0.6f, 0.3f, -0.5f, 0.2f);
             environment.add(moonLight);
+            
+            // Static terrain and trees have these lights baked in; flashes modulate them
+            bakedLight = new BakedLightAttribute(1f);
+            environment.set(bakedLight);
+            
+            // One wind for everything; stormier the scarier the night
+            wind = new WindSystem(worldSeed + 5, environment);
+            wind.setStorm(scaryLevel / 10f);
+            
+            skyEnvironment = new Environment();
+            skyAmbient = new ColorAttribute(ColorAttribute.AmbientLight, 0.6f, 0.6f, 0.7f, 1f);
+            skyFlashAmbient = new ColorAttribute(ColorAttribute.AmbientLight, 1f, 1f, 1.1f, 1f);
+            skyEnvironment.set(skyAmbient);
+            skyEnvironment.add(mainLight);
+            skyEnvironment.add(moonLight);
+            culler = new DistanceCuller();
             Gdx.app.log("FrightNight", "Environment created successfully");
             
             // Initialize model builder
             Gdx.app.log("FrightNight", "Creating ModelBuilder...");
             modelBuilder = new ModelBuilder();
             instances = new Array<>();
+            skyInstances = new Array<>();
             Gdx.app.log("FrightNight", "ModelBuilder created successfully");
             
             // Load textures
@@ -132,6 +215,64 @@ public class FrightNightGame3D implements ApplicationListener {
             buildWorld();
             Gdx.app.log("FrightNight", "World built successfully with " + instances.size + " instances");
             
+            // Tree LODs: impostors are baked now; without them every tree stays full detail
+            try {
+                treeLod = new TreeLodSystem(realisticTrees, treeLibrary);
+                Gdx.app.log("FrightNight", "Tree LODs ready for " + treeLod.getTreeCount() + " trees");
+            } catch (Exception e) {
+                Gdx.app.error("FrightNight", "Tree LODs unavailable: " + e.getMessage(), e);
+                treeLod = null;
+            }
+            
+            // Mid-range tree meshes are drawn outside the instance list but share its pipeline
+            Array<ModelInstance> treeLodInstances = new Array<>();
+            for (RealisticTree tree : realisticTrees) {
+                treeLodInstances.add(tree.getLodInstance());
+            }
+            
+            // Identical materials become one shared material (before tiers hide anything)
+            materialRegistry.internAll(instances);
+            materialRegistry.internAll(skyInstances);
+            materialRegistry.internAll(treeLodInstances);
+            Array<ModelInstance> enemyInstances = enemyDirector != null ? enemyDirector.getAllInstances() : new Array<ModelInstance>();
+            materialRegistry.internAll(enemyInstances);
+            Gdx.app.log("FrightNight", "Materials interned: " + materialRegistry.getMaterialCount() + " distinct");
+            
+            // Compile every shader the full scene needs now rather than on first sight mid-game
+            applyEffects(initialTier);
+            shaderProvider.prewarm(instances, environment);
+            shaderProvider.prewarm(skyInstances, skyEnvironment);
+            shaderProvider.prewarm(treeLodInstances, environment);
+            shaderProvider.prewarm(enemyInstances, environment);
+            if (windGrass != null) {
+                shaderProvider.prewarm(Array.with(windGrass), environment);
+            }
+            Gdx.app.log("FrightNight", "Shaders compiled: " + shaderProvider.getShaderCount());
+            
+            // GLES 3.0: repeated meshes are drawn instanced; GLES 2.0 keeps one draw per instance
+            if (Gdx.gl30 != null) {
+                Array<ModelInstance> candidates = new Array<>(instances);
+                candidates.addAll(treeLodInstances);
+                candidates.addAll(enemyInstances); // The whole pool, so spawning never grows a group
+                instancedRenderer = new InstancedRenderer(candidates, shaderProvider);
+                Gdx.app.log("FrightNight", "Render path: GLES 3.0, " + instancedRenderer.getInstancedCount()
+                        + " instances in " + instancedRenderer.getGroupCount() + " instanced groups");
+            } else {
+                Gdx.app.log("FrightNight", "Render path: GLES 2.0");
+            }
+            
+            // Quality governor: the world is built at the highest tier, then trimmed to the start tier
+            Gdx.app.log("FrightNight", "Applying quality tier " + initialTier + "...");
+            qualityGovernor = new QualityGovernor(initialTier);
+            qualityGovernor.setThermalStatus(thermalStatus);
+            qualityApplier = new QualityApplier(instances, windGrass, birds,
+                    volumetricClouds, realisticTrees, playerShadow);
+            qualityApplier.setTarget(initialTier);
+            qualityApplier.applyAll();
+            applyDrawDistance(initialTier);
+            appliedTier = initialTier;
+            Gdx.app.log("FrightNight", "Quality applied: " + instances.size + " near, " + skyInstances.size + " sky instances");
+            
             // Initialize controls
             Gdx.app.log("FrightNight", "Creating controls...");
             joystick = new TouchJoystick();
@@ -140,13 +281,14 @@ public class FrightNightGame3D implements ApplicationListener {
             // Initialize demo AI if in demo mode
             if (isDemoMode) {
                 Gdx.app.log("FrightNight", "Initializing Demo AI...");
-                demoAI = new DemoAI(terrain);
+                demoAI = new DemoAI(terrain, forestPath != null ? forestPath.getDistanceField() : null);
                 Gdx.app.log("FrightNight", "Demo AI initialized");
             }
             
             // Initialize atmospheric effects
             Gdx.app.log("FrightNight", "Creating atmospheric effects...");
             lightningSystem = new LightningSystem();
+            lightningSystem.setWorld(worldBvh); // Bolts strike the tallest thing around
             Gdx.app.log("FrightNight", "Lightning system created");
             
             // Initialize UI components for game over screen
@@ -157,6 +299,26 @@ public class FrightNightGame3D implements ApplicationListener {
             shapeRenderer = new ShapeRenderer();
             Gdx.app.log("FrightNight", "UI components initialized");
             
+            // Dynamic resolution for the 3D pass (HUD stays native)
+            metrics = new FrameMetrics();
+            if (glProfiling) {
+                // Wraps every GL call, so it stays off unless asked for
+                glProfiler = new GLProfiler(Gdx.graphics);
+                glProfiler.enable();
+            }
+            dynamicResolution = new DynamicResolution(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            Gdx.app.log("FrightNight", "Dynamic resolution initialized");
+            
+            // Post-processing runs on the offscreen scene; without it we fall back to a plain upscale
+            try {
+                postProcessor = new PostProcessor(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+                Gdx.app.log("FrightNight", "Post-processing initialized");
+            } catch (Exception e) {
+                Gdx.app.error("FrightNight", "Post-processing unavailable: " + e.getMessage(), e);
+                postProcessor = null;
+            }
+            applyEffects(initialTier);
+            
             Gdx.input.setInputProcessor(new GameInputProcessor(this));
             Gdx.app.log("FrightNight", "=== Game initialization complete ===");
             
@@ -167,6 +329,7 @@ public class FrightNightGame3D implements ApplicationListener {
     }
     
     private void buildWorld() {
+        VertexLightBaker lightBaker = null;
         try {
             // Create large TEXTURED GROUND PLANE with grass texture
             Gdx.app.log("FrightNight", "Creating textured ground plane...");
@@ -182,11 +345,13 @@ public class FrightNightGame3D implements ApplicationListener {
             
             // Create realistic terrain with hills and valleys
             Gdx.app.log("FrightNight", "Creating terrain system...");
-            terrain = new TerrainSystem(modelBuilder);
+            lightBaker = new VertexLightBaker(environment);
+            long bakeStart = System.nanoTime();
+            terrain = new TerrainSystem(modelBuilder, lightBaker, new Random(worldSeed + 11));
             instances.add(terrain.getTerrainInstance());
             // Add distant mountains
             for (ModelInstance mountain : terrain.getMountainInstances()) {
-                instances.add(mountain);
+                skyInstances.add(mountain);
             }
             Gdx.app.log("FrightNight", "Terrain system created with mountains");
             Gdx.app.log("FrightNight", "Terrain bounds: 200x200 units, height variation: ~8 units");
@@ -203,62 +368,80 @@ public class FrightNightGame3D implements ApplicationListener {
             Gdx.app.log("FrightNight", "Creating moon instance...");
             ModelInstance moon = new ModelInstance(moonModel);
             moon.transform.setToTranslation(40f, 50f, -80f); // Far away in the sky
-            instances.add(moon);
+            skyInstances.add(moon);
             
             // Create volumetric clouds
             Gdx.app.log("FrightNight", "Creating volumetric clouds...");
             volumetricClouds = new Array<>();
-            for (int i = 0; i < 12; i++) {
-                float cloudX = (float)(Math.random() * 140 - 70);
-                float cloudY = 30f + (float)(Math.random() * 25); // High in the sky
-                float cloudZ = -40f - (float)(Math.random() * 80);
-                float scale = 0.8f + (float)(Math.random() * 0.6f); // Varying sizes
+            Array<Vector2> cloudSpots = new PoissonScatter(-70, -120, 70, -40).scatter(12, worldSeed + 4);
+            Random cloudRandom = new Random(worldSeed + 8); // Height, size and puff layout
+            for (Vector2 spot : cloudSpots) {
+                float cloudX = spot.x;
+                float cloudY = 30f + cloudRandom.nextFloat() * 25; // High in the sky
+                float cloudZ = spot.y;
+                float scale = 0.8f + cloudRandom.nextFloat() * 0.6f; // Varying sizes
                 
-                VolumetricCloud cloud = new VolumetricCloud(modelBuilder, cloudX, cloudY, cloudZ, scale);
+                VolumetricCloud cloud = new VolumetricCloud(cloudX, cloudY, cloudZ, scale, cloudRandom);
                 volumetricClouds.add(cloud);
-                
-                // Add cloud parts to instances for rendering
-                for (ModelInstance part : cloud.getInstances()) {
-                    instances.add(part);
+            }
+            
+            // All puffs are drawn as billboards in one batch
+            cloudRenderer = new CloudRenderer(volumetricClouds);
+            
+            // Bake the distant layer into a cubemap; fall back to drawing it every frame
+            skyPainter = new SkyCubemap.Painter() {
+                @Override
+                public void paint(Camera camera) {
+                    renderSkyLayer(camera);
+                }
+            };
+            if (BAKED_SKY) {
+                try {
+                    skyCubemap = new SkyCubemap(SKY_CUBEMAP_SIZE, SKY_FAR);
+                    Gdx.app.log("FrightNight", "Sky cubemap created");
+                } catch (Exception e) {
+                    Gdx.app.error("FrightNight", "Sky cubemap unavailable, drawing sky geometry: " + e.getMessage(), e);
+                    skyCubemap = null;
                 }
             }
             Gdx.app.log("FrightNight", "Created " + volumetricClouds.size + " volumetric clouds");
             
-            // Create flying birds
-            Gdx.app.log("FrightNight", "Creating flying birds...");
-            birds = new Array<>();
-            for (int i = 0; i < 6; i++) {
-                float birdX = (float)(Math.random() * 120 - 60);
-                float birdY = 25f + (float)(Math.random() * 30); // Various heights
-                float birdZ = (float)(Math.random() * 120 - 60);
-                boolean isDark = Math.random() > 0.3; // 70% dark crows for horror
-                
-                FlyingBird bird = new FlyingBird(modelBuilder, birdX, birdY, birdZ, isDark);
-                birds.add(bird);
-                
-                // Add bird parts to instances
-                instances.add(bird.getBody());
-                instances.add(bird.getLeftWing());
-                instances.add(bird.getRightWing());
-            }
-            Gdx.app.log("FrightNight", "Created " + birds.size + " flying birds");
+            // Create the crow flock (drawn as its own renderable provider)
+            Gdx.app.log("FrightNight", "Creating bird flock...");
+            birds = new BirdFlock(terrain, QualityTier.highest().birdCount, worldSeed + 6, 0f, -40f);
             Gdx.app.log("FrightNight", "Ground instance added");
             
-            // Create realistic forest with branches
-            Gdx.app.log("FrightNight", "Creating realistic forest...");
+            // Create winding forest path with texture (before anything that keeps off it)
+            Gdx.app.log("FrightNight", "Creating forest path...");
+            forestPath = new ForestPath(modelBuilder, terrain, textureManager.getPathTexture(), new Random(worldSeed + 9));
+            for (ModelInstance pathSegment : forestPath.getPathSegments()) {
+                instances.add(pathSegment);
+            }
+            terrain.applyPathBlend(forestPath.getDistanceField());
+            Gdx.app.log("FrightNight", "Forest path created with texture");
+            
+            // Create realistic forest with branches: a few shared archetypes, placed many times
+            Gdx.app.log("FrightNight", "Creating realistic forest (world seed " + worldSeed + ")...");
+            treeLibrary = new TreeArchetypeLibrary(modelBuilder, lightBaker,
+                    TreeArchetypeLibrary.DEFAULT_SCARY_COUNT, TreeArchetypeLibrary.DEFAULT_NORMAL_COUNT,
+                    new Random(worldSeed + 10));
             realisticTrees = new Array<>();
             int numTrees = 25;
-            for (int i = 0; i < numTrees; i++) {
-                float x = (float)(Math.random() * 140 - 70);
-                float z = (float)(Math.random() * 140 - 70);
-                
-                // Avoid center spawn area
-                if (Math.abs(x) < 15 && Math.abs(z) < 15) continue;
-                
+            Array<Vector2> treeSpots = new PoissonScatter(-70, -70, 70, 70)
+                    .mask(PoissonScatter.outside(0, 0, 15, 15)) // Avoid center spawn area
+                    .mask(PoissonScatter.offPath(forestPath, 1.5f))
+                    .mask(PoissonScatter.maxSlope(terrain, 1f))
+                    .scatter(numTrees, worldSeed + 1);
+            Random treeRandom = new Random(worldSeed + 7); // Kind, yaw and size: same seed, same forest
+            for (Vector2 spot : treeSpots) {
+                float x = spot.x;
+                float z = spot.y;
                 float y = terrain.getHeightAt(x, z);
-                boolean isScary = Math.random() < 0.7f; // 70% scary trees
+                boolean isScary = treeRandom.nextFloat() < 0.7f; // 70% scary trees
                 
-                RealisticTree tree = new RealisticTree(modelBuilder, x, y, z, isScary);
+                float yaw = treeRandom.nextFloat() * 360f;
+                float scale = 0.85f + treeRandom.nextFloat() * 0.3f;
+                RealisticTree tree = new RealisticTree(treeLibrary.pick(isScary, treeRandom), x, y, z, yaw, scale);
                 realisticTrees.add(tree);
                 
                 // Add all tree parts to instances
@@ -266,22 +449,30 @@ public class FrightNightGame3D implements ApplicationListener {
                     instances.add(part);
                 }
             }
-            Gdx.app.log("FrightNight", "Created " + realisticTrees.size + " realistic trees");
+            Gdx.app.log("FrightNight", "Created " + realisticTrees.size + " realistic trees from "
+                    + treeLibrary.size() + " archetypes");
+            lightBaker.dispose(); // Done baking; the finally below covers a build that throws first
+            Gdx.app.log("FrightNight", "Terrain and trees built and lit in " + (System.nanoTime() - bakeStart) / 1000000L + " ms");
             
-            // Create winding forest path with texture
-            Gdx.app.log("FrightNight", "Creating forest path...");
-            forestPath = new ForestPath(modelBuilder, terrain, textureManager.getPathTexture());
-            for (ModelInstance pathSegment : forestPath.getPathSegments()) {
-                instances.add(pathSegment);
-            }
-            Gdx.app.log("FrightNight", "Forest path created with texture");
+            // Static world for raycasts
+            long bvhStart = System.nanoTime();
+            worldBvh = new WorldBvh.Builder()
+                    .addModel(terrain.getTerrainInstance())
+                    .addModels(forestPath.getPathSegments())
+                    .addTrees(realisticTrees)
+                    .build();
+            Gdx.app.log("FrightNight", "World BVH: " + worldBvh.getPrimitiveCount() + " primitives, "
+                    + worldBvh.getNodeCount() + " nodes in " + (System.nanoTime() - bvhStart) / 1000000L + " ms");
             
-            // Create wind-animated grass field
+            // Create wind-animated grass in a ring around the player (drawn as its own renderable provider)
             Gdx.app.log("FrightNight", "Creating wind grass field...");
-            windGrass = new WindGrassField(modelBuilder, terrain, forestPath);
-            for (ModelInstance grassPatch : windGrass.getInstances()) {
-                instances.add(grassPatch);
-            }
+            windGrass = new WindGrassField(terrain, forestPath, worldSeed + 2,
+                    camera.position.x, camera.position.z);
+            
+            // Software occlusion: the terrain horizon and the trunks hide what's behind them
+            occlusionCuller = new OcclusionCuller(terrain, realisticTrees);
+            culler.setOcclusion(occlusionCuller);
+            windGrass.setOcclusion(occlusionCuller);
             Gdx.app.log("FrightNight", "Wind grass created");
             
             // Create player shadow from moonlight
@@ -290,25 +481,12 @@ public class FrightNightGame3D implements ApplicationListener {
             instances.add(playerShadow.getInstance());
             Gdx.app.log("FrightNight", "Player shadow created");
             
-            // Create scary enemies (only if scaryLevel > 0)
+            // Pool the scary enemies (only if scaryLevel > 0); the director spawns them as the night goes on
             Gdx.app.log("FrightNight", "Creating scary enemies...");
-            enemies = new Array<>();
             if (scaryLevel > 0) {
-                int numEnemies = 2 + scaryLevel / 3; // 2-5 enemies based on scary level
-                for (int i = 0; i < numEnemies; i++) {
-                    float x = (float)(Math.random() * 100 - 50);
-                    float z = (float)(Math.random() * 100 - 50);
-                    
-                    // Avoid spawning too close to player
-                    if (Math.abs(x) < 20 && Math.abs(z) < 20) continue;
-                    
-                    ScaryEnemy enemy = new ScaryEnemy(modelBuilder, terrain, x, z);
-                    enemies.add(enemy);
-                    
-                    instances.add(enemy.getBodyInstance());
-                    instances.add(enemy.getHeadInstance());
-                }
-                Gdx.app.log("FrightNight", "Created " + enemies.size + " scary enemies!");
+                enemyDirector = new EnemyDirector(modelBuilder, terrain, scaryLevel, worldSeed + 3);
+                perception = new PerceptionSystem(terrain, realisticTrees, enemyDirector.getCapacity());
+                enemyDirector.setPerception(perception);
             }
             
             Gdx.app.log("FrightNight", "Forest created: " + instances.size + " instances so far");
@@ -316,16 +494,23 @@ public class FrightNightGame3D implements ApplicationListener {
         } catch (Exception e) {
             Gdx.app.error("FrightNight", "Error building world: " + e.getMessage(), e);
             isGameOver = true;
+        } finally {
+            if (lightBaker != null) {
+                lightBaker.dispose();
+            }
         }
     }
     
     public void render() {
         try {
             float delta = Gdx.graphics.getDeltaTime();
+            if (metrics != null) {
+                metrics.beginFrame(delta);
+            }
             update(delta);
             
-            // Dark BLUE sky (not purple!)
-            Gdx.gl.glClearColor(0.02f, 0.05f, 0.15f, 1);
+            // Dark BLUE sky (not purple!) - alpha 0 keeps the sky out of the bloom mask
+            Gdx.gl.glClearColor(0.02f, 0.05f, 0.15f, 0f);
             Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
             
             if (isGameOver) {
@@ -337,33 +522,209 @@ public class FrightNightGame3D implements ApplicationListener {
                 return;
             }
             
+            // The camera is final for the frame: rasterise the occluders while the sky is drawn
+            if (occlusionCuller != null) {
+                occlusionCuller.begin(camera);
+            }
+            
+            // Sky layer first with a long far plane, then the near scene over it
+            skyCamera.position.set(camera.position);
+            skyCamera.direction.set(camera.direction);
+            skyCamera.up.set(camera.up);
+            skyCamera.update();
+            
+            // Refresh the baked sky before the scene buffer is bound
+            long skyStart = System.nanoTime();
+            if (skyCubemap != null) {
+                updateSkyFlash();
+                skyCubemap.refresh(delta, camera.position, skyPainter);
+            }
+            
+            // Render 3D world into the scaled offscreen buffer
+            if (dynamicResolution != null) {
+                dynamicResolution.update(delta);
+                dynamicResolution.begin();
+            }
+            
+            if (skyCubemap != null) {
+                skyCubemap.render(camera);
+            } else {
+                Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
+                renderSkyLayer(skyCamera);
+                Gdx.gl.glClear(GL20.GL_DEPTH_BUFFER_BIT);
+            }
+            float skyMs = (System.nanoTime() - skyStart) / 1000000f;
+            
             Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
             
-            // Render 3D world
+            // Anything past the far plane is already lost in the fog
             modelBatch.begin(camera);
+            if (instancedRenderer != null) {
+                instancedRenderer.begin();
+            }
+            if (treeLod != null) {
+                treeLod.update(camera, delta);
+            }
             for (ModelInstance instance : instances) {
-                if (instance != null) {
+                if (instance != null && (treeLod == null || !treeLod.isHidden(instance))
+                        && culler.isVisible(instance, camera, camera.far)
+                        && (instancedRenderer == null || !instancedRenderer.add(instance))) {
                     modelBatch.render(instance, environment);
                 }
             }
+            if (treeLod != null) {
+                for (int t = 0; t < treeLod.getTreeCount(); t++) {
+                    ModelInstance merged = treeLod.getMergedInstance(t);
+                    if (merged != null && culler.isVisible(merged, camera, camera.far)
+                            && (instancedRenderer == null || !instancedRenderer.add(merged))) {
+                        modelBatch.render(merged, environment);
+                    }
+                }
+            }
+            if (enemyDirector != null) {
+                Array<ScaryEnemy> activeEnemies = enemyDirector.getActive();
+                for (int e = 0; e < activeEnemies.size; e++) {
+                    Array<ModelInstance> parts = activeEnemies.get(e).getInstances();
+                    for (int p = 0; p < parts.size; p++) {
+                        ModelInstance part = parts.get(p);
+                        if (culler.isVisible(part, camera, camera.far)
+                                && (instancedRenderer == null || !instancedRenderer.add(part))) {
+                            modelBatch.render(part, environment);
+                        }
+                    }
+                }
+            }
+            if (windGrass != null) {
+                modelBatch.render(windGrass, environment);
+            }
+            if (birds != null) {
+                modelBatch.render(birds, environment);
+            }
+            if (instancedRenderer != null) {
+                instancedRenderer.end();
+                modelBatch.render(instancedRenderer, environment);
+            }
             modelBatch.end();
+            if (treeLod != null) {
+                treeLod.renderImpostors(camera, environment);
+            }
             
             Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
             
-            // Render lightning effects (screen flash)
-            if (lightningSystem != null) {
-                lightningSystem.renderFlash();
+            // Upscale to native resolution before the HUD
+            if (dynamicResolution != null) {
+                dynamicResolution.end();
+            }
+            if (postProcessor != null && dynamicResolution != null && dynamicResolution.isEnabled()) {
+                // Bloom, vignette and the lightning flash all land in one fullscreen pass
+                postProcessor.setFlash(lightningSystem != null ? lightningSystem.getFlashIntensity() : 0f);
+                postProcessor.render(dynamicResolution.getColorTexture(),
+                        dynamicResolution.getUsedU(), dynamicResolution.getUsedV());
+            } else {
+                if (dynamicResolution != null) {
+                    dynamicResolution.present(spriteBatch);
+                }
+                
+                // Render lightning effects (screen flash)
+                if (lightningSystem != null) {
+                    lightningSystem.renderFlash();
+                }
             }
             
             // Render joystick UI (hide in demo mode)
             if (joystick != null && !isDemoMode) {
                 joystick.render();
             }
+            
+            if (metrics != null) {
+                if (dynamicResolution != null) {
+                    dynamicResolution.reportMetrics(metrics);
+                }
+                if (qualityGovernor != null) {
+                    qualityGovernor.reportMetrics(metrics);
+                }
+                culler.reportMetrics(metrics);
+                if (occlusionCuller != null) {
+                    occlusionCuller.reportMetrics(metrics);
+                }
+                renderableSorter.reportMetrics(metrics);
+                metrics.set("sky.ms", skyMs);
+                if (skyCubemap != null) {
+                    skyCubemap.reportMetrics(metrics);
+                }
+                if (cloudRenderer != null) {
+                    cloudRenderer.reportMetrics(metrics);
+                }
+                metrics.set("scene.instances", instances.size);
+                metrics.set("scene.skyInstances", skyInstances.size);
+                if (instancedRenderer != null) {
+                    instancedRenderer.reportMetrics(metrics);
+                }
+                if (treeLod != null) {
+                    treeLod.reportMetrics(metrics);
+                }
+                if (windGrass != null) {
+                    windGrass.reportMetrics(metrics);
+                }
+                if (birds != null) {
+                    birds.reportMetrics(metrics);
+                }
+                simulationLod.reportMetrics(metrics);
+                if (perception != null) {
+                    perception.reportMetrics(metrics);
+                }
+                if (enemyDirector != null) {
+                    enemyDirector.reportMetrics(metrics);
+                }
+                if (glProfiler != null) {
+                    metrics.set("gl.calls", glProfiler.getCalls());
+                    metrics.set("gl.drawCalls", glProfiler.getDrawCalls());
+                    metrics.set("gl.shaderSwitches", glProfiler.getShaderSwitches());
+                    metrics.set("gl.textureBindings", glProfiler.getTextureBindings());
+                    glProfiler.reset();
+                }
+                metrics.endFrame();
+            }
         } catch (Exception e) {
             Gdx.app.error("FrightNight", "Error in render: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Distant layer: moon, mountains and clouds
+     */
+    private void renderSkyLayer(Camera camera) {
+        modelBatch.begin(camera);
+        for (ModelInstance instance : skyInstances) {
+            if (culler.isVisible(instance, camera, SKY_FAR)) {
+                modelBatch.render(instance, skyEnvironment);
+            }
+        }
+        modelBatch.end();
+        if (cloudRenderer != null) {
+            cloudRenderer.render(camera);
+        }
+    }
+    
+    /**
+     * Re-bake the sky lit up when lightning strikes, and again once the flash is over
+     */
+    private void updateSkyFlash() {
+        if (lightningSystem == null) return;
+        
+        int strikes = lightningSystem.getStrikeCount();
+        if (strikes != lastStrikeCount) {
+            lastStrikeCount = strikes;
+            skyFlashLit = true;
+            skyEnvironment.set(skyFlashAmbient);
+            skyCubemap.requestFullBake();
+        } else if (skyFlashLit && !lightningSystem.isFlashing()) {
+            skyFlashLit = false;
+            skyEnvironment.set(skyAmbient);
+            skyCubemap.requestFullBake();
+        }
+    }
+    
     private void update(float delta) {
         if (isGameOver) return;
         if (joystick == null || fpsController == null) return;
@@ -374,7 +735,8 @@ public class FrightNightGame3D implements ApplicationListener {
         if (isDemoMode && demoAI != null) {
             // AI controls the player in demo mode
             try {
-                movement = demoAI.update(delta, fpsController.getPosition(), enemies);
+                movement = demoAI.update(delta, fpsController.getPosition(),
+                        enemyDirector != null ? enemyDirector.getActive() : null);
                 
                 // AI also controls camera rotation
                 if (demoAI.shouldLookAround()) {
@@ -407,50 +769,70 @@ public class FrightNightGame3D implements ApplicationListener {
         // Update camera position and rotation
         fpsController.update();
         
+        updateQuality(delta);
+        
         // Update atmospheric effects
         if (lightningSystem != null) {
             lightningSystem.update(delta, fpsController.getPosition());
+            if (bakedLight != null) {
+                bakedLight.intensity = 1f + lightningSystem.getFlashIntensity() * BAKED_FLASH_GAIN;
+            }
         }
         
-        // Update volumetric clouds (drifting)
+        // Gusts pick up with every lightning strike
+        if (wind != null) {
+            wind.update(delta, lightningSystem != null ? lightningSystem.getStrikeCount() : 0);
+        }
+        
+        // Distant and off-screen clouds, birds and enemies are stepped less often
+        simulationLod.beginFrame(delta, fpsController.getPosition(), camera);
+        
+        // Update volumetric clouds (drifting with the wind)
         if (volumetricClouds != null) {
-            for (VolumetricCloud cloud : volumetricClouds) {
-                cloud.update(delta);
+            if (cloudPending == null || cloudPending.length != volumetricClouds.size) {
+                cloudPending = new float[volumetricClouds.size];
+            }
+            for (int i = 0; i < volumetricClouds.size; i++) {
+                VolumetricCloud cloud = volumetricClouds.get(i);
+                float step = simulationLod.step(cloudPending, i, simulationLod.tierOf(cloud.getPosition(), cloud.getRadius()));
+                if (step > 0f) {
+                    cloud.update(step, wind);
+                }
             }
         }
         
-        // Update flying birds
+        // Update the flock (quality tiers set how many birds fly)
         if (birds != null) {
-            for (FlyingBird bird : birds) {
-                bird.update(delta);
-            }
+            birds.update(delta, wind, camera, simulationLod);
         }
         
         // Update wind grass animation
         if (windGrass != null) {
-            windGrass.update(delta);
+            windGrass.update(delta, camera);
         }
         
         // Update player shadow position
-        if (playerShadow != null && fpsController != null && terrain != null) {
+        if (playerShadow != null && fpsController != null && terrain != null
+                && (qualityApplier == null || qualityApplier.isShadowVisible())) {
             playerShadow.update(fpsController.getPosition(), terrain);
         }
         
-        // Update scary enemies AI
-        if (enemies != null && fpsController != null) {
+        // Update scary enemies AI (spawning and recycling them around the player)
+        if (enemyDirector != null && fpsController != null) {
             try {
                 Vector3 playerPos = fpsController.getPosition();
                 if (playerPos != null) {
-                    for (ScaryEnemy enemy : enemies) {
-                        if (enemy != null) {
-                            enemy.update(delta, playerPos);
-                            
-                            // Check if enemy caught player
-                            if (enemy.hasReachedPlayer(playerPos)) {
-                                Gdx.app.log("FrightNight", "GAME OVER - Enemy caught you!");
-                                gameOver();
-                            }
-                        }
+                    // Hills and trees block sight; hiding ducks behind them
+                    if (perception != null) {
+                        perception.update(delta, playerPos, isHiding);
+                    }
+                    // Chasing enemies are well inside the every-frame range of the update LOD
+                    enemyDirector.update(delta, playerPos, camera, simulationLod);
+                    
+                    // Check if enemy caught player
+                    if (enemyDirector.hasCaughtPlayer(playerPos)) {
+                        Gdx.app.log("FrightNight", "GAME OVER - Enemy caught you!");
+                        gameOver();
                     }
                 }
             } catch (Exception e) {
@@ -471,6 +853,69 @@ public class FrightNightGame3D implements ApplicationListener {
         }
     }
     
+    /**
+     * Let the governor pick a tier and move the scene toward it a little each frame
+     */
+    private void updateQuality(float delta) {
+        if (qualityGovernor == null || qualityApplier == null) return;
+        
+        float resolutionScale = dynamicResolution != null ? dynamicResolution.getScale() : 1f;
+        qualityGovernor.update(delta, resolutionScale);
+        
+        QualityTier tier = qualityGovernor.getTier();
+        if (tier != appliedTier) {
+            qualityApplier.setTarget(tier);
+            applyDrawDistance(tier);
+            applyEffects(tier);
+            appliedTier = tier;
+        }
+        qualityApplier.step();
+    }
+    
+    private void applyDrawDistance(QualityTier tier) {
+        camera.far = tier.drawDistance;
+        camera.update();
+    }
+    
+    /**
+     * Per-tier fog and post-processing toggles
+     * The fog closes in at the draw distance so culled objects never pop
+     */
+    private void applyEffects(QualityTier tier) {
+        if (tier.fog) {
+            ColorAttribute fogColor = new ColorAttribute(ColorAttribute.Fog, 0.02f, 0.05f, 0.15f, 1f); // Sky color
+            environment.set(fogColor);
+            environment.set(SceneFogAttribute.forDrawDistance(tier.drawDistance,
+                    FOG_HEIGHT_FALLOFF, FOG_BASE_HEIGHT, FOG_MIN_HEIGHT_FACTOR));
+            skyEnvironment.set(fogColor);
+            skyEnvironment.set(new SceneFogAttribute(SKY_FOG_DENSITY,
+                    FOG_HEIGHT_FALLOFF, FOG_BASE_HEIGHT, FOG_MIN_HEIGHT_FACTOR));
+        } else {
+            environment.remove(ColorAttribute.Fog | SceneFogAttribute.Type);
+            skyEnvironment.remove(ColorAttribute.Fog | SceneFogAttribute.Type);
+        }
+        if (postProcessor != null) {
+            postProcessor.setEffects(tier.bloom, tier.vignette);
+        }
+    }
+    
+    /**
+     * Device thermal status from the platform layer (PowerManager.THERMAL_STATUS_*)
+     */
+    public void setThermalStatus(int status) {
+        thermalStatus = status;
+        if (qualityGovernor != null) {
+            qualityGovernor.setThermalStatus(status);
+        }
+    }
+    
+    /**
+     * Count GL calls into the metrics log (call before create(); debug builds and path comparisons only)
+     */
+    public void setGlProfiling(boolean enabled) {
+        glProfiling = enabled;
+    }
+    
     public void setRunning(boolean running) {
         isRunning = running;
     }
@@ -533,6 +978,18 @@ public class FrightNightGame3D implements ApplicationListener {
         camera.viewportWidth = width;
         camera.viewportHeight = height;
         camera.update();
+        skyCamera.viewportWidth = width;
+        skyCamera.viewportHeight = height;
+        
+        if (spriteBatch != null) {
+            spriteBatch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+        }
+        if (dynamicResolution != null) {
+            dynamicResolution.resize(width, height);
+        }
+        if (postProcessor != null) {
+            postProcessor.resize(width, height);
+        }
     }
     
     @Override
@@ -556,10 +1013,22 @@ public class FrightNightGame3D implements ApplicationListener {
         if (moonModel != null) moonModel.dispose();
         
         // Dispose atmospheric effects
+        if (cloudRenderer != null) {
+            cloudRenderer.dispose();
+        }
+        if (instancedRenderer != null) {
+            instancedRenderer.dispose();
+        }
+        if (treeLod != null) {
+            treeLod.dispose();
+        }
+        if (glProfiler != null) {
+            glProfiler.disable();
+        }
+        if (skyCubemap != null) {
+            skyCubemap.dispose();
+        }
         if (volumetricClouds != null) {
-            for (VolumetricCloud cloud : volumetricClouds) {
-                cloud.dispose();
-            }
             volumetricClouds.clear();
         }
         
@@ -568,10 +1037,7 @@ public class FrightNightGame3D implements ApplicationListener {
         }
         
         if (birds != null) {
-            for (FlyingBird bird : birds) {
-                bird.dispose();
-            }
-            birds.clear();
+            birds.dispose();
         }
         
         if (joystick != null) {
@@ -589,6 +1055,9 @@ public class FrightNightGame3D implements ApplicationListener {
             }
             realisticTrees.clear();
         }
+        if (treeLibrary != null) {
+            treeLibrary.dispose();
+        }
         
         if (forestPath != null) {
             forestPath.dispose();
@@ -602,11 +1071,12 @@ public class FrightNightGame3D implements ApplicationListener {
             playerShadow.dispose();
         }
         
-        if (enemies != null) {
-            for (ScaryEnemy enemy : enemies) {
-                enemy.dispose();
-            }
-            enemies.clear();
+        if (enemyDirector != null) {
+            enemyDirector.dispose();
+        }
+        
+        if (occlusionCuller != null) {
+            occlusionCuller.dispose();
         }
         
         // Dispose UI components
@@ -619,5 +1089,11 @@ public class FrightNightGame3D implements ApplicationListener {
         if (shapeRenderer != null) {
             shapeRenderer.dispose();
         }
+        if (dynamicResolution != null) {
+            dynamicResolution.dispose();
+        }
+        if (postProcessor != null) {
+            postProcessor.dispose();
+        }
     }
 }
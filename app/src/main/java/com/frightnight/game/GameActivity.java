@@ -2,7 +2,9 @@ package com.frightnight.game;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.PowerManager;
 import android.util.Log;
 import android.view.MotionEvent;
 import com.badlogic.gdx.backends.android.AndroidApplication;
@@ -14,8 +16,11 @@ import com.badlogic.gdx.backends.android.AndroidApplicationConfiguration;
  */
 public class GameActivity extends AndroidApplication {
     private static final String TAG = "GameActivity";
+    public static final String PREF_USE_GL30 = "useGL30"; // Opt-in GLES 3.0 path (instancing, VAOs)
+    public static final String PREF_PROFILE_GL = "profileGL"; // Debug: count GL calls into the metrics log
     private FrightNightGame3D game;
     private boolean isDemoMode = false;
+    private PowerManager.OnThermalStatusChangedListener thermalListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -36,8 +41,14 @@ public class GameActivity extends AndroidApplication {
                 Log.d(TAG, "Starting game with scary level: " + scaryLevel);
             }
             
+            // Starting quality profile picked by the splash calibration
+            QualityTier qualityTier = QualityTier.fromName(
+                    prefs.getString(DeviceCalibrator.PREF_QUALITY_TIER, null), QualityTier.HIGH);
+            Log.d(TAG, "Starting quality tier: " + qualityTier);
+            
             // Create LibGDX game
-            game = new FrightNightGame3D(scaryLevel, isDemoMode);
+            game = new FrightNightGame3D(scaryLevel, isDemoMode, qualityTier);
+            game.setGlProfiling(getIntent().getBooleanExtra("PROFILE_GL", prefs.getBoolean(PREF_PROFILE_GL, false)));
             
             // Configure LibGDX
             AndroidApplicationConfiguration config = new AndroidApplicationConfiguration();
@@ -46,9 +57,16 @@ public class GameActivity extends AndroidApplication {
             config.useGyroscope = false;
             config.useImmersiveMode = true; // Fullscreen
             
+            // GLES 3.0 is opt-in; libGDX falls back to a GLES 2.0 context if the device lacks it
+            config.useGL30 = getIntent().getBooleanExtra("USE_GL30", prefs.getBoolean(PREF_USE_GL30, false));
+            Log.d(TAG, "Requesting GLES " + (config.useGL30 ? "3.0" : "2.0"));
+            
             // Initialize LibGDX
             initialize(game, config);
             
+            // Feed device thermal status to the quality governor (Android 10+)
+            registerThermalListener();
+            
             Log.d(TAG, "Game initialized successfully");
         } catch (Exception e) {
             Log.e(TAG, "Error initializing game", e);
@@ -56,6 +74,28 @@ public class GameActivity extends AndroidApplication {
         }
     }
     
+    private void registerThermalListener() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return;
+        try {
+            PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+            if (powerManager == null) return;
+            
+            thermalListener = new PowerManager.OnThermalStatusChangedListener() {
+                @Override
+                public void onThermalStatusChanged(int status) {
+                    Log.d(TAG, "Thermal status changed: " + status);
+                    if (game != null) {
+                        game.setThermalStatus(status);
+                    }
+                }
+            };
+            powerManager.addThermalStatusListener(thermalListener);
+            game.setThermalStatus(powerManager.getCurrentThermalStatus());
+        } catch (Exception e) {
+            Log.e(TAG, "Error registering thermal listener", e);
+        }
+    }
+    
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         // Exit demo mode on any touch
@@ -81,6 +121,14 @@ public class GameActivity extends AndroidApplication {
     protected void onDestroy() {
         super.onDestroy();
         
+        if (thermalListener != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null) {
+                powerManager.removeThermalStatusListener(thermalListener);
+            }
+            thermalListener = null;
+        }
+        
         // Save final score
         if (game != null) {
             saveScore(game.getScore());
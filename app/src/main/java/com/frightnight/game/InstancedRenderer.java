@@ -0,0 +1,221 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.RenderableProvider;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+import java.util.Arrays;
+
+/**
+ * GLES 3.0 path: draws repeated meshes (grass blades, bird parts, ...) with one instanced call each
+ * Instances with identical geometry and (interned) material are grouped at load time. Every frame the
+ * visible members' transforms are collected into a per-instance buffer and each group is submitted to
+ * the ModelBatch as a single renderable, so sorting, environment and fog work as usual.
+ */
+public class InstancedRenderer implements RenderableProvider, Disposable {
+    
+    private static final int MIN_GROUP_SIZE = 3; // Smaller groups aren't worth a separate mesh
+    private static final int FLOATS_PER_INSTANCE = 16;
+    private static final Matrix4 IDENTITY = new Matrix4();
+    
+    /** One repeated mesh and the instances that share it */
+    private static class Group {
+        final Material material;
+        final MeshPart source; // First member's part; members sharing its mesh skip the array compare
+        final float[] vertices;
+        final short[] indices;
+        final VertexAttributes attributes;
+        final Array<ModelInstance> members = new Array<>();
+        Mesh mesh;
+        float[] instanceData;
+        int count;
+        
+        Group(Material material, MeshPart source, float[] vertices, short[] indices, VertexAttributes attributes) {
+            this.material = material;
+            this.source = source;
+            this.vertices = vertices;
+            this.indices = indices;
+            this.attributes = attributes;
+        }
+        
+        boolean matches(Material otherMaterial, float[] otherVertices, short[] otherIndices,
+                        VertexAttributes otherAttributes) {
+            return material == otherMaterial && attributes.equals(otherAttributes)
+                    && Arrays.equals(vertices, otherVertices) && Arrays.equals(indices, otherIndices);
+        }
+    }
+    
+    private final Array<Group> groups = new Array<>();
+    private final ObjectMap<ModelInstance, Group> groupOf = new ObjectMap<>();
+    private int drawnInstances = 0;
+    
+    /**
+     * Group every eligible instance with identical ones (call after materials are interned)
+     */
+    public InstancedRenderer(Array<ModelInstance> candidates, SceneShaderProvider shaderProvider) {
+        Renderable probe = new Renderable();
+        Array<Group> found = new Array<>();
+        for (ModelInstance instance : candidates) {
+            NodePart part = singlePart(instance);
+            if (part == null) continue;
+            probe.material = part.material;
+            probe.meshPart.set(part.meshPart);
+            probe.bones = part.bones;
+            if (!shaderProvider.canInstance(probe)) continue;
+            
+            // Placements of one shared model (tree archetypes) are matched without reading the mesh back
+            Group group = null;
+            for (int i = 0; i < found.size && group == null; i++) {
+                if (found.get(i).material == part.material && found.get(i).source.equals(part.meshPart)) {
+                    group = found.get(i);
+                }
+            }
+            if (group != null) {
+                group.members.add(instance);
+                continue;
+            }
+            
+            Mesh source = part.meshPart.mesh;
+            float[] vertices = new float[source.getNumVertices() * source.getVertexSize() / 4];
+            source.getVertices(vertices);
+            short[] indices = new short[part.meshPart.size];
+            source.getIndices(part.meshPart.offset, part.meshPart.size, indices, 0);
+            
+            for (int i = 0; i < found.size && group == null; i++) {
+                if (found.get(i).matches(part.material, vertices, indices, source.getVertexAttributes())) {
+                    group = found.get(i);
+                }
+            }
+            if (group == null) {
+                group = new Group(part.material, part.meshPart, vertices, indices, source.getVertexAttributes());
+                found.add(group);
+            }
+            group.members.add(instance);
+        }
+        
+        for (Group group : found) {
+            if (group.members.size < MIN_GROUP_SIZE) continue;
+            group.mesh = createMesh(group);
+            group.instanceData = new float[group.members.size * FLOATS_PER_INSTANCE];
+            groups.add(group);
+            for (ModelInstance member : group.members) {
+                groupOf.put(member, group);
+            }
+        }
+    }
+    
+    /**
+     * The only node part of a single-node instance with an identity node transform, or null
+     */
+    private static NodePart singlePart(ModelInstance instance) {
+        if (instance.nodes.size != 1) return null;
+        Node node = instance.nodes.get(0);
+        if (node.hasChildren() || node.parts.size != 1 || !Arrays.equals(node.globalTransform.val, IDENTITY.val)) return null;
+        NodePart part = node.parts.get(0);
+        if (!part.enabled || part.meshPart.primitiveType != GL20.GL_TRIANGLES
+                || part.meshPart.mesh.getNumIndices() == 0) return null;
+        return part;
+    }
+    
+    private static Mesh createMesh(Group group) {
+        Mesh mesh = new Mesh(true, group.vertices.length / (group.attributes.vertexSize / 4),
+                group.indices.length, group.attributes);
+        mesh.setVertices(group.vertices);
+        mesh.setIndices(group.indices);
+        mesh.enableInstancedRendering(false, group.members.size,
+                new VertexAttribute(VertexAttributes.Usage.Generic, 4, "i_worldTrans0", 0),
+                new VertexAttribute(VertexAttributes.Usage.Generic, 4, "i_worldTrans1", 1),
+                new VertexAttribute(VertexAttributes.Usage.Generic, 4, "i_worldTrans2", 2),
+                new VertexAttribute(VertexAttributes.Usage.Generic, 4, "i_worldTrans3", 3));
+        return mesh;
+    }
+    
+    public int getGroupCount() {
+        return groups.size;
+    }
+    
+    /**
+     * Number of instances that are drawn through a group instead of one by one
+     */
+    public int getInstancedCount() {
+        return groupOf.size;
+    }
+    
+    /**
+     * Start collecting this frame's visible instances
+     */
+    public void begin() {
+        for (int i = 0; i < groups.size; i++) {
+            groups.get(i).count = 0;
+        }
+    }
+    
+    /**
+     * Queue a visible instance
+     * @return false if the instance isn't part of a group (draw it normally)
+     */
+    public boolean add(ModelInstance instance) {
+        Group group = groupOf.get(instance);
+        if (group == null) return false;
+        if (group.count == group.members.size) return true; // Already queued this frame
+        System.arraycopy(instance.transform.val, 0, group.instanceData, group.count * FLOATS_PER_INSTANCE,
+                FLOATS_PER_INSTANCE);
+        group.count++;
+        return true;
+    }
+    
+    /**
+     * Upload the per-instance transforms collected since begin()
+     */
+    public void end() {
+        drawnInstances = 0;
+        for (int i = 0; i < groups.size; i++) {
+            Group group = groups.get(i);
+            if (group.count > 0) {
+                group.mesh.setInstanceData(group.instanceData, 0, group.count * FLOATS_PER_INSTANCE);
+                drawnInstances += group.count;
+            }
+        }
+    }
+    
+    @Override
+    public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool) {
+        for (int i = 0; i < groups.size; i++) {
+            Group group = groups.get(i);
+            if (group.count == 0) continue;
+            Renderable renderable = pool.obtain();
+            renderable.worldTransform.idt(); // Transforms come from the instance buffer
+            renderable.material = group.material;
+            renderable.meshPart.set("instanced", group.mesh, 0, group.indices.length, GL20.GL_TRIANGLES);
+            renderable.bones = null;
+            renderable.userData = null;
+            renderables.add(renderable);
+        }
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("instanced.groups", groups.size);
+        metrics.set("instanced.drawn", drawnInstances);
+    }
+    
+    @Override
+    public void dispose() {
+        for (Group group : groups) {
+            group.mesh.dispose();
+        }
+        groups.clear();
+        groupOf.clear();
+    }
+}
@@ -36,9 +36,16 @@ public class LightningSystem {
     private Vector3 boltStart;
     private Vector3 boltEnd;
     
+    // Strikes find the tallest thing under the bolt
+    private static final int STRIKE_PROBES = 6;
+    private static final float STRIKE_SPREAD = 6f;
+    private WorldBvh world;
+    private final WorldBvh.Hit strikeHit = new WorldBvh.Hit();
+    
     // Timing
     private float timeSinceLastStrike = 0f;
     private float nextStrikeIn = 8f; // First strike in 8 seconds
+    private int strikeCount = 0;
     
     private ModelInstance lightningBolt;
     private Model boltModel;
@@ -125,8 +132,12 @@ public class LightningSystem {
             0f, // Ground level
             boltStart.z + (float)(Math.random() * 10 - 5)
         );
+        if (world != null) {
+            strikeTallest();
+        }
         
         // Trigger visual effects
+        strikeCount++;
         isFlashing = true;
         flashTimer = 0f;
         flashIntensity = 0.8f;
@@ -158,6 +169,30 @@ public class LightningSystem {
         Gdx.app.log("FrightNight", "Lightning strike at distance: " + distance);
     }
     
+    /**
+     * Move the bolt's end to the highest point hit by a few downward rays around it (a tree top beats the ground)
+     */
+    private void strikeTallest() {
+        float bestY = -Float.MAX_VALUE;
+        float x = boltEnd.x, z = boltEnd.z;
+        for (int i = 0; i < STRIKE_PROBES; i++) {
+            float probeX = x + (float)(Math.random() * 2 - 1) * STRIKE_SPREAD;
+            float probeZ = z + (float)(Math.random() * 2 - 1) * STRIKE_SPREAD;
+            if (world.raycast(probeX, boltStart.y, probeZ, 0f, -1f, 0f, boltStart.y + 50f, strikeHit)
+                    && strikeHit.point.y > bestY) {
+                bestY = strikeHit.point.y;
+                boltEnd.set(strikeHit.point);
+            }
+        }
+    }
+    
+    /**
+     * Static world to strike (without it bolts end at ground level)
+     */
+    public void setWorld(WorldBvh world) {
+        this.world = world;
+    }
+    
     /**
      * Render lightning effects
      */
@@ -227,6 +262,13 @@ public class LightningSystem {
         return flashIntensity;
     }
     
+    /**
+     * Number of strikes so far (lets other systems react to a new strike)
+     */
+    public int getStrikeCount() {
+        return strikeCount;
+    }
+    
     /**
      * Cleanup resources
      */
@@ -0,0 +1,398 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.graphics.g3d.Attributes;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.DirectionalLightsAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.shaders.BaseShader;
+import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Small specialised scene shaders, much cheaper than the general DefaultShader
+ * All lighting and fog is per vertex; each kind compiles only what it needs.
+ * Objects they can't draw (textures, skinning) stay on the DefaultShader.
+ */
+public class LiteShader extends BaseShader {
+    
+    /** Which specialised shader a renderable needs */
+    public enum Kind {
+        TERRAIN("#define lightingFlag\n#define vertexColorFlag\n"),   // Vertex-coloured, lit
+        FOLIAGE("#define lightingFlag\n#define wrapLightingFlag\n"),  // Leaves, wrap-lit
+        GRASS("#define lightingFlag\n#define wrapLightingFlag\n#define windFlag\n"), // Foliage bent by the wind, two-sided
+        LIT("#define lightingFlag\n"),                                // Plain coloured objects
+        BIRD("#define lightingFlag\n#define birdFlag\n"),            // Flock birds, wingbeat animated per bird
+        UNLIT("#define ambientFlag\n#define emissiveFlag\n"),          // Moon, glowing eyes
+        BAKED("#define vertexColorFlag\n#define bakedFlag\n"),          // Lighting baked into vertex colours
+        BAKED_FOLIAGE("#define vertexColorFlag\n#define bakedFlag\n#define windFlag\n#define heightSwayFlag\n"), // Baked trees swaying in the wind
+        BLENDED("#define blendedFlag\n");                             // Shadow decal and other see-through objects
+        
+        final String defines;
+        
+        Kind(String defines) {
+            this.defines = defines;
+        }
+    }
+    
+    // Material attributes these shaders understand; anything else goes to DefaultShader
+    private static final long SUPPORTED_MATERIAL = ColorAttribute.Diffuse | ColorAttribute.Emissive
+            | BlendingAttribute.Type | FoliageAttribute.Type;
+    private static final long VERTEX_COLOR = VertexAttributes.Usage.ColorUnpacked | VertexAttributes.Usage.ColorPacked;
+    
+    private static final String VERTEX_SHADER =
+            "attribute vec3 a_position;\n" +
+            "#ifdef lightingFlag\n" +
+            "attribute vec3 a_normal;\n" +
+            "uniform vec3 u_light0Color;\n" +
+            "uniform vec3 u_light0Dir;\n" +
+            "uniform vec3 u_light1Color;\n" +
+            "uniform vec3 u_light1Dir;\n" +
+            "#endif\n" +
+            "#if defined(lightingFlag) || defined(ambientFlag)\n" +
+            "uniform vec3 u_ambient;\n" +
+            "#endif\n" +
+            "#ifdef bakedFlag\n" +
+            "uniform float u_bakedIntensity;\n" +
+            "#endif\n" +
+            "#ifdef vertexColorFlag\n" +
+            "attribute vec4 a_color;\n" +
+            "#endif\n" +
+            "#ifdef windFlag\n" +
+            "#ifndef heightSwayFlag\n" +
+            "attribute float a_sway;\n" + // Bend per unit of wind speed: 0 at the root, most at the tip
+            "#endif\n" +
+            "uniform vec4 u_wind;\n" +      // xy: wind direction, z: gust phase, w: gust frequency
+            "uniform vec2 u_windSpeed;\n" + // x: steady speed, y: gust speed
+            "#endif\n" +
+            "#ifdef birdFlag\n" +
+            "attribute float a_flap;\n" + // Wingbeat weight: 0 on the body, 1 at the wing tips
+            "#ifdef instancedFlag\n" +
+            "attribute float i_flap;\n" + // Per-bird wingbeat phase
+            "#else\n" +
+            "uniform float u_flap;\n" +
+            "#endif\n" +
+            "#endif\n" +
+            "uniform mat4 u_projViewTrans;\n" +
+            "#ifdef instancedFlag\n" +
+            "attribute vec4 i_worldTrans0;\n" + // Per-instance transform, one column per attribute
+            "attribute vec4 i_worldTrans1;\n" +
+            "attribute vec4 i_worldTrans2;\n" +
+            "attribute vec4 i_worldTrans3;\n" +
+            "#else\n" +
+            "uniform mat4 u_worldTrans;\n" +
+            "#endif\n" +
+            "uniform vec4 u_diffuseColor;\n" +
+            "#ifdef fogFlag\n" +
+            "uniform vec3 u_cameraPosition;\n" +
+            "uniform vec4 u_fogParams;\n" +
+            "varying float v_fog;\n" +
+            "#endif\n" +
+            "varying vec4 v_color;\n" +
+            "#ifdef lightingFlag\n" +
+            "float diffuseTerm(vec3 n, vec3 dir) {\n" +
+            "#ifdef wrapLightingFlag\n" +
+            "    return dot(n, -dir) * 0.5 + 0.5;\n" + // Light wraps around thin leaves and blades
+            "#else\n" +
+            "    return max(dot(n, -dir), 0.0);\n" +
+            "#endif\n" +
+            "}\n" +
+            "#endif\n" +
+            "#ifdef windFlag\n" +
+            "vec2 windAt(vec2 p) {\n" + // Same function as WindSystem.sample
+            "    float gust = 0.5 + 0.5 * sin(u_wind.z + dot(p, u_wind.xy) * u_wind.w);\n" +
+            "    return u_wind.xy * (u_windSpeed.x + u_windSpeed.y * gust);\n" +
+            "}\n" +
+            "#endif\n" +
+            "void main() {\n" +
+            "#ifdef instancedFlag\n" +
+            "    mat4 worldTrans = mat4(i_worldTrans0, i_worldTrans1, i_worldTrans2, i_worldTrans3);\n" +
+            "#else\n" +
+            "    mat4 worldTrans = u_worldTrans;\n" +
+            "#endif\n" +
+            "    vec3 local = a_position;\n" +
+            "#if defined(birdFlag) && defined(instancedFlag)\n" +
+            "    local.y += sin(i_flap) * a_flap * 1.1;\n" +
+            "#elif defined(birdFlag)\n" +
+            "    local.y += sin(u_flap) * a_flap * 1.1;\n" +
+            "#endif\n" +
+            "    vec4 pos = worldTrans * vec4(local, 1.0);\n" +
+            "#ifdef windFlag\n" +
+            "#ifdef heightSwayFlag\n" +
+            "    float sway = a_position.y * a_position.y * 0.0008;\n" + // Trunk base stays put, crown bends
+            "#else\n" +
+            "    float sway = a_sway;\n" +
+            "#endif\n" +
+            "    pos.xz += windAt(pos.xz) * sway;\n" +
+            "#endif\n" +
+            "    gl_Position = u_projViewTrans * pos;\n" +
+            "    vec4 color = u_diffuseColor;\n" +
+            "#ifdef vertexColorFlag\n" +
+            "    color *= a_color;\n" +
+            "#endif\n" +
+            "#ifdef lightingFlag\n" +
+            "    vec3 n = normalize((worldTrans * vec4(a_normal, 0.0)).xyz);\n" + // Scene transforms are uniformly scaled
+            "    color.rgb *= u_ambient + u_light0Color * diffuseTerm(n, u_light0Dir)\n" +
+            "            + u_light1Color * diffuseTerm(n, u_light1Dir);\n" +
+            "#elif defined(ambientFlag)\n" +
+            "    color.rgb *= u_ambient;\n" +
+            "#elif defined(bakedFlag)\n" +
+            "    color.rgb *= u_bakedIntensity;\n" +
+            "#endif\n" +
+            "    v_color = color;\n" +
+            "#ifdef fogFlag\n" +
+            "    vec3 flen = u_cameraPosition - pos.xyz;\n" +
+            "    " + SceneShaderProvider.HEIGHT_FOG + "\n" +
+            "    v_fog = min(fog, 1.0);\n" +
+            "#endif\n" +
+            "}\n";
+    
+    private static final String FRAGMENT_SHADER =
+            "#ifdef GL_ES\nprecision mediump float;\n#endif\n" +
+            "varying vec4 v_color;\n" +
+            "#ifdef fogFlag\n" +
+            "uniform vec4 u_fogColor;\n" +
+            "varying float v_fog;\n" +
+            "#endif\n" +
+            "#ifdef emissiveFlag\n" +
+            "uniform vec4 u_emissiveColor;\n" +
+            "#endif\n" +
+            "#ifdef blendedFlag\n" +
+            "uniform float u_opacity;\n" +
+            "#endif\n" +
+            "void main() {\n" +
+            "    vec3 color = v_color.rgb;\n" +
+            "#ifdef emissiveFlag\n" +
+            "    color += u_emissiveColor.rgb;\n" +
+            "#endif\n" +
+            "#ifdef fogFlag\n" +
+            "    color = mix(color, u_fogColor.rgb, v_fog);\n" +
+            "#endif\n" +
+            "#if defined(blendedFlag)\n" +
+            "    gl_FragColor = vec4(color, v_color.a * u_opacity);\n" +
+            "#elif defined(emissiveFlag)\n" +
+            "    gl_FragColor = vec4(color, clamp(max(u_emissiveColor.r, max(u_emissiveColor.g, u_emissiveColor.b)), 0.0, 1.0));\n" +
+            "#else\n" +
+            "    gl_FragColor = vec4(color, 0.0);\n" + // Not emissive: outside the bloom mask
+            "#endif\n" +
+            "}\n";
+    
+    private final Kind kind;
+    private final boolean fog;
+    private final boolean instanced;
+    
+    private final int u_projViewTrans = register(new Uniform("u_projViewTrans"));
+    private final int u_worldTrans = register(new Uniform("u_worldTrans"));
+    private final int u_diffuseColor = register(new Uniform("u_diffuseColor"));
+    private final int u_emissiveColor = register(new Uniform("u_emissiveColor"));
+    private final int u_opacity = register(new Uniform("u_opacity"));
+    private final int u_ambient = register(new Uniform("u_ambient"));
+    private final int u_bakedIntensity = register(new Uniform("u_bakedIntensity"));
+    private final int u_light0Color = register(new Uniform("u_light0Color"));
+    private final int u_light0Dir = register(new Uniform("u_light0Dir"));
+    private final int u_light1Color = register(new Uniform("u_light1Color"));
+    private final int u_light1Dir = register(new Uniform("u_light1Dir"));
+    private final int u_cameraPosition = register(new Uniform("u_cameraPosition"));
+    private final int u_fogColor = register(new Uniform("u_fogColor"));
+    private final int u_fogParams = register(new Uniform("u_fogParams"));
+    private final int u_wind = register(new Uniform("u_wind"));
+    private final int u_windSpeed = register(new Uniform("u_windSpeed"));
+    private final int u_flap = register(new Uniform("u_flap"));
+    
+    // Environment attributes last uploaded (they only change between batches)
+    private Attribute boundAmbient;
+    private Attribute boundLights;
+    private Attribute boundFogColor;
+    private Attribute boundFogParams;
+    
+    /**
+     * Compiles the program right away (call during loading)
+     */
+    public LiteShader(Kind kind, boolean fog, boolean instanced) {
+        this.kind = kind;
+        this.fog = fog;
+        this.instanced = instanced;
+        String prefix = kind.defines + (fog ? "#define fogFlag\n" : "") + (instanced ? "#define instancedFlag\n" : "");
+        program = new ShaderProgram(prefix + VERTEX_SHADER, prefix + FRAGMENT_SHADER);
+        if (!program.isCompiled()) {
+            throw new IllegalStateException("Scene shader " + kind + " failed: " + program.getLog());
+        }
+    }
+    
+    /**
+     * @return The specialised shader kind for this renderable, or null if it needs DefaultShader
+     */
+    public static Kind kindOf(Renderable renderable) {
+        Material material = renderable.material;
+        if (renderable.bones != null || (material.getMask() & ~SUPPORTED_MATERIAL) != 0) return null;
+        
+        BlendingAttribute blending = (BlendingAttribute) material.get(BlendingAttribute.Type);
+        if (blending != null && blending.blended) return Kind.BLENDED;
+        if (material.has(ColorAttribute.Emissive)) return Kind.UNLIT;
+        
+        VertexAttributes attributes = renderable.meshPart.mesh.getVertexAttributes();
+        boolean vertexColor = (attributes.getMask() & VERTEX_COLOR) != 0;
+        if (attributes.findByUsage(VertexAttributes.Usage.Normal) == null) {
+            if (!vertexColor) return null;
+            return material.has(FoliageAttribute.Type) ? Kind.BAKED_FOLIAGE : Kind.BAKED;
+        }
+        if (vertexColor) return Kind.TERRAIN;
+        VertexAttribute generic = attributes.findByUsage(VertexAttributes.Usage.Generic);
+        if (generic != null && BirdFlock.FLAP_ATTRIBUTE.equals(generic.alias)) return Kind.BIRD;
+        if (material.has(FoliageAttribute.Type)) {
+            // Only wind-animated grass meshes carry a generic (sway) attribute
+            return (attributes.getMask() & VertexAttributes.Usage.Generic) != 0 ? Kind.GRASS : Kind.FOLIAGE;
+        }
+        return Kind.LIT;
+    }
+    
+    public static boolean hasFog(Renderable renderable) {
+        return renderable.environment != null && renderable.environment.has(ColorAttribute.Fog);
+    }
+    
+    @Override
+    public void init() {
+        init(program, null);
+    }
+    
+    @Override
+    public int compareTo(Shader other) {
+        return 0;
+    }
+    
+    @Override
+    public boolean canRender(Renderable renderable) {
+        return kindOf(renderable) == kind && hasFog(renderable) == fog
+                && renderable.meshPart.mesh.isInstanced() == instanced;
+    }
+    
+    @Override
+    public void begin(Camera camera, RenderContext context) {
+        super.begin(camera, context);
+        set(u_projViewTrans, camera.combined);
+        set(u_cameraPosition, camera.position);
+        
+        context.setDepthTest(GL20.GL_LEQUAL);
+        context.setCullFace(kind == Kind.GRASS ? GL20.GL_NONE : GL20.GL_BACK); // Blades are single triangles
+        if (kind == Kind.BLENDED) {
+            context.setBlending(true, GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+            context.setDepthMask(false);
+            Gdx.gl.glColorMask(true, true, true, false); // Keep out of the bloom mask
+        } else {
+            context.setBlending(false, GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+            context.setDepthMask(true);
+        }
+        
+        boundAmbient = null;
+        boundLights = null;
+        boundFogColor = null;
+        boundFogParams = null;
+    }
+    
+    @Override
+    public void render(Renderable renderable, Attributes combinedAttributes) {
+        bindEnvironment(combinedAttributes);
+        
+        if (!instanced) {
+            set(u_worldTrans, renderable.worldTransform);
+        }
+        ColorAttribute diffuse = (ColorAttribute) combinedAttributes.get(ColorAttribute.Diffuse);
+        set(u_diffuseColor, diffuse != null ? diffuse.color : Color.WHITE);
+        if (kind == Kind.UNLIT) {
+            set(u_emissiveColor, ((ColorAttribute) combinedAttributes.get(ColorAttribute.Emissive)).color);
+        } else if (kind == Kind.BLENDED) {
+            set(u_opacity, ((BlendingAttribute) combinedAttributes.get(BlendingAttribute.Type)).opacity);
+        } else if (kind == Kind.BIRD && !instanced) {
+            // BirdFlock hands each bird's wingbeat phase over in userData
+            set(u_flap, renderable.userData instanceof float[] ? ((float[]) renderable.userData)[0] : 0f);
+        }
+        super.render(renderable, combinedAttributes);
+    }
+    
+    private void bindEnvironment(Attributes attributes) {
+        if (kind == Kind.BAKED || kind == Kind.BAKED_FOLIAGE) {
+            // Not cached: the same attribute is modulated in place by lightning
+            BakedLightAttribute baked = (BakedLightAttribute) attributes.get(BakedLightAttribute.Type);
+            set(u_bakedIntensity, baked != null ? baked.intensity : 1f);
+        }
+        if (kind == Kind.GRASS || kind == Kind.BAKED_FOLIAGE) {
+            // Also updated in place every frame
+            WindAttribute wind = (WindAttribute) attributes.get(WindAttribute.Type);
+            if (wind != null) {
+                set(u_wind, wind.dirX, wind.dirZ, wind.phase, wind.frequency);
+                set(u_windSpeed, wind.base, wind.gust);
+            } else {
+                set(u_wind, 0f, 0f, 0f, 0f);
+                set(u_windSpeed, 0f, 0f);
+            }
+        }
+        
+        Attribute ambient = attributes.get(ColorAttribute.AmbientLight);
+        if (ambient != boundAmbient) {
+            set(u_ambient, ambient != null ? ((ColorAttribute) ambient).color : Color.BLACK);
+            boundAmbient = ambient;
+        }
+        
+        Attribute lights = attributes.get(DirectionalLightsAttribute.Type);
+        if (lights != boundLights) {
+            Array<DirectionalLight> list = lights != null ? ((DirectionalLightsAttribute) lights).lights : null;
+            bindLight(list, 0, u_light0Color, u_light0Dir);
+            bindLight(list, 1, u_light1Color, u_light1Dir);
+            boundLights = lights;
+        }
+        
+        if (!fog) return;
+        Attribute fogColor = attributes.get(ColorAttribute.Fog);
+        if (fogColor != boundFogColor) {
+            set(u_fogColor, ((ColorAttribute) fogColor).color);
+            boundFogColor = fogColor;
+        }
+        Attribute fogParams = attributes.get(SceneFogAttribute.Type);
+        if (fogParams != boundFogParams || fogParams == null) {
+            if (fogParams != null) {
+                SceneFogAttribute params = (SceneFogAttribute) fogParams;
+                set(u_fogParams, params.density, params.heightFalloff, params.baseHeight, params.minHeightFactor);
+            } else {
+                // Plain distance fog that closes in at the far plane
+                set(u_fogParams, 1.98f / camera.far, 0f, 0f, 1f);
+            }
+            boundFogParams = fogParams;
+        }
+    }
+    
+    private void bindLight(Array<DirectionalLight> lights, int index, int colorUniform, int directionUniform) {
+        if (lights != null && index < lights.size) {
+            DirectionalLight light = lights.get(index);
+            set(colorUniform, light.color.r, light.color.g, light.color.b);
+            set(directionUniform, light.direction);
+        } else {
+            set(colorUniform, 0f, 0f, 0f);
+            set(directionUniform, 0f, -1f, 0f);
+        }
+    }
+    
+    @Override
+    public void end() {
+        if (kind == Kind.BLENDED) {
+            Gdx.gl.glColorMask(true, true, true, true);
+        }
+        super.end();
+    }
+    
+    @Override
+    public void dispose() {
+        program.dispose();
+        super.dispose();
+    }
+}
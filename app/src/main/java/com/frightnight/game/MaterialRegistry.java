@@ -0,0 +1,93 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Interns materials with identical attributes so the scene shares one Material per look
+ * Every ModelInstance copies its materials, so without this even identical trees or
+ * grass patches look like different materials to the renderer. Each interned material
+ * gets a compact integer key for render sorting.
+ */
+public class MaterialRegistry {
+    
+    // Bucketed by attribute hash; Material.equals also compares ids, which are always unique
+    private final IntMap<Array<Material>> canonical = new IntMap<>();
+    private final IdentityHashMap<Material, Integer> keys = new IdentityHashMap<>();
+    private int materialCount = 0;
+    
+    /**
+     * @return The shared material with the same attributes (registering this one if it's new)
+     */
+    public Material intern(Material material) {
+        int hash = material.attributesHash();
+        Array<Material> bucket = canonical.get(hash);
+        if (bucket == null) {
+            bucket = new Array<>(1);
+            canonical.put(hash, bucket);
+        }
+        for (int i = 0; i < bucket.size; i++) {
+            Material shared = bucket.get(i);
+            if (shared == material || shared.same(material, true)) {
+                return shared;
+            }
+        }
+        bucket.add(material);
+        materialCount++;
+        keyOf(material);
+        return material;
+    }
+    
+    /**
+     * Point every part of the instance at interned materials
+     */
+    public void intern(ModelInstance instance) {
+        for (int i = 0; i < instance.materials.size; i++) {
+            instance.materials.set(i, intern(instance.materials.get(i)));
+        }
+        internNodes(instance.nodes);
+    }
+    
+    public void internAll(Array<ModelInstance> instances) {
+        for (ModelInstance instance : instances) {
+            if (instance != null) {
+                intern(instance);
+            }
+        }
+    }
+    
+    private void internNodes(Iterable<Node> nodes) {
+        for (Node node : nodes) {
+            for (NodePart part : node.parts) {
+                part.material = intern(part.material);
+            }
+            if (node.hasChildren()) {
+                internNodes(node.getChildren());
+            }
+        }
+    }
+    
+    /**
+     * Compact sort key (materials that were never interned get one on first use)
+     */
+    public int keyOf(Material material) {
+        Integer key = keys.get(material);
+        if (key == null) {
+            key = keys.size();
+            keys.put(material, key);
+        }
+        return key;
+    }
+    
+    /**
+     * Number of distinct materials after interning
+     */
+    public int getMaterialCount() {
+        return materialCount;
+    }
+}
@@ -0,0 +1,316 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Software occlusion culling against the terrain horizon and tree trunks
+ * Every frame a coarse depth buffer is rasterised on a worker thread from the terrain heightfield and
+ * a camera-facing quad per trunk, while the GL thread refreshes and draws the sky. Objects are then
+ * tested by the screen rectangle and nearest depth of their bounds: if every pixel under them is
+ * covered by something nearer, they are hidden behind a hill and aren't submitted.
+ * Occluders are kept conservative: the terrain is sunk a little and trunks are narrowed, each
+ * triangle only marks pixels it covers completely, and it is written at the depth of its farthest corner.
+ */
+public class OcclusionCuller {
+    
+    private static final int WIDTH = 128;
+    private static final int HEIGHT = 64;
+    private static final float OCCLUDER_SINK = 0.4f;  // Terrain occluders sit this far below the real ground
+    private static final float TRUNK_SHRINK = 0.7f;   // Trunk quads are narrower than the trunk
+    private static final float TRUNK_HEIGHT = 0.55f;  // Fraction of the tree height that is bare trunk
+    private static final float NEAR = 0.5f;           // Occluders and objects closer than this are never culled
+    private static final float OCCLUDER_RANGE = 120f; // Terrain further away than this isn't rasterised
+    
+    private final float[] depth = new float[WIDTH * HEIGHT]; // View distance of the nearest occluder per pixel
+    
+    // Terrain occluder grid (world space), and its projection this frame
+    private final int gridVertices;
+    private final float[] gridX, gridY, gridZ;
+    private final float[] screenX, screenY, screenW;
+    
+    // Trunks: base, height and half width
+    private final float[] trunkX, trunkY, trunkZ, trunkHeight, trunkHalfWidth;
+    
+    // Camera snapshot for the worker
+    private Camera view;
+    private final float[] viewProjection = new float[16];
+    private final Vector3 eye = new Vector3();
+    
+    private final ExecutorService worker;
+    private final Callable<Void> rasterTask;
+    private Future<Void> pending;
+    private boolean ready = false;
+    
+    private float rasterMs = 0f;
+    private float waitMs = 0f;
+    private int tested = 0;
+    private int occluded = 0;
+    
+    public OcclusionCuller(TerrainSystem terrain, Array<RealisticTree> trees) {
+        int grid = terrain.getGridSize();
+        float cellSize = terrain.getCellSize();
+        gridVertices = grid + 1;
+        int count = gridVertices * gridVertices;
+        gridX = new float[count];
+        gridY = new float[count];
+        gridZ = new float[count];
+        screenX = new float[count];
+        screenY = new float[count];
+        screenW = new float[count];
+        for (int z = 0; z <= grid; z++) {
+            for (int x = 0; x <= grid; x++) {
+                int v = z * gridVertices + x;
+                gridX[v] = (x - grid / 2f) * cellSize;
+                gridZ[v] = (z - grid / 2f) * cellSize;
+                gridY[v] = terrain.getHeightAt(gridX[v], gridZ[v]) - OCCLUDER_SINK;
+            }
+        }
+        
+        trunkX = new float[trees.size];
+        trunkY = new float[trees.size];
+        trunkZ = new float[trees.size];
+        trunkHeight = new float[trees.size];
+        trunkHalfWidth = new float[trees.size];
+        for (int i = 0; i < trees.size; i++) {
+            RealisticTree tree = trees.get(i);
+            trunkX[i] = tree.getPosition().x;
+            trunkY[i] = tree.getPosition().y;
+            trunkZ[i] = tree.getPosition().z;
+            trunkHeight[i] = (tree.getBounds().max.y - trunkY[i]) * TRUNK_HEIGHT;
+            trunkHalfWidth[i] = tree.getTrunkRadius() * TRUNK_SHRINK;
+        }
+        
+        rasterTask = new Callable<Void>() {
+            @Override
+            public Void call() {
+                rasterize();
+                return null;
+            }
+        };
+        // The GL thread draws the sky meanwhile, so one worker is enough
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "OcclusionCuller");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        } else {
+            worker = null;
+        }
+        Gdx.app.log("FrightNight", "Occlusion culler: " + WIDTH + "x" + HEIGHT + ", "
+                + (grid * grid * 2) + " terrain and " + (trees.size * 2) + " trunk triangles"
+                + (worker != null ? ", on a worker thread" : ""));
+    }
+    
+    /**
+     * Start rasterising this frame's occluders (call once the camera is final for the frame)
+     */
+    public void begin(Camera camera) {
+        awaitDepth(); // A frame that never tested may still be rasterising
+        view = camera;
+        System.arraycopy(camera.combined.val, 0, viewProjection, 0, 16);
+        eye.set(camera.position);
+        ready = false;
+        tested = 0;
+        occluded = 0;
+        if (worker != null) {
+            pending = worker.submit(rasterTask);
+        } else {
+            rasterize();
+            ready = true;
+        }
+    }
+    
+    /**
+     * Wait for the depth buffer (call before the first test; later calls return at once)
+     */
+    public void awaitDepth() {
+        if (ready) return;
+        long start = System.nanoTime();
+        try {
+            if (pending != null) {
+                pending.get();
+            }
+            ready = true;
+        } catch (Exception e) {
+            // Without a finished buffer nothing can be proven hidden
+            Arrays.fill(depth, Float.MAX_VALUE);
+            ready = true;
+            Gdx.app.error("FrightNight", "Occlusion raster failed: " + e.getMessage(), e);
+        }
+        waitMs = (System.nanoTime() - start) / 1e6f;
+    }
+    
+    private void rasterize() {
+        long start = System.nanoTime();
+        Arrays.fill(depth, Float.MAX_VALUE);
+        float[] m = viewProjection;
+        
+        // Terrain: project the grid once, then two triangles per cell
+        float range2 = OCCLUDER_RANGE * OCCLUDER_RANGE;
+        for (int v = 0; v < gridX.length; v++) {
+            project(m, gridX[v], gridY[v], gridZ[v], screenX, screenY, screenW, v);
+        }
+        for (int z = 0; z < gridVertices - 1; z++) {
+            for (int x = 0; x < gridVertices - 1; x++) {
+                int v00 = z * gridVertices + x;
+                float dx = gridX[v00] - eye.x;
+                float dz = gridZ[v00] - eye.z;
+                if (dx * dx + dz * dz > range2) continue;
+                int v10 = v00 + 1;
+                int v01 = v00 + gridVertices;
+                int v11 = v01 + 1;
+                triangle(v00, v10, v11);
+                triangle(v00, v11, v01);
+            }
+        }
+        
+        // Trunks: a camera-facing quad from the ground to where the branches start
+        for (int i = 0; i < trunkX.length; i++) {
+            float dx = trunkX[i] - eye.x;
+            float dz = trunkZ[i] - eye.z;
+            float length = (float) Math.sqrt(dx * dx + dz * dz);
+            if (length < 1e-3f || length > OCCLUDER_RANGE) continue;
+            float rx = -dz / length * trunkHalfWidth[i];
+            float rz = dx / length * trunkHalfWidth[i];
+            float top = trunkY[i] + trunkHeight[i];
+            float ax = trunkX[i] - rx, az = trunkZ[i] - rz;
+            float bx = trunkX[i] + rx, bz = trunkZ[i] + rz;
+            quad(m, ax, trunkY[i], az, bx, trunkY[i], bz, bx, top, bz, ax, top, az);
+        }
+        rasterMs = (System.nanoTime() - start) / 1e6f;
+    }
+    
+    private static void project(float[] m, float x, float y, float z, float[] outX, float[] outY, float[] outW, int i) {
+        float cx = m[0] * x + m[4] * y + m[8] * z + m[12];
+        float cy = m[1] * x + m[5] * y + m[9] * z + m[13];
+        float cw = m[3] * x + m[7] * y + m[11] * z + m[15];
+        outW[i] = cw;
+        if (cw < NEAR) return;
+        outX[i] = (cx / cw * 0.5f + 0.5f) * WIDTH;
+        outY[i] = (cy / cw * 0.5f + 0.5f) * HEIGHT;
+    }
+    
+    // Scratch for trunk quads (worker thread only)
+    private final float[] quadX = new float[4];
+    private final float[] quadY = new float[4];
+    private final float[] quadW = new float[4];
+    
+    private void quad(float[] m, float ax, float ay, float az, float bx, float by, float bz,
+                      float cx, float cy, float cz, float dx, float dy, float dz) {
+        project(m, ax, ay, az, quadX, quadY, quadW, 0);
+        project(m, bx, by, bz, quadX, quadY, quadW, 1);
+        project(m, cx, cy, cz, quadX, quadY, quadW, 2);
+        project(m, dx, dy, dz, quadX, quadY, quadW, 3);
+        fill(quadX[0], quadY[0], quadW[0], quadX[1], quadY[1], quadW[1], quadX[2], quadY[2], quadW[2]);
+        fill(quadX[0], quadY[0], quadW[0], quadX[2], quadY[2], quadW[2], quadX[3], quadY[3], quadW[3]);
+    }
+    
+    private void triangle(int a, int b, int c) {
+        fill(screenX[a], screenY[a], screenW[a], screenX[b], screenY[b], screenW[b], screenX[c], screenY[c], screenW[c]);
+    }
+    
+    /**
+     * Write a triangle at the depth of its farthest corner into every pixel it covers completely
+     * Each edge is moved inward by half a pixel (all four pixel corners inside), so a ridge never hides
+     * something that shows through the part of a pixel it leaves open.
+     */
+    private void fill(float x0, float y0, float w0, float x1, float y1, float w1, float x2, float y2, float w2) {
+        if (w0 < NEAR || w1 < NEAR || w2 < NEAR) return; // Crosses the near plane: not worth clipping
+        float area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+        if (area == 0f) return;
+        if (area < 0f) {
+            float t = x1; x1 = x2; x2 = t;
+            t = y1; y1 = y2; y2 = t;
+        }
+        int minX = Math.max(0, (int) Math.ceil(Math.min(x0, Math.min(x1, x2)) - 0.5f));
+        int maxX = Math.min(WIDTH - 1, (int) Math.floor(Math.max(x0, Math.max(x1, x2)) - 0.5f));
+        int minY = Math.max(0, (int) Math.ceil(Math.min(y0, Math.min(y1, y2)) - 0.5f));
+        int maxY = Math.min(HEIGHT - 1, (int) Math.floor(Math.max(y0, Math.max(y1, y2)) - 0.5f));
+        if (minX > maxX || minY > maxY) return;
+        float w = Math.max(w0, Math.max(w1, w2));
+        // Edge function margins: how far each edge test drops from a pixel's centre to its worst corner
+        float e0 = 0.5f * (Math.abs(x1 - x0) + Math.abs(y1 - y0));
+        float e1 = 0.5f * (Math.abs(x2 - x1) + Math.abs(y2 - y1));
+        float e2 = 0.5f * (Math.abs(x0 - x2) + Math.abs(y0 - y2));
+        
+        for (int py = minY; py <= maxY; py++) {
+            float sy = py + 0.5f;
+            int row = py * WIDTH;
+            for (int px = minX; px <= maxX; px++) {
+                float sx = px + 0.5f;
+                if ((x1 - x0) * (sy - y0) - (y1 - y0) * (sx - x0) < e0) continue;
+                if ((x2 - x1) * (sy - y1) - (y2 - y1) * (sx - x1) < e1) continue;
+                if ((x0 - x2) * (sy - y2) - (y0 - y2) * (sx - x2) < e2) continue;
+                if (w < depth[row + px]) depth[row + px] = w;
+            }
+        }
+    }
+    
+    /**
+     * Whether anything of a bounding sphere may show past the occluders
+     * @param camera Tests for any other camera than the one given to begin() always pass
+     */
+    public boolean isSphereVisible(Camera camera, Vector3 center, float radius) {
+        if (camera != view) return true;
+        awaitDepth();
+        tested++;
+        float[] m = viewProjection;
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        float nearest = Float.MAX_VALUE;
+        // Corners of the sphere's bounding box
+        for (int corner = 0; corner < 8; corner++) {
+            float x = center.x + ((corner & 1) == 0 ? -radius : radius);
+            float y = center.y + ((corner & 2) == 0 ? -radius : radius);
+            float z = center.z + ((corner & 4) == 0 ? -radius : radius);
+            float cw = m[3] * x + m[7] * y + m[11] * z + m[15];
+            if (cw < NEAR) return true; // Reaches the camera
+            float sx = ((m[0] * x + m[4] * y + m[8] * z + m[12]) / cw * 0.5f + 0.5f) * WIDTH;
+            float sy = ((m[1] * x + m[5] * y + m[9] * z + m[13]) / cw * 0.5f + 0.5f) * HEIGHT;
+            minX = Math.min(minX, sx);
+            maxX = Math.max(maxX, sx);
+            minY = Math.min(minY, sy);
+            maxY = Math.max(maxY, sy);
+            nearest = Math.min(nearest, cw);
+        }
+        int x0 = Math.max(0, (int) Math.floor(minX));
+        int x1 = Math.min(WIDTH - 1, (int) Math.floor(maxX));
+        int y0 = Math.max(0, (int) Math.floor(minY));
+        int y1 = Math.min(HEIGHT - 1, (int) Math.floor(maxY));
+        if (x0 > x1 || y0 > y1) return true; // Off the buffer: leave it to the frustum test
+        
+        for (int py = y0; py <= y1; py++) {
+            int row = py * WIDTH;
+            for (int px = x0; px <= x1; px++) {
+                if (depth[row + px] > nearest) return true;
+            }
+        }
+        occluded++;
+        return false;
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("occlusion.tested", tested);
+        metrics.set("occlusion.culled", occluded);
+        metrics.set("occlusion.rasterMs", rasterMs);
+        metrics.set("occlusion.waitMs", waitMs);
+    }
+    
+    public void dispose() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.FloatArray;
+
+/**
+ * The forest path rasterised once into a distance grid aligned with the terrain
+ * Gives constant-time path distance, direction to the path and direction along it, for placement
+ * masks, the demo AI and the terrain blend, instead of walking every segment per query.
+ */
+public class PathDistanceField {
+    
+    private static final int SUBDIVISIONS = 4;    // Samples per terrain cell edge
+    private static final float BLEND_WIDTH = 3f;  // Ground blends back to grass this far beyond the path edge
+    
+    private final float origin;     // World x/z of sample 0
+    private final float spacing;    // World units between samples
+    private final int side;         // Samples per row
+    private final float[] distance; // Signed: negative on the path surface
+    private final short[] segment;  // Nearest segment per sample, for the direction along the path
+    private final float[] segments; // Packed segment start and end (x0, z0, x1, z1)
+    
+    /**
+     * Rasterise the path over the terrain's extent
+     * @param centerLine Path centre line as (x, z) pairs, e.g. the sampled spline the path mesh follows
+     * @param width Path width
+     */
+    public PathDistanceField(FloatArray centerLine, float width, TerrainSystem terrain) {
+        float extent = terrain.getGridSize() * terrain.getCellSize();
+        origin = -extent / 2f;
+        spacing = terrain.getCellSize() / SUBDIVISIONS;
+        side = terrain.getGridSize() * SUBDIVISIONS + 1;
+        distance = new float[side * side];
+        segment = new short[side * side];
+        
+        int count = Math.max(0, Math.min(Short.MAX_VALUE, centerLine.size / 2 - 1));
+        segments = new float[count * 4];
+        for (int s = 0; s < count; s++) {
+            segments[s * 4] = centerLine.get(s * 2);
+            segments[s * 4 + 1] = centerLine.get(s * 2 + 1);
+            segments[s * 4 + 2] = centerLine.get(s * 2 + 2);
+            segments[s * 4 + 3] = centerLine.get(s * 2 + 3);
+        }
+        
+        float halfWidth = width / 2f;
+        for (int iz = 0; iz < side; iz++) {
+            float z = origin + iz * spacing;
+            for (int ix = 0; ix < side; ix++) {
+                float x = origin + ix * spacing;
+                float best = Float.MAX_VALUE;
+                int bestSegment = 0;
+                for (int s = 0; s < count; s++) {
+                    float d2 = segmentDistance2(s, x, z);
+                    if (d2 < best) {
+                        best = d2;
+                        bestSegment = s;
+                    }
+                }
+                int i = iz * side + ix;
+                distance[i] = count > 0 ? (float) Math.sqrt(best) - halfWidth : Float.MAX_VALUE;
+                segment[i] = (short) bestSegment;
+            }
+        }
+    }
+    
+    /**
+     * Squared distance from a point to one segment
+     */
+    private float segmentDistance2(int s, float x, float z) {
+        float ax = segments[s * 4];
+        float az = segments[s * 4 + 1];
+        float dx = segments[s * 4 + 2] - ax;
+        float dz = segments[s * 4 + 3] - az;
+        float length2 = dx * dx + dz * dz;
+        float t = length2 > 0f ? ((x - ax) * dx + (z - az) * dz) / length2 : 0f;
+        t = Math.max(0f, Math.min(1f, t));
+        float px = ax + dx * t - x;
+        float pz = az + dz * t - z;
+        return px * px + pz * pz;
+    }
+    
+    private float sample(int ix, int iz) {
+        ix = Math.max(0, Math.min(side - 1, ix));
+        iz = Math.max(0, Math.min(side - 1, iz));
+        return distance[iz * side + ix];
+    }
+    
+    /**
+     * Signed distance from the path edge (negative on the path), bilinear between samples
+     */
+    public float distance(float x, float z) {
+        float gx = (x - origin) / spacing;
+        float gz = (z - origin) / spacing;
+        int ix = (int) Math.floor(gx);
+        int iz = (int) Math.floor(gz);
+        float fx = gx - ix;
+        float fz = gz - iz;
+        float d0 = sample(ix, iz) + (sample(ix + 1, iz) - sample(ix, iz)) * fx;
+        float d1 = sample(ix, iz + 1) + (sample(ix + 1, iz + 1) - sample(ix, iz + 1)) * fx;
+        return d0 + (d1 - d0) * fz;
+    }
+    
+    /**
+     * True if the point is on the path or within tolerance of its edge
+     */
+    public boolean isOnPath(float x, float z, float tolerance) {
+        return distance(x, z) <= tolerance;
+    }
+    
+    /**
+     * Horizontal unit direction towards the nearest part of the path (zero on the path's centre line)
+     */
+    public Vector3 directionToPath(float x, float z, Vector3 out) {
+        float gradX = distance(x + spacing, z) - distance(x - spacing, z);
+        float gradZ = distance(x, z + spacing) - distance(x, z - spacing);
+        out.set(-gradX, 0f, -gradZ);
+        float length = out.len();
+        return length > 1e-6f ? out.scl(1f / length) : out.setZero();
+    }
+    
+    /**
+     * Horizontal unit direction along the nearest path segment, pointing towards the path's end
+     */
+    public Vector3 directionAlongPath(float x, float z, Vector3 out) {
+        if (segments.length == 0) return out.setZero();
+        int ix = Math.max(0, Math.min(side - 1, Math.round((x - origin) / spacing)));
+        int iz = Math.max(0, Math.min(side - 1, Math.round((z - origin) / spacing)));
+        int s = segment[iz * side + ix];
+        return out.set(segments[s * 4 + 2] - segments[s * 4], 0f, segments[s * 4 + 3] - segments[s * 4 + 1]).nor();
+    }
+    
+    /**
+     * Ground blend weight: 1 on the path, fading to 0 over BLEND_WIDTH beyond its edge
+     */
+    public float blend(float x, float z) {
+        float t = 1f - Math.max(0f, Math.min(1f, distance(x, z) / BLEND_WIDTH));
+        return t * t * (3f - 2f * t);
+    }
+}
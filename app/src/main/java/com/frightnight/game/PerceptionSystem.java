@@ -0,0 +1,261 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Line of sight from enemies to the player, blocked by hills and tree trunks
+ * A sight line is walked cell by cell over the terrain grid (DDA): in every cell it crosses, the ground
+ * is sampled under the line and the trunks indexed in that cell are tested. Trunks are bucketed into
+ * the same grid with a counting sort at load. Observers are served round-robin with a fixed number of
+ * rays per frame and keep their last answer for a short while, so the cost stays flat however many
+ * enemies are hunting.
+ */
+public class PerceptionSystem {
+    
+    private static final int RAYS_PER_FRAME = 4;     // Sight lines cast per frame at most
+    private static final float RESULT_TTL = 0.25f;   // Seconds an answer is trusted before it's recast
+    private static final float STANDING_EYE = 1.7f;  // Player eye above the ground
+    private static final float CROUCHED_EYE = 0.7f;  // Hiding: the player ducks down
+    private static final float HIDDEN_RANGE = 0.5f;  // Hiding: fraction of the sight range that still spots the player
+    private static final float TRUNK_MARGIN = 0.2f;  // Added to trunk radii (the player isn't a point)
+    
+    private final TerrainSystem terrain;
+    private final int gridSize;
+    private final float cellSize;
+    
+    // Trunks as vertical cylinders, bucketed by terrain cell: cellStart[c]..cellStart[c + 1] in cellTrunks
+    private final float[] trunkX, trunkZ, trunkRadius, trunkTop;
+    private final int[] cellStart;
+    private final int[] cellTrunks;
+    
+    // Observers (enemy eyes) and their cached answers
+    private final Vector3[] eyes;
+    private final float[] ranges;
+    private final boolean[] active;  // Pooled observers switch off while despawned
+    private final boolean[] visible;
+    private final float[] age;
+    private int observerCount = 0;
+    private int cursor = 0;
+    
+    private final Vector3 target = new Vector3();
+    private int raysCast = 0;
+    private int waiting = 0;
+    
+    /**
+     * @param maxObservers How many observers can register (the size of the enemy pool)
+     */
+    public PerceptionSystem(TerrainSystem terrain, Array<RealisticTree> trees, int maxObservers) {
+        this.terrain = terrain;
+        eyes = new Vector3[maxObservers];
+        ranges = new float[maxObservers];
+        active = new boolean[maxObservers];
+        visible = new boolean[maxObservers];
+        age = new float[maxObservers];
+        gridSize = terrain.getGridSize();
+        cellSize = terrain.getCellSize();
+        
+        int count = trees.size;
+        trunkX = new float[count];
+        trunkZ = new float[count];
+        trunkRadius = new float[count];
+        trunkTop = new float[count];
+        for (int i = 0; i < count; i++) {
+            RealisticTree tree = trees.get(i);
+            trunkX[i] = tree.getPosition().x;
+            trunkZ[i] = tree.getPosition().z;
+            trunkRadius[i] = tree.getTrunkRadius() + TRUNK_MARGIN;
+            trunkTop[i] = tree.getBounds().max.y;
+        }
+        
+        // Counting sort: a trunk goes into every cell its footprint overlaps
+        int cells = gridSize * gridSize;
+        cellStart = new int[cells + 1];
+        bucketTrunks(null);
+        int sum = 0;
+        for (int c = 0; c < cells; c++) {
+            int n = cellStart[c];
+            cellStart[c] = sum;
+            sum += n;
+        }
+        cellStart[cells] = sum;
+        cellTrunks = new int[sum];
+        bucketTrunks(cellTrunks);
+        // Filling moved every start to the cell's end; shift them back
+        for (int c = cells - 1; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+    
+    /**
+     * Visit every (trunk, cell) overlap: counts into cellStart, or fills the buckets when given them
+     */
+    private void bucketTrunks(int[] buckets) {
+        for (int i = 0; i < trunkX.length; i++) {
+            int x0 = Math.max(0, cellOf(trunkX[i] - trunkRadius[i]));
+            int x1 = Math.min(gridSize - 1, cellOf(trunkX[i] + trunkRadius[i]));
+            int z0 = Math.max(0, cellOf(trunkZ[i] - trunkRadius[i]));
+            int z1 = Math.min(gridSize - 1, cellOf(trunkZ[i] + trunkRadius[i]));
+            for (int cz = z0; cz <= z1; cz++) {
+                for (int cx = x0; cx <= x1; cx++) {
+                    int c = cz * gridSize + cx;
+                    if (buckets == null) {
+                        cellStart[c]++;
+                    } else {
+                        buckets[cellStart[c]++] = i;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Terrain cell column (or row) of a world coordinate
+     */
+    private int cellOf(float coordinate) {
+        return MathUtils.floor(coordinate / cellSize + gridSize / 2f);
+    }
+    
+    /**
+     * Add an observer whose eye is read whenever its sight line is cast
+     * @param eye Kept by reference, so the owner just moves it
+     * @param range How far the observer can spot a standing player
+     * @return The observer's slot, for canSee()
+     */
+    public int register(Vector3 eye, float range) {
+        if (observerCount == eyes.length) {
+            throw new IllegalStateException("Too many perception observers (max " + eyes.length + ")");
+        }
+        eyes[observerCount] = eye;
+        ranges[observerCount] = range;
+        active[observerCount] = true;
+        age[observerCount] = RESULT_TTL; // Due on the first update
+        return observerCount++;
+    }
+    
+    /**
+     * Switch an observer on (it sees nothing until its first check) or off (no rays are cast for it)
+     */
+    public void setObserverActive(int slot, boolean on) {
+        active[slot] = on;
+        visible[slot] = false;
+        age[slot] = RESULT_TTL;
+    }
+    
+    /**
+     * Cast this frame's share of sight lines
+     * @param player Player eye position
+     * @param hiding Player is crouched in cover: lower target, shorter sight range
+     */
+    public void update(float delta, Vector3 player, boolean hiding) {
+        target.set(player);
+        if (hiding) {
+            target.y += CROUCHED_EYE - STANDING_EYE;
+        }
+        for (int i = 0; i < observerCount; i++) {
+            age[i] += delta;
+        }
+        
+        raysCast = 0;
+        for (int checked = 0; checked < observerCount && raysCast < RAYS_PER_FRAME; checked++) {
+            int i = cursor;
+            cursor = (cursor + 1) % observerCount;
+            if (!active[i] || age[i] < RESULT_TTL) continue;
+            age[i] = 0f;
+            
+            Vector3 eye = eyes[i];
+            float range = hiding ? ranges[i] * HIDDEN_RANGE : ranges[i];
+            if (eye.dst2(target) > range * range) {
+                visible[i] = false; // Out of range: no ray needed
+                continue;
+            }
+            visible[i] = lineOfSight(eye.x, eye.y, eye.z, target.x, target.y, target.z);
+            raysCast++;
+        }
+        
+        waiting = 0;
+        for (int i = 0; i < observerCount; i++) {
+            if (active[i] && age[i] >= RESULT_TTL) waiting++;
+        }
+    }
+    
+    /**
+     * Whether the observer saw the player at its last check (at most RESULT_TTL old, unless the queue is backed up)
+     */
+    public boolean canSee(int slot) {
+        return visible[slot];
+    }
+    
+    /**
+     * Walk the terrain cells between two points; blocked by ground above the line or a trunk across it
+     */
+    public boolean lineOfSight(float ax, float ay, float az, float bx, float by, float bz) {
+        float half = gridSize / 2f;
+        float gx = ax / cellSize + half;
+        float gz = az / cellSize + half;
+        float dx = (bx - ax) / cellSize; // Line direction in cells per unit of t (t = 0..1)
+        float dz = (bz - az) / cellSize;
+        int cx = MathUtils.floor(gx);
+        int cz = MathUtils.floor(gz);
+        int stepX = dx > 0f ? 1 : -1;
+        int stepZ = dz > 0f ? 1 : -1;
+        float tDeltaX = dx != 0f ? Math.abs(1f / dx) : Float.MAX_VALUE;
+        float tDeltaZ = dz != 0f ? Math.abs(1f / dz) : Float.MAX_VALUE;
+        float tMaxX = dx > 0f ? (cx + 1 - gx) / dx : dx < 0f ? (cx - gx) / dx : Float.MAX_VALUE;
+        float tMaxZ = dz > 0f ? (cz + 1 - gz) / dz : dz < 0f ? (cz - gz) / dz : Float.MAX_VALUE;
+        
+        float t0 = 0f;
+        while (true) {
+            float t1 = Math.min(Math.min(tMaxX, tMaxZ), 1f);
+            // Ground inside this cell: sampled mid-segment and where the line leaves it
+            if (belowGround(ax, ay, az, bx, by, bz, (t0 + t1) * 0.5f)
+                    || belowGround(ax, ay, az, bx, by, bz, t1)) {
+                return false;
+            }
+            if (cx >= 0 && cx < gridSize && cz >= 0 && cz < gridSize
+                    && hitsTrunk(cz * gridSize + cx, ax, ay, az, bx, by, bz)) {
+                return false;
+            }
+            if (t1 >= 1f) return true;
+            if (tMaxX < tMaxZ) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cz += stepZ;
+                tMaxZ += tDeltaZ;
+            }
+            t0 = t1;
+        }
+    }
+    
+    private boolean belowGround(float ax, float ay, float az, float bx, float by, float bz, float t) {
+        float y = ay + (by - ay) * t;
+        return terrain.getHeightAt(ax + (bx - ax) * t, az + (bz - az) * t) > y;
+    }
+    
+    /**
+     * Closest approach of the line to each trunk in the cell, on the ground plane
+     */
+    private boolean hitsTrunk(int cell, float ax, float ay, float az, float bx, float by, float bz) {
+        float ex = bx - ax;
+        float ez = bz - az;
+        float length2 = ex * ex + ez * ez;
+        for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+            int i = cellTrunks[k];
+            float t = length2 > 0f ? MathUtils.clamp(((trunkX[i] - ax) * ex + (trunkZ[i] - az) * ez) / length2, 0f, 1f) : 0f;
+            float px = ax + ex * t - trunkX[i];
+            float pz = az + ez * t - trunkZ[i];
+            if (px * px + pz * pz < trunkRadius[i] * trunkRadius[i] && ay + (by - ay) * t < trunkTop[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("perception.rays", raysCast);
+        metrics.set("perception.waiting", waiting);
+    }
+}
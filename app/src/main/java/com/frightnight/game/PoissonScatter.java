@@ -0,0 +1,299 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Even, clump-free placement for world objects (trees, grass, enemies, clouds)
+ * Bridson Poisson-disk sampling over a background grid, restricted by masks (path, spawn area, slope).
+ * The spacing is chosen from the target count and the masked area, the sample is thinned to exactly
+ * that count, and the same seed always gives the same layout. Large scatters run one region per thread.
+ */
+public class PoissonScatter {
+    
+    /** Where points may go */
+    public interface Mask {
+        boolean accepts(float x, float z);
+    }
+    
+    private static final int CANDIDATES = 30;        // Bridson's k: tries around each active point
+    private static final int SEED_ATTEMPTS = 30;     // Consecutive failed restarts before a region counts as full
+    private static final float PACKING = 0.7f;       // Points per r^2 of a saturated sample (slightly under, to overshoot)
+    private static final int AREA_PROBES = 256;      // Mask samples used to estimate the usable area
+    private static final int MAX_PASSES = 6;         // Spacing reductions before giving up on the target count
+    private static final int PARALLEL_MIN_COUNT = 64; // Smaller scatters aren't worth splitting
+    
+    private static ExecutorService workers; // Shared by every scatter, created on first parallel use
+    
+    private final float minX, minZ, maxX, maxZ;
+    private final Array<Mask> masks = new Array<>();
+    
+    public PoissonScatter(float minX, float minZ, float maxX, float maxZ) {
+        this.minX = minX;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxZ = maxZ;
+    }
+    
+    /**
+     * Add a restriction (all masks must accept a point)
+     */
+    public PoissonScatter mask(Mask mask) {
+        masks.add(mask);
+        return this;
+    }
+    
+    /**
+     * Keep out of a rectangle, e.g. the player spawn area
+     */
+    public static Mask outside(final float centerX, final float centerZ, final float halfWidth, final float halfDepth) {
+        return new Mask() {
+            @Override
+            public boolean accepts(float x, float z) {
+                return Math.abs(x - centerX) >= halfWidth || Math.abs(z - centerZ) >= halfDepth;
+            }
+        };
+    }
+    
+    /**
+     * Keep a margin off the forest path
+     */
+    public static Mask offPath(final ForestPath path, final float margin) {
+        return new Mask() {
+            @Override
+            public boolean accepts(float x, float z) {
+                return path == null || !path.isOnPath(x, z, margin);
+            }
+        };
+    }
+    
+    /**
+     * Only ground no steeper than maxSlope (rise over run)
+     */
+    public static Mask maxSlope(final TerrainSystem terrain, final float maxSlope) {
+        return new Mask() {
+            @Override
+            public boolean accepts(float x, float z) {
+                float dx = terrain.getHeightAt(x + 1f, z) - terrain.getHeightAt(x - 1f, z);
+                float dz = terrain.getHeightAt(x, z + 1f) - terrain.getHeightAt(x, z - 1f);
+                return (dx * dx + dz * dz) * 0.25f <= maxSlope * maxSlope;
+            }
+        };
+    }
+    
+    private boolean accepts(float x, float z) {
+        for (int i = 0; i < masks.size; i++) {
+            if (!masks.get(i).accepts(x, z)) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Place exactly count points (fewer only if the masks leave no room), deterministic per seed
+     */
+    public Array<Vector2> scatter(int count, long seed) {
+        Array<Vector2> points = new Array<>();
+        if (count <= 0) return points;
+        
+        // Spacing from the usable area, which the masks may cut down a lot
+        Random random = new Random(seed);
+        int accepted = 0;
+        for (int i = 0; i < AREA_PROBES; i++) {
+            if (accepts(minX + random.nextFloat() * (maxX - minX), minZ + random.nextFloat() * (maxZ - minZ))) {
+                accepted++;
+            }
+        }
+        float area = (maxX - minX) * (maxZ - minZ) * Math.max(1, accepted) / AREA_PROBES;
+        float radius = (float) Math.sqrt(PACKING * area / count);
+        
+        FloatArray sample = null;
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            sample = sampleRegions(radius, count, seed + pass * 7919L);
+            int found = sample.size / 2;
+            if (found >= count) break;
+            radius *= found == 0 ? 0.5f : (float) Math.sqrt((float) found / count) * 0.95f;
+        }
+        
+        // Thin to the exact count with a seeded partial shuffle (spacing only grows)
+        int found = sample.size / 2;
+        if (found < count) {
+            Gdx.app.error("FrightNight", "Scatter placed " + found + " of " + count + " points, masks leave no room");
+        }
+        int keep = Math.min(count, found);
+        float[] items = sample.items;
+        for (int i = 0; i < keep; i++) {
+            int j = i + random.nextInt(found - i);
+            float x = items[j * 2];
+            float z = items[j * 2 + 1];
+            items[j * 2] = items[i * 2];
+            items[j * 2 + 1] = items[i * 2 + 1];
+            items[i * 2] = x;
+            items[i * 2 + 1] = z;
+            points.add(new Vector2(x, z));
+        }
+        return points;
+    }
+    
+    /**
+     * Sample each region on its own thread; regions leave half the spacing free at shared edges so
+     * points from neighbours can't come closer than the radius
+     */
+    private FloatArray sampleRegions(final float radius, int count, final long seed) {
+        // The split depends only on the inputs (not the core count) so every device gets the same layout
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        final int split = count >= PARALLEL_MIN_COUNT && Math.min(maxX - minX, maxZ - minZ) > radius * 8f ? 2 : 1;
+        final float half = radius * 0.5f;
+        final float regionW = (maxX - minX) / split;
+        final float regionD = (maxZ - minZ) / split;
+        
+        List<Callable<FloatArray>> regions = new ArrayList<>();
+        for (int r = 0; r < split * split; r++) {
+            final int rx = r % split;
+            final int rz = r / split;
+            final long regionSeed = seed * 31L + r;
+            regions.add(new Callable<FloatArray>() {
+                @Override
+                public FloatArray call() {
+                    float x0 = minX + rx * regionW + (rx > 0 ? half : 0f);
+                    float x1 = minX + (rx + 1) * regionW - (rx < split - 1 ? half : 0f);
+                    float z0 = minZ + rz * regionD + (rz > 0 ? half : 0f);
+                    float z1 = minZ + (rz + 1) * regionD - (rz < split - 1 ? half : 0f);
+                    return sampleRegion(x0, z0, x1, z1, radius, new Random(regionSeed));
+                }
+            });
+        }
+        
+        FloatArray all = new FloatArray();
+        if (threads == 1 || regions.size() == 1) {
+            for (Callable<FloatArray> region : regions) {
+                try {
+                    all.addAll(region.call());
+                } catch (Exception e) {
+                    throw new IllegalStateException("Scatter failed", e);
+                }
+            }
+            return all;
+        }
+        try {
+            for (Future<FloatArray> result : workers(Math.min(threads, regions.size())).invokeAll(regions)) {
+                all.addAll(result.get()); // Always in region order, so the result is deterministic
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scatter interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scatter failed", e.getCause());
+        }
+        return all;
+    }
+    
+    /**
+     * The shared region workers; daemon threads, so they never keep the app alive
+     */
+    private static synchronized ExecutorService workers(int threads) {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "PoissonScatter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return workers;
+    }
+    
+    /**
+     * Bridson sampling of one rectangle; restarts from fresh seed points so areas split off by
+     * masks (e.g. both sides of the path) fill too
+     */
+    private FloatArray sampleRegion(float x0, float z0, float x1, float z1, float radius, Random random) {
+        FloatArray points = new FloatArray();
+        float width = x1 - x0;
+        float depth = z1 - z0;
+        if (width <= 0f || depth <= 0f) return points;
+        
+        float cellSize = radius / (float) Math.sqrt(2); // At most one point per cell
+        int gridW = Math.max(1, (int) Math.ceil(width / cellSize));
+        int gridD = Math.max(1, (int) Math.ceil(depth / cellSize));
+        int[] grid = new int[gridW * gridD];
+        Arrays.fill(grid, -1);
+        IntArray active = new IntArray();
+        float radius2 = radius * radius;
+        
+        int misses = 0;
+        while (misses < SEED_ATTEMPTS) {
+            float sx = x0 + random.nextFloat() * width;
+            float sz = z0 + random.nextFloat() * depth;
+            if (!accepts(sx, sz) || !isFree(points, grid, gridW, gridD, cellSize, x0, z0, sx, sz, radius2)) {
+                misses++;
+                continue;
+            }
+            misses = 0;
+            active.add(insert(points, grid, gridW, cellSize, x0, z0, sx, sz));
+            
+            while (active.size > 0) {
+                int slot = random.nextInt(active.size);
+                int index = active.get(slot);
+                float px = points.get(index * 2);
+                float pz = points.get(index * 2 + 1);
+                boolean placed = false;
+                for (int k = 0; k < CANDIDATES && !placed; k++) {
+                    // Uniform in the annulus [r, 2r)
+                    float angle = random.nextFloat() * (float) (Math.PI * 2);
+                    float distance = radius * (float) Math.sqrt(1f + random.nextFloat() * 3f);
+                    float cx = px + (float) Math.cos(angle) * distance;
+                    float cz = pz + (float) Math.sin(angle) * distance;
+                    if (cx < x0 || cx >= x1 || cz < z0 || cz >= z1) continue;
+                    if (!isFree(points, grid, gridW, gridD, cellSize, x0, z0, cx, cz, radius2) || !accepts(cx, cz)) continue;
+                    active.add(insert(points, grid, gridW, cellSize, x0, z0, cx, cz));
+                    placed = true;
+                }
+                if (!placed) {
+                    active.removeIndex(slot);
+                }
+            }
+        }
+        return points;
+    }
+    
+    private static int insert(FloatArray points, int[] grid, int gridW, float cellSize,
+                              float x0, float z0, float x, float z) {
+        int index = points.size / 2;
+        points.add(x, z);
+        int gx = Math.min(gridW - 1, (int) ((x - x0) / cellSize));
+        int gz = Math.min(grid.length / gridW - 1, (int) ((z - z0) / cellSize));
+        grid[gz * gridW + gx] = index;
+        return index;
+    }
+    
+    private static boolean isFree(FloatArray points, int[] grid, int gridW, int gridD, float cellSize,
+                                  float x0, float z0, float x, float z, float radius2) {
+        int gx = (int) ((x - x0) / cellSize);
+        int gz = (int) ((z - z0) / cellSize);
+        for (int cz = Math.max(0, gz - 2); cz <= Math.min(gridD - 1, gz + 2); cz++) {
+            for (int cx = Math.max(0, gx - 2); cx <= Math.min(gridW - 1, gx + 2); cx++) {
+                int other = grid[cz * gridW + cx];
+                if (other < 0) continue;
+                float dx = points.get(other * 2) - x;
+                float dz = points.get(other * 2 + 1) - z;
+                if (dx * dx + dz * dz < radius2) return false;
+            }
+        }
+        return true;
+    }
+}
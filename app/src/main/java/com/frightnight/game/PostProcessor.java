@@ -0,0 +1,260 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Post-processing for the 3D pass
+ * Upscales the scene, adds bloom on emissive surfaces, the horror vignette and the
+ * lightning flash in ONE fullscreen composite pass. Bloom is extracted and blurred at
+ * half resolution, ping-ponging between two small reused buffers.
+ */
+public class PostProcessor implements Disposable {
+    
+    private static final float BLOOM_STRENGTH = 1.4f;
+    private static final float FLASH_OPACITY = 0.6f; // Same strength as the old overlay flash
+    
+    private static final String QUAD_VERTEX =
+            "attribute vec2 a_position;\n" +
+            "attribute vec2 a_texCoord0;\n" +
+            "varying vec2 v_uv;\n" +
+            "void main() {\n" +
+            "    v_uv = a_texCoord0;\n" +
+            "    gl_Position = vec4(a_position, 0.0, 1.0);\n" +
+            "}\n";
+    
+    // Downsample the scene region 2x2 and keep only emissive pixels (alpha = emissive mask)
+    private static final String EXTRACT_FRAGMENT =
+            "#ifdef GL_ES\nprecision mediump float;\n#endif\n" +
+            "uniform sampler2D u_scene;\n" +
+            "uniform vec2 u_sceneScale;\n" +
+            "uniform vec2 u_texel;\n" +
+            "varying vec2 v_uv;\n" +
+            "vec3 tap(vec2 uv) {\n" +
+            "    vec4 c = texture2D(u_scene, uv);\n" +
+            "    return c.rgb * c.a;\n" +
+            "}\n" +
+            "void main() {\n" +
+            "    vec2 uv = v_uv * u_sceneScale;\n" +
+            "    vec3 c = tap(uv + vec2(-u_texel.x, -u_texel.y)) + tap(uv + vec2(u_texel.x, -u_texel.y))\n" +
+            "           + tap(uv + vec2(-u_texel.x, u_texel.y)) + tap(uv + vec2(u_texel.x, u_texel.y));\n" +
+            "    gl_FragColor = vec4(c * 0.25, 1.0);\n" +
+            "}\n";
+    
+    // Separable 9-tap gaussian using 5 linearly filtered fetches
+    private static final String BLUR_FRAGMENT =
+            "#ifdef GL_ES\nprecision mediump float;\n#endif\n" +
+            "uniform sampler2D u_texture;\n" +
+            "uniform vec2 u_direction;\n" +
+            "varying vec2 v_uv;\n" +
+            "void main() {\n" +
+            "    vec2 o1 = u_direction * 1.3846153846;\n" +
+            "    vec2 o2 = u_direction * 3.2307692308;\n" +
+            "    vec3 c = texture2D(u_texture, v_uv).rgb * 0.2270270270;\n" +
+            "    c += texture2D(u_texture, v_uv + o1).rgb * 0.3162162162;\n" +
+            "    c += texture2D(u_texture, v_uv - o1).rgb * 0.3162162162;\n" +
+            "    c += texture2D(u_texture, v_uv + o2).rgb * 0.0702702703;\n" +
+            "    c += texture2D(u_texture, v_uv - o2).rgb * 0.0702702703;\n" +
+            "    gl_FragColor = vec4(c, 1.0);\n" +
+            "}\n";
+    
+    // Single composite pass; effects are compile-time permutations
+    private static final String COMPOSITE_FRAGMENT =
+            "#ifdef GL_ES\nprecision mediump float;\n#endif\n" +
+            "uniform sampler2D u_scene;\n" +
+            "uniform vec2 u_sceneScale;\n" +
+            "uniform float u_flash;\n" +
+            "#ifdef bloomFlag\n" +
+            "uniform sampler2D u_bloom;\n" +
+            "uniform float u_bloomStrength;\n" +
+            "#endif\n" +
+            "varying vec2 v_uv;\n" +
+            "void main() {\n" +
+            "    vec3 c = texture2D(u_scene, v_uv * u_sceneScale).rgb;\n" +
+            "#ifdef bloomFlag\n" +
+            "    c += texture2D(u_bloom, v_uv).rgb * u_bloomStrength;\n" +
+            "#endif\n" +
+            "#ifdef vignetteFlag\n" +
+            "    vec2 d = v_uv - 0.5;\n" +
+            "    float edge = smoothstep(0.25, 0.75, dot(d, d) * 2.0);\n" +
+            "    c *= 1.0 - edge * 0.75;\n" +                       // Dark corners
+            "    c = mix(c, c * vec3(1.1, 0.55, 0.55), edge * 0.5);\n" + // Blood-tinted rim
+            "#endif\n" +
+            "    c = mix(c, vec3(1.0), u_flash);\n" +
+            "    gl_FragColor = vec4(c, 1.0);\n" +
+            "}\n";
+    
+    private final Mesh quad;
+    private final ShaderProgram extractShader;
+    private final ShaderProgram blurShader;
+    private final ShaderProgram[] compositeShaders = new ShaderProgram[4]; // [bloom * 2 + vignette]
+    
+    private FrameBuffer bloomA;
+    private FrameBuffer bloomB;
+    private int screenWidth;
+    private int screenHeight;
+    
+    private boolean bloomEnabled = true;
+    private boolean vignetteEnabled = true;
+    private float flashIntensity = 0f;
+    
+    public PostProcessor(int width, int height) {
+        quad = new Mesh(true, 4, 6,
+                new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"));
+        quad.setVertices(new float[] {
+                -1f, -1f, 0f, 0f,
+                 1f, -1f, 1f, 0f,
+                 1f,  1f, 1f, 1f,
+                -1f,  1f, 0f, 1f
+        });
+        quad.setIndices(new short[] { 0, 1, 2, 2, 3, 0 });
+        
+        // Compile every permutation up front so toggling effects never hitches
+        extractShader = compile("", EXTRACT_FRAGMENT);
+        blurShader = compile("", BLUR_FRAGMENT);
+        for (int i = 0; i < compositeShaders.length; i++) {
+            String prefix = ((i & 2) != 0 ? "#define bloomFlag\n" : "")
+                    + ((i & 1) != 0 ? "#define vignetteFlag\n" : "");
+            compositeShaders[i] = compile(prefix, COMPOSITE_FRAGMENT);
+        }
+        
+        resize(width, height);
+    }
+    
+    private static ShaderProgram compile(String prefix, String fragment) {
+        ShaderProgram program = new ShaderProgram(QUAD_VERTEX, prefix + fragment);
+        if (!program.isCompiled()) {
+            throw new IllegalStateException("Post-process shader failed: " + program.getLog());
+        }
+        return program;
+    }
+    
+    /**
+     * Composite the scene to the current (native) framebuffer
+     * @param scene Scene color buffer (alpha holds the emissive mask)
+     * @param sceneU Used fraction of the scene buffer width (dynamic resolution)
+     * @param sceneV Used fraction of the scene buffer height
+     */
+    public void render(Texture scene, float sceneU, float sceneV) {
+        Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+        
+        boolean bloom = bloomEnabled && bloomA != null;
+        if (bloom) {
+            renderBloom(scene, sceneU, sceneV);
+        }
+        
+        ShaderProgram composite = compositeShaders[(bloom ? 2 : 0) + (vignetteEnabled ? 1 : 0)];
+        Gdx.gl.glViewport(0, 0, screenWidth, screenHeight);
+        if (bloom) {
+            bloomA.getColorBufferTexture().bind(1);
+        }
+        scene.bind(0);
+        composite.bind();
+        composite.setUniformi("u_scene", 0);
+        composite.setUniformf("u_sceneScale", sceneU, sceneV);
+        composite.setUniformf("u_flash", flashIntensity * FLASH_OPACITY);
+        if (bloom) {
+            composite.setUniformi("u_bloom", 1);
+            composite.setUniformf("u_bloomStrength", BLOOM_STRENGTH);
+        }
+        quad.render(composite, GL20.GL_TRIANGLES);
+    }
+    
+    /**
+     * Extract emissive pixels at half resolution, then blur horizontally and vertically
+     * (A -> B -> A, the same two buffers every frame)
+     */
+    private void renderBloom(Texture scene, float sceneU, float sceneV) {
+        int w = bloomA.getWidth();
+        int h = bloomA.getHeight();
+        
+        bloomA.begin();
+        scene.bind(0);
+        extractShader.bind();
+        extractShader.setUniformi("u_scene", 0);
+        extractShader.setUniformf("u_sceneScale", sceneU, sceneV);
+        extractShader.setUniformf("u_texel", 0.5f / screenWidth, 0.5f / screenHeight);
+        quad.render(extractShader, GL20.GL_TRIANGLES);
+        bloomA.end();
+        
+        blurShader.bind();
+        blurShader.setUniformi("u_texture", 0);
+        
+        bloomB.begin();
+        bloomA.getColorBufferTexture().bind(0);
+        blurShader.setUniformf("u_direction", 1f / w, 0f);
+        quad.render(blurShader, GL20.GL_TRIANGLES);
+        bloomB.end();
+        
+        bloomA.begin();
+        bloomB.getColorBufferTexture().bind(0);
+        blurShader.setUniformf("u_direction", 0f, 1f / h);
+        quad.render(blurShader, GL20.GL_TRIANGLES);
+        bloomA.end();
+    }
+    
+    public void resize(int width, int height) {
+        screenWidth = width;
+        screenHeight = height;
+        disposeBuffers();
+        if (width <= 0 || height <= 0) return;
+        
+        try {
+            bloomA = createBloomBuffer(width / 2, height / 2);
+            bloomB = createBloomBuffer(width / 2, height / 2);
+        } catch (Exception e) {
+            Gdx.app.error("FrightNight", "Bloom unavailable: " + e.getMessage(), e);
+            disposeBuffers();
+        }
+    }
+    
+    private static FrameBuffer createBloomBuffer(int width, int height) {
+        FrameBuffer buffer = new FrameBuffer(Pixmap.Format.RGB888, Math.max(1, width), Math.max(1, height), false);
+        buffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        buffer.getColorBufferTexture().setWrap(Texture.TextureWrap.ClampToEdge, Texture.TextureWrap.ClampToEdge);
+        return buffer;
+    }
+    
+    /**
+     * Per-tier effect toggles
+     */
+    public void setEffects(boolean bloom, boolean vignette) {
+        bloomEnabled = bloom;
+        vignetteEnabled = vignette;
+    }
+    
+    /**
+     * Lightning flash strength (0-1), folded into the composite pass
+     */
+    public void setFlash(float intensity) {
+        flashIntensity = Math.max(0f, Math.min(1f, intensity));
+    }
+    
+    private void disposeBuffers() {
+        if (bloomA != null) bloomA.dispose();
+        if (bloomB != null) bloomB.dispose();
+        bloomA = null;
+        bloomB = null;
+    }
+    
+    @Override
+    public void dispose() {
+        disposeBuffers();
+        quad.dispose();
+        extractShader.dispose();
+        blurShader.dispose();
+        for (ShaderProgram shader : compositeShaders) {
+            shader.dispose();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Applies a quality tier to the scene a few instances per frame
+ * The world is built once at the highest tier; lower tiers hide content,
+ * so switching tiers never creates models or stalls a frame
+ */
+public class QualityApplier {
+
+    private static final int CHANGES_PER_FRAME = 12; // Instance adds/removes per frame
+
+    private final Array<ModelInstance> instances;
+    private final WindGrassField grass;
+    private final BirdFlock birds;
+    private final Array<VolumetricCloud> clouds;
+    private final Array<RealisticTree> trees;
+    private final PlayerShadow shadow;
+
+    private QualityTier target;
+    private final int[] treeDetail;
+    private boolean shadowVisible;
+    private int nextTree = 0; // Round-robin cursor so tree changes spread over frames
+
+    /**
+     * @param instances Near scene instances (trees, shadow live here)
+     */
+    public QualityApplier(Array<ModelInstance> instances, WindGrassField grass, BirdFlock birds, Array<VolumetricCloud> clouds,
+                          Array<RealisticTree> trees, PlayerShadow shadow) {
+        this.instances = instances;
+        this.grass = grass;
+        this.birds = birds;
+        this.clouds = clouds;
+        this.trees = trees;
+        this.shadow = shadow;
+
+        // Everything starts visible (built at the highest tier)
+        treeDetail = new int[trees != null ? trees.size : 0];
+        for (int i = 0; i < treeDetail.length; i++) {
+            treeDetail[i] = QualityTier.TREE_DETAIL_FULL;
+        }
+        shadowVisible = shadow != null;
+        target = QualityTier.highest();
+    }
+
+    public void setTarget(QualityTier tier) {
+        target = tier;
+    }
+
+    /**
+     * Apply everything at once (used during loading, where a stall is fine)
+     */
+    public void applyAll() {
+        while (!step(Integer.MAX_VALUE)) {
+            // Keep going until the scene matches the target
+        }
+    }
+
+    /**
+     * Move the scene toward the target tier within this frame's budget
+     * @return true once the scene fully matches the target
+     */
+    public boolean step() {
+        return step(CHANGES_PER_FRAME);
+    }
+
+    private boolean step(int budget) {
+        budget = stepGrass(budget);
+        budget = stepBirds(budget);
+        budget = stepClouds(budget);
+        budget = stepTrees(budget);
+        budget = stepShadow(budget);
+        return budget > 0 && isSettled();
+    }
+
+    private boolean isSettled() {
+        if (grass != null && grass.getDensity() != target.grassDensity) return false;
+        if (birds != null && birds.getActiveCount() != Math.min(target.birdCount, birds.getCapacity())) return false;
+        if (clouds != null) {
+            for (VolumetricCloud cloud : clouds) {
+                if (cloud.getActivePuffs() != Math.min(target.cloudPuffs, cloud.getPuffCount())) return false;
+            }
+        }
+        for (int i = 0; i < treeDetail.length; i++) {
+            if (treeDetail[i] != target.treeDetail) return false;
+        }
+        return shadow == null || shadowVisible == (target.shadowQuality != QualityTier.SHADOW_OFF);
+    }
+
+    private int stepGrass(int budget) {
+        if (grass == null) return budget;
+        if (budget > 0 && grass.getDensity() != target.grassDensity) {
+            grass.setDensity(target.grassDensity); // Chunks refill on the grass worker thread
+            budget--;
+        }
+        return budget;
+    }
+
+    private int stepBirds(int budget) {
+        if (birds == null) return budget;
+        // The flock is one buffer, so resizing it is a single change
+        int wanted = Math.min(target.birdCount, birds.getCapacity());
+        if (budget > 0 && birds.getActiveCount() != wanted) {
+            birds.setActiveCount(wanted);
+            budget--;
+        }
+        return budget;
+    }
+
+    private int stepClouds(int budget) {
+        if (clouds == null) return budget;
+        // Puffs are billboards in one buffer, so a whole cloud changes for one unit of budget
+        for (int c = 0; c < clouds.size && budget > 0; c++) {
+            VolumetricCloud cloud = clouds.get(c);
+            int wanted = Math.min(target.cloudPuffs, cloud.getPuffCount());
+            if (cloud.getActivePuffs() != wanted) {
+                cloud.setActivePuffs(wanted);
+                budget--;
+            }
+        }
+        return budget;
+    }
+
+    private int stepTrees(int budget) {
+        for (int n = 0; n < treeDetail.length && budget > 0; n++) {
+            int t = nextTree;
+            nextTree = (nextTree + 1) % treeDetail.length;
+            if (treeDetail[t] == target.treeDetail) continue;
+
+            // Switch one whole tree at a time so it never shows a half-built state
+            RealisticTree tree = trees.get(t);
+            Array<ModelInstance> parts = tree.getParts();
+            for (int i = 0; i < parts.size; i++) {
+                boolean wasShown = tree.getPartDetail(i) <= treeDetail[t];
+                boolean shown = tree.getPartDetail(i) <= target.treeDetail;
+                if (wasShown && !shown) {
+                    instances.removeValue(parts.get(i), true);
+                    budget--;
+                } else if (!wasShown && shown) {
+                    instances.add(parts.get(i));
+                    budget--;
+                }
+            }
+            treeDetail[t] = target.treeDetail;
+        }
+        return budget;
+    }
+
+    private int stepShadow(int budget) {
+        if (shadow == null || budget <= 0) return budget;
+        boolean wanted = target.shadowQuality != QualityTier.SHADOW_OFF;
+        if (wanted && !shadowVisible) {
+            instances.add(shadow.getInstance());
+            budget--;
+        } else if (!wanted && shadowVisible) {
+            instances.removeValue(shadow.getInstance(), true);
+            budget--;
+        }
+        shadowVisible = wanted;
+        return budget;
+    }
+
+    public boolean isShadowVisible() {
+        return shadowVisible;
+    }
+}
@@ -0,0 +1,147 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import java.util.Arrays;
+
+/**
+ * Picks the scene quality tier at runtime
+ * Looks at sustained frame-time percentiles (not single spikes) and the device
+ * thermal status, and only moves one tier at a time with hysteresis
+ */
+public class QualityGovernor {
+
+    // Android PowerManager.THERMAL_STATUS_* values (kept here so the game core stays platform-free)
+    public static final int THERMAL_NONE = 0;
+    public static final int THERMAL_LIGHT = 1;
+    public static final int THERMAL_MODERATE = 2;
+    public static final int THERMAL_SEVERE = 3;
+
+    private static final float TARGET_FRAME_MS = 1000f / 60f;
+    private static final int WINDOW_SIZE = 120;            // ~2 seconds of frames
+    private static final float EVALUATE_INTERVAL = 1f;     // Seconds between percentile checks
+    private static final float PERCENTILE = 0.9f;
+    private static final float DOWNGRADE_RATIO = 1.3f;     // p90 above target * this is "struggling"
+    private static final float UPGRADE_RATIO = 1.05f;      // p90 below target * this is "comfortable"
+    private static final float DOWNGRADE_HOLD = 3f;        // Seconds of struggling before dropping a tier
+    private static final float MIN_UPGRADE_HOLD = 10f;     // Seconds of comfort before raising a tier
+    private static final float MAX_UPGRADE_HOLD = 60f;
+    private static final float HITCH_MS = 250f;
+    private static final float FULL_RESOLUTION = 0.95f;    // Only raise when dynamic resolution has recovered
+
+    private final float[] frameTimes = new float[WINDOW_SIZE];
+    private final float[] sorted = new float[WINDOW_SIZE];
+    private int frameIndex = 0;
+    private int frameCount = 0;
+
+    private QualityTier tier;
+    private float evaluateTimer = 0f;
+    private float strugglingTime = 0f;
+    private float comfortableTime = 0f;
+    private float upgradeHold = MIN_UPGRADE_HOLD;
+    private float lastPercentileMs = 0f;
+    private int tierChanges = 0;
+    private boolean lastChangeWasUpgrade = false;
+
+    // Written from the Android thermal listener thread
+    private volatile int thermalStatus = THERMAL_NONE;
+
+    public QualityGovernor(QualityTier initialTier) {
+        this.tier = initialTier;
+    }
+
+    /**
+     * Record a frame and re-evaluate the tier periodically
+     * @param delta Frame delta in seconds
+     * @param resolutionScale Current dynamic resolution scale (1 = native)
+     */
+    public void update(float delta, float resolutionScale) {
+        float frameMs = delta * 1000f;
+        if (frameMs <= HITCH_MS) {
+            frameTimes[frameIndex] = frameMs;
+            frameIndex = (frameIndex + 1) % WINDOW_SIZE;
+            frameCount = Math.min(WINDOW_SIZE, frameCount + 1);
+        }
+
+        evaluateTimer += delta;
+        if (evaluateTimer < EVALUATE_INTERVAL) return;
+        float elapsed = evaluateTimer;
+        evaluateTimer = 0f;
+
+        // Thermal throttling caps the tier immediately
+        QualityTier thermalCap = getThermalCap();
+        if (tier.ordinal() > thermalCap.ordinal()) {
+            changeTier(thermalCap, "thermal status " + thermalStatus);
+            return;
+        }
+
+        if (frameCount < WINDOW_SIZE / 2) return;
+        lastPercentileMs = percentile(PERCENTILE);
+
+        if (lastPercentileMs > TARGET_FRAME_MS * DOWNGRADE_RATIO) {
+            comfortableTime = 0f;
+            strugglingTime += elapsed;
+            if (strugglingTime >= DOWNGRADE_HOLD && tier != QualityTier.LOW) {
+                // Raising didn't hold: wait longer before the next attempt
+                if (lastChangeWasUpgrade) {
+                    upgradeHold = Math.min(MAX_UPGRADE_HOLD, upgradeHold * 2f);
+                }
+                changeTier(tier.lower(), "p90 " + Math.round(lastPercentileMs) + "ms");
+            }
+        } else if (lastPercentileMs < TARGET_FRAME_MS * UPGRADE_RATIO && resolutionScale >= FULL_RESOLUTION) {
+            strugglingTime = 0f;
+            comfortableTime += elapsed;
+            QualityTier next = tier.higher();
+            if (comfortableTime >= upgradeHold && next != tier && next.ordinal() <= thermalCap.ordinal()) {
+                changeTier(next, "p90 " + Math.round(lastPercentileMs) + "ms");
+            }
+        } else {
+            strugglingTime = 0f;
+            comfortableTime = 0f;
+        }
+    }
+
+    private QualityTier getThermalCap() {
+        int status = thermalStatus;
+        if (status >= THERMAL_SEVERE) return QualityTier.LOW;
+        if (status >= THERMAL_MODERATE) return QualityTier.MEDIUM;
+        return QualityTier.highest();
+    }
+
+    private void changeTier(QualityTier newTier, String reason) {
+        if (newTier == tier) return;
+        lastChangeWasUpgrade = newTier.ordinal() > tier.ordinal();
+        Gdx.app.log("FrightNight", "Quality " + tier + " -> " + newTier + " (" + reason + ")");
+        tier = newTier;
+        tierChanges++;
+        strugglingTime = 0f;
+        comfortableTime = 0f;
+        // Start measuring the new tier from scratch
+        frameCount = 0;
+        frameIndex = 0;
+    }
+
+    private float percentile(float p) {
+        System.arraycopy(frameTimes, 0, sorted, 0, frameCount);
+        Arrays.sort(sorted, 0, frameCount);
+        int index = Math.min(frameCount - 1, (int)(p * frameCount));
+        return sorted[index];
+    }
+
+    /**
+     * Called from the platform layer when the device thermal status changes
+     */
+    public void setThermalStatus(int status) {
+        thermalStatus = status;
+    }
+
+    public QualityTier getTier() {
+        return tier;
+    }
+
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("quality.tier", tier.ordinal());
+        metrics.set("quality.p90Ms", lastPercentileMs);
+        metrics.set("quality.changes", tierChanges);
+        metrics.set("quality.thermal", thermalStatus);
+    }
+}
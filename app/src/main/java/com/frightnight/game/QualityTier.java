@@ -0,0 +1,76 @@
+package com.frightnight.game;
+
+/**
+ * Named scene quality tiers
+ * Each tier sets how dense and detailed the world is allowed to be
+ */
+public enum QualityTier {
+
+    //     grass  tree detail  cloud puffs  birds  draw distance  shadow  fog    vignette  bloom
+    LOW(   0.35f, 0,            5,        300,      90f,          0,      true,  true,     false),
+    MEDIUM(0.65f, 1,            9,        800,     130f,          1,      true,  true,     true),
+    HIGH(  1.0f,  2,           14,       1500,     180f,          1,      true,  true,     true);
+
+    /** Tree detail: trunk and crown only */
+    public static final int TREE_DETAIL_CROWN = 0;
+    /** Tree detail: adds branches */
+    public static final int TREE_DETAIL_BRANCHES = 1;
+    /** Tree detail: adds leaf clusters on the branch ends */
+    public static final int TREE_DETAIL_FULL = 2;
+
+    /** Shadow quality: no player shadow */
+    public static final int SHADOW_OFF = 0;
+    /** Shadow quality: moonlight blob shadow */
+    public static final int SHADOW_BLOB = 1;
+
+    public final float grassDensity; // Fraction of the grass ring's full blade count
+    public final int treeDetail;
+    public final int cloudPuffs;
+    public final int birdCount;      // Flock size (GLES 2.0 caps it much lower)
+    public final float drawDistance;
+    public final int shadowQuality;
+    public final boolean fog;
+    public final boolean vignette;
+    public final boolean bloom;
+
+    QualityTier(float grassDensity, int treeDetail, int cloudPuffs, int birdCount,
+                float drawDistance, int shadowQuality, boolean fog, boolean vignette, boolean bloom) {
+        this.grassDensity = grassDensity;
+        this.treeDetail = treeDetail;
+        this.cloudPuffs = cloudPuffs;
+        this.birdCount = birdCount;
+        this.drawDistance = drawDistance;
+        this.shadowQuality = shadowQuality;
+        this.fog = fog;
+        this.vignette = vignette;
+        this.bloom = bloom;
+    }
+
+    public QualityTier lower() {
+        return this == LOW ? LOW : values()[ordinal() - 1];
+    }
+
+    public QualityTier higher() {
+        QualityTier[] tiers = values();
+        return ordinal() == tiers.length - 1 ? this : tiers[ordinal() + 1];
+    }
+
+    /**
+     * Highest tier the scene is built for (content is created once at this density)
+     */
+    public static QualityTier highest() {
+        QualityTier[] tiers = values();
+        return tiers[tiers.length - 1];
+    }
+
+    /**
+     * Look up a tier by name, falling back when the name is unknown
+     */
+    public static QualityTier fromName(String name, QualityTier fallback) {
+        if (name == null) return fallback;
+        for (QualityTier tier : values()) {
+            if (tier.name().equals(name)) return tier;
+        }
+        return fallback;
+    }
+}
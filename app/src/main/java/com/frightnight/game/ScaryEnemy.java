@@ -8,28 +8,96 @@ import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
 
 /**
  * Scary enemy that chases the player
- * Uses simple AI to patrol and hunt
+ * Uses simple AI to patrol and hunt; with a PerceptionSystem it only spots the player in line of
+ * sight and searches where it last saw them. Enemies are pooled (see EnemyDirector): all of them
+ * share one set of Models, and spawn() / despawn() only reset state.
  */
 public class ScaryEnemy {
     
+    /**
+     * The meshes every enemy shares: body, head and one eye (used twice)
+     */
+    public static class Models implements Disposable {
+        
+        final Model body;
+        final Model head;
+        final Model eye;
+        
+        public Models(ModelBuilder modelBuilder) {
+            // Grayish-green zombie skin
+            Material zombieMaterial = new Material(
+                ColorAttribute.createDiffuse(0.3f, 0.35f, 0.25f, 1f)
+            );
+            
+            // Dark evil eyes
+            Material eyeMaterial = new Material(
+                ColorAttribute.createDiffuse(0.8f, 0.1f, 0.1f, 1f), // Red glowing eyes
+                ColorAttribute.createEmissive(0.6f, 0.0f, 0.0f, 1f) // Emit red light
+            );
+            
+            // Body (hunched over)
+            body = modelBuilder.createBox(
+                0.8f, 1.5f, 0.6f, // Roughly human-sized
+                zombieMaterial,
+                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+            );
+            
+            // Head (slightly oversized for creepy effect)
+            head = modelBuilder.createSphere(
+                0.5f, 0.6f, 0.5f,
+                12, 10,
+                zombieMaterial,
+                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+            );
+            
+            // Glowing eyes (the emissive glow feeds the bloom pass)
+            eye = modelBuilder.createSphere(
+                0.08f, 0.08f, 0.08f,
+                6, 6,
+                eyeMaterial,
+                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+            );
+        }
+        
+        @Override
+        public void dispose() {
+            body.dispose();
+            head.dispose();
+            eye.dispose();
+        }
+    }
+    
     private ModelInstance bodyInstance;
     private ModelInstance headInstance;
+    private ModelInstance leftEyeInstance;
+    private ModelInstance rightEyeInstance;
+    private final SceneNode root = new SceneNode(); // Position and heading; the parts hang off it
+    private final Array<ModelInstance> instances = new Array<>(4);
+    private final int slot; // Index in the director's pool
+    private boolean active = false;
     private Vector3 position;
     private Vector3 velocity;
     private TerrainSystem terrain;
+    private final Vector3 eye = new Vector3(); // Where it looks from (read by the perception system)
+    private PerceptionSystem perception;
+    private int perceptionSlot = -1;
+    private final Vector3 lastSeen = new Vector3();
     
     // AI state
     private enum State {
         PATROLLING,
         CHASING,
+        SEARCHING,
         ATTACKING
     }
     
     private State state = State.PATROLLING;
-    private Vector3 patrolTarget;
+    private final Vector3 patrolTarget = new Vector3();
     private float speed = 3.5f;
     private float chaseSpeed = 6f;
     private float detectionRange = 25f;
@@ -40,54 +108,59 @@ public class ScaryEnemy {
     private float bobAmount = 0.3f;
     
     /**
-     * Create a scary enemy (zombie/monster)
+     * Create a pooled scary enemy (zombie/monster); it does nothing until spawned
      */
-    public ScaryEnemy(ModelBuilder modelBuilder, TerrainSystem terrain, float x, float z) {
+    public ScaryEnemy(Models models, TerrainSystem terrain, int slot) {
         this.terrain = terrain;
-        float y = terrain.getHeightAt(x, z) + 1.5f; // Eye height
-        this.position = new Vector3(x, y, z);
+        this.slot = slot;
+        this.position = new Vector3();
         this.velocity = new Vector3();
         
-        // Pick random patrol target
-        pickNewPatrolTarget();
+        bodyInstance = new ModelInstance(models.body);
+        headInstance = new ModelInstance(models.head);
+        leftEyeInstance = new ModelInstance(models.eye);
+        rightEyeInstance = new ModelInstance(models.eye);
+        instances.addAll(bodyInstance, headInstance, leftEyeInstance, rightEyeInstance);
         
-        // Create creepy enemy model
-        createEnemyModel(modelBuilder);
+        root.addChild(new SceneNode(bodyInstance));
+        SceneNode head = root.addChild(new SceneNode(headInstance)).setTranslation(0f, 1.0f, 0f); // Above body
+        head.addChild(new SceneNode(leftEyeInstance)).setTranslation(-0.12f, 0.05f, -0.22f); // Eyes follow the head
+        head.addChild(new SceneNode(rightEyeInstance)).setTranslation(0.12f, 0.05f, -0.22f);
     }
     
     /**
-     * Create scary zombie/monster model
+     * Bring the enemy into the world at a spot, fresh (allocates nothing)
      */
-    private void createEnemyModel(ModelBuilder modelBuilder) {
-        // Grayish-green zombie skin
-        Material zombieMaterial = new Material(
-            ColorAttribute.createDiffuse(0.3f, 0.35f, 0.25f, 1f)
-        );
-        
-        // Dark evil eyes
-        Material eyeMaterial = new Material(
-            ColorAttribute.createDiffuse(0.8f, 0.1f, 0.1f, 1f), // Red glowing eyes
-            ColorAttribute.createEmissive(0.6f, 0.0f, 0.0f, 1f) // Emit red light
-        );
-        
-        // Body (hunched over)
-        Model bodyModel = modelBuilder.createBox(
-            0.8f, 1.5f, 0.6f, // Roughly human-sized
-            zombieMaterial,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
-        );
-        bodyInstance = new ModelInstance(bodyModel);
-        
-        // Head (slightly oversized for creepy effect)
-        Model headModel = modelBuilder.createSphere(
-            0.5f, 0.6f, 0.5f,
-            12, 10,
-            zombieMaterial,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
-        );
-        headInstance = new ModelInstance(headModel);
-        
+    public void spawn(float x, float z) {
+        position.set(x, terrain.getHeightAt(x, z) + 1.5f, z); // Eye height
+        velocity.setZero();
+        state = State.PATROLLING;
+        bobPhase = 0f;
+        lastSeen.set(position);
+        pickNewPatrolTarget();
         updateTransforms();
+        active = true;
+        if (perception != null) {
+            perception.setObserverActive(perceptionSlot, true);
+        }
+    }
+    
+    /**
+     * Take the enemy out of the world, back to its pool
+     */
+    public void despawn() {
+        active = false;
+        if (perception != null) {
+            perception.setObserverActive(perceptionSlot, false);
+        }
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public int getSlot() {
+        return slot;
     }
     
     /**
@@ -96,14 +169,26 @@ public class ScaryEnemy {
     public void update(float delta, Vector3 playerPosition) {
         float distanceToPlayer = position.dst(playerPosition);
         
-        // Update state based on distance to player
-        if (distanceToPlayer < attackRange) {
+        State previous = state;
+        
+        // Update state based on distance to player and whether it can see them
+        boolean seesPlayer = perception != null ? perception.canSee(perceptionSlot) : distanceToPlayer < detectionRange;
+        if (seesPlayer) {
+            lastSeen.set(playerPosition);
+        }
+        if (seesPlayer && distanceToPlayer < attackRange) {
             state = State.ATTACKING;
-        } else if (distanceToPlayer < detectionRange) {
+        } else if (seesPlayer) {
             state = State.CHASING;
+        } else if (state == State.CHASING || state == State.ATTACKING
+                || (state == State.SEARCHING && position.dst(lastSeen) > 2f)) {
+            state = State.SEARCHING; // Lost sight: go to where the player was last seen
         } else {
             state = State.PATROLLING;
         }
+        if (state != previous && (state == State.CHASING || state == State.ATTACKING)) {
+            Gdx.app.log("FrightNight", "Enemy " + state + "! Distance: " + distanceToPlayer);
+        }
         
         // Behavior based on state
         switch (state) {
@@ -113,6 +198,9 @@ public class ScaryEnemy {
             case CHASING:
                 chase(delta, playerPosition);
                 break;
+            case SEARCHING:
+                search(delta);
+                break;
             case ATTACKING:
                 attack(delta, playerPosition);
                 break;
@@ -129,7 +217,7 @@ public class ScaryEnemy {
      * Patrol behavior - wander around
      */
     private void patrol(float delta) {
-        if (patrolTarget == null || position.dst(patrolTarget) < 2f) {
+        if (position.dst(patrolTarget) < 2f) {
             pickNewPatrolTarget();
         }
         
@@ -151,8 +239,18 @@ public class ScaryEnemy {
         
         // Update height
         position.y = terrain.getHeightAt(position.x, position.z) + 1.5f;
+    }
+    
+    /**
+     * Search - head for where the player was last seen
+     */
+    private void search(float delta) {
+        velocity.set(lastSeen).sub(position);
+        velocity.y = 0f;
+        velocity.nor().scl(speed * delta);
+        position.add(velocity);
         
-        Gdx.app.log("FrightNight", "Enemy chasing player! Distance: " + position.dst(playerPosition));
+        position.y = terrain.getHeightAt(position.x, position.z) + 1.5f;
     }
     
     /**
@@ -167,7 +265,6 @@ public class ScaryEnemy {
         position.y = terrain.getHeightAt(position.x, position.z) + 1.5f;
         
         // TODO: Trigger game over or damage player
-        Gdx.app.log("FrightNight", "Enemy ATTACKING!");
     }
     
     /**
@@ -182,38 +279,46 @@ public class ScaryEnemy {
         z = Math.max(-70, Math.min(70, z));
         
         float y = terrain.getHeightAt(x, z);
-        patrolTarget = new Vector3(x, y, z);
+        patrolTarget.set(x, y, z);
     }
     
     /**
-     * Update model transforms
+     * Move the enemy's root node; body, head and eyes follow through the hierarchy
      */
     private void updateTransforms() {
         // Body position with bobbing
         float bob = (float)Math.sin(bobPhase) * bobAmount;
-        bodyInstance.transform.setToTranslation(position.x, position.y + bob, position.z);
+        root.setTranslation(position.x, position.y + bob, position.z);
         
         // Rotate to face movement direction
-        if (velocity.len() > 0.1f) {
-            float angle = (float)Math.toDegrees(Math.atan2(velocity.x, -velocity.z));
-            bodyInstance.transform.rotate(Vector3.Y, angle);
-        }
-        
-        // Head position (above body)
-        headInstance.transform.setToTranslation(position.x, position.y + 1.0f + bob, position.z);
-        
-        // Match body rotation
-        if (velocity.len() > 0.1f) {
-            float angle = (float)Math.toDegrees(Math.atan2(velocity.x, -velocity.z));
-            headInstance.transform.rotate(Vector3.Y, angle);
+        if (!velocity.isZero()) {
+            root.setRotation(Vector3.Y, (float)Math.toDegrees(Math.atan2(velocity.x, -velocity.z)));
         }
+        root.update();
+        eye.set(position.x, position.y + bob + 1.05f, position.z);
+    }
+    
+    /**
+     * Spot the player by line of sight (within the detection range) instead of by distance alone
+     */
+    public void setPerception(PerceptionSystem perception) {
+        this.perception = perception;
+        perceptionSlot = perception.register(eye, detectionRange);
+        perception.setObserverActive(perceptionSlot, active);
     }
     
     /**
      * Check if enemy caught player
      */
     public boolean hasReachedPlayer(Vector3 playerPosition) {
-        return position.dst(playerPosition) < attackRange && state == State.ATTACKING;
+        return active && position.dst(playerPosition) < attackRange && state == State.ATTACKING;
+    }
+    
+    /**
+     * Body, head and both eyes
+     */
+    public Array<ModelInstance> getInstances() {
+        return instances;
     }
     
     public ModelInstance getBodyInstance() {
@@ -224,6 +329,14 @@ public class ScaryEnemy {
         return headInstance;
     }
     
+    public ModelInstance getLeftEyeInstance() {
+        return leftEyeInstance;
+    }
+    
+    public ModelInstance getRightEyeInstance() {
+        return rightEyeInstance;
+    }
+    
     public Vector3 getPosition() {
         return position;
     }
@@ -231,9 +344,4 @@ public class ScaryEnemy {
     public State getState() {
         return state;
     }
-    
-    public void dispose() {
-        bodyInstance.model.dispose();
-        headInstance.model.dispose();
-    }
 }
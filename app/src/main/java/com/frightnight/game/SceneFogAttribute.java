@@ -0,0 +1,65 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * Exponential height fog settings for the scene shaders
+ * Lives in the Environment next to the ColorAttribute.Fog color
+ */
+public class SceneFogAttribute extends Attribute {
+    
+    public static final String Alias = "sceneFog";
+    public static final long Type = register(Alias);
+    
+    private static final float OPAQUE_DEPTH = 1.98f; // exp2 fog reaches ~98% at density * distance = 1.98
+    
+    public float density;
+    public float heightFalloff;   // How fast the fog thins above the base height
+    public float baseHeight;      // Fog is thickest at and below this height
+    public float minHeightFactor; // Thinnest the fog gets at altitude (fraction of full density)
+    
+    public SceneFogAttribute(float density, float heightFalloff, float baseHeight, float minHeightFactor) {
+        super(Type);
+        this.density = density;
+        this.heightFalloff = heightFalloff;
+        this.baseHeight = baseHeight;
+        this.minHeightFactor = minHeightFactor;
+    }
+    
+    /**
+     * Fog that hides everything beyond the given distance, even where it is thinnest
+     * (so objects past that distance can be culled without popping)
+     */
+    public static SceneFogAttribute forDrawDistance(float drawDistance, float heightFalloff,
+                                                    float baseHeight, float minHeightFactor) {
+        float density = OPAQUE_DEPTH / (drawDistance * minHeightFactor);
+        return new SceneFogAttribute(density, heightFalloff, baseHeight, minHeightFactor);
+    }
+    
+    @Override
+    public Attribute copy() {
+        return new SceneFogAttribute(density, heightFalloff, baseHeight, minHeightFactor);
+    }
+    
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 953 * result + NumberUtils.floatToRawIntBits(density);
+        result = 953 * result + NumberUtils.floatToRawIntBits(heightFalloff);
+        result = 953 * result + NumberUtils.floatToRawIntBits(baseHeight);
+        result = 953 * result + NumberUtils.floatToRawIntBits(minHeightFactor);
+        return result;
+    }
+    
+    @Override
+    public int compareTo(Attribute o) {
+        if (type != o.type) return (int)(type - o.type);
+        SceneFogAttribute other = (SceneFogAttribute) o;
+        if (density != other.density) return density < other.density ? -1 : 1;
+        if (heightFalloff != other.heightFalloff) return heightFalloff < other.heightFalloff ? -1 : 1;
+        if (baseHeight != other.baseHeight) return baseHeight < other.baseHeight ? -1 : 1;
+        if (minHeightFactor != other.minHeightFactor) return minHeightFactor < other.minHeightFactor ? -1 : 1;
+        return 0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Lightweight transform hierarchy for multi-part entities (birds, enemies, placed trees)
+ * Each node has a local translation, rotation and scale; its world matrix (parent world * local) is
+ * only recomputed when the node or one of its ancestors changed since the last update(). Static
+ * nodes are computed once and frozen, so nothing touches them after load.
+ * Model instances attached to a node share its world matrix instead of copying it.
+ */
+public class SceneNode {
+    
+    private final Vector3 translation = new Vector3();
+    private final Quaternion rotation = new Quaternion();
+    private final Vector3 scale = new Vector3(1f, 1f, 1f);
+    private final Matrix4 local = new Matrix4();
+    private final Matrix4 world;
+    private final Array<SceneNode> children = new Array<>(4);
+    private SceneNode parent;
+    private boolean dirty = true;
+    private boolean frozen = false;
+    
+    public SceneNode() {
+        world = new Matrix4();
+    }
+    
+    /**
+     * Node that drives an instance: the instance's transform is the node's world matrix
+     */
+    public SceneNode(ModelInstance instance) {
+        world = instance.transform;
+    }
+    
+    /**
+     * @return The child, for chaining its setup
+     */
+    public SceneNode addChild(SceneNode child) {
+        if (child.parent != null) {
+            child.parent.children.removeValue(child, true);
+        }
+        child.parent = this;
+        child.dirty = true;
+        children.add(child);
+        return child;
+    }
+    
+    /**
+     * Let another instance share this node's world matrix (e.g. a tree's detail layers)
+     */
+    public SceneNode attach(ModelInstance instance) {
+        instance.transform = world;
+        return this;
+    }
+    
+    public SceneNode setTranslation(float x, float y, float z) {
+        if (translation.x == x && translation.y == y && translation.z == z) return this;
+        checkMovable();
+        translation.set(x, y, z);
+        dirty = true;
+        return this;
+    }
+    
+    public SceneNode setTranslation(Vector3 position) {
+        return setTranslation(position.x, position.y, position.z);
+    }
+    
+    /**
+     * @param degrees Rotation around the axis
+     */
+    public SceneNode setRotation(Vector3 axis, float degrees) {
+        checkMovable();
+        rotation.set(axis, degrees);
+        dirty = true;
+        return this;
+    }
+    
+    public SceneNode setScale(float uniformScale) {
+        if (scale.x == uniformScale && scale.y == uniformScale && scale.z == uniformScale) return this;
+        checkMovable();
+        scale.set(uniformScale, uniformScale, uniformScale);
+        dirty = true;
+        return this;
+    }
+    
+    private void checkMovable() {
+        if (frozen) {
+            throw new IllegalStateException("Static scene node can't be moved");
+        }
+    }
+    
+    /**
+     * Bring the world matrices of this subtree up to date (call on the root once per frame)
+     */
+    public void update() {
+        updateWorld(false);
+    }
+    
+    private void updateWorld(boolean parentChanged) {
+        if (frozen) return;
+        boolean changed = dirty || parentChanged;
+        if (changed) {
+            local.set(translation, rotation, scale);
+            if (parent != null) {
+                world.set(parent.world).mul(local);
+            } else {
+                world.set(local);
+            }
+            dirty = false;
+        }
+        for (int i = 0; i < children.size; i++) {
+            children.get(i).updateWorld(changed);
+        }
+    }
+    
+    /**
+     * Compute this subtree's world matrices one last time and freeze them
+     */
+    public void makeStatic() {
+        update();
+        freeze();
+    }
+    
+    private void freeze() {
+        frozen = true;
+        for (int i = 0; i < children.size; i++) {
+            children.get(i).freeze();
+        }
+    }
+    
+    public boolean isStatic() {
+        return frozen;
+    }
+    
+    public Matrix4 getWorldTransform() {
+        return world;
+    }
+    
+    public Vector3 getTranslation() {
+        return translation;
+    }
+}
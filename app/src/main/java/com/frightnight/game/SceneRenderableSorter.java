@@ -0,0 +1,117 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.graphics.g3d.utils.DefaultRenderableSorter;
+import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Orders renderables to minimise state changes
+ * Opaque: by shader, then material, then front-to-back (early depth rejection).
+ * Transparent: after all opaque ones, back-to-front.
+ * Each renderable is packed into one long key and the keys are sorted as primitives:
+ * [transparent 1][shader 12][material 16][depth 16][index 16]
+ */
+public class SceneRenderableSorter implements RenderableSorter {
+    
+    private static final int MAX_INDEX = 0xFFFF;
+    private static final long TRANSPARENT_BIT = 1L << 62;
+    
+    private final MaterialRegistry materials;
+    private final IdentityHashMap<Shader, Integer> shaderKeys = new IdentityHashMap<>();
+    private final RenderableSorter fallback = new DefaultRenderableSorter();
+    private final Array<Renderable> sorted = new Array<>();
+    private final Vector3 center = new Vector3();
+    private long[] keys = new long[256];
+    
+    private int materialSwitches = 0;
+    private int shaderSwitches = 0;
+    
+    public SceneRenderableSorter(MaterialRegistry materials) {
+        this.materials = materials;
+    }
+    
+    @Override
+    public void sort(Camera camera, Array<Renderable> renderables) {
+        int count = renderables.size;
+        if (count > MAX_INDEX) {
+            fallback.sort(camera, renderables);
+            return;
+        }
+        if (keys.length < count) {
+            keys = new long[Math.max(count, keys.length * 2)];
+        }
+        
+        for (int i = 0; i < count; i++) {
+            keys[i] = keyOf(camera, renderables.get(i)) | i;
+        }
+        Arrays.sort(keys, 0, count);
+        
+        sorted.clear();
+        sorted.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            sorted.add(renderables.get((int)(keys[i] & MAX_INDEX)));
+        }
+        renderables.clear();
+        renderables.addAll(sorted);
+        sorted.clear();
+        
+        countSwitches(renderables);
+    }
+    
+    private long keyOf(Camera camera, Renderable renderable) {
+        center.set(renderable.meshPart.center).mul(renderable.worldTransform);
+        float distance = camera.position.dst(center) / camera.far;
+        long depth = (long) Math.min(MAX_INDEX, Math.max(0f, distance) * MAX_INDEX);
+        
+        BlendingAttribute blending = (BlendingAttribute) renderable.material.get(BlendingAttribute.Type);
+        if (blending != null && blending.blended) {
+            return TRANSPARENT_BIT | ((MAX_INDEX - depth) << 16);
+        }
+        long shader = Math.min(0xFFF, shaderKey(renderable.shader));
+        long material = Math.min(0xFFFF, materials.keyOf(renderable.material));
+        return (shader << 48) | (material << 32) | (depth << 16);
+    }
+    
+    private int shaderKey(Shader shader) {
+        Integer key = shaderKeys.get(shader);
+        if (key == null) {
+            key = shaderKeys.size();
+            shaderKeys.put(shader, key);
+        }
+        return key;
+    }
+    
+    private void countSwitches(Array<Renderable> renderables) {
+        Shader lastShader = null;
+        Material lastMaterial = null;
+        for (int i = 0; i < renderables.size; i++) {
+            Renderable renderable = renderables.get(i);
+            if (renderable.shader != lastShader) {
+                shaderSwitches++;
+                lastShader = renderable.shader;
+            }
+            if (renderable.material != lastMaterial) {
+                materialSwitches++;
+                lastMaterial = renderable.material;
+            }
+        }
+    }
+    
+    /**
+     * Publish the switches counted since the last report
+     */
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("batch.materialSwitches", materialSwitches);
+        metrics.set("batch.shaderSwitches", shaderSwitches);
+        materialSwitches = 0;
+        shaderSwitches = 0;
+    }
+}
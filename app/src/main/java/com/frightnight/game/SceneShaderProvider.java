@@ -0,0 +1,198 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.Attributes;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.RenderableProvider;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.graphics.g3d.shaders.BaseShader;
+import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
+import com.badlogic.gdx.graphics.g3d.utils.DefaultShaderProvider;
+import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Shader provider for the 3D scene
+ * Uses libGDX's default shader, patched so opaque surfaces write their emissive
+ * strength into the alpha channel (the post processor uses that as the bloom mask)
+ * and with exponential height fog driven by SceneFogAttribute.
+ * Common cases (lit, baked, foliage, unlit and blended objects) get a LiteShader instead;
+ * all of those are compiled up front and prewarm() compiles the rest at load time.
+ */
+public class SceneShaderProvider extends DefaultShaderProvider {
+    
+    private static final String OPAQUE_ALPHA = "gl_FragColor.a = 1.0;";
+    private static final String EMISSIVE_ALPHA =
+            "gl_FragColor.a = clamp(max(emissive.r, max(emissive.g, emissive.b)), 0.0, 1.0);";
+    
+    private static final String FOG_VARYING = "varying float v_fog;";
+    private static final String FOG_UNIFORMS = "varying float v_fog;\nuniform vec4 u_fogParams;";
+    private static final String DISTANCE_FOG = "float fog = dot(flen, flen) * u_cameraPosition.w;";
+    // u_fogParams = (density, height falloff, base height, min height factor)
+    static final String HEIGHT_FOG =
+            "float fogHeight = max(u_fogParams.w, exp(-max(pos.y - u_fogParams.z, 0.0) * u_fogParams.y));\n" +
+            "        float fogDepth = length(flen) * u_fogParams.x * fogHeight;\n" +
+            "        float fog = 1.0 - exp(-fogDepth * fogDepth);";
+    
+    // Indexed by kind * 4 + (instanced ? 2 : 0) + (fog ? 1 : 0); null where a variant is unavailable
+    private final LiteShader[] liteShaders = new LiteShader[LiteShader.Kind.values().length * 4];
+    
+    public SceneShaderProvider() {
+        super(createConfig());
+        // Instanced variants need GLES 3.0 (per-instance vertex attributes)
+        int variants = Gdx.gl30 != null ? 4 : 2;
+        for (LiteShader.Kind kind : LiteShader.Kind.values()) {
+            for (int variant = 0; variant < variants; variant++) {
+                try {
+                    LiteShader shader = new LiteShader(kind, (variant & 1) != 0, (variant & 2) != 0);
+                    shader.init();
+                    liteShaders[kind.ordinal() * 4 + variant] = shader;
+                } catch (RuntimeException e) {
+                    Gdx.app.error("FrightNight", "Falling back to default shader for " + kind, e);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public Shader getShader(Renderable renderable) {
+        LiteShader.Kind kind = LiteShader.kindOf(renderable);
+        if (kind != null) {
+            LiteShader shader = liteShaders[indexOf(kind, renderable.meshPart.mesh.isInstanced(),
+                    LiteShader.hasFog(renderable))];
+            if (shader != null) {
+                return shader;
+            }
+        }
+        return super.getShader(renderable);
+    }
+    
+    private static int indexOf(LiteShader.Kind kind, boolean instanced, boolean fog) {
+        return kind.ordinal() * 4 + (instanced ? 2 : 0) + (fog ? 1 : 0);
+    }
+    
+    /**
+     * Whether renderables like this one can be drawn instanced (with or without fog)
+     */
+    public boolean canInstance(Renderable renderable) {
+        LiteShader.Kind kind = LiteShader.kindOf(renderable);
+        return kind != null && kind != LiteShader.Kind.BLENDED
+                && liteShaders[indexOf(kind, true, false)] != null
+                && liteShaders[indexOf(kind, true, true)] != null;
+    }
+    
+    /**
+     * Compile every shader these instances will need now, instead of hitching on first sight
+     */
+    public void prewarm(Iterable<? extends RenderableProvider> instances, Environment environment) {
+        Array<Renderable> renderables = new Array<>();
+        Pool<Renderable> pool = new Pool<Renderable>() {
+            @Override
+            protected Renderable newObject() {
+                return new Renderable();
+            }
+        };
+        for (RenderableProvider instance : instances) {
+            if (instance == null) continue;
+            instance.getRenderables(renderables, pool);
+        }
+        for (Renderable renderable : renderables) {
+            renderable.environment = environment;
+            renderable.shader = null;
+            getShader(renderable);
+        }
+        pool.freeAll(renderables);
+    }
+    
+    /**
+     * Number of compiled shader programs (lite and default)
+     */
+    public int getShaderCount() {
+        int count = shaders.size;
+        for (LiteShader shader : liteShaders) {
+            if (shader != null) count++;
+        }
+        return count;
+    }
+    
+    @Override
+    public void dispose() {
+        for (LiteShader shader : liteShaders) {
+            if (shader != null) shader.dispose();
+        }
+        super.dispose();
+    }
+    
+    private static DefaultShader.Config createConfig() {
+        DefaultShader.Config config = new DefaultShader.Config();
+        String fragment = DefaultShader.getDefaultFragmentShader();
+        if (fragment.contains(OPAQUE_ALPHA)) {
+            fragment = fragment.replace(OPAQUE_ALPHA, EMISSIVE_ALPHA);
+        } else {
+            Gdx.app.error("FrightNight", "Default fragment shader changed, bloom mask disabled");
+        }
+        String vertex = DefaultShader.getDefaultVertexShader();
+        if (vertex.contains(FOG_VARYING) && vertex.contains(DISTANCE_FOG)) {
+            vertex = vertex.replace(FOG_VARYING, FOG_UNIFORMS).replace(DISTANCE_FOG, HEIGHT_FOG);
+        } else {
+            Gdx.app.error("FrightNight", "Default vertex shader changed, using stock fog");
+        }
+        config.vertexShader = vertex;
+        config.fragmentShader = fragment;
+        return config;
+    }
+    
+    @Override
+    protected Shader createShader(Renderable renderable) {
+        return new SceneShader(renderable, config);
+    }
+    
+    /**
+     * Default shader that keeps blended surfaces out of the emissive mask
+     * and feeds the height fog parameters
+     */
+    static class SceneShader extends DefaultShader {
+        private static final Setter FOG_PARAMS = new LocalSetter() {
+            @Override
+            public void set(BaseShader shader, int inputID, Renderable renderable, Attributes combinedAttributes) {
+                SceneFogAttribute fog = (SceneFogAttribute) combinedAttributes.get(SceneFogAttribute.Type);
+                if (fog != null) {
+                    shader.set(inputID, fog.density, fog.heightFalloff, fog.baseHeight, fog.minHeightFactor);
+                } else {
+                    // Plain distance fog that closes in at the far plane
+                    shader.set(inputID, 1.98f / shader.camera.far, 0f, 0f, 1f);
+                }
+            }
+        };
+        
+        private final boolean blended;
+        
+        SceneShader(Renderable renderable, Config config) {
+            super(renderable, config);
+            blended = (attributesMask & BlendingAttribute.Type) == BlendingAttribute.Type;
+            register(new Uniform("u_fogParams"), FOG_PARAMS);
+        }
+        
+        @Override
+        public void begin(Camera camera, RenderContext context) {
+            super.begin(camera, context);
+            if (blended) {
+                // Clouds and the shadow decal must not blend into the emissive mask
+                Gdx.gl.glColorMask(true, true, true, false);
+            }
+        }
+        
+        @Override
+        public void end() {
+            if (blended) {
+                Gdx.gl.glColorMask(true, true, true, true);
+            }
+            super.end();
+        }
+    }
+}
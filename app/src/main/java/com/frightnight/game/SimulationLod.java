@@ -0,0 +1,90 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Update-rate LOD: how often an entity is simulated, by distance to the player and visibility
+ * Near entities update every frame, further ones every 2nd or 4th frame, and off-screen ones drop a
+ * tier (far and off-screen means asleep). An entity's updates are staggered by its index so each tier
+ * spreads evenly over frames, and the time it skipped is handed back as one larger delta.
+ */
+public class SimulationLod {
+    
+    public static final int EVERY_FRAME = 0;
+    public static final int EVERY_2ND = 1;
+    public static final int EVERY_4TH = 2;
+    public static final int SLEEPING = 3;
+    
+    private static final int[] INTERVAL = {1, 2, 4, 0};
+    private static final String[] METRIC = {"sim.everyFrame", "sim.every2nd", "sim.every4th", "sim.sleeping"};
+    private static final float NEAR = 40f; // Always every frame inside this, seen or not
+    private static final float MID = 80f;  // Every 2nd frame inside this, every 4th beyond
+    private static final float MAX_STEP = 0.25f; // Cap on a catch-up delta (after hitches or tier changes)
+    
+    private final int[] counts = new int[4];
+    private final Vector3 player = new Vector3();
+    private Camera camera;
+    private float delta;
+    private long frame = 0;
+    
+    /**
+     * Start a frame (call before any entity is stepped)
+     */
+    public void beginFrame(float delta, Vector3 playerPosition, Camera camera) {
+        this.delta = delta;
+        this.camera = camera;
+        player.set(playerPosition);
+        frame++;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+    }
+    
+    /**
+     * Tier for an entity with a bounding sphere (read-only, safe from worker threads)
+     */
+    public int tierOf(float x, float y, float z, float radius) {
+        float dx = x - player.x;
+        float dy = y - player.y;
+        float dz = z - player.z;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz) - radius;
+        if (distance < NEAR) return EVERY_FRAME;
+        int tier = distance < MID ? EVERY_2ND : EVERY_4TH;
+        if (camera != null && !camera.frustum.sphereInFrustum(x, y, z, radius)) tier++;
+        return tier;
+    }
+    
+    public int tierOf(Vector3 position, float radius) {
+        return tierOf(position.x, position.y, position.z, radius);
+    }
+    
+    /**
+     * Count an entity in a tier and decide whether it updates this frame
+     * @param pending Per-entity time not simulated yet (owned by the caller, one slot per entity)
+     * @param index The entity's slot, also used to stagger its updates
+     * @return The delta to integrate now, or 0 to skip this frame
+     */
+    public float step(float[] pending, int index, int tier) {
+        counts[tier]++;
+        if (tier == SLEEPING) {
+            pending[index] = 0f; // Asleep: time stands still
+            return 0f;
+        }
+        pending[index] += delta;
+        if (((frame + index) & (INTERVAL[tier] - 1)) != 0) return 0f;
+        float step = Math.min(pending[index], MAX_STEP);
+        pending[index] = 0f;
+        return step;
+    }
+    
+    public int getCount(int tier) {
+        return counts[tier];
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        for (int i = 0; i < counts.length; i++) {
+            metrics.set(METRIC[i], counts[i]);
+        }
+    }
+}
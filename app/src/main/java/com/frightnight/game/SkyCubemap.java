@@ -0,0 +1,191 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Cubemap;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.FrameBufferCubemap;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Distant scenery (mountains, moon, clouds) baked into a low-resolution cubemap
+ * The far layer barely shows parallax, so it is re-rendered one face at a time at
+ * a low rate (or all at once when asked) and drawn as a single skybox every frame
+ */
+public class SkyCubemap implements Disposable {
+    
+    private static final float FACE_INTERVAL = 0.5f;    // Seconds between single-face refreshes
+    private static final float RECENTER_DISTANCE = 15f; // Re-bake everything if the eye moved this far
+    
+    private static final String VERTEX_SHADER =
+            "attribute vec3 a_position;\n" +
+            "uniform mat4 u_projViewRot;\n" +
+            "varying vec3 v_dir;\n" +
+            "void main() {\n" +
+            "    v_dir = a_position;\n" +
+            "    vec4 p = u_projViewRot * vec4(a_position, 1.0);\n" +
+            "    gl_Position = p.xyww;\n" + // Always on the far plane
+            "}\n";
+    
+    private static final String FRAGMENT_SHADER =
+            "#ifdef GL_ES\nprecision mediump float;\n#endif\n" +
+            "uniform samplerCube u_sky;\n" +
+            "varying vec3 v_dir;\n" +
+            "void main() {\n" +
+            "    gl_FragColor = textureCube(u_sky, v_dir);\n" + // Alpha keeps the moon's bloom mask
+            "}\n";
+    
+    /**
+     * Draws the distant layer for one cube face
+     */
+    public interface Painter {
+        void paint(Camera camera);
+    }
+    
+    /** Exposes single-face binding so faces can be refreshed one at a time */
+    private static class BakeBuffer extends FrameBufferCubemap {
+        BakeBuffer(int size) {
+            super(Pixmap.Format.RGBA8888, size, size, true);
+        }
+        
+        void bindFace(Cubemap.CubemapSide side) {
+            bindSide(side);
+        }
+    }
+    
+    private final BakeBuffer buffer;
+    private final PerspectiveCamera bakeCamera;
+    private final Mesh cube;
+    private final ShaderProgram shader;
+    private final Matrix4 viewRotation = new Matrix4();
+    private final Matrix4 projViewRotation = new Matrix4();
+    private final Vector3 bakedEye = new Vector3();
+    
+    private int nextFace = 0;
+    private float faceTimer = 0f;
+    private boolean fullBakeRequested = true;
+    private int facesBaked = 0;
+    
+    /**
+     * @param size Face resolution in pixels
+     * @param far Far plane for the distant layer
+     */
+    public SkyCubemap(int size, float far) {
+        buffer = new BakeBuffer(size);
+        
+        bakeCamera = new PerspectiveCamera(90f, size, size);
+        bakeCamera.near = 1f;
+        bakeCamera.far = far;
+        
+        cube = new Mesh(true, 8, 36,
+                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE));
+        cube.setVertices(new float[] {
+                -1f, -1f, -1f,   1f, -1f, -1f,   1f, 1f, -1f,   -1f, 1f, -1f,
+                -1f, -1f,  1f,   1f, -1f,  1f,   1f, 1f,  1f,   -1f, 1f,  1f
+        });
+        cube.setIndices(new short[] {
+                0, 1, 2, 2, 3, 0,   4, 6, 5, 6, 4, 7,   0, 3, 7, 7, 4, 0,
+                1, 5, 6, 6, 2, 1,   3, 2, 6, 6, 7, 3,   0, 4, 5, 5, 1, 0
+        });
+        
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new IllegalStateException("Sky shader failed: " + shader.getLog());
+        }
+    }
+    
+    /**
+     * Re-bake every face on the next refresh (e.g. when lightning lights up the sky)
+     */
+    public void requestFullBake() {
+        fullBakeRequested = true;
+    }
+    
+    /**
+     * Refresh stale faces; must run while no other framebuffer is bound
+     * @param eye Current camera position (the cubemap is baked around it)
+     */
+    public void refresh(float delta, Vector3 eye, Painter painter) {
+        if (bakedEye.dst2(eye) > RECENTER_DISTANCE * RECENTER_DISTANCE) {
+            fullBakeRequested = true;
+        }
+        
+        faceTimer += delta;
+        if (fullBakeRequested) {
+            bakedEye.set(eye);
+            buffer.begin();
+            for (Cubemap.CubemapSide side : Cubemap.CubemapSide.values()) {
+                bakeFace(side, painter);
+            }
+            buffer.end();
+            fullBakeRequested = false;
+            faceTimer = 0f;
+        } else if (faceTimer >= FACE_INTERVAL) {
+            // Low-rate rolling refresh keeps drifting clouds moving
+            buffer.begin();
+            bakeFace(Cubemap.CubemapSide.values()[nextFace], painter);
+            buffer.end();
+            nextFace = (nextFace + 1) % 6;
+            faceTimer = 0f;
+        }
+    }
+    
+    private void bakeFace(Cubemap.CubemapSide side, Painter painter) {
+        buffer.bindFace(side);
+        Gdx.gl.glClearColor(0.02f, 0.05f, 0.15f, 0f); // Sky color, outside the bloom mask
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+        
+        bakeCamera.position.set(bakedEye);
+        bakeCamera.direction.set(side.direction);
+        bakeCamera.up.set(side.up);
+        bakeCamera.update();
+        
+        Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
+        painter.paint(bakeCamera);
+        Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
+        facesBaked++;
+    }
+    
+    /**
+     * Draw the baked sky behind everything (call first in the scene pass)
+     */
+    public void render(Camera camera) {
+        // Rotation only: the sky is infinitely far away
+        viewRotation.set(camera.view);
+        viewRotation.val[Matrix4.M03] = 0f;
+        viewRotation.val[Matrix4.M13] = 0f;
+        viewRotation.val[Matrix4.M23] = 0f;
+        projViewRotation.set(camera.projection).mul(viewRotation);
+        
+        Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
+        Gdx.gl.glDepthMask(false);
+        Gdx.gl.glDisable(GL20.GL_CULL_FACE);
+        
+        buffer.getColorBufferTexture().bind(0);
+        shader.bind();
+        shader.setUniformMatrix("u_projViewRot", projViewRotation);
+        shader.setUniformi("u_sky", 0);
+        cube.render(shader, GL20.GL_TRIANGLES);
+        
+        Gdx.gl.glDepthMask(true);
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("sky.facesBaked", facesBaked);
+    }
+    
+    @Override
+    public void dispose() {
+        buffer.dispose();
+        cube.dispose();
+        shader.dispose();
+    }
+}
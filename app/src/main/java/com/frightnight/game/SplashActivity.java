@@ -39,6 +39,8 @@ public class SplashActivity extends Activity {
     private MediaPlayer thunderPlayer;
     private boolean versionChecked = false;
     private boolean splashComplete = false;
+    private boolean calibrationDone = false; // GameActivity reads the tier it stores
+    private boolean proceeded = false;
     private String updateVersion = null;
     private String updateUrl = null;
     private long downloadId = -1;
@@ -59,6 +61,9 @@ public class SplashActivity extends Activity {
         // Play thunder sound
         playThunderSound();
         
+        // Measure the device once per app version / GPU driver while the splash is up
+        calibrateDevice();
+        
         // Request permissions first (Android 13+ requires runtime permissions)
         requestRequiredPermissions();
         
@@ -74,6 +79,18 @@ public class SplashActivity extends Activity {
             }
         }, SPLASH_DURATION);
         
+        // Don't wait on a stuck calibration longer than its own budget
+        new Handler().postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                if (!calibrationDone) {
+                    Log.d(TAG, "Calibration still running, proceeding with the stored quality profile");
+                    calibrationDone = true;
+                    proceedIfReady();
+                }
+            }
+        }, DeviceCalibrator.getTimeBudgetMs());
+        
         // Register download complete receiver safely
         try {
             downloadReceiver = new BroadcastReceiver() {
@@ -162,6 +179,22 @@ public class SplashActivity extends Activity {
         }
     }
     
+    private void calibrateDevice() {
+        DeviceCalibrator.calibrateIfNeeded(this, new DeviceCalibrator.CalibrationListener() {
+            @Override
+            public void onCalibrationComplete(QualityTier tier, boolean measured) {
+                Log.d(TAG, "Quality profile: " + tier + (measured ? " (calibrated)" : " (stored)"));
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        calibrationDone = true;
+                        proceedIfReady();
+                    }
+                });
+            }
+        });
+    }
+    
     private void checkForUpdates() {
         VersionChecker.checkForUpdate(new VersionChecker.VersionCheckListener() {
             @Override
@@ -185,7 +218,8 @@ public class SplashActivity extends Activity {
     }
     
     private void proceedIfReady() {
-        if (splashComplete && versionChecked) {
+        if (splashComplete && versionChecked && calibrationDone && !proceeded) {
+            proceeded = true;
             if (updateVersion != null) {
                 showUpdateDialog(updateVersion, updateUrl);
             } else {
@@ -2,6 +2,7 @@ package com.frightnight.game;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g3d.Material;
 import com.badlogic.gdx.graphics.g3d.Model;
@@ -11,6 +12,7 @@ import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import java.util.Random;
 
 /**
  * Realistic terrain system with hills, valleys, and distant mountains
@@ -26,26 +28,36 @@ public class TerrainSystem {
     private float cellSize = 4f; // Each cell is 4 units
     private float[][] heightMap;
     
+    // Horizon search for the baked ambient occlusion
+    private static final int[] AO_DIRECTIONS = {1, 0, 1, 1, 0, 1, -1, 1, -1, 0, -1, -1, 0, -1, 1, -1};
+    private static final int AO_STEPS = 6;
+    private static final float AO_STRENGTH = 1.5f;
+    private static final float AO_MIN = 0.3f;
+    
+    private static final Color GRASS = new Color(0.12f, 0.22f, 0.10f, 1f); // Dark grass, varied by height
+    private static final Color PATH_DIRT = new Color(0.09f, 0.07f, 0.05f, 1f); // Trodden earth under the path
+    
     /**
      * Create terrain with procedural hills and valleys
+     * @param random Height noise and mountain variation (seeded, so the same seed raises the same ground)
      */
-    public TerrainSystem(ModelBuilder modelBuilder) {
+    public TerrainSystem(ModelBuilder modelBuilder, VertexLightBaker baker, Random random) {
         mountainInstances = new Array<>();
         
         // Generate height map with rolling hills
-        generateHeightMap();
+        generateHeightMap(random);
         
         // Build terrain mesh
-        buildTerrainMesh(modelBuilder);
+        buildTerrainMesh(modelBuilder, baker);
         
         // Create distant mountains
-        createDistantMountains(modelBuilder);
+        createDistantMountains(modelBuilder, random);
     }
     
     /**
      * Generate procedural height map with rolling hills
      */
-    private void generateHeightMap() {
+    private void generateHeightMap(Random random) {
         heightMap = new float[gridSize + 1][gridSize + 1];
         
         // Create rolling hills using multiple sine waves (Perlin-like)
@@ -59,7 +71,7 @@ public class TerrainSystem {
                 height += Math.sin(x * 0.5f + 42) * Math.cos(z * 0.5f + 31) * 1f; // Small detail
                 
                 // Add some randomness
-                height += (float)(Math.random() * 0.5 - 0.25);
+                height += random.nextFloat() * 0.5f - 0.25f;
                 
                 // Flatten the center area slightly (where player starts)
                 float centerX = gridSize / 2f;
@@ -75,62 +87,53 @@ public class TerrainSystem {
     }
     
     /**
-     * Build 3D terrain mesh from height map
+     * Build 3D terrain mesh from height map, with lighting and occlusion baked into the vertices
      */
-    private void buildTerrainMesh(ModelBuilder modelBuilder) {
-        modelBuilder.begin();
+    private void buildTerrainMesh(ModelBuilder modelBuilder, VertexLightBaker baker) {
+        final int side = gridSize + 1;
+        final float[] vertices = new float[side * side * 4]; // x, y, z, packed colour
         
-        // Dark grass material with slight variation
-        Material terrainMaterial = new Material(
-            ColorAttribute.createDiffuse(0.12f, 0.22f, 0.10f, 1f)
-        );
+        // Each row of vertices is lit independently, so rows are baked in parallel
+        baker.parallelRows(side, new VertexLightBaker.RowTask() {
+            @Override
+            public void bake(int x) {
+                Vector3 normal = new Vector3();
+                Color albedo = new Color();
+                Color lit = new Color();
+                for (int z = 0; z <= gridSize; z++) {
+                    getNormal(x, z, normal);
+                    albedo.set(getTerrainColor(heightMap[x][z])).mul(GRASS);
+                    baker.light(normal.x, normal.y, normal.z, getOcclusion(x, z), false, albedo, lit);
+                    
+                    int i = (x * side + z) * 4;
+                    vertices[i] = (x - gridSize / 2f) * cellSize;
+                    vertices[i + 1] = heightMap[x][z];
+                    vertices[i + 2] = (z - gridSize / 2f) * cellSize;
+                    vertices[i + 3] = lit.toFloatBits();
+                }
+            }
+        });
         
+        modelBuilder.begin();
         MeshPartBuilder meshBuilder = modelBuilder.part(
             "terrain",
             GL20.GL_TRIANGLES,
-            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal | VertexAttributes.Usage.ColorUnpacked,
-            terrainMaterial
+            VertexLightBaker.BAKED_USAGE,
+            baker.getBakedMaterial()
         );
+        meshBuilder.ensureVertices(side * side);
+        meshBuilder.vertex(vertices);
         
-        // Build grid of triangles
+        // Two counter-clockwise (seen from above) triangles per cell
+        meshBuilder.ensureTriangleIndices(gridSize * gridSize * 2);
         for (int x = 0; x < gridSize; x++) {
             for (int z = 0; z < gridSize; z++) {
-                // Get corner heights
-                float h00 = heightMap[x][z];
-                float h10 = heightMap[x + 1][z];
-                float h01 = heightMap[x][z + 1];
-                float h11 = heightMap[x + 1][z + 1];
-                
-                // Convert to world coordinates
-                float worldX = (x - gridSize / 2f) * cellSize;
-                float worldZ = (z - gridSize / 2f) * cellSize;
-                
-                Vector3 v00 = new Vector3(worldX, h00, worldZ);
-                Vector3 v10 = new Vector3(worldX + cellSize, h10, worldZ);
-                Vector3 v01 = new Vector3(worldX, h01, worldZ + cellSize);
-                Vector3 v11 = new Vector3(worldX + cellSize, h11, worldZ + cellSize);
-                
-                // Slight color variation based on height
-                Color c00 = getTerrainColor(h00);
-                Color c10 = getTerrainColor(h10);
-                Color c01 = getTerrainColor(h01);
-                Color c11 = getTerrainColor(h11);
-                
-                // First triangle
-                meshBuilder.setColor(c00);
-                meshBuilder.vertex(v00.x, v00.y, v00.z);
-                meshBuilder.setColor(c10);
-                meshBuilder.vertex(v10.x, v10.y, v10.z);
-                meshBuilder.setColor(c01);
-                meshBuilder.vertex(v01.x, v01.y, v01.z);
-                
-                // Second triangle
-                meshBuilder.setColor(c10);
-                meshBuilder.vertex(v10.x, v10.y, v10.z);
-                meshBuilder.setColor(c11);
-                meshBuilder.vertex(v11.x, v11.y, v11.z);
-                meshBuilder.setColor(c01);
-                meshBuilder.vertex(v01.x, v01.y, v01.z);
+                short i00 = (short)(x * side + z);
+                short i10 = (short)((x + 1) * side + z);
+                short i01 = (short)(x * side + z + 1);
+                short i11 = (short)((x + 1) * side + z + 1);
+                meshBuilder.triangle(i00, i01, i10);
+                meshBuilder.triangle(i10, i01, i11);
             }
         }
         
@@ -138,6 +141,42 @@ public class TerrainSystem {
         terrainInstance = new ModelInstance(terrainModel);
     }
     
+    /**
+     * Surface normal at a grid point from the neighbouring heights
+     */
+    private void getNormal(int x, int z, Vector3 out) {
+        float left = heightMap[Math.max(0, x - 1)][z];
+        float right = heightMap[Math.min(gridSize, x + 1)][z];
+        float back = heightMap[x][Math.max(0, z - 1)];
+        float front = heightMap[x][Math.min(gridSize, z + 1)];
+        out.set(left - right, 2f * cellSize, back - front).nor();
+    }
+    
+    /**
+     * Horizon-based ambient occlusion: how much of the sky the surrounding hills hide
+     * @return 1 for open ground, lower in valleys and hollows
+     */
+    private float getOcclusion(int x, int z) {
+        float height = heightMap[x][z];
+        float hidden = 0f;
+        for (int d = 0; d < AO_DIRECTIONS.length; d += 2) {
+            int dx = AO_DIRECTIONS[d];
+            int dz = AO_DIRECTIONS[d + 1];
+            float stepLength = cellSize * (float)Math.sqrt(dx * dx + dz * dz);
+            
+            // Steepest rise towards the horizon in this direction
+            float maxSlope = 0f;
+            for (int step = 1; step <= AO_STEPS; step++) {
+                int sx = x + dx * step;
+                int sz = z + dz * step;
+                if (sx < 0 || sz < 0 || sx > gridSize || sz > gridSize) break;
+                maxSlope = Math.max(maxSlope, (heightMap[sx][sz] - height) / (step * stepLength));
+            }
+            hidden += maxSlope / (float)Math.sqrt(1f + maxSlope * maxSlope); // sin of the horizon angle
+        }
+        return Math.max(AO_MIN, 1f - AO_STRENGTH * hidden / (AO_DIRECTIONS.length / 2));
+    }
+    
     /**
      * Get terrain color based on height (darker in valleys, lighter on hills)
      */
@@ -151,16 +190,16 @@ public class TerrainSystem {
     /**
      * Create distant mountains on the horizon
      */
-    private void createDistantMountains(ModelBuilder modelBuilder) {
+    private void createDistantMountains(ModelBuilder modelBuilder, Random random) {
         // Create 8 mountain peaks around the perimeter
         for (int i = 0; i < 8; i++) {
             float angle = (float)(i * 45); // Every 45 degrees
-            float distance = 180f + (float)(Math.random() * 40); // Far away
+            float distance = 180f + random.nextFloat() * 40; // Far away
             
             float x = (float)Math.cos(Math.toRadians(angle)) * distance;
             float z = (float)Math.sin(Math.toRadians(angle)) * distance;
-            float height = 30f + (float)(Math.random() * 40); // 30-70 units tall
-            float width = 20f + (float)(Math.random() * 30);
+            float height = 30f + random.nextFloat() * 40; // 30-70 units tall
+            float width = 20f + random.nextFloat() * 30;
             
             // Dark mountain material
             Material mountainMaterial = new Material(
@@ -211,6 +250,41 @@ public class TerrainSystem {
         return h0 + (h1 - h0) * fz;
     }
     
+    /**
+     * Blend the baked ground colour towards dirt along the forest path
+     */
+    public void applyPathBlend(PathDistanceField field) {
+        Mesh mesh = terrainModel.meshes.first();
+        int stride = mesh.getVertexSize() / 4;
+        int colorOffset = mesh.getVertexAttribute(VertexAttributes.Usage.ColorPacked).offset / 4;
+        float[] vertices = new float[mesh.getNumVertices() * stride];
+        mesh.getVertices(vertices);
+        
+        Color albedo = new Color();
+        Color lit = new Color();
+        for (int i = 0; i < vertices.length; i += stride) {
+            float weight = field.blend(vertices[i], vertices[i + 2]);
+            if (weight <= 0f) continue;
+            
+            // The lighting is already baked in, so scale by the albedo change rather than relighting
+            albedo.set(getTerrainColor(vertices[i + 1])).mul(GRASS);
+            Color.abgr8888ToColor(lit, vertices[i + colorOffset]);
+            lit.r = Math.min(1f, lit.r * (1f + (PATH_DIRT.r / albedo.r - 1f) * weight));
+            lit.g = Math.min(1f, lit.g * (1f + (PATH_DIRT.g / albedo.g - 1f) * weight));
+            lit.b = Math.min(1f, lit.b * (1f + (PATH_DIRT.b / albedo.b - 1f) * weight));
+            vertices[i + colorOffset] = lit.toFloatBits();
+        }
+        mesh.setVertices(vertices);
+    }
+    
+    public int getGridSize() {
+        return gridSize;
+    }
+    
+    public float getCellSize() {
+        return cellSize;
+    }
+    
     public ModelInstance getTerrainInstance() {
         return terrainInstance;
     }
@@ -0,0 +1,403 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Random;
+
+/**
+ * One pre-built tree shape, shared by every RealisticTree placed with it
+ * Generated at the origin with actual branches and leaves, then lit and merged into one mesh
+ * per detail layer (crown, branches, leaves) plus a coarse mid-range mesh.
+ */
+public class TreeArchetype implements Disposable {
+    
+    /** Capsule colliders: two end points and a radius */
+    public static final int FLOATS_PER_COLLIDER = 7;
+    
+    // Mid-range LOD: trunk and foliage only, coarsely tessellated (branches are too thin to see)
+    private static final int LOD_TRUNK_SEGMENTS = 4;
+    private static final int LOD_SPHERE_DIVISIONS_U = 6;
+    private static final int LOD_SPHERE_DIVISIONS_V = 4;
+    
+    private final int id;
+    private final boolean scary;
+    private final Vector3 position = new Vector3(); // Built around the origin
+    private final float height;
+    private float trunkRadius;
+    
+    // Lit source parts, merged by bake()
+    private Array<ModelInstance> parts = new Array<>();
+    private IntArray partDetail = new IntArray();
+    private Array<ModelInstance> lodSource = new Array<>();
+    
+    private final Array<Model> layers = new Array<>(); // Merged meshes, one per detail level present
+    private final IntArray layerDetail = new IntArray(); // Minimum QualityTier.TREE_DETAIL_* of each layer
+    private Model lodModel;
+    private final BoundingBox bounds = new BoundingBox();
+    private final FloatArray colliders = new FloatArray(); // Trunk, branches and foliage as capsules (for WorldBvh)
+    
+    /**
+     * Generate and bake one tree shape
+     * @param id Index in the library (used for impostor atlas cells)
+     * @param scary If true, makes twisted evil-looking tree
+     * @param random Source of the shape variation (seeded, so the same seed builds the same shapes)
+     */
+    public TreeArchetype(int id, ModelBuilder modelBuilder, VertexLightBaker baker, boolean scary, Random random) {
+        this.id = id;
+        this.scary = scary;
+        this.height = 5f + random.nextFloat() * 4f; // 5-9 units tall
+        
+        if (scary) {
+            createScaryTree(modelBuilder, random);
+        } else {
+            createNormalTree(modelBuilder, random);
+        }
+        bake(modelBuilder, baker);
+    }
+    
+    /**
+     * Create twisted, scary tree perfect for horror atmosphere
+     */
+    private void createScaryTree(ModelBuilder modelBuilder, Random random) {
+        // Very dark, almost black bark
+        Material barkMaterial = new Material(
+            ColorAttribute.createDiffuse(0.08f, 0.06f, 0.05f, 1f)
+        );
+        
+        // Dead-looking dark leaves
+        Material leafMaterial = new Material(
+            ColorAttribute.createDiffuse(0.1f, 0.15f, 0.08f, 1f),
+            new FoliageAttribute()
+        );
+        
+        trunkRadius = 0.3f + random.nextFloat() * 0.2f;
+        
+        // Main trunk (slightly twisted)
+        Model trunk = modelBuilder.createCylinder(
+            trunkRadius * 2, height * 0.6f, trunkRadius * 2,
+            8,
+            barkMaterial,
+            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+        );
+        ModelInstance trunkInstance = new ModelInstance(trunk);
+        trunkInstance.transform.setToTranslation(position.x, position.y + height * 0.3f, position.z);
+        // Slight twist/rotation for creepy effect
+        trunkInstance.transform.rotate(Vector3.Z, random.nextFloat() * 10 - 5);
+        addPart(trunkInstance, QualityTier.TREE_DETAIL_CROWN);
+        addCylinderCollider(trunkInstance.transform, trunkRadius, height * 0.6f);
+        addLodPart(modelBuilder.createCylinder(trunkRadius * 2, height * 0.6f, trunkRadius * 2,
+                LOD_TRUNK_SEGMENTS, barkMaterial, VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal), trunkInstance);
+        
+        // Create 4-7 twisted branches
+        int numBranches = 4 + random.nextInt(4);
+        
+        for (int i = 0; i < numBranches; i++) {
+            float branchHeight = height * (0.4f + random.nextFloat() * 0.4f);
+            float angle = random.nextFloat() * 360;
+            float branchLength = 1.5f + random.nextFloat() * 1.5f;
+            float branchThickness = trunkRadius * (0.3f + random.nextFloat() * 0.2f);
+            
+            // Create branch
+            Model branch = modelBuilder.createCylinder(
+                branchThickness * 2, branchLength, branchThickness * 2,
+                6,
+                barkMaterial,
+                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+            );
+            
+            ModelInstance branchInstance = new ModelInstance(branch);
+            
+            // Position at trunk
+            float branchX = position.x + (float)Math.cos(Math.toRadians(angle)) * trunkRadius;
+            float branchY = position.y + branchHeight;
+            float branchZ = position.z + (float)Math.sin(Math.toRadians(angle)) * trunkRadius;
+            
+            branchInstance.transform.setToTranslation(branchX, branchY, branchZ);
+            
+            // Rotate branch outward (30-60 degrees up)
+            branchInstance.transform.rotate(Vector3.Y, angle);
+            branchInstance.transform.rotate(Vector3.X, 30 + random.nextFloat() * 30);
+            
+            // Twist branch for creepy look
+            branchInstance.transform.rotate(Vector3.Z, random.nextFloat() * 20 - 10);
+            
+            addPart(branchInstance, QualityTier.TREE_DETAIL_BRANCHES);
+            addCylinderCollider(branchInstance.transform, branchThickness, branchLength);
+            
+            // Add small leaf clusters on branch ends
+            float leafX = branchX + (float)Math.cos(Math.toRadians(angle)) * branchLength * 0.7f;
+            float leafY = branchY + branchLength * 0.5f;
+            float leafZ = branchZ + (float)Math.sin(Math.toRadians(angle)) * branchLength * 0.7f;
+            
+            Model leaves = modelBuilder.createSphere(
+                0.8f, 0.8f, 0.8f,
+                8, 8,
+                leafMaterial,
+                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+            );
+            
+            ModelInstance leafInstance = new ModelInstance(leaves);
+            leafInstance.transform.setToTranslation(leafX, leafY, leafZ);
+            addPart(leafInstance, QualityTier.TREE_DETAIL_FULL);
+            addFoliageCollider(leafInstance.transform, 0.8f, 0.8f);
+            addLodPart(modelBuilder.createSphere(0.8f, 0.8f, 0.8f,
+                    LOD_SPHERE_DIVISIONS_U, LOD_SPHERE_DIVISIONS_V,
+                    leafMaterial, VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal), leafInstance);
+        }
+        
+        // Add sparse top foliage
+        Model topLeaves = modelBuilder.createSphere(
+            1.2f, 1.5f, 1.2f,
+            10, 8,
+            leafMaterial,
+            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+        );
+        
+        ModelInstance topInstance = new ModelInstance(topLeaves);
+        topInstance.transform.setToTranslation(position.x, position.y + height * 0.9f, position.z);
+        addPart(topInstance, QualityTier.TREE_DETAIL_CROWN);
+        addFoliageCollider(topInstance.transform, 1.2f, 1.5f);
+        addLodPart(modelBuilder.createSphere(1.2f, 1.5f, 1.2f, LOD_SPHERE_DIVISIONS_U, LOD_SPHERE_DIVISIONS_V,
+                leafMaterial, VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal), topInstance);
+    }
+    
+    /**
+     * Create normal (but still dark) tree
+     */
+    private void createNormalTree(ModelBuilder modelBuilder, Random random) {
+        // Dark bark
+        Material barkMaterial = new Material(
+            ColorAttribute.createDiffuse(0.15f, 0.10f, 0.08f, 1f)
+        );
+        
+        // Dark green leaves
+        Material leafMaterial = new Material(
+            ColorAttribute.createDiffuse(0.12f, 0.20f, 0.12f, 1f),
+            new FoliageAttribute()
+        );
+        
+        trunkRadius = 0.25f + random.nextFloat() * 0.15f;
+        
+        // Main trunk
+        Model trunk = modelBuilder.createCylinder(
+            trunkRadius * 2, height * 0.7f, trunkRadius * 2,
+            8,
+            barkMaterial,
+            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+        );
+        ModelInstance trunkInstance = new ModelInstance(trunk);
+        trunkInstance.transform.setToTranslation(position.x, position.y + height * 0.35f, position.z);
+        addPart(trunkInstance, QualityTier.TREE_DETAIL_CROWN);
+        addCylinderCollider(trunkInstance.transform, trunkRadius, height * 0.7f);
+        addLodPart(modelBuilder.createCylinder(trunkRadius * 2, height * 0.7f, trunkRadius * 2,
+                LOD_TRUNK_SEGMENTS, barkMaterial, VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal), trunkInstance);
+        
+        // Create 3-5 branches
+        int numBranches = 3 + random.nextInt(3);
+        
+        for (int i = 0; i < numBranches; i++) {
+            float branchHeight = height * (0.5f + random.nextFloat() * 0.3f);
+            float angle = i * (360f / numBranches) + random.nextFloat() * 30;
+            float branchLength = 1.2f + random.nextFloat() * 1.0f;
+            
+            Model branch = modelBuilder.createCylinder(
+                trunkRadius, branchLength, trunkRadius,
+                6,
+                barkMaterial,
+                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+            );
+            
+            ModelInstance branchInstance = new ModelInstance(branch);
+            
+            float branchX = position.x + (float)Math.cos(Math.toRadians(angle)) * trunkRadius;
+            float branchY = position.y + branchHeight;
+            float branchZ = position.z + (float)Math.sin(Math.toRadians(angle)) * trunkRadius;
+            
+            branchInstance.transform.setToTranslation(branchX, branchY, branchZ);
+            branchInstance.transform.rotate(Vector3.Y, angle);
+            branchInstance.transform.rotate(Vector3.X, 40 + random.nextFloat() * 20);
+            
+            addPart(branchInstance, QualityTier.TREE_DETAIL_BRANCHES);
+            addCylinderCollider(branchInstance.transform, trunkRadius / 2f, branchLength);
+            
+            // Leaf cluster
+            float leafX = branchX + (float)Math.cos(Math.toRadians(angle)) * branchLength * 0.6f;
+            float leafY = branchY + branchLength * 0.4f;
+            float leafZ = branchZ + (float)Math.sin(Math.toRadians(angle)) * branchLength * 0.6f;
+            
+            Model leaves = modelBuilder.createSphere(
+                1.0f, 1.0f, 1.0f,
+                10, 8,
+                leafMaterial,
+                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+            );
+            
+            ModelInstance leafInstance = new ModelInstance(leaves);
+            leafInstance.transform.setToTranslation(leafX, leafY, leafZ);
+            addPart(leafInstance, QualityTier.TREE_DETAIL_FULL);
+            addFoliageCollider(leafInstance.transform, 1.0f, 1.0f);
+            addLodPart(modelBuilder.createSphere(1.0f, 1.0f, 1.0f,
+                    LOD_SPHERE_DIVISIONS_U, LOD_SPHERE_DIVISIONS_V,
+                    leafMaterial, VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal), leafInstance);
+        }
+        
+        // Top foliage
+        Model topLeaves = modelBuilder.createSphere(
+            1.5f, 2.0f, 1.5f,
+            12, 10,
+            leafMaterial,
+            VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
+        );
+        
+        ModelInstance topInstance = new ModelInstance(topLeaves);
+        topInstance.transform.setToTranslation(position.x, position.y + height * 0.85f, position.z);
+        addPart(topInstance, QualityTier.TREE_DETAIL_CROWN);
+        addFoliageCollider(topInstance.transform, 1.5f, 2.0f);
+        addLodPart(modelBuilder.createSphere(1.5f, 2.0f, 1.5f, LOD_SPHERE_DIVISIONS_U, LOD_SPHERE_DIVISIONS_V,
+                leafMaterial, VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal), topInstance);
+    }
+    
+    private void addPart(ModelInstance part, int detail) {
+        parts.add(part);
+        partDetail.add(detail);
+    }
+    
+    /**
+     * Trunk or branch: a cylinder along the part's local Y axis, centred on it (as ModelBuilder makes them)
+     */
+    private void addCylinderCollider(Matrix4 transform, float radius, float length) {
+        addCapsuleCollider(transform, length / 2f, radius);
+    }
+    
+    /**
+     * Foliage ellipsoid (width across, height up) as the capsule that fits inside it
+     */
+    private void addFoliageCollider(Matrix4 transform, float width, float height) {
+        float radius = width / 2f;
+        addCapsuleCollider(transform, Math.max(0f, height / 2f - radius), radius);
+    }
+    
+    private void addCapsuleCollider(Matrix4 transform, float halfLength, float radius) {
+        Vector3 end = new Vector3(0f, -halfLength, 0f).mul(transform);
+        colliders.addAll(end.x, end.y, end.z);
+        end.set(0f, halfLength, 0f).mul(transform);
+        colliders.addAll(end.x, end.y, end.z);
+        colliders.add(radius);
+    }
+    
+    private void addLodPart(Model model, ModelInstance fullPart) {
+        ModelInstance part = new ModelInstance(model);
+        part.transform.set(fullPart.transform);
+        lodSource.add(part);
+    }
+    
+    /**
+     * Light the parts and merge them per detail layer; the lit sources are disposed
+     */
+    private void bake(ModelBuilder modelBuilder, VertexLightBaker baker) {
+        Array<ModelInstance> layerParts = new Array<>();
+        for (int detail = QualityTier.TREE_DETAIL_CROWN; detail <= QualityTier.TREE_DETAIL_FULL; detail++) {
+            layerParts.clear();
+            for (int i = 0; i < parts.size; i++) {
+                if (partDetail.get(i) == detail) {
+                    layerParts.add(parts.get(i));
+                }
+            }
+            if (layerParts.size == 0) continue;
+            layers.add(baker.bakeMerged(modelBuilder, layerParts, position.y, position, baker.getBakedFoliageMaterial()).model);
+            layerDetail.add(detail);
+        }
+        lodModel = baker.bakeMerged(modelBuilder, lodSource, position.y, position, baker.getBakedFoliageMaterial()).model;
+        
+        for (ModelInstance part : parts) {
+            part.model.dispose();
+        }
+        for (ModelInstance part : lodSource) {
+            part.model.dispose();
+        }
+        parts = null;
+        partDetail = null;
+        lodSource = null;
+        
+        bounds.inf();
+        BoundingBox layerBounds = new BoundingBox();
+        for (Model layer : layers) {
+            bounds.ext(layer.calculateBoundingBox(layerBounds));
+        }
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public boolean isScary() {
+        return scary;
+    }
+    
+    public float getTrunkRadius() {
+        return trunkRadius;
+    }
+    
+    public float getHeight() {
+        return height;
+    }
+    
+    /**
+     * Capsules (FLOATS_PER_COLLIDER each) around the trunk, branches and foliage, relative to the base
+     */
+    public FloatArray getColliders() {
+        return colliders;
+    }
+    
+    public int getLayerCount() {
+        return layers.size;
+    }
+    
+    public Model getLayer(int index) {
+        return layers.get(index);
+    }
+    
+    /**
+     * Minimum tree detail level (QualityTier.TREE_DETAIL_*) at which a layer is shown
+     */
+    public int getLayerDetail(int index) {
+        return layerDetail.get(index);
+    }
+    
+    /**
+     * Merged low-poly version for mid-range
+     */
+    public Model getLodModel() {
+        return lodModel;
+    }
+    
+    /**
+     * Bounds of the full tree around its base at the origin
+     */
+    public BoundingBox getBounds() {
+        return bounds;
+    }
+    
+    @Override
+    public void dispose() {
+        for (Model layer : layers) {
+            layer.dispose();
+        }
+        layers.clear();
+        if (lodModel != null) {
+            lodModel.dispose();
+            lodModel = null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import java.util.Random;
+
+/**
+ * Small set of pre-built tree shapes the forest is placed from
+ * Memory and load time depend on the library size, not on how many trees are placed.
+ */
+public class TreeArchetypeLibrary implements Disposable {
+    
+    public static final int DEFAULT_SCARY_COUNT = 8;
+    public static final int DEFAULT_NORMAL_COUNT = 4;
+    
+    private final Array<TreeArchetype> archetypes = new Array<>();
+    private final Array<TreeArchetype> scary = new Array<>();
+    private final Array<TreeArchetype> normal = new Array<>();
+    
+    /**
+     * Generate and bake every archetype (archetype ids are their library index)
+     * @param random Shape variation (seeded, so the same seed builds the same shapes)
+     */
+    public TreeArchetypeLibrary(ModelBuilder modelBuilder, VertexLightBaker baker, int scaryCount, int normalCount,
+                                Random random) {
+        for (int i = 0; i < scaryCount + normalCount; i++) {
+            boolean isScary = i < scaryCount;
+            TreeArchetype archetype = new TreeArchetype(i, modelBuilder, baker, isScary, random);
+            archetypes.add(archetype);
+            (isScary ? scary : normal).add(archetype);
+        }
+    }
+    
+    /**
+     * Random archetype of the requested kind (falls back to the other kind if none were built)
+     */
+    public TreeArchetype pick(boolean isScary, Random random) {
+        Array<TreeArchetype> pool = isScary ? scary : normal;
+        if (pool.size == 0) pool = archetypes;
+        return pool.get(random.nextInt(pool.size));
+    }
+    
+    public TreeArchetype get(int id) {
+        return archetypes.get(id);
+    }
+    
+    public int size() {
+        return archetypes.size;
+    }
+    
+    @Override
+    public void dispose() {
+        for (TreeArchetype archetype : archetypes) {
+            archetype.dispose();
+        }
+        archetypes.clear();
+        scary.clear();
+        normal.clear();
+    }
+}
@@ -0,0 +1,401 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Level of detail for the forest: full trees near, a merged low-poly mesh mid-range and a
+ * camera-facing impostor far away
+ * Impostors are baked at load from several angles around each tree archetype into one texture atlas.
+ * Levels are picked from the tree's size on screen, with hysteresis so trees don't flicker
+ * between levels, in one pass over packed per-tree arrays. Impostors dither in and out.
+ */
+public class TreeLodSystem implements Disposable {
+    
+    public static final int LOD_FULL = 0;
+    public static final int LOD_MERGED = 1;
+    public static final int LOD_IMPOSTOR = 2;
+    
+    private static final float MERGED_SIZE = 0.3f;    // Below this screen size (bounding radius / half screen height) use the merged mesh
+    private static final float IMPOSTOR_SIZE = 0.1f;  // Below this use the impostor
+    private static final float HYSTERESIS = 0.15f;    // Fraction the size must overshoot a threshold to switch
+    private static final boolean CROSS_FADE = true;
+    private static final float FADE_TIME = 0.35f;     // Seconds for an impostor to dither in or out
+    
+    private static final int VIEWS = 8;               // Impostor angles around each tree
+    private static final int CELL_SIZE = 64;
+    private static final int ATLAS_SIZE = 1024;
+    private static final int CELLS_PER_ROW = ATLAS_SIZE / CELL_SIZE;
+    private static final int FLOATS_PER_VERTEX = 6;   // x, y, z, u, v, fade
+    private static final int STRIDE = 4;              // Packed per-tree data: center x, y, z, radius
+    
+    private static final String BAKE_VERTEX_SHADER =
+            "attribute vec3 a_position;\n" +
+            "attribute vec4 a_color;\n" +
+            "uniform mat4 u_projViewTrans;\n" +
+            "uniform mat4 u_worldTrans;\n" +
+            "varying vec4 v_color;\n" +
+            "void main() {\n" +
+            "    v_color = a_color;\n" +
+            "    gl_Position = u_projViewTrans * u_worldTrans * vec4(a_position, 1.0);\n" +
+            "}\n";
+    
+    private static final String BAKE_FRAGMENT_SHADER =
+            "#ifdef GL_ES\nprecision mediump float;\n#endif\n" +
+            "varying vec4 v_color;\n" +
+            "void main() {\n" +
+            "    gl_FragColor = vec4(v_color.rgb, 1.0);\n" + // Alpha is coverage
+            "}\n";
+    
+    private static final String VERTEX_SHADER =
+            "attribute vec3 a_position;\n" +
+            "attribute vec2 a_texCoord0;\n" +
+            "attribute float a_fade;\n" +
+            "uniform mat4 u_projViewTrans;\n" +
+            "uniform vec3 u_cameraPosition;\n" +
+            "uniform vec4 u_fogParams;\n" +
+            "varying vec2 v_uv;\n" +
+            "varying float v_fade;\n" +
+            "varying float v_fog;\n" +
+            "void main() {\n" +
+            "    v_uv = a_texCoord0;\n" +
+            "    v_fade = a_fade;\n" +
+            "    vec4 pos = vec4(a_position, 1.0);\n" +
+            "    vec3 flen = u_cameraPosition - pos.xyz;\n" +
+            "    " + SceneShaderProvider.HEIGHT_FOG + "\n" +
+            "    v_fog = min(fog, 1.0);\n" +
+            "    gl_Position = u_projViewTrans * pos;\n" +
+            "}\n";
+    
+    private static final String FRAGMENT_SHADER =
+            "#ifdef GL_ES\nprecision mediump float;\n#endif\n" +
+            "uniform sampler2D u_texture;\n" +
+            "uniform vec4 u_fogColor;\n" +
+            "uniform float u_intensity;\n" +
+            "varying vec2 v_uv;\n" +
+            "varying float v_fade;\n" +
+            "varying float v_fog;\n" +
+            "void main() {\n" +
+            "    vec4 texel = texture2D(u_texture, v_uv);\n" +
+            "    float dither = fract(dot(floor(gl_FragCoord.xy), vec2(0.5, 0.75)));\n" + // 4-level ordered dither
+            "    if (texel.a < 0.5 || v_fade <= dither) discard;\n" +
+            "    gl_FragColor = vec4(mix(texel.rgb * u_intensity, u_fogColor.rgb, v_fog), 0.0);\n" + // Outside the bloom mask
+            "}\n";
+    
+    private final Array<RealisticTree> trees;
+    private final TreeArchetypeLibrary library;
+    private final ObjectIntMap<ModelInstance> partTree = new ObjectIntMap<>();
+    
+    // Packed per-tree state, walked once per frame
+    private final float[] spheres;
+    private final int[] level;
+    private final float[] fade;
+    private final int[] firstCell; // First atlas cell of the tree's impostor, -1 if it has none
+    
+    private FrameBuffer atlas;
+    private final ShaderProgram shader;
+    private final Mesh mesh;
+    private final float[] vertices;
+    private final Vector3 center = new Vector3();
+    private final Vector3 right = new Vector3();
+    private int drawnImpostors = 0;
+    private final int[] levelCounts = new int[3];
+    
+    /**
+     * Bake the impostor atlas (call during loading, after the forest is placed)
+     */
+    public TreeLodSystem(Array<RealisticTree> trees, TreeArchetypeLibrary library) {
+        this.trees = trees;
+        this.library = library;
+        int count = trees.size;
+        spheres = new float[count * STRIDE];
+        level = new int[count];
+        fade = new float[count];
+        firstCell = new int[count];
+        
+        for (int t = 0; t < count; t++) {
+            RealisticTree tree = trees.get(t);
+            BoundingBox bounds = tree.getArchetype().getBounds();
+            bounds.getCenter(center).mul(tree.getTransform());
+            spheres[t * STRIDE] = center.x;
+            spheres[t * STRIDE + 1] = center.y;
+            spheres[t * STRIDE + 2] = center.z;
+            spheres[t * STRIDE + 3] = archetypeRadius(bounds) * tree.getScale();
+            for (ModelInstance part : tree.getParts()) {
+                partTree.put(part, t);
+            }
+        }
+        
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new IllegalStateException("Impostor shader failed: " + shader.getLog());
+        }
+        
+        vertices = new float[count * 4 * FLOATS_PER_VERTEX];
+        mesh = new Mesh(false, Math.max(1, count * 4), Math.max(1, count * 6),
+                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"),
+                new VertexAttribute(VertexAttributes.Usage.Generic, 1, "a_fade"));
+        short[] indices = new short[count * 6];
+        for (int i = 0, v = 0; i < indices.length; i += 6, v += 4) {
+            indices[i] = (short) v;
+            indices[i + 1] = (short) (v + 1);
+            indices[i + 2] = (short) (v + 2);
+            indices[i + 3] = (short) (v + 2);
+            indices[i + 4] = (short) (v + 3);
+            indices[i + 5] = (short) v;
+        }
+        mesh.setIndices(indices);
+        
+        bakeImpostors();
+    }
+    
+    private static float archetypeRadius(BoundingBox bounds) {
+        return Math.max(bounds.getWidth(), Math.max(bounds.getHeight(), bounds.getDepth())) * 0.5f;
+    }
+    
+    /**
+     * Render every archetype from VIEWS angles into its own run of atlas cells; placed trees share them
+     */
+    private void bakeImpostors() {
+        int capacity = (CELLS_PER_ROW * CELLS_PER_ROW) / VIEWS;
+        if (library.size() > capacity) {
+            Gdx.app.error("FrightNight", "Impostor atlas full, " + (library.size() - capacity) + " archetypes stay meshes");
+        }
+        for (int t = 0; t < trees.size; t++) {
+            int id = trees.get(t).getArchetype().getId();
+            firstCell[t] = id < capacity ? id * VIEWS : -1;
+        }
+        
+        ShaderProgram bakeShader = new ShaderProgram(BAKE_VERTEX_SHADER, BAKE_FRAGMENT_SHADER);
+        if (!bakeShader.isCompiled()) {
+            throw new IllegalStateException("Impostor bake shader failed: " + bakeShader.getLog());
+        }
+        atlas = new FrameBuffer(Pixmap.Format.RGBA8888, ATLAS_SIZE, ATLAS_SIZE, true);
+        OrthographicCamera bakeCamera = new OrthographicCamera();
+        
+        atlas.begin();
+        Gdx.gl.glClearColor(0f, 0f, 0f, 0f);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+        Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
+        Gdx.gl.glDepthFunc(GL20.GL_LEQUAL);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+        Gdx.gl.glDisable(GL20.GL_CULL_FACE);
+        bakeShader.bind();
+        Matrix4 identity = new Matrix4();
+        for (int a = 0; a < Math.min(library.size(), capacity); a++) {
+            TreeArchetype archetype = library.get(a);
+            float radius = archetypeRadius(archetype.getBounds());
+            archetype.getBounds().getCenter(center);
+            
+            bakeCamera.viewportWidth = radius * 2f;
+            bakeCamera.viewportHeight = radius * 2f;
+            bakeCamera.near = 0.1f;
+            bakeCamera.far = radius * 4f;
+            for (int view = 0; view < VIEWS; view++) {
+                int cell = a * VIEWS + view;
+                Gdx.gl.glViewport((cell % CELLS_PER_ROW) * CELL_SIZE, (cell / CELLS_PER_ROW) * CELL_SIZE,
+                        CELL_SIZE, CELL_SIZE);
+                
+                // Looking at the tree from the direction this view will be shown towards
+                float angle = view * MathUtils.PI2 / VIEWS;
+                bakeCamera.position.set(center).add(MathUtils.sin(angle) * radius * 2f, 0f,
+                        MathUtils.cos(angle) * radius * 2f);
+                bakeCamera.up.set(Vector3.Y);
+                bakeCamera.lookAt(center);
+                bakeCamera.update();
+                bakeShader.setUniformMatrix("u_projViewTrans", bakeCamera.combined);
+                
+                bakeShader.setUniformMatrix("u_worldTrans", identity); // Archetypes are built around the origin
+                for (int layer = 0; layer < archetype.getLayerCount(); layer++) {
+                    renderNodes(archetype.getLayer(layer).nodes, bakeShader);
+                }
+            }
+        }
+        Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
+        atlas.end();
+        bakeShader.dispose();
+        atlas.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+    }
+    
+    private static void renderNodes(Iterable<Node> nodes, ShaderProgram program) {
+        for (Node node : nodes) {
+            for (NodePart part : node.parts) {
+                part.meshPart.render(program);
+            }
+            if (node.hasChildren()) {
+                renderNodes(node.getChildren(), program);
+            }
+        }
+    }
+    
+    /**
+     * Pick every tree's level and advance the impostor fades
+     */
+    public void update(PerspectiveCamera camera, float delta) {
+        float tanHalfFov = (float) Math.tan(Math.toRadians(camera.fieldOfView * 0.5f));
+        float invTan2 = 1f / (tanHalfFov * tanHalfFov);
+        float mergedUp = sq(MERGED_SIZE * (1f + HYSTERESIS));
+        float mergedDown = sq(MERGED_SIZE * (1f - HYSTERESIS));
+        float impostorUp = sq(IMPOSTOR_SIZE * (1f + HYSTERESIS));
+        float impostorDown = sq(IMPOSTOR_SIZE * (1f - HYSTERESIS));
+        float step = CROSS_FADE ? delta / FADE_TIME : 1f;
+        float cx = camera.position.x;
+        float cy = camera.position.y;
+        float cz = camera.position.z;
+        
+        levelCounts[0] = levelCounts[1] = levelCounts[2] = 0;
+        for (int t = 0, i = 0; t < level.length; t++, i += STRIDE) {
+            float dx = spheres[i] - cx;
+            float dy = spheres[i + 1] - cy;
+            float dz = spheres[i + 2] - cz;
+            // Squared screen size, compared against squared thresholds (no square root)
+            float size2 = spheres[i + 3] * spheres[i + 3] * invTan2 / Math.max(1e-4f, dx * dx + dy * dy + dz * dz);
+            
+            int current = level[t];
+            if (current == LOD_FULL && size2 < mergedDown) current = LOD_MERGED;
+            if (current == LOD_MERGED && size2 > mergedUp) current = LOD_FULL;
+            if (current == LOD_MERGED && size2 < impostorDown && firstCell[t] >= 0) current = LOD_IMPOSTOR;
+            if (current == LOD_IMPOSTOR && size2 > impostorUp) current = LOD_MERGED;
+            level[t] = current;
+            levelCounts[current]++;
+            
+            float target = current == LOD_IMPOSTOR ? 1f : 0f;
+            fade[t] = target > fade[t] ? Math.min(target, fade[t] + step) : Math.max(target, fade[t] - step);
+        }
+    }
+    
+    private static float sq(float value) {
+        return value * value;
+    }
+    
+    /**
+     * Full-detail parts are only drawn while their tree is at the full level
+     */
+    public boolean isHidden(ModelInstance instance) {
+        int tree = partTree.get(instance, -1);
+        return tree >= 0 && level[tree] != LOD_FULL;
+    }
+    
+    public int getTreeCount() {
+        return level.length;
+    }
+    
+    /**
+     * Merged mesh to draw for a tree this frame, or null (the mesh stays until its impostor has faded in)
+     */
+    public ModelInstance getMergedInstance(int tree) {
+        boolean shown = level[tree] == LOD_MERGED || (level[tree] == LOD_IMPOSTOR && fade[tree] < 1f);
+        return shown ? trees.get(tree).getLodInstance() : null;
+    }
+    
+    /**
+     * Draw every impostor in one call (inside the scene pass, after the opaque geometry)
+     */
+    public void renderImpostors(PerspectiveCamera camera, Environment environment) {
+        right.set(-camera.direction.z, 0f, camera.direction.x).nor(); // Billboards only turn around the vertical axis
+        if (right.isZero()) right.set(Vector3.X);
+        
+        int offset = 0;
+        drawnImpostors = 0;
+        for (int t = 0, i = 0; t < level.length; t++, i += STRIDE) {
+            if (fade[t] <= 0f) continue;
+            float radius = spheres[i + 3];
+            center.set(spheres[i], spheres[i + 1], spheres[i + 2]);
+            if (!camera.frustum.sphereInFrustum(center, radius)) continue;
+            
+            // Nearest baked view for the direction from the tree to the camera, in the archetype's frame
+            float angle = MathUtils.atan2(camera.position.x - center.x, camera.position.z - center.z)
+                    - trees.get(t).getYaw() * MathUtils.degreesToRadians;
+            int view = MathUtils.round(angle / MathUtils.PI2 * VIEWS);
+            view = ((view % VIEWS) + VIEWS) % VIEWS;
+            int cell = firstCell[t] + view;
+            float u0 = (cell % CELLS_PER_ROW) * CELL_SIZE / (float) ATLAS_SIZE;
+            float v0 = (cell / CELLS_PER_ROW) * CELL_SIZE / (float) ATLAS_SIZE;
+            float u1 = u0 + CELL_SIZE / (float) ATLAS_SIZE;
+            float v1 = v0 + CELL_SIZE / (float) ATLAS_SIZE;
+            
+            offset = putVertex(offset, -radius, -radius, u0, v0, fade[t]);
+            offset = putVertex(offset, radius, -radius, u1, v0, fade[t]);
+            offset = putVertex(offset, radius, radius, u1, v1, fade[t]);
+            offset = putVertex(offset, -radius, radius, u0, v1, fade[t]);
+            drawnImpostors++;
+        }
+        if (drawnImpostors == 0) return;
+        mesh.setVertices(vertices, 0, offset);
+        
+        ColorAttribute fogColor = (ColorAttribute) environment.get(ColorAttribute.Fog);
+        SceneFogAttribute fog = (SceneFogAttribute) environment.get(SceneFogAttribute.Type);
+        BakedLightAttribute baked = (BakedLightAttribute) environment.get(BakedLightAttribute.Type);
+        
+        Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
+        Gdx.gl.glDepthFunc(GL20.GL_LEQUAL);
+        Gdx.gl.glDepthMask(true);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+        Gdx.gl.glDisable(GL20.GL_CULL_FACE);
+        
+        atlas.getColorBufferTexture().bind(0);
+        shader.bind();
+        shader.setUniformMatrix("u_projViewTrans", camera.combined);
+        shader.setUniformf("u_cameraPosition", camera.position);
+        shader.setUniformi("u_texture", 0);
+        shader.setUniformf("u_intensity", baked != null ? baked.intensity : 1f);
+        shader.setUniformf("u_fogColor", fogColor != null ? fogColor.color : Color.BLACK);
+        if (fogColor == null) {
+            shader.setUniformf("u_fogParams", 0f, 0f, 0f, 1f); // No fog
+        } else if (fog != null) {
+            shader.setUniformf("u_fogParams", fog.density, fog.heightFalloff, fog.baseHeight, fog.minHeightFactor);
+        } else {
+            shader.setUniformf("u_fogParams", 1.98f / camera.far, 0f, 0f, 1f);
+        }
+        mesh.render(shader, GL20.GL_TRIANGLES, 0, drawnImpostors * 6);
+    }
+    
+    private int putVertex(int offset, float x, float y, float u, float v, float alpha) {
+        vertices[offset++] = center.x + right.x * x;
+        vertices[offset++] = center.y + y;
+        vertices[offset++] = center.z + right.z * x;
+        vertices[offset++] = u;
+        vertices[offset++] = v;
+        vertices[offset++] = alpha;
+        return offset;
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("lod.full", levelCounts[LOD_FULL]);
+        metrics.set("lod.merged", levelCounts[LOD_MERGED]);
+        metrics.set("lod.impostor", levelCounts[LOD_IMPOSTOR]);
+        metrics.set("lod.impostorsDrawn", drawnImpostors);
+    }
+    
+    @Override
+    public void dispose() {
+        if (atlas != null) {
+            atlas.dispose();
+        }
+        shader.dispose();
+        mesh.dispose();
+    }
+}
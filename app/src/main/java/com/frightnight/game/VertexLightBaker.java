@@ -0,0 +1,348 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.DirectionalLightsAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Bakes the scene's fixed lighting (ambient plus directional lights) into vertex colours at load
+ * Baked geometry renders unlit; the work is split across worker threads by rows.
+ */
+public class VertexLightBaker implements Disposable {
+    
+    public static final long BAKED_USAGE = VertexAttributes.Usage.Position | VertexAttributes.Usage.ColorPacked;
+    
+    private static final float GROUND_AO_HEIGHT = 2f;   // Parts closer to the ground than this get darker
+    private static final float GROUND_AO_MIN = 0.55f;   // Occlusion right at the ground
+    
+    /**
+     * One row (or item) of a parallel bake; must only touch its own output
+     */
+    public interface RowTask {
+        void bake(int row);
+    }
+    
+    private final Color ambient = new Color(0f, 0f, 0f, 1f);
+    private final Array<DirectionalLight> lights = new Array<>();
+    private final Material bakedMaterial;
+    private final Material bakedFoliageMaterial;
+    private final int threads;
+    private ExecutorService executor;
+    
+    /**
+     * Captures the current lights from the environment (later changes are not baked)
+     */
+    public VertexLightBaker(Environment environment) {
+        ColorAttribute ambientLight = (ColorAttribute) environment.get(ColorAttribute.AmbientLight);
+        if (ambientLight != null) {
+            ambient.set(ambientLight.color);
+        }
+        DirectionalLightsAttribute directional = (DirectionalLightsAttribute) environment.get(DirectionalLightsAttribute.Type);
+        if (directional != null) {
+            for (DirectionalLight light : directional.lights) {
+                DirectionalLight copy = new DirectionalLight();
+                copy.set(light.color, light.direction);
+                copy.direction.nor();
+                lights.add(copy);
+            }
+        }
+        
+        // Every baked surface shares one plain material, so they all batch together
+        bakedMaterial = new Material("baked", ColorAttribute.createDiffuse(Color.WHITE));
+        bakedFoliageMaterial = new Material("bakedFoliage", ColorAttribute.createDiffuse(Color.WHITE), new FoliageAttribute());
+        threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+    
+    public Material getBakedMaterial() {
+        return bakedMaterial;
+    }
+    
+    /**
+     * Shared material for baked vegetation, which sways in the wind
+     */
+    public Material getBakedFoliageMaterial() {
+        return bakedFoliageMaterial;
+    }
+    
+    /**
+     * Lit colour for a surface: albedo * (ambient * occlusion + direct light)
+     * @param wrap Half-lambert wrap lighting (leaves and grass)
+     */
+    public void light(float nx, float ny, float nz, float occlusion, boolean wrap, Color albedo, Color out) {
+        float r = ambient.r * occlusion;
+        float g = ambient.g * occlusion;
+        float b = ambient.b * occlusion;
+        for (int i = 0; i < lights.size; i++) {
+            DirectionalLight light = lights.get(i);
+            float facing = -(nx * light.direction.x + ny * light.direction.y + nz * light.direction.z);
+            float diffuse = wrap ? facing * 0.5f + 0.5f : Math.max(0f, facing);
+            r += light.color.r * diffuse;
+            g += light.color.g * diffuse;
+            b += light.color.b * diffuse;
+        }
+        out.set(Math.min(1f, albedo.r * r), Math.min(1f, albedo.g * g), Math.min(1f, albedo.b * b), 1f);
+    }
+    
+    /**
+     * Run a task for every row on the worker threads and wait for all of them
+     */
+    public void parallelRows(int rows, final RowTask task) {
+        if (threads == 1 || rows < 2) {
+            for (int row = 0; row < rows; row++) {
+                task.bake(row);
+            }
+            return;
+        }
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "VertexLightBaker");
+                    thread.setDaemon(true); // Never keeps the process alive
+                    return thread;
+                }
+            });
+        }
+        
+        // A few chunks per thread so uneven rows still balance out
+        int chunk = Math.max(1, rows / (threads * 4));
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < rows; start += chunk) {
+            final int from = start;
+            final int to = Math.min(rows, start + chunk);
+            chunks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int row = from; row < to; row++) {
+                        task.bake(row);
+                    }
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(chunks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Light bake interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Light bake failed", e.getCause());
+        }
+    }
+    
+    /** Source geometry of one node part, copied off the GPU mesh */
+    private static class BakeJob {
+        float[] vertices;
+        short[] indices;
+        int stride;
+        int positionOffset;
+        int normalOffset;
+        final Color albedo = new Color(Color.WHITE);
+        boolean wrap;
+        Matrix4 transform;
+        float[] baked;
+    }
+    
+    /**
+     * Replace lit parts with baked, unlit copies
+     * The returned instances keep the originals' transforms; the original models can be disposed.
+     * @param groundY Ground height under the object, for contact occlusion
+     */
+    public Array<ModelInstance> bake(ModelBuilder modelBuilder, Array<ModelInstance> instances, float groundY) {
+        IntArray counts = new IntArray(instances.size);
+        Array<BakeJob> jobs = bakeJobs(instances, groundY, counts);
+        
+        // Build the baked models back on the GL thread
+        Array<ModelInstance> baked = new Array<>(instances.size);
+        int job = 0;
+        for (int i = 0; i < instances.size; i++) {
+            modelBuilder.begin();
+            for (int j = 0; j < counts.get(i); j++, job++) {
+                MeshPartBuilder part = modelBuilder.part("baked" + j, GL20.GL_TRIANGLES, BAKED_USAGE, bakedMaterial);
+                addJob(part, jobs.get(job), null);
+            }
+            Model model = modelBuilder.end();
+            ModelInstance copy = new ModelInstance(model);
+            copy.transform.set(instances.get(i).transform);
+            baked.add(copy);
+        }
+        return baked;
+    }
+    
+    /**
+     * Bake several parts into one merged mesh (one draw call)
+     * @param origin World position the merged instance is placed at
+     */
+    public ModelInstance bakeMerged(ModelBuilder modelBuilder, Array<ModelInstance> instances, float groundY, Vector3 origin) {
+        return bakeMerged(modelBuilder, instances, groundY, origin, bakedMaterial);
+    }
+    
+    /**
+     * Same as above, with a different shared material for the merged part
+     */
+    public ModelInstance bakeMerged(ModelBuilder modelBuilder, Array<ModelInstance> instances, float groundY, Vector3 origin,
+                                    Material material) {
+        Array<BakeJob> jobs = bakeJobs(instances, groundY, new IntArray(instances.size));
+        modelBuilder.begin();
+        MeshPartBuilder part = modelBuilder.part("merged", GL20.GL_TRIANGLES, BAKED_USAGE, material);
+        for (BakeJob job : jobs) {
+            addJob(part, job, origin);
+        }
+        ModelInstance merged = new ModelInstance(modelBuilder.end());
+        merged.transform.setToTranslation(origin);
+        return merged;
+    }
+    
+    /**
+     * Gather every part's geometry on the GL thread, then light all of them in parallel
+     */
+    private Array<BakeJob> bakeJobs(Array<ModelInstance> instances, final float groundY, IntArray counts) {
+        final Array<BakeJob> jobs = new Array<>();
+        for (int i = 0; i < instances.size; i++) {
+            ModelInstance instance = instances.get(i);
+            int before = jobs.size;
+            collectJobs(instance.nodes, jobs);
+            for (int j = before; j < jobs.size; j++) {
+                jobs.get(j).transform = instance.transform;
+            }
+            counts.add(jobs.size - before);
+        }
+        
+        parallelRows(jobs.size, new RowTask() {
+            @Override
+            public void bake(int row) {
+                bakeJob(jobs.get(row), groundY);
+            }
+        });
+        return jobs;
+    }
+    
+    /**
+     * Append a baked job to a part
+     * @param origin If set, vertices are moved to world space relative to it (for merging)
+     */
+    private void addJob(MeshPartBuilder part, BakeJob job, Vector3 origin) {
+        int vertexCount = job.baked.length / 4;
+        if (origin != null) {
+            Vector3 world = new Vector3();
+            for (int v = 0; v < job.baked.length; v += 4) {
+                world.set(job.baked[v], job.baked[v + 1], job.baked[v + 2]).mul(job.transform).sub(origin);
+                job.baked[v] = world.x;
+                job.baked[v + 1] = world.y;
+                job.baked[v + 2] = world.z;
+            }
+        }
+        part.ensureVertices(vertexCount);
+        int base = part.vertex(job.baked) - (vertexCount - 1); // Parts share one mesh
+        part.ensureIndices(job.indices.length);
+        for (short index : job.indices) {
+            part.index((short)(base + index));
+        }
+    }
+    
+    private void collectJobs(Iterable<Node> nodes, Array<BakeJob> jobs) {
+        for (Node node : nodes) {
+            for (NodePart nodePart : node.parts) {
+                BakeJob job = createJob(nodePart);
+                if (job != null) {
+                    jobs.add(job);
+                }
+            }
+            if (node.hasChildren()) {
+                collectJobs(node.getChildren(), jobs);
+            }
+        }
+    }
+    
+    private BakeJob createJob(NodePart nodePart) {
+        Mesh mesh = nodePart.meshPart.mesh;
+        VertexAttribute position = mesh.getVertexAttribute(VertexAttributes.Usage.Position);
+        VertexAttribute normal = mesh.getVertexAttribute(VertexAttributes.Usage.Normal);
+        if (position == null || normal == null || nodePart.meshPart.primitiveType != GL20.GL_TRIANGLES
+                || mesh.getNumIndices() == 0) {
+            Gdx.app.error("FrightNight", "Skipping unbakeable mesh part " + nodePart.meshPart.id);
+            return null;
+        }
+        
+        BakeJob job = new BakeJob();
+        job.stride = mesh.getVertexSize() / 4;
+        job.positionOffset = position.offset / 4;
+        job.normalOffset = normal.offset / 4;
+        job.vertices = new float[mesh.getNumVertices() * job.stride];
+        mesh.getVertices(job.vertices);
+        job.indices = new short[nodePart.meshPart.size];
+        mesh.getIndices(nodePart.meshPart.offset, nodePart.meshPart.size, job.indices, 0);
+        
+        ColorAttribute diffuse = (ColorAttribute) nodePart.material.get(ColorAttribute.Diffuse);
+        if (diffuse != null) {
+            job.albedo.set(diffuse.color);
+        }
+        job.wrap = nodePart.material.has(FoliageAttribute.Type);
+        return job;
+    }
+    
+    private void bakeJob(BakeJob job, float groundY) {
+        Matrix4 transform = job.transform;
+        int count = job.vertices.length / job.stride;
+        job.baked = new float[count * 4];
+        Vector3 normal = new Vector3();
+        Vector3 world = new Vector3();
+        Color lit = new Color();
+        for (int v = 0; v < count; v++) {
+            int src = v * job.stride;
+            float x = job.vertices[src + job.positionOffset];
+            float y = job.vertices[src + job.positionOffset + 1];
+            float z = job.vertices[src + job.positionOffset + 2];
+            normal.set(job.vertices[src + job.normalOffset], job.vertices[src + job.normalOffset + 1],
+                    job.vertices[src + job.normalOffset + 2]).rot(transform).nor();
+            world.set(x, y, z).mul(transform);
+            
+            float aboveGround = Math.max(0f, world.y - groundY) / GROUND_AO_HEIGHT;
+            float occlusion = GROUND_AO_MIN + (1f - GROUND_AO_MIN) * Math.min(1f, aboveGround);
+            light(normal.x, normal.y, normal.z, occlusion, job.wrap, job.albedo, lit);
+            
+            int dst = v * 4;
+            job.baked[dst] = x;
+            job.baked[dst + 1] = y;
+            job.baked[dst + 2] = z;
+            job.baked[dst + 3] = lit.toFloatBits();
+        }
+    }
+    
+    @Override
+    public void dispose() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
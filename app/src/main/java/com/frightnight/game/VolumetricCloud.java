@@ -1,105 +1,73 @@
 package com.frightnight.game;
 
-import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.VertexAttributes;
-import com.badlogic.gdx.graphics.g3d.Material;
-import com.badlogic.gdx.graphics.g3d.Model;
-import com.badlogic.gdx.graphics.g3d.ModelInstance;
-import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
-import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
-import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
 import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.utils.Array;
+import java.util.Random;
 
 /**
- * Creates realistic volumetric clouds using multiple overlapping spheres
+ * Creates realistic volumetric clouds using multiple overlapping soft puffs
  * with varying sizes and transparency for a puffy, atmospheric effect
+ * The puffs are drawn as camera-facing billboards by CloudRenderer
  */
 public class VolumetricCloud {
     
-    private Array<ModelInstance> cloudParts;
+    private static final float DRIFT_PER_HEIGHT = 1f / 60f; // Higher clouds ride faster wind (fraction of ground wind per unit)
+    
     private Vector3 position;
-    private float driftSpeed;
-    private float driftAngle;
+    private final Vector3 drift = new Vector3();
+    
+    // Puffs are stored as offsets from the cloud position, so drifting only moves the cloud
+    private float[] offsetX;
+    private float[] offsetY;
+    private float[] offsetZ;
+    private float[] puffSize;
+    private float[] puffAlpha;
+    private int activePuffs;
+    private float radius; // Bounding sphere around the position, covering every puff
     
     /**
      * Create a volumetric cloud at specified position
-     * @param modelBuilder The shared model builder
      * @param x World X position
      * @param y World Y position (height)
      * @param z World Z position
      * @param scale Overall cloud size multiplier
+     * @param random Source of the puff layout (seeded from the world seed)
      */
-    public VolumetricCloud(ModelBuilder modelBuilder, float x, float y, float z, float scale) {
+    public VolumetricCloud(float x, float y, float z, float scale, Random random) {
         this.position = new Vector3(x, y, z);
-        this.cloudParts = new Array<>();
-        this.driftSpeed = 0.5f + (float)(Math.random() * 1.5f); // Random drift speed
-        this.driftAngle = (float)(Math.random() * 360); // Random drift direction
-        
-        // Create cloud material with transparency
-        Material cloudMaterial = new Material(
-            ColorAttribute.createDiffuse(0.7f, 0.6f, 0.7f, 1f), // Purple-tinted dusk clouds
-            new BlendingAttribute(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, 0.6f) // Semi-transparent
-        );
         
-        // Create main cloud body with multiple overlapping spheres
-        int numPuffs = 8 + (int)(Math.random() * 6); // 8-14 puffs per cloud
+        // Create main cloud body with multiple overlapping puffs
+        int numPuffs = 8 + random.nextInt(6); // 8-14 puffs per cloud
+        offsetX = new float[numPuffs];
+        offsetY = new float[numPuffs];
+        offsetZ = new float[numPuffs];
+        puffSize = new float[numPuffs];
+        puffAlpha = new float[numPuffs];
         
         for (int i = 0; i < numPuffs; i++) {
             // Random offset for each puff
-            float offsetX = (float)(Math.random() * 12 - 6) * scale;
-            float offsetY = (float)(Math.random() * 4 - 2) * scale;
-            float offsetZ = (float)(Math.random() * 8 - 4) * scale;
+            offsetX[i] = (random.nextFloat() * 12 - 6) * scale;
+            offsetY[i] = (random.nextFloat() * 4 - 2) * scale;
+            offsetZ[i] = (random.nextFloat() * 8 - 4) * scale;
             
             // Random size for each puff (creates irregular shape)
-            float puffSize = (2f + (float)(Math.random() * 3f)) * scale;
+            puffSize[i] = (2f + random.nextFloat() * 3f) * scale;
             
             // Random transparency variation
-            float alpha = 0.5f + (float)(Math.random() * 0.3f);
-            Material puffMaterial = new Material(
-                ColorAttribute.createDiffuse(0.7f, 0.6f, 0.7f, 1f),
-                new BlendingAttribute(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, alpha)
-            );
+            puffAlpha[i] = 0.5f + random.nextFloat() * 0.3f;
             
-            // Create sphere puff
-            Model puffModel = modelBuilder.createSphere(
-                puffSize, puffSize, puffSize * 0.8f, // Slightly flattened
-                12, 10,
-                puffMaterial,
-                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
-            );
-            
-            ModelInstance puff = new ModelInstance(puffModel);
-            puff.transform.setToTranslation(
-                position.x + offsetX,
-                position.y + offsetY,
-                position.z + offsetZ
-            );
-            
-            cloudParts.add(puff);
+            float reach = (float) Math.sqrt(offsetX[i] * offsetX[i] + offsetY[i] * offsetY[i]
+                    + offsetZ[i] * offsetZ[i]) + puffSize[i];
+            radius = Math.max(radius, reach);
         }
+        activePuffs = numPuffs;
     }
     
     /**
-     * Update cloud position (drifting slowly across sky)
+     * Update cloud position (drifting across the sky with the wind)
      */
-    public void update(float delta) {
-        // Drift slowly across sky
-        float moveX = (float)Math.cos(Math.toRadians(driftAngle)) * driftSpeed * delta;
-        float moveZ = (float)Math.sin(Math.toRadians(driftAngle)) * driftSpeed * delta;
-        
-        position.x += moveX;
-        position.z += moveZ;
-        
-        // Update all puff positions
-        for (int i = 0; i < cloudParts.size; i++) {
-            ModelInstance puff = cloudParts.get(i);
-            Vector3 currentPos = new Vector3();
-            puff.transform.getTranslation(currentPos);
-            currentPos.x += moveX;
-            currentPos.z += moveZ;
-            puff.transform.setTranslation(currentPos);
-        }
+    public void update(float delta, WindSystem wind) {
+        wind.sample(position.x, position.z, drift).scl(position.y * DRIFT_PER_HEIGHT * delta);
+        position.add(drift);
         
         // Wrap around world boundaries
         if (position.x > 150) position.x = -150;
@@ -108,24 +76,48 @@ public class VolumetricCloud {
         if (position.z < -150) position.z = 150;
     }
     
+    public int getPuffCount() {
+        return puffSize.length;
+    }
+    
     /**
-     * Get all cloud part instances for rendering
+     * Number of puffs drawn (quality tiers thin the clouds out)
      */
-    public Array<ModelInstance> getInstances() {
-        return cloudParts;
+    public int getActivePuffs() {
+        return activePuffs;
+    }
+    
+    public void setActivePuffs(int count) {
+        activePuffs = Math.max(0, Math.min(puffSize.length, count));
     }
     
     /**
-     * Cleanup cloud models
+     * World position of a puff
      */
-    public void dispose() {
-        for (ModelInstance part : cloudParts) {
-            part.model.dispose();
-        }
-        cloudParts.clear();
+    public Vector3 getPuffPosition(int index, Vector3 out) {
+        return out.set(position.x + offsetX[index], position.y + offsetY[index], position.z + offsetZ[index]);
+    }
+    
+    /**
+     * Height of a puff relative to the cloud center (used for shading)
+     */
+    public float getPuffOffsetY(int index) {
+        return offsetY[index];
+    }
+    
+    public float getPuffSize(int index) {
+        return puffSize[index];
+    }
+    
+    public float getPuffAlpha(int index) {
+        return puffAlpha[index];
     }
     
     public Vector3 getPosition() {
         return position;
     }
+    
+    public float getRadius() {
+        return radius;
+    }
 }
@@ -0,0 +1,64 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * The per-frame terms of WindSystem's wind function, for the shaders
+ * Lives in the Environment and is updated in place every frame; LiteShader evaluates the same
+ * function per vertex (see WindSystem) to bend grass and trees.
+ */
+public class WindAttribute extends Attribute {
+    
+    public static final String Alias = "wind";
+    public static final long Type = register(Alias);
+    
+    public float dirX, dirZ; // Unit wind direction on the ground
+    public float base;       // Steady wind speed
+    public float gust;       // Extra speed at the crest of a gust
+    public float phase;      // Gust wave phase (radians)
+    public float frequency;  // Gust wave frequency along the wind (radians per unit)
+    
+    public WindAttribute() {
+        super(Type);
+    }
+    
+    public WindAttribute set(float dirX, float dirZ, float base, float gust, float phase, float frequency) {
+        this.dirX = dirX;
+        this.dirZ = dirZ;
+        this.base = base;
+        this.gust = gust;
+        this.phase = phase;
+        this.frequency = frequency;
+        return this;
+    }
+    
+    @Override
+    public Attribute copy() {
+        return new WindAttribute().set(dirX, dirZ, base, gust, phase, frequency);
+    }
+    
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 953 * result + NumberUtils.floatToRawIntBits(dirX);
+        result = 953 * result + NumberUtils.floatToRawIntBits(dirZ);
+        result = 953 * result + NumberUtils.floatToRawIntBits(base);
+        result = 953 * result + NumberUtils.floatToRawIntBits(gust);
+        result = 953 * result + NumberUtils.floatToRawIntBits(phase);
+        return 953 * result + NumberUtils.floatToRawIntBits(frequency);
+    }
+    
+    @Override
+    public int compareTo(Attribute o) {
+        if (type != o.type) return (int)(type - o.type);
+        WindAttribute other = (WindAttribute) o;
+        if (dirX != other.dirX) return dirX < other.dirX ? -1 : 1;
+        if (dirZ != other.dirZ) return dirZ < other.dirZ ? -1 : 1;
+        if (base != other.base) return base < other.base ? -1 : 1;
+        if (gust != other.gust) return gust < other.gust ? -1 : 1;
+        if (phase != other.phase) return phase < other.phase ? -1 : 1;
+        if (frequency != other.frequency) return frequency < other.frequency ? -1 : 1;
+        return 0;
+    }
+}
@@ -1,136 +1,344 @@
 package com.frightnight.game;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g3d.Material;
-import com.badlogic.gdx.graphics.g3d.Model;
-import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.RenderableProvider;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
-import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
-import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Pool;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
- * Animated grass field that sways in the wind
- * Creates atmosphere and realism
+ * Dense grass that sways in the wind, only in a ring of chunks around the player
+ * The ring is a fixed pool of chunk meshes addressed as a toroidal buffer: when the player crosses a
+ * chunk boundary, only the chunks that wrapped to the far side (or changed density band) are refilled
+ * on a worker thread and re-uploaded. Blade count and memory are the same wherever the player is.
+ * Blades bend in the vertex shader (LiteShader GRASS) driven by WindSystem through the environment.
  */
-public class WindGrassField {
+public class WindGrassField implements RenderableProvider, Disposable {
     
-    private Array<GrassPatch> grassPatches;
-    private float windPhase = 0f;
-    private Vector3 windDirection = new Vector3(1, 0, 0.5f).nor();
+    public static final float CHUNK_SIZE = 7f;          // World units per chunk side
+    public static final int RING = 7;                   // Chunks per side of the ring (odd, player in the middle)
+    public static final int CHUNK_COUNT = RING * RING;
+    private static final int MAX_BLADES = 360;          // Per chunk at full density (mesh capacity)
+    private static final float[] BAND_DENSITY = {1f, 1f, 0.55f, 0.25f}; // By chunk distance from the player's chunk
+    private static final float PATH_MARGIN = 0.3f;      // Blades stay this far off the path edge
+    private static final int PLACEMENT_TRIES = 3;       // Retries for a blade landing on the path
+    private static final float BLADE_BEND = 0.05f;      // Tip displacement of the tallest blade per unit of wind speed
+    
+    public static final String SWAY_ATTRIBUTE = "a_sway";
+    private static final VertexAttributes ATTRIBUTES = new VertexAttributes(
+            new VertexAttribute(VertexAttributes.Usage.Position, 3, "a_position"),
+            new VertexAttribute(VertexAttributes.Usage.Normal, 3, "a_normal"),
+            new VertexAttribute(VertexAttributes.Usage.Generic, 1, SWAY_ATTRIBUTE));
+    private static final int FLOATS_PER_VERTEX = 7;
+    private static final int FLOATS_PER_BLADE = FLOATS_PER_VERTEX * 3;
+    
+    /** One pooled chunk mesh; the build fields are written by the worker, the rest on the GL thread */
+    private static class Chunk {
+        final Mesh mesh = new Mesh(false, MAX_BLADES * 3, 0, ATTRIBUTES);
+        final float[] vertices = new float[MAX_BLADES * FLOATS_PER_BLADE]; // Staging, owned by the worker while building
+        final Matrix4 transform = new Matrix4();
+        final Vector3 center = new Vector3(); // World bounding sphere
+        float radius;
+        int blades;                           // Blades in the uploaded mesh
+        int wantedX = Integer.MIN_VALUE, wantedZ, wantedBlades;
+        boolean building;
+        // Result of the last build
+        int builtX, builtZ, builtBlades;
+        float baseY, minY, maxY;
+    }
+    
+    private final TerrainSystem terrain;
+    private final PathDistanceField path;
+    private final long seed;
+    private final Material material;
+    private final Chunk[] chunks = new Chunk[CHUNK_COUNT];
+    private final ConcurrentLinkedQueue<Chunk> built = new ConcurrentLinkedQueue<>();
+    private final ExecutorService worker;
+    private Camera camera;
+    private OcclusionCuller occlusion;
+    private float density = 1f; // Set by the quality tier
+    private int centerX = Integer.MIN_VALUE, centerZ;
+    private int rebuilds = 0;
     
     /**
-     * Create grass field across the terrain
+     * Create the grass ring around a start position and fill it right away
+     * @param seed Blade layout seed (a chunk always looks the same for the same seed)
      */
-    public WindGrassField(ModelBuilder modelBuilder, TerrainSystem terrain, ForestPath path) {
-        grassPatches = new Array<>();
+    public WindGrassField(TerrainSystem terrain, ForestPath path, long seed, float startX, float startZ) {
+        this.terrain = terrain;
+        this.path = path != null ? path.getDistanceField() : null;
+        this.seed = seed;
         
-        // Create grass patches across terrain (avoiding path)
-        for (int i = 0; i < 150; i++) {
-            float x = (float)(Math.random() * 160 - 80);
-            float z = (float)(Math.random() * 160 - 80);
-            
-            // Don't place grass on path
-            if (path != null && path.isOnPath(new Vector3(x, 0, z), 1.5f)) {
-                continue;
-            }
-            
-            float y = terrain.getHeightAt(x, z);
-            
-            GrassPatch patch = new GrassPatch(modelBuilder, x, y, z);
-            grassPatches.add(patch);
+        material = new Material(
+            ColorAttribute.createDiffuse(0.5f, 0.9f, 0.4f, 1f), // Ultra bright green
+            new FoliageAttribute()
+        );
+        
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk();
         }
+        worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "GrassBuilder");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
         
-        Gdx.app.log("FrightNight", "Created " + grassPatches.size + " grass patches");
+        // First fill happens during loading, on this thread
+        retarget(chunkOf(startX), chunkOf(startZ));
+        for (Chunk chunk : chunks) {
+            build(chunk);
+            upload(chunk);
+        }
+        Gdx.app.log("FrightNight", "Grass ring: " + CHUNK_COUNT + " chunks, " + getBladeCount() + " blades");
+    }
+    
+    private static int chunkOf(float coordinate) {
+        return MathUtils.floor(coordinate / CHUNK_SIZE);
     }
     
     /**
-     * Update grass animation (wind effect)
+     * Follow the camera
      */
-    public void update(float delta) {
-        windPhase += delta * 0.8f; // Wind speed
+    public void update(float delta, Camera camera) {
+        this.camera = camera;
+        
+        int cx = chunkOf(camera.position.x);
+        int cz = chunkOf(camera.position.z);
+        if (cx != centerX || cz != centerZ) {
+            retarget(cx, cz);
+        }
         
-        // Update each grass patch
-        for (GrassPatch patch : grassPatches) {
-            patch.update(windPhase, windDirection);
+        // Upload finished builds and start the next ones
+        Chunk chunk;
+        while ((chunk = built.poll()) != null) {
+            upload(chunk);
+        }
+        for (final Chunk next : chunks) {
+            if (next.building || !needsBuild(next)) continue;
+            next.building = true;
+            rebuilds++;
+            worker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    build(next);
+                    built.add(next);
+                }
+            });
         }
     }
     
     /**
-     * Get all grass instances for rendering
+     * Work out which world chunk and how many blades each ring slot should hold
      */
-    public Array<ModelInstance> getInstances() {
-        Array<ModelInstance> instances = new Array<>();
-        for (GrassPatch patch : grassPatches) {
-            instances.add(patch.getInstance());
+    private void retarget(int cx, int cz) {
+        centerX = cx;
+        centerZ = cz;
+        int half = RING / 2;
+        for (int dz = -half; dz <= half; dz++) {
+            for (int dx = -half; dx <= half; dx++) {
+                int x = cx + dx;
+                int z = cz + dz;
+                // Toroidal addressing: a world chunk always lands in the same slot
+                Chunk chunk = chunks[slot(z) * RING + slot(x)];
+                synchronized (chunk) {
+                    chunk.wantedX = x;
+                    chunk.wantedZ = z;
+                    chunk.wantedBlades = Math.round(MAX_BLADES * BAND_DENSITY[Math.max(Math.abs(dx), Math.abs(dz))] * density);
+                }
+            }
         }
-        return instances;
     }
     
-    public void dispose() {
-        for (GrassPatch patch : grassPatches) {
-            patch.dispose();
+    private static int slot(int chunk) {
+        int slot = chunk % RING;
+        return slot < 0 ? slot + RING : slot;
+    }
+    
+    private static boolean needsBuild(Chunk chunk) {
+        synchronized (chunk) {
+            return chunk.builtX != chunk.wantedX || chunk.builtZ != chunk.wantedZ || chunk.builtBlades != chunk.wantedBlades;
         }
     }
     
     /**
-     * Individual grass patch (cluster of grass blades)
+     * Fill a chunk's staging vertices (worker thread, or the loading thread)
+     * Blades come from a per-chunk random sequence, so a lower density is a prefix of the same layout.
      */
-    private static class GrassPatch {
-        private ModelInstance instance;
-        private Vector3 basePosition;
-        private float swayAmount;
-        private float phaseOffset;
-        
-        public GrassPatch(ModelBuilder modelBuilder, float x, float y, float z) {
-            this.basePosition = new Vector3(x, y, z);
-            this.swayAmount = 0.1f + (float)(Math.random() * 0.15f);
-            this.phaseOffset = (float)(Math.random() * Math.PI * 2);
-            
-            // Create grass cluster (small vertical quad) - SUPER BRIGHT GREEN!
-            Material grassMaterial = new Material(
-                ColorAttribute.createDiffuse(0.5f, 0.9f, 0.4f, 1f) // Ultra bright green
-            );
-            
-            // Simple grass blade model (thin box)
-            Model grassModel = modelBuilder.createBox(
-                0.15f, 0.6f, 0.02f, // Thin vertical blade
-                grassMaterial,
-                VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
-            );
-            
-            instance = new ModelInstance(grassModel);
-            instance.transform.setToTranslation(basePosition.x, basePosition.y + 0.3f, basePosition.z);
+    private void build(Chunk chunk) {
+        int chunkX;
+        int chunkZ;
+        int blades;
+        synchronized (chunk) {
+            chunkX = chunk.wantedX;
+            chunkZ = chunk.wantedZ;
+            blades = chunk.wantedBlades;
         }
+        float originX = chunkX * CHUNK_SIZE;
+        float originZ = chunkZ * CHUNK_SIZE;
+        float baseY = terrain.getHeightAt(originX + CHUNK_SIZE / 2f, originZ + CHUNK_SIZE / 2f);
+        Random random = new Random(seed ^ (chunkX * 73856093L) ^ (chunkZ * 19349663L));
         
-        /**
-         * Update grass swaying in wind
-         */
-        public void update(float windPhase, Vector3 windDirection) {
-            // Calculate sway based on wind phase
-            float sway = (float)Math.sin(windPhase + phaseOffset) * swayAmount;
+        float[] v = chunk.vertices;
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int b = 0; b < blades; b++) {
+            float x = 0f;
+            float z = 0f;
+            boolean placed = false;
+            for (int attempt = 0; attempt < PLACEMENT_TRIES && !placed; attempt++) {
+                x = originX + random.nextFloat() * CHUNK_SIZE;
+                z = originZ + random.nextFloat() * CHUNK_SIZE;
+                placed = path == null || !path.isOnPath(x, z, PATH_MARGIN);
+            }
+            float height = 0.35f + random.nextFloat() * 0.45f;
+            float halfWidth = 0.03f + random.nextFloat() * 0.03f;
+            float facing = random.nextFloat() * MathUtils.PI2;
+            float lean = random.nextFloat() * 0.15f * height;
+            float leanAngle = random.nextFloat() * MathUtils.PI2;
+            if (!placed) {
+                // Keeps the count fixed; a flat blade covers nothing
+                height = 0f;
+                lean = 0f;
+            }
             
-            // Reset to base position
-            instance.transform.setToTranslation(
-                basePosition.x + windDirection.x * sway,
-                basePosition.y + 0.3f,
-                basePosition.z + windDirection.z * sway
-            );
+            float y = terrain.getHeightAt(x, z) - baseY;
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y + height);
+            float cos = MathUtils.cos(facing);
+            float sin = MathUtils.sin(facing);
+            // Mostly upward normal so both sides of the two-sided blade light alike
+            float nx = -sin * 0.4f;
+            float nz = cos * 0.4f;
+            float ny = 0.92f;
+            float sway = height / 0.8f * BLADE_BEND; // Taller blades bend further
             
-            // Slight rotation for more natural look
-            instance.transform.rotate(Vector3.X, sway * 15f);
+            int i = b * FLOATS_PER_BLADE;
+            i = putVertex(v, i, x - originX - cos * halfWidth, y, z - originZ - sin * halfWidth, nx, ny, nz, 0f);
+            i = putVertex(v, i, x - originX + cos * halfWidth, y, z - originZ + sin * halfWidth, nx, ny, nz, 0f);
+            putVertex(v, i, x - originX + MathUtils.cos(leanAngle) * lean, y + height,
+                    z - originZ + MathUtils.sin(leanAngle) * lean, nx, ny, nz, sway);
         }
         
-        public ModelInstance getInstance() {
-            return instance;
+        synchronized (chunk) {
+            chunk.builtX = chunkX;
+            chunk.builtZ = chunkZ;
+            chunk.builtBlades = blades;
+            chunk.baseY = baseY;
+            chunk.minY = blades > 0 ? minY : 0f;
+            chunk.maxY = blades > 0 ? maxY : 0f;
         }
-        
-        public void dispose() {
-            instance.model.dispose();
+    }
+    
+    private static int putVertex(float[] v, int i, float x, float y, float z, float nx, float ny, float nz, float sway) {
+        v[i] = x;
+        v[i + 1] = y;
+        v[i + 2] = z;
+        v[i + 3] = nx;
+        v[i + 4] = ny;
+        v[i + 5] = nz;
+        v[i + 6] = sway;
+        return i + FLOATS_PER_VERTEX;
+    }
+    
+    /**
+     * Send a finished build to the GPU (GL thread)
+     */
+    private void upload(Chunk chunk) {
+        synchronized (chunk) {
+            chunk.mesh.setVertices(chunk.vertices, 0, chunk.builtBlades * FLOATS_PER_BLADE);
+            chunk.blades = chunk.builtBlades;
+            float originX = chunk.builtX * CHUNK_SIZE;
+            float originZ = chunk.builtZ * CHUNK_SIZE;
+            chunk.transform.setToTranslation(originX, chunk.baseY, originZ);
+            float halfHeight = (chunk.maxY - chunk.minY) / 2f;
+            chunk.center.set(originX + CHUNK_SIZE / 2f, chunk.baseY + chunk.minY + halfHeight, originZ + CHUNK_SIZE / 2f);
+            chunk.radius = (float)Math.sqrt(CHUNK_SIZE * CHUNK_SIZE / 2f + halfHeight * halfHeight)
+                    + WindSystem.MAX_SPEED * BLADE_BEND;
+            chunk.building = false;
+        }
+    }
+    
+    @Override
+    public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool) {
+        for (Chunk chunk : chunks) {
+            if (chunk.blades == 0) continue;
+            if (camera != null && !camera.frustum.sphereInFrustum(chunk.center, chunk.radius)) continue;
+            if (occlusion != null && !occlusion.isSphereVisible(camera, chunk.center, chunk.radius)) continue;
+            Renderable renderable = pool.obtain();
+            renderable.worldTransform.set(chunk.transform);
+            renderable.material = material;
+            renderable.meshPart.set("grass", chunk.mesh, 0, chunk.blades * 3, GL20.GL_TRIANGLES);
+            renderable.bones = null;
+            renderable.userData = null;
+            renderables.add(renderable);
+        }
+    }
+    
+    /**
+     * Blade density from the quality tier (0-1); chunks refill gradually
+     */
+    public void setDensity(float density) {
+        density = MathUtils.clamp(density, 0f, 1f);
+        if (density == this.density) return;
+        this.density = density;
+        if (centerX != Integer.MIN_VALUE) {
+            retarget(centerX, centerZ);
+        }
+    }
+    
+    public float getDensity() {
+        return density;
+    }
+    
+    /**
+     * Skip chunks hidden behind the hills (null to stop)
+     */
+    public void setOcclusion(OcclusionCuller occlusion) {
+        this.occlusion = occlusion;
+    }
+    
+    /**
+     * Blades currently uploaded across the ring
+     */
+    public int getBladeCount() {
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            count += chunk.blades;
+        }
+        return count;
+    }
+    
+    public void reportMetrics(FrameMetrics metrics) {
+        metrics.set("grass.blades", getBladeCount());
+        metrics.set("grass.rebuilds", rebuilds);
+        rebuilds = 0;
+    }
+    
+    @Override
+    public void dispose() {
+        worker.shutdownNow();
+        for (Chunk chunk : chunks) {
+            chunk.mesh.dispose();
         }
     }
 }
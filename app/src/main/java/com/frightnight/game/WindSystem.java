@@ -0,0 +1,109 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * The one wind everything moves in: grass, trees, clouds and birds
+ * The wind is a pure function of time, storm level and ground position: a slowly veering base
+ * direction with gust waves travelling along it. The per-frame terms are computed once in update()
+ * and handed to the shaders through the environment's WindAttribute; CPU samples use the same
+ * formula with MathUtils' sine table, so a sample costs a table lookup and no per-entity trig.
+ *
+ * speed(x, z) = base + gust * (0.5 + 0.5 * sin(phase + dot((x, z), dir) * frequency))
+ * wind(x, z)  = dir * speed(x, z)
+ */
+public class WindSystem {
+    
+    private static final float VEER = 0.35f;           // Base direction swings this far either way (radians)
+    private static final float VEER_RATE = 0.03f;      // Radians per second of the veer cycle
+    private static final float CALM_SPEED = 1.2f;      // Steady wind at storm level 0
+    private static final float STORM_SPEED = 2f;       // Added at storm level 1
+    private static final float CALM_GUST = 1f;         // Gust strength at storm level 0
+    private static final float STORM_GUST = 2.5f;      // Added at storm level 1
+    private static final float GUST_SPEED = 0.8f;      // Gust phase, radians per second
+    private static final float GUST_FREQUENCY = 0.15f; // Gust wave, radians per world unit along the wind
+    private static final float SQUALL = 0.35f;         // Storm level added by a lightning strike
+    private static final float SQUALL_DECAY = 0.1f;    // Squall level lost per second
+    
+    /** Strongest wind speed anywhere, at full storm (for bounds of wind-bent geometry) */
+    public static final float MAX_SPEED = CALM_SPEED + STORM_SPEED + CALM_GUST + STORM_GUST;
+    
+    private final WindAttribute attribute = new WindAttribute();
+    private final float baseAngle;
+    private float time = 0f;
+    private float storm = 0f;   // Set by the game (scary level)
+    private float squall = 0f;  // Decaying boost from lightning strikes
+    private int lastStrikeCount = 0;
+    
+    // Per-frame terms of the wind function (mirrored in the WindAttribute)
+    private float dirX, dirZ;
+    private float base, gust;
+    private float phase;
+    
+    /**
+     * @param seed Picks the prevailing direction; the wind over time is the same for the same seed
+     */
+    public WindSystem(long seed, Environment environment) {
+        baseAngle = (seed & 0xffff) / (float) 0x10000 * MathUtils.PI2;
+        environment.set(attribute);
+        update(0f, 0);
+    }
+    
+    /**
+     * Storm level from 0 (calm) to 1 (gale); lightning adds short squalls on top
+     */
+    public void setStorm(float level) {
+        storm = MathUtils.clamp(level, 0f, 1f);
+    }
+    
+    public float getStormLevel() {
+        return Math.min(1f, storm + squall);
+    }
+    
+    /**
+     * Advance the wind and refresh the shader uniform
+     * @param strikeCount Lightning strikes so far; each new strike starts a squall
+     */
+    public void update(float delta, int strikeCount) {
+        time += delta;
+        if (strikeCount != lastStrikeCount) {
+            squall = Math.min(1f, squall + SQUALL * (strikeCount - lastStrikeCount));
+            lastStrikeCount = strikeCount;
+        }
+        squall = Math.max(0f, squall - SQUALL_DECAY * delta);
+        float level = getStormLevel();
+        
+        float angle = baseAngle + VEER * MathUtils.sin(time * VEER_RATE);
+        dirX = MathUtils.cos(angle);
+        dirZ = MathUtils.sin(angle);
+        base = CALM_SPEED + STORM_SPEED * level;
+        gust = CALM_GUST + STORM_GUST * level;
+        phase = (time * GUST_SPEED) % MathUtils.PI2; // Wrapped so float precision holds up over long sessions
+        attribute.set(dirX, dirZ, base, gust, phase, GUST_FREQUENCY);
+    }
+    
+    /**
+     * Wind speed at a ground position
+     */
+    public float speedAt(float x, float z) {
+        return base + gust * (0.5f + 0.5f * MathUtils.sin(phase + (x * dirX + z * dirZ) * GUST_FREQUENCY));
+    }
+    
+    /**
+     * Horizontal wind velocity at a position (world units per second)
+     */
+    public Vector3 sample(float x, float z, Vector3 out) {
+        float speed = speedAt(x, z);
+        return out.set(dirX * speed, 0f, dirZ * speed);
+    }
+    
+    public float getDirectionX() {
+        return dirX;
+    }
+    
+    public float getDirectionZ() {
+        return dirZ;
+    }
+}
@@ -0,0 +1,618 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+
+/**
+ * Bounding-volume hierarchy over the static world: terrain, path, tree trunks, branches and foliage
+ * Built once at load with a binned surface area heuristic, then flattened into plain arrays: nodes in
+ * depth-first order (a left child directly follows its parent) and primitives reordered so each leaf
+ * is one contiguous run. Primitives are triangles (terrain, path) and capsules (trunks and branches;
+ * foliage is a capsule fitted to its ellipsoid). Ray, segment and sphere-cast queries walk the tree
+ * front to back with a preallocated stack and allocate nothing; run them from one thread at a time.
+ */
+public class WorldBvh {
+    
+    public static final int TRIANGLE = 0;
+    public static final int CAPSULE = 1;
+    
+    private static final int FLOATS_PER_PRIMITIVE = 9; // Triangle: three corners; capsule: two end points and radius
+    private static final int MAX_LEAF_PRIMITIVES = 4;  // Split anything bigger if the SAH says it pays
+    private static final int FORCED_SPLIT = 16;        // Always split leaves bigger than this
+    private static final int SAH_BINS = 12;
+    private static final float TRAVERSAL_COST = 1f;    // One node visit, relative to one primitive test
+    private static final int MAX_DEPTH = 48;           // Bounds the traversal stack
+    
+    private final float[] primitives; // FLOATS_PER_PRIMITIVE each, in leaf order
+    private final byte[] kinds;
+    private final int primitiveCount;
+    private final float[] nodeBounds; // minX, minY, minZ, maxX, maxY, maxZ per node
+    private final int[] nodeFirst;    // Leaf: first primitive; inner node: index of its right child
+    private final int[] nodeSize;     // Leaf: primitive count; inner node: 0
+    private final int nodeCount;
+    
+    // Query scratch (single-threaded use)
+    private final int[] stack = new int[MAX_DEPTH * 2 + 2];
+    private final float[] stackDistance = new float[MAX_DEPTH * 2 + 2];
+    private final Vector3 tmp = new Vector3();
+    private int closestPrimitive;
+    
+    /**
+     * Result of a query, owned by the caller and filled in place
+     */
+    public static class Hit {
+        public float distance;                      // Along the ray (for a sphere cast, travelled by the centre)
+        public final Vector3 point = new Vector3(); // Ray point, or the sphere centre at contact
+        public final Vector3 normal = new Vector3();
+        public int primitive = -1;
+        public int kind;                            // TRIANGLE or CAPSULE
+    }
+    
+    /**
+     * Collects world-space primitives, then builds the tree
+     */
+    public static class Builder {
+        
+        private final FloatArray data = new FloatArray();
+        private final IntArray kinds = new IntArray();
+        private final Matrix4 world = new Matrix4();
+        private final Vector3 a = new Vector3();
+        private final Vector3 b = new Vector3();
+        private final Vector3 c = new Vector3();
+        
+        public Builder addTriangle(float ax, float ay, float az, float bx, float by, float bz, float cx, float cy, float cz) {
+            data.addAll(ax, ay, az, bx, by, bz, cx, cy, cz);
+            kinds.add(TRIANGLE);
+            return this;
+        }
+        
+        /**
+         * Capsule between two points (a sphere when they coincide)
+         */
+        public Builder addCapsule(float ax, float ay, float az, float bx, float by, float bz, float radius) {
+            data.addAll(ax, ay, az, bx, by, bz, radius, 0f, 0f);
+            kinds.add(CAPSULE);
+            return this;
+        }
+        
+        /**
+         * Every triangle of the instance's meshes, in world space
+         */
+        public Builder addModel(ModelInstance instance) {
+            for (Node node : instance.nodes) {
+                addNode(node, instance.transform);
+            }
+            return this;
+        }
+        
+        public Builder addModels(Array<ModelInstance> instances) {
+            for (ModelInstance instance : instances) {
+                addModel(instance);
+            }
+            return this;
+        }
+        
+        private void addNode(Node node, Matrix4 transform) {
+            for (NodePart part : node.parts) {
+                int type = part.meshPart.primitiveType;
+                if (!part.enabled || (type != GL20.GL_TRIANGLES && type != GL20.GL_TRIANGLE_STRIP)) continue;
+                world.set(transform).mul(node.globalTransform);
+                addMeshPart(part.meshPart, world);
+            }
+            for (Node child : node.getChildren()) {
+                addNode(child, transform);
+            }
+        }
+        
+        private void addMeshPart(MeshPart meshPart, Matrix4 transform) {
+            Mesh mesh = meshPart.mesh;
+            int stride = mesh.getVertexSize() / 4;
+            int position = mesh.getVertexAttribute(VertexAttributes.Usage.Position).offset / 4;
+            float[] vertices = new float[mesh.getNumVertices() * stride];
+            mesh.getVertices(vertices);
+            short[] indices = null;
+            if (mesh.getNumIndices() > 0) {
+                indices = new short[mesh.getNumIndices()];
+                mesh.getIndices(indices);
+            }
+            int end = meshPart.offset + meshPart.size;
+            if (meshPart.primitiveType == GL20.GL_TRIANGLE_STRIP) {
+                // Triangle i is (i, i + 1, i + 2); every other one is wound the other way
+                for (int i = meshPart.offset; i + 2 < end; i++) {
+                    boolean odd = ((i - meshPart.offset) & 1) != 0;
+                    corner(a, vertices, indices, i, stride, position, transform);
+                    corner(b, vertices, indices, odd ? i + 2 : i + 1, stride, position, transform);
+                    corner(c, vertices, indices, odd ? i + 1 : i + 2, stride, position, transform);
+                    if (a.equals(b) || b.equals(c) || c.equals(a)) continue; // Degenerate strip joint
+                    addTriangle(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z);
+                }
+                return;
+            }
+            for (int i = meshPart.offset; i + 2 < end; i += 3) {
+                corner(a, vertices, indices, i, stride, position, transform);
+                corner(b, vertices, indices, i + 1, stride, position, transform);
+                corner(c, vertices, indices, i + 2, stride, position, transform);
+                addTriangle(a.x, a.y, a.z, b.x, b.y, b.z, c.x, c.y, c.z);
+            }
+        }
+        
+        private static void corner(Vector3 out, float[] vertices, short[] indices, int i, int stride, int position, Matrix4 transform) {
+            int v = (indices != null ? indices[i] & 0xffff : i) * stride + position;
+            out.set(vertices[v], vertices[v + 1], vertices[v + 2]).mul(transform);
+        }
+        
+        /**
+         * The tree's trunk, branches and foliage (TreeArchetype colliders) placed in the world
+         */
+        public Builder addTree(RealisticTree tree) {
+            FloatArray colliders = tree.getArchetype().getColliders();
+            Matrix4 transform = tree.getTransform();
+            for (int i = 0; i < colliders.size; i += TreeArchetype.FLOATS_PER_COLLIDER) {
+                a.set(colliders.get(i), colliders.get(i + 1), colliders.get(i + 2)).mul(transform);
+                b.set(colliders.get(i + 3), colliders.get(i + 4), colliders.get(i + 5)).mul(transform);
+                addCapsule(a.x, a.y, a.z, b.x, b.y, b.z, colliders.get(i + 6) * tree.getScale());
+            }
+            return this;
+        }
+        
+        public Builder addTrees(Array<RealisticTree> trees) {
+            for (RealisticTree tree : trees) {
+                addTree(tree);
+            }
+            return this;
+        }
+        
+        public WorldBvh build() {
+            return new WorldBvh(data.toArray(), kinds.toArray());
+        }
+    }
+    
+    // Build scratch
+    private float[] boundsOf;   // Per source primitive: min and max
+    private float[] centroids;  // Per source primitive
+    private int[] order;        // Source primitive per leaf slot
+    private FloatArray buildBounds;
+    private IntArray buildFirst;
+    private IntArray buildSize;
+    private final int[] binCount = new int[SAH_BINS];
+    private final float[] binBounds = new float[SAH_BINS * 6];
+    private final float[] rightArea = new float[SAH_BINS];
+    private final int[] rightCount = new int[SAH_BINS];
+    
+    private WorldBvh(float[] source, int[] sourceKinds) {
+        primitiveCount = sourceKinds.length;
+        boundsOf = new float[primitiveCount * 6];
+        centroids = new float[primitiveCount * 3];
+        order = new int[primitiveCount];
+        for (int i = 0; i < primitiveCount; i++) {
+            primitiveBounds(source, sourceKinds[i], i);
+            for (int axis = 0; axis < 3; axis++) {
+                centroids[i * 3 + axis] = (boundsOf[i * 6 + axis] + boundsOf[i * 6 + 3 + axis]) * 0.5f;
+            }
+            order[i] = i;
+        }
+        
+        buildBounds = new FloatArray(Math.max(6, primitiveCount * 6 / MAX_LEAF_PRIMITIVES));
+        buildFirst = new IntArray();
+        buildSize = new IntArray();
+        if (primitiveCount > 0) {
+            buildNode(0, primitiveCount, 0);
+        }
+        nodeBounds = buildBounds.toArray();
+        nodeFirst = buildFirst.toArray();
+        nodeSize = buildSize.toArray();
+        nodeCount = nodeSize.length;
+        
+        // Reorder the primitives into leaf order
+        primitives = new float[primitiveCount * FLOATS_PER_PRIMITIVE];
+        kinds = new byte[primitiveCount];
+        for (int i = 0; i < primitiveCount; i++) {
+            System.arraycopy(source, order[i] * FLOATS_PER_PRIMITIVE, primitives, i * FLOATS_PER_PRIMITIVE, FLOATS_PER_PRIMITIVE);
+            kinds[i] = (byte) sourceKinds[order[i]];
+        }
+        boundsOf = null;
+        centroids = null;
+        order = null;
+        buildBounds = null;
+        buildFirst = null;
+        buildSize = null;
+    }
+    
+    private void primitiveBounds(float[] source, int kind, int i) {
+        int o = i * FLOATS_PER_PRIMITIVE;
+        int b = i * 6;
+        if (kind == TRIANGLE) {
+            for (int axis = 0; axis < 3; axis++) {
+                float p = source[o + axis], q = source[o + 3 + axis], r = source[o + 6 + axis];
+                boundsOf[b + axis] = Math.min(p, Math.min(q, r));
+                boundsOf[b + 3 + axis] = Math.max(p, Math.max(q, r));
+            }
+        } else {
+            float radius = source[o + 6];
+            for (int axis = 0; axis < 3; axis++) {
+                float p = source[o + axis], q = source[o + 3 + axis];
+                boundsOf[b + axis] = Math.min(p, q) - radius;
+                boundsOf[b + 3 + axis] = Math.max(p, q) + radius;
+            }
+        }
+    }
+    
+    /**
+     * Build the subtree over order[start, end) and return its node index
+     */
+    private int buildNode(int start, int end, int depth) {
+        int node = buildSize.size;
+        buildFirst.add(start);
+        buildSize.add(end - start);
+        
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+        float[] cMin = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] cMax = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int k = start; k < end; k++) {
+            int b = order[k] * 6;
+            minX = Math.min(minX, boundsOf[b]);
+            minY = Math.min(minY, boundsOf[b + 1]);
+            minZ = Math.min(minZ, boundsOf[b + 2]);
+            maxX = Math.max(maxX, boundsOf[b + 3]);
+            maxY = Math.max(maxY, boundsOf[b + 4]);
+            maxZ = Math.max(maxZ, boundsOf[b + 5]);
+            for (int axis = 0; axis < 3; axis++) {
+                float centroid = centroids[order[k] * 3 + axis];
+                cMin[axis] = Math.min(cMin[axis], centroid);
+                cMax[axis] = Math.max(cMax[axis], centroid);
+            }
+        }
+        buildBounds.addAll(minX, minY, minZ, maxX, maxY, maxZ);
+        
+        int count = end - start;
+        if (count <= MAX_LEAF_PRIMITIVES || depth >= MAX_DEPTH) return node;
+        
+        // Split along the axis the centroids spread most on
+        int axis = 0;
+        for (int i = 1; i < 3; i++) {
+            if (cMax[i] - cMin[i] > cMax[axis] - cMin[axis]) axis = i;
+        }
+        float extent = cMax[axis] - cMin[axis];
+        if (extent <= 1e-6f) return node; // All centroids in one spot, nothing to separate
+        
+        // Bin the centroids, then sweep for the cheapest split (SAH)
+        Arrays.fill(binCount, 0);
+        for (int i = 0; i < SAH_BINS; i++) {
+            emptyBox(binBounds, i * 6);
+        }
+        float binScale = SAH_BINS / extent;
+        for (int k = start; k < end; k++) {
+            int bin = binOf(order[k], axis, cMin[axis], binScale);
+            binCount[bin]++;
+            growBox(binBounds, bin * 6, boundsOf, order[k] * 6);
+        }
+        float[] box = new float[6];
+        emptyBox(box, 0);
+        int accumulated = 0;
+        for (int i = SAH_BINS - 1; i > 0; i--) {
+            growBox(box, 0, binBounds, i * 6);
+            accumulated += binCount[i];
+            rightArea[i] = area(box);
+            rightCount[i] = accumulated;
+        }
+        emptyBox(box, 0);
+        accumulated = 0;
+        float bestCost = Float.MAX_VALUE;
+        int bestSplit = -1;
+        for (int i = 1; i < SAH_BINS; i++) {
+            growBox(box, 0, binBounds, (i - 1) * 6);
+            accumulated += binCount[i - 1];
+            if (accumulated == 0 || rightCount[i] == 0) continue;
+            float cost = area(box) * accumulated + rightArea[i] * rightCount[i];
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestSplit = i;
+            }
+        }
+        float parentArea = area(buildBounds.items, node * 6);
+        float splitCost = TRAVERSAL_COST + bestCost / Math.max(parentArea, 1e-12f);
+        if (bestSplit < 0 || (splitCost >= count && count <= FORCED_SPLIT)) return node;
+        
+        // Partition in place around the chosen bin boundary
+        int mid = start;
+        for (int k = start; k < end; k++) {
+            if (binOf(order[k], axis, cMin[axis], binScale) < bestSplit) {
+                int swap = order[mid];
+                order[mid] = order[k];
+                order[k] = swap;
+                mid++;
+            }
+        }
+        
+        buildNode(start, mid, depth + 1); // Left child is node + 1
+        int right = buildNode(mid, end, depth + 1);
+        buildFirst.set(node, right);
+        buildSize.set(node, 0);
+        return node;
+    }
+    
+    private int binOf(int primitive, int axis, float min, float scale) {
+        return Math.min(SAH_BINS - 1, (int) ((centroids[primitive * 3 + axis] - min) * scale));
+    }
+    
+    private static void emptyBox(float[] box, int o) {
+        box[o] = box[o + 1] = box[o + 2] = Float.MAX_VALUE;
+        box[o + 3] = box[o + 4] = box[o + 5] = -Float.MAX_VALUE;
+    }
+    
+    private static void growBox(float[] box, int o, float[] other, int p) {
+        for (int axis = 0; axis < 3; axis++) {
+            box[o + axis] = Math.min(box[o + axis], other[p + axis]);
+            box[o + 3 + axis] = Math.max(box[o + 3 + axis], other[p + 3 + axis]);
+        }
+    }
+    
+    private static float area(float[] box) {
+        return area(box, 0);
+    }
+    
+    private static float area(float[] box, int o) {
+        float dx = box[o + 3] - box[o], dy = box[o + 4] - box[o + 1], dz = box[o + 5] - box[o + 2];
+        if (dx < 0f || dy < 0f || dz < 0f) return 0f;
+        return dx * dy + dy * dz + dz * dx;
+    }
+    
+    /**
+     * Closest hit along a ray
+     * @param dx Ray direction (unit length)
+     * @return True if something was hit within maxDistance
+     */
+    public boolean raycast(float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance, Hit hit) {
+        return cast(ox, oy, oz, dx, dy, dz, 0f, maxDistance, false, hit);
+    }
+    
+    /**
+     * Closest hit between two points
+     */
+    public boolean segmentCast(Vector3 from, Vector3 to, Hit hit) {
+        float dx = to.x - from.x, dy = to.y - from.y, dz = to.z - from.z;
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length < 1e-6f) return false;
+        return cast(from.x, from.y, from.z, dx / length, dy / length, dz / length, 0f, length, false, hit);
+    }
+    
+    /**
+     * Whether anything lies between two points (stops at the first hit, cheapest for visibility)
+     */
+    public boolean isBlocked(float ax, float ay, float az, float bx, float by, float bz) {
+        float dx = bx - ax, dy = by - ay, dz = bz - az;
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length < 1e-6f) return false;
+        return cast(ax, ay, az, dx / length, dy / length, dz / length, 0f, length, true, null);
+    }
+    
+    /**
+     * First contact of a sphere swept along a ray (camera collision, thick picking)
+     * @param dx Sweep direction (unit length)
+     */
+    public boolean sphereCast(float ox, float oy, float oz, float dx, float dy, float dz, float radius, float maxDistance, Hit hit) {
+        return cast(ox, oy, oz, dx, dy, dz, radius, maxDistance, false, hit);
+    }
+    
+    private boolean cast(float ox, float oy, float oz, float dx, float dy, float dz, float radius, float maxDistance,
+                         boolean anyHit, Hit hit) {
+        if (nodeCount == 0) return false;
+        float invX = 1f / dx, invY = 1f / dy, invZ = 1f / dz;
+        float best = maxDistance;
+        closestPrimitive = -1;
+        
+        int top = 0;
+        float rootDistance = box(0, ox, oy, oz, invX, invY, invZ, radius, best);
+        if (rootDistance == Float.POSITIVE_INFINITY) return false;
+        stack[top] = 0;
+        stackDistance[top++] = rootDistance;
+        while (top > 0) {
+            top--;
+            if (stackDistance[top] > best) continue; // Something nearer was found since this was pushed
+            int node = stack[top];
+            int size = nodeSize[node];
+            if (size > 0) {
+                for (int p = nodeFirst[node], end = p + size; p < end; p++) {
+                    float t = kinds[p] == TRIANGLE
+                            ? triangle(p, ox, oy, oz, dx, dy, dz, radius, best)
+                            : capsule(p, ox, oy, oz, dx, dy, dz, radius, best);
+                    if (t < best) {
+                        best = t;
+                        closestPrimitive = p;
+                        if (anyHit) return true;
+                    }
+                }
+                continue;
+            }
+            // Visit the nearer child first
+            int near = node + 1;
+            int far = nodeFirst[node];
+            float nearDistance = box(near, ox, oy, oz, invX, invY, invZ, radius, best);
+            float farDistance = box(far, ox, oy, oz, invX, invY, invZ, radius, best);
+            if (farDistance < nearDistance) {
+                int swap = near;
+                near = far;
+                far = swap;
+                float swapDistance = nearDistance;
+                nearDistance = farDistance;
+                farDistance = swapDistance;
+            }
+            if (farDistance != Float.POSITIVE_INFINITY) {
+                stack[top] = far;
+                stackDistance[top++] = farDistance;
+            }
+            if (nearDistance != Float.POSITIVE_INFINITY) {
+                stack[top] = near;
+                stackDistance[top++] = nearDistance;
+            }
+        }
+        if (closestPrimitive < 0) return false;
+        if (hit != null) {
+            fillHit(hit, ox, oy, oz, dx, dy, dz, best);
+        }
+        return true;
+    }
+    
+    /**
+     * Entry distance into a node's box grown by the radius, or infinity if missed within maxDistance
+     * (NaN from a zero direction component against a slab face compares false and is ignored)
+     */
+    private float box(int node, float ox, float oy, float oz, float invX, float invY, float invZ, float radius, float maxDistance) {
+        int b = node * 6;
+        float near = 0f, far = maxDistance;
+        float t1 = (nodeBounds[b] - radius - ox) * invX, t2 = (nodeBounds[b + 3] + radius - ox) * invX;
+        if (t1 > t2) { float t = t1; t1 = t2; t2 = t; }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+        t1 = (nodeBounds[b + 1] - radius - oy) * invY;
+        t2 = (nodeBounds[b + 4] + radius - oy) * invY;
+        if (t1 > t2) { float t = t1; t1 = t2; t2 = t; }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+        t1 = (nodeBounds[b + 2] - radius - oz) * invZ;
+        t2 = (nodeBounds[b + 5] + radius - oz) * invZ;
+        if (t1 > t2) { float t = t1; t1 = t2; t2 = t; }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+        return near <= far ? near : Float.POSITIVE_INFINITY;
+    }
+    
+    /**
+     * Ray (or swept sphere) against a triangle; infinity if missed within maxDistance
+     * A swept sphere hits the face pushed out by the radius towards the ray, or one of the edges as capsules.
+     */
+    private float triangle(int p, float ox, float oy, float oz, float dx, float dy, float dz, float radius, float maxDistance) {
+        int o = p * FLOATS_PER_PRIMITIVE;
+        float[] v = primitives;
+        float e1x = v[o + 3] - v[o], e1y = v[o + 4] - v[o + 1], e1z = v[o + 5] - v[o + 2];
+        float e2x = v[o + 6] - v[o], e2y = v[o + 7] - v[o + 1], e2z = v[o + 8] - v[o + 2];
+        float shiftX = 0f, shiftY = 0f, shiftZ = 0f;
+        if (radius > 0f) {
+            float nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+            float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length > 1e-12f) {
+                float s = (nx * dx + ny * dy + nz * dz > 0f ? -radius : radius) / length; // Towards the ray
+                shiftX = nx * s;
+                shiftY = ny * s;
+                shiftZ = nz * s;
+            }
+        }
+        // Moller-Trumbore
+        float t = Float.POSITIVE_INFINITY;
+        float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        float det = e1x * px + e1y * py + e1z * pz;
+        if (det > 1e-12f || det < -1e-12f) {
+            float inv = 1f / det;
+            float sx = ox - v[o] - shiftX, sy = oy - v[o + 1] - shiftY, sz = oz - v[o + 2] - shiftZ;
+            float u = (sx * px + sy * py + sz * pz) * inv;
+            if (u >= 0f && u <= 1f) {
+                float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+                float w = (dx * qx + dy * qy + dz * qz) * inv;
+                if (w >= 0f && u + w <= 1f) {
+                    float hitT = (e2x * qx + e2y * qy + e2z * qz) * inv;
+                    if (hitT >= 0f && hitT < maxDistance) t = hitT;
+                }
+            }
+        }
+        if (radius > 0f) {
+            float limit = Math.min(t, maxDistance);
+            t = Math.min(t, segment(v[o], v[o + 1], v[o + 2], v[o + 3], v[o + 4], v[o + 5], radius, ox, oy, oz, dx, dy, dz, limit));
+            t = Math.min(t, segment(v[o + 3], v[o + 4], v[o + 5], v[o + 6], v[o + 7], v[o + 8], radius, ox, oy, oz, dx, dy, dz, limit));
+            t = Math.min(t, segment(v[o + 6], v[o + 7], v[o + 8], v[o], v[o + 1], v[o + 2], radius, ox, oy, oz, dx, dy, dz, limit));
+        }
+        return t;
+    }
+    
+    private float capsule(int p, float ox, float oy, float oz, float dx, float dy, float dz, float radius, float maxDistance) {
+        int o = p * FLOATS_PER_PRIMITIVE;
+        float[] v = primitives;
+        return segment(v[o], v[o + 1], v[o + 2], v[o + 3], v[o + 4], v[o + 5], v[o + 6] + radius, ox, oy, oz, dx, dy, dz, maxDistance);
+    }
+    
+    /**
+     * Ray against a capsule: the side cylinder first, then whichever end cap is nearer
+     */
+    private static float segment(float ax, float ay, float az, float bx, float by, float bz, float r,
+                                 float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance) {
+        float bax = bx - ax, bay = by - ay, baz = bz - az;
+        float oax = ox - ax, oay = oy - ay, oaz = oz - az;
+        float baba = bax * bax + bay * bay + baz * baz;
+        float bard = bax * dx + bay * dy + baz * dz;
+        float a = baba - bard * bard;
+        if (baba > 1e-12f && a > 1e-12f) {
+            float baoa = bax * oax + bay * oay + baz * oaz;
+            float rdoa = dx * oax + dy * oay + dz * oaz;
+            float oaoa = oax * oax + oay * oay + oaz * oaz;
+            float b = baba * rdoa - baoa * bard;
+            float c = baba * oaoa - baoa * baoa - r * r * baba;
+            float h = b * b - a * c;
+            if (h < 0f) return Float.POSITIVE_INFINITY;
+            float t = (-b - (float) Math.sqrt(h)) / a;
+            float y = baoa + t * bard;
+            if (y > 0f && y < baba) return t >= 0f && t < maxDistance ? t : Float.POSITIVE_INFINITY;
+            // Outside the side: the cap on that end
+            return y <= 0f
+                    ? sphere(ax, ay, az, r, ox, oy, oz, dx, dy, dz, maxDistance)
+                    : sphere(bx, by, bz, r, ox, oy, oz, dx, dy, dz, maxDistance);
+        }
+        // A sphere, or a ray along the axis: only the caps can be hit first
+        return Math.min(sphere(ax, ay, az, r, ox, oy, oz, dx, dy, dz, maxDistance),
+                sphere(bx, by, bz, r, ox, oy, oz, dx, dy, dz, maxDistance));
+    }
+    
+    private static float sphere(float cx, float cy, float cz, float r,
+                                float ox, float oy, float oz, float dx, float dy, float dz, float maxDistance) {
+        float ocx = ox - cx, ocy = oy - cy, ocz = oz - cz;
+        float b = ocx * dx + ocy * dy + ocz * dz;
+        float c = ocx * ocx + ocy * ocy + ocz * ocz - r * r;
+        float h = b * b - c;
+        if (h < 0f) return Float.POSITIVE_INFINITY;
+        float t = -b - (float) Math.sqrt(h);
+        return t >= 0f && t < maxDistance ? t : Float.POSITIVE_INFINITY;
+    }
+    
+    private void fillHit(Hit hit, float ox, float oy, float oz, float dx, float dy, float dz, float distance) {
+        int p = closestPrimitive;
+        int o = p * FLOATS_PER_PRIMITIVE;
+        float[] v = primitives;
+        hit.distance = distance;
+        hit.primitive = p;
+        hit.kind = kinds[p];
+        hit.point.set(ox + dx * distance, oy + dy * distance, oz + dz * distance);
+        if (kinds[p] == TRIANGLE) {
+            float e1x = v[o + 3] - v[o], e1y = v[o + 4] - v[o + 1], e1z = v[o + 5] - v[o + 2];
+            float e2x = v[o + 6] - v[o], e2y = v[o + 7] - v[o + 1], e2z = v[o + 8] - v[o + 2];
+            hit.normal.set(e1y * e2z - e1z * e2y, e1z * e2x - e1x * e2z, e1x * e2y - e1y * e2x).nor();
+            if (hit.normal.x * dx + hit.normal.y * dy + hit.normal.z * dz > 0f) hit.normal.scl(-1f);
+        } else {
+            // Away from the nearest point on the capsule's axis
+            tmp.set(v[o + 3] - v[o], v[o + 4] - v[o + 1], v[o + 5] - v[o + 2]);
+            float length2 = tmp.len2();
+            float t = length2 > 1e-12f
+                    ? Math.max(0f, Math.min(1f, ((hit.point.x - v[o]) * tmp.x + (hit.point.y - v[o + 1]) * tmp.y
+                            + (hit.point.z - v[o + 2]) * tmp.z) / length2))
+                    : 0f;
+            hit.normal.set(hit.point).sub(v[o] + tmp.x * t, v[o + 1] + tmp.y * t, v[o + 2] + tmp.z * t).nor();
+        }
+    }
+    
+    public int getPrimitiveCount() {
+        return primitiveCount;
+    }
+    
+    public int getNodeCount() {
+        return nodeCount;
+    }
+}
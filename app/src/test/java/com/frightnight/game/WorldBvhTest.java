@@ -0,0 +1,261 @@
+package com.frightnight.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.badlogic.gdx.math.Vector3;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * WorldBvh queries against a linear scan over the same primitives
+ * The reference doesn't share any narrow-phase code with the BVH: it marches along the ray by the
+ * exact distance to each primitive (sphere tracing), which can never step past the first contact.
+ */
+public class WorldBvhTest {
+    
+    private static final int PRIMITIVES = 600;
+    private static final int QUERIES = 400;
+    private static final float MAX_DISTANCE = 150f;
+    private static final float TOLERANCE = 2e-3f;
+    private static final double CONTACT = 1e-5;    // Reference: this close counts as touching
+    private static final int MARCH_STEPS = 20000;  // Reference: grazing rays that take longer are skipped
+    
+    // Reference copy: kind, then a, b, c (triangle) or a, b, radius (capsule)
+    private final int[] kinds = new int[PRIMITIVES];
+    private final double[][] data = new double[PRIMITIVES][];
+    private WorldBvh bvh;
+    private Random random;
+    
+    @Before
+    public void buildWorld() {
+        random = new Random(48);
+        WorldBvh.Builder builder = new WorldBvh.Builder();
+        for (int i = 0; i < PRIMITIVES; i++) {
+            float x = random.nextFloat() * 200f - 100f;
+            float y = random.nextFloat() * 20f;
+            float z = random.nextFloat() * 200f - 100f;
+            if (i % 2 == 0) {
+                float bx = x + random.nextFloat() * 8f - 4f, by = y + random.nextFloat() * 2f, bz = z + random.nextFloat() * 8f - 4f;
+                float cx = x + random.nextFloat() * 8f - 4f, cy = y + random.nextFloat() * 2f, cz = z + random.nextFloat() * 8f - 4f;
+                builder.addTriangle(x, y, z, bx, by, bz, cx, cy, cz);
+                kinds[i] = WorldBvh.TRIANGLE;
+                data[i] = new double[] {x, y, z, bx, by, bz, cx, cy, cz};
+            } else {
+                // Every other capsule is a sphere (both ends equal)
+                float bx = i % 4 == 1 ? x : x + random.nextFloat() * 2f - 1f;
+                float by = i % 4 == 1 ? y : y + random.nextFloat() * 6f;
+                float bz = i % 4 == 1 ? z : z + random.nextFloat() * 2f - 1f;
+                float radius = 0.2f + random.nextFloat();
+                builder.addCapsule(x, y, z, bx, by, bz, radius);
+                kinds[i] = WorldBvh.CAPSULE;
+                data[i] = new double[] {x, y, z, bx, by, bz, radius};
+            }
+        }
+        bvh = builder.build();
+    }
+    
+    @Test
+    public void buildsEveryPrimitive() {
+        assertEquals(PRIMITIVES, bvh.getPrimitiveCount());
+        assertTrue(bvh.getNodeCount() > 1);
+    }
+    
+    @Test
+    public void raycastMatchesLinearScan() {
+        WorldBvh.Hit hit = new WorldBvh.Hit();
+        Vector3 origin = new Vector3();
+        Vector3 direction = new Vector3();
+        int hits = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            if (!randomRay(q, origin, direction, 0f)) continue;
+            double expected = firstContact(origin, direction, 0.0, MAX_DISTANCE);
+            if (Double.isNaN(expected)) continue;
+            boolean found = bvh.raycast(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, MAX_DISTANCE, hit);
+            assertAgrees("raycast " + q, expected, found, hit.distance);
+            if (found) {
+                hits++;
+                assertOnRay(origin, direction, hit);
+            }
+        }
+        assertTrue("too few hits to mean anything: " + hits, hits > QUERIES / 20);
+    }
+    
+    @Test
+    public void segmentCastMatchesLinearScan() {
+        WorldBvh.Hit hit = new WorldBvh.Hit();
+        Vector3 from = new Vector3();
+        Vector3 direction = new Vector3();
+        Vector3 to = new Vector3();
+        for (int q = 0; q < QUERIES; q++) {
+            if (!randomRay(q, from, direction, 0f)) continue;
+            float length = 5f + random.nextFloat() * 80f;
+            to.set(direction).scl(length).add(from);
+            double expected = firstContact(from, direction, 0.0, length);
+            if (Double.isNaN(expected)) continue;
+            boolean found = bvh.segmentCast(from, to, hit);
+            assertAgrees("segmentCast " + q, expected, found, hit.distance);
+        }
+    }
+    
+    @Test
+    public void isBlockedMatchesLinearScan() {
+        Vector3 from = new Vector3();
+        Vector3 direction = new Vector3();
+        for (int q = 0; q < QUERIES; q++) {
+            if (!randomRay(q, from, direction, 0f)) continue;
+            float length = 5f + random.nextFloat() * 80f;
+            double expected = firstContact(from, direction, 0.0, length);
+            if (Double.isNaN(expected)) continue;
+            boolean blocked = bvh.isBlocked(from.x, from.y, from.z,
+                    from.x + direction.x * length, from.y + direction.y * length, from.z + direction.z * length);
+            assertEquals("isBlocked " + q, expected != Double.POSITIVE_INFINITY, blocked);
+        }
+    }
+    
+    @Test
+    public void sphereCastMatchesLinearScan() {
+        WorldBvh.Hit hit = new WorldBvh.Hit();
+        Vector3 origin = new Vector3();
+        Vector3 direction = new Vector3();
+        int hits = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            float radius = 0.1f + random.nextFloat() * 1.5f;
+            if (!randomRay(q, origin, direction, radius)) continue;
+            double expected = firstContact(origin, direction, radius, MAX_DISTANCE);
+            if (Double.isNaN(expected)) continue;
+            boolean found = bvh.sphereCast(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, radius, MAX_DISTANCE, hit);
+            assertAgrees("sphereCast " + q, expected, found, hit.distance);
+            if (found) hits++;
+        }
+        assertTrue("too few hits to mean anything: " + hits, hits > QUERIES / 20);
+    }
+    
+    @Test
+    public void emptyWorldHitsNothing() {
+        WorldBvh empty = new WorldBvh.Builder().build();
+        WorldBvh.Hit hit = new WorldBvh.Hit();
+        assertFalse(empty.raycast(0f, 10f, 0f, 0f, -1f, 0f, MAX_DISTANCE, hit));
+        assertFalse(empty.sphereCast(0f, 10f, 0f, 0f, -1f, 0f, 1f, MAX_DISTANCE, hit));
+        assertFalse(empty.isBlocked(0f, 10f, 0f, 0f, -10f, 0f));
+    }
+    
+    /**
+     * A ray from around the world: every seventh points straight down, like the lightning probes, and
+     * every other one is aimed at a primitive so plenty of queries hit something
+     * @return False if it starts inside something (queries only report surfaces entered from outside)
+     */
+    private boolean randomRay(int q, Vector3 origin, Vector3 direction, float radius) {
+        origin.set(random.nextFloat() * 220f - 110f, random.nextFloat() * 30f - 5f, random.nextFloat() * 220f - 110f);
+        if (q % 7 == 0) {
+            direction.set(0f, -1f, 0f);
+        } else if (q % 2 == 0) {
+            // At the middle of the primitive, never at an edge the ray would only graze
+            int target = random.nextInt(PRIMITIVES);
+            double[] v = data[target];
+            if (kinds[target] == WorldBvh.TRIANGLE) {
+                direction.set((float) (v[0] + v[3] + v[6]) / 3f, (float) (v[1] + v[4] + v[7]) / 3f, (float) (v[2] + v[5] + v[8]) / 3f);
+            } else {
+                direction.set((float) (v[0] + v[3]) / 2f, (float) (v[1] + v[4]) / 2f, (float) (v[2] + v[5]) / 2f);
+            }
+            direction.sub(origin).nor();
+        } else {
+            direction.set(random.nextFloat() * 2f - 1f, random.nextFloat() * 2f - 1f, random.nextFloat() * 2f - 1f).nor();
+        }
+        for (int i = 0; i < PRIMITIVES; i++) {
+            if (distance(i, origin.x, origin.y, origin.z) - radius <= CONTACT) return false;
+        }
+        return true;
+    }
+    
+    private static void assertAgrees(String query, double expected, boolean found, float distance) {
+        assertEquals(query + " hit", expected != Double.POSITIVE_INFINITY, found);
+        if (found) {
+            assertEquals(query + " distance", expected, distance, TOLERANCE * Math.max(1.0, expected));
+        }
+    }
+    
+    private void assertOnRay(Vector3 origin, Vector3 direction, WorldBvh.Hit hit) {
+        assertEquals(origin.x + direction.x * hit.distance, hit.point.x, TOLERANCE);
+        assertEquals(origin.y + direction.y * hit.distance, hit.point.y, TOLERANCE);
+        assertEquals(origin.z + direction.z * hit.distance, hit.point.z, TOLERANCE);
+        assertEquals(1f, hit.normal.len(), TOLERANCE);
+        assertTrue("normal faces the ray", hit.normal.dot(direction) <= TOLERANCE);
+    }
+    
+    /**
+     * Linear scan: first contact over all primitives, infinity for none, NaN if a grazing ray didn't settle
+     */
+    private double firstContact(Vector3 origin, Vector3 direction, double radius, double maxDistance) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < PRIMITIVES; i++) {
+            double t = march(i, origin, direction, radius, Math.min(best, maxDistance));
+            if (Double.isNaN(t)) return Double.NaN;
+            best = Math.min(best, t);
+        }
+        return best;
+    }
+    
+    /**
+     * Sphere tracing against one primitive: step by the distance left to its surface
+     */
+    private double march(int i, Vector3 origin, Vector3 direction, double radius, double maxDistance) {
+        double t = 0.0;
+        for (int step = 0; step < MARCH_STEPS; step++) {
+            double x = origin.x + direction.x * t, y = origin.y + direction.y * t, z = origin.z + direction.z * t;
+            double gap = distance(i, x, y, z) - radius;
+            if (gap <= CONTACT) return t;
+            t += gap;
+            if (t > maxDistance) return Double.POSITIVE_INFINITY;
+        }
+        return Double.NaN;
+    }
+    
+    private double distance(int i, double x, double y, double z) {
+        double[] d = data[i];
+        if (kinds[i] == WorldBvh.CAPSULE) {
+            return segmentDistance(d[0], d[1], d[2], d[3], d[4], d[5], x, y, z) - d[6];
+        }
+        return triangleDistance(d, x, y, z);
+    }
+    
+    private static double segmentDistance(double ax, double ay, double az, double bx, double by, double bz,
+                                          double x, double y, double z) {
+        double ex = bx - ax, ey = by - ay, ez = bz - az;
+        double length2 = ex * ex + ey * ey + ez * ez;
+        double t = length2 > 0.0 ? ((x - ax) * ex + (y - ay) * ey + (z - az) * ez) / length2 : 0.0;
+        t = Math.max(0.0, Math.min(1.0, t));
+        double px = ax + ex * t - x, py = ay + ey * t - y, pz = az + ez * t - z;
+        return Math.sqrt(px * px + py * py + pz * pz);
+    }
+    
+    /**
+     * Distance to a triangle: to its plane if the projection lands inside, otherwise to the nearest edge
+     */
+    private static double triangleDistance(double[] v, double x, double y, double z) {
+        double e1x = v[3] - v[0], e1y = v[4] - v[1], e1z = v[5] - v[2];
+        double e2x = v[6] - v[0], e2y = v[7] - v[1], e2z = v[8] - v[2];
+        double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+        double n2 = nx * nx + ny * ny + nz * nz;
+        if (n2 > 1e-18) {
+            double plane = ((x - v[0]) * nx + (y - v[1]) * ny + (z - v[2]) * nz) / n2;
+            double px = x - nx * plane, py = y - ny * plane, pz = z - nz * plane;
+            if (inside(v, 0, 3, px, py, pz, nx, ny, nz) && inside(v, 3, 6, px, py, pz, nx, ny, nz)
+                    && inside(v, 6, 0, px, py, pz, nx, ny, nz)) {
+                return Math.abs(plane) * Math.sqrt(n2);
+            }
+        }
+        return Math.min(segmentDistance(v[0], v[1], v[2], v[3], v[4], v[5], x, y, z),
+                Math.min(segmentDistance(v[3], v[4], v[5], v[6], v[7], v[8], x, y, z),
+                        segmentDistance(v[6], v[7], v[8], v[0], v[1], v[2], x, y, z)));
+    }
+    
+    private static boolean inside(double[] v, int a, int b, double px, double py, double pz,
+                                  double nx, double ny, double nz) {
+        double ex = v[b] - v[a], ey = v[b + 1] - v[a + 1], ez = v[b + 2] - v[a + 2];
+        double wx = px - v[a], wy = py - v[a + 1], wz = pz - v[a + 2];
+        return (ey * wz - ez * wy) * nx + (ez * wx - ex * wz) * ny + (ex * wy - ey * wx) * nz >= 0.0;
+    }
+}
@@ -0,0 +1,179 @@
+package com.frightnight.game;
+
+import com.badlogic.gdx.math.Vector3;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * WorldBvh queries over a world shaped like the game's: a 50x50 cell terrain heightfield, a path
+ * strip and 25 trees of trunk, branch and foliage capsules
+ * Each query type runs over a fixed set of rays; linearRaycast is the brute-force baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WorldBvhBenchmark {
+    
+    private static final int GRID = 50;
+    private static final float CELL = 4f;
+    private static final int TREES = 25;
+    private static final int RAYS = 1024; // Power of two, cycled through
+    
+    private WorldBvh bvh;
+    private float[] source;  // The same triangles, for the linear scan and the rebuild
+    private int triangles;
+    private final float[] rays = new float[RAYS * 7]; // Origin, unit direction, length
+    private final WorldBvh.Hit hit = new WorldBvh.Hit();
+    private final Vector3 from = new Vector3();
+    private final Vector3 to = new Vector3();
+    private int next;
+    
+    @Setup
+    public void buildWorld() {
+        Random random = new Random(48);
+        WorldBvh.Builder builder = new WorldBvh.Builder();
+        source = new float[(GRID * GRID * 2 + 200) * 9];
+        
+        // Terrain: rolling hills, two triangles per cell
+        float half = GRID * CELL / 2f;
+        for (int z = 0; z < GRID; z++) {
+            for (int x = 0; x < GRID; x++) {
+                float x0 = x * CELL - half, z0 = z * CELL - half, x1 = x0 + CELL, z1 = z0 + CELL;
+                triangle(builder, x0, height(x0, z0), z0, x1, height(x1, z0), z0, x1, height(x1, z1), z1);
+                triangle(builder, x0, height(x0, z0), z0, x1, height(x1, z1), z1, x0, height(x0, z1), z1);
+            }
+        }
+        // Path: a strip of 100 sections winding across the middle
+        for (int s = 0; s < 100; s++) {
+            float x0 = -60f + s * 1.2f, x1 = x0 + 1.2f;
+            float z0 = (float) Math.sin(x0 * 0.05f) * 20f, z1 = (float) Math.sin(x1 * 0.05f) * 20f;
+            triangle(builder, x0, height(x0, z0 - 1.25f) + 0.06f, z0 - 1.25f, x1, height(x1, z1 - 1.25f) + 0.06f, z1 - 1.25f,
+                    x0, height(x0, z0 + 1.25f) + 0.06f, z0 + 1.25f);
+            triangle(builder, x1, height(x1, z1 - 1.25f) + 0.06f, z1 - 1.25f, x1, height(x1, z1 + 1.25f) + 0.06f, z1 + 1.25f,
+                    x0, height(x0, z0 + 1.25f) + 0.06f, z0 + 1.25f);
+        }
+        // Trees: trunk, foliage and ten branches each
+        for (int t = 0; t < TREES; t++) {
+            float x = random.nextFloat() * 140f - 70f, z = random.nextFloat() * 140f - 70f, y = height(x, z);
+            float tall = 5f + random.nextFloat() * 4f;
+            builder.addCapsule(x, y, z, x, y + tall, z, 0.35f);
+            builder.addCapsule(x, y + tall * 0.7f, z, x, y + tall, z, 1.8f);
+            for (int b = 0; b < 10; b++) {
+                float angle = random.nextFloat() * 6.283f, at = y + tall * (0.4f + random.nextFloat() * 0.4f);
+                builder.addCapsule(x, at, z, x + (float) Math.cos(angle) * 2f, at + 1f, z + (float) Math.sin(angle) * 2f, 0.1f);
+            }
+        }
+        bvh = builder.build();
+        
+        // Rays from eye height in all directions, some level, some looking down
+        for (int r = 0; r < RAYS; r++) {
+            float x = random.nextFloat() * 160f - 80f, z = random.nextFloat() * 160f - 80f;
+            float dx = random.nextFloat() * 2f - 1f, dy = -random.nextFloat() * 0.4f, dz = random.nextFloat() * 2f - 1f;
+            float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            int o = r * 7;
+            rays[o] = x;
+            rays[o + 1] = height(x, z) + 1.7f;
+            rays[o + 2] = z;
+            rays[o + 3] = dx / length;
+            rays[o + 4] = dy / length;
+            rays[o + 5] = dz / length;
+            rays[o + 6] = 20f + random.nextFloat() * 60f;
+        }
+    }
+    
+    private static float height(float x, float z) {
+        return (float) (Math.sin(x * 0.05) * Math.cos(z * 0.04) * 6.0 + Math.sin(x * 0.13 + z * 0.11) * 1.5);
+    }
+    
+    private void triangle(WorldBvh.Builder builder, float ax, float ay, float az, float bx, float by, float bz,
+                          float cx, float cy, float cz) {
+        builder.addTriangle(ax, ay, az, bx, by, bz, cx, cy, cz);
+        int o = triangles++ * 9;
+        source[o] = ax; source[o + 1] = ay; source[o + 2] = az;
+        source[o + 3] = bx; source[o + 4] = by; source[o + 5] = bz;
+        source[o + 6] = cx; source[o + 7] = cy; source[o + 8] = cz;
+    }
+    
+    private int nextRay() {
+        next = (next + 1) & (RAYS - 1);
+        return next * 7;
+    }
+    
+    @Benchmark
+    public boolean raycast() {
+        int o = nextRay();
+        return bvh.raycast(rays[o], rays[o + 1], rays[o + 2], rays[o + 3], rays[o + 4], rays[o + 5], 150f, hit);
+    }
+    
+    @Benchmark
+    public boolean segmentCast() {
+        int o = nextRay();
+        from.set(rays[o], rays[o + 1], rays[o + 2]);
+        to.set(rays[o + 3], rays[o + 4], rays[o + 5]).scl(rays[o + 6]).add(from);
+        return bvh.segmentCast(from, to, hit);
+    }
+    
+    @Benchmark
+    public boolean isBlocked() {
+        int o = nextRay();
+        float length = rays[o + 6];
+        return bvh.isBlocked(rays[o], rays[o + 1], rays[o + 2],
+                rays[o] + rays[o + 3] * length, rays[o + 1] + rays[o + 4] * length, rays[o + 2] + rays[o + 5] * length);
+    }
+    
+    @Benchmark
+    public boolean sphereCast() {
+        int o = nextRay();
+        return bvh.sphereCast(rays[o], rays[o + 1], rays[o + 2], rays[o + 3], rays[o + 4], rays[o + 5], 0.4f, 150f, hit);
+    }
+    
+    /**
+     * Baseline: Moller-Trumbore against every terrain and path triangle, no hierarchy (capsules left out,
+     * so this understates the brute-force cost)
+     */
+    @Benchmark
+    public float linearRaycast() {
+        int r = nextRay();
+        float ox = rays[r], oy = rays[r + 1], oz = rays[r + 2], dx = rays[r + 3], dy = rays[r + 4], dz = rays[r + 5];
+        float best = 150f;
+        for (int p = 0; p < triangles; p++) {
+            int o = p * 9;
+            float e1x = source[o + 3] - source[o], e1y = source[o + 4] - source[o + 1], e1z = source[o + 5] - source[o + 2];
+            float e2x = source[o + 6] - source[o], e2y = source[o + 7] - source[o + 1], e2z = source[o + 8] - source[o + 2];
+            float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+            float det = e1x * px + e1y * py + e1z * pz;
+            if (det > -1e-12f && det < 1e-12f) continue;
+            float inv = 1f / det;
+            float sx = ox - source[o], sy = oy - source[o + 1], sz = oz - source[o + 2];
+            float u = (sx * px + sy * py + sz * pz) * inv;
+            if (u < 0f || u > 1f) continue;
+            float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+            float v = (dx * qx + dy * qy + dz * qz) * inv;
+            if (v < 0f || u + v > 1f) continue;
+            float t = (e2x * qx + e2y * qy + e2z * qz) * inv;
+            if (t >= 0f && t < best) best = t;
+        }
+        return best;
+    }
+    
+    /**
+     * Rebuilding the terrain and path part of the tree (done once at load in the game)
+     */
+    @Benchmark
+    public WorldBvh build() {
+        WorldBvh.Builder builder = new WorldBvh.Builder();
+        for (int p = 0; p < triangles; p++) {
+            int o = p * 9;
+            builder.addTriangle(source[o], source[o + 1], source[o + 2], source[o + 3], source[o + 4], source[o + 5],
+                    source[o + 6], source[o + 7], source[o + 8]);
+        }
+        return builder.build();
+    }
+}